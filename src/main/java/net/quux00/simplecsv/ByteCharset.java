@@ -0,0 +1,94 @@
+package net.quux00.simplecsv;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A charset in which the fields of a line can be found on its bytes, without
+ * decoding them: UTF-8 and the single-byte charsets that are ASCII
+ * compatible (ISO-8859-1, windows-1252 and the like).  In these, a byte below
+ * 0x80 is always the ASCII char of the same value, never part of another
+ * char, so ASCII separator, quote and escape chars are found on the bytes
+ * just where they are in the chars.  (Not so in GBK or Big5, say, where the
+ * second byte of a char may be a backslash.)
+ *
+ * Only whitespace, which CsvParser trims and looks past for outer quotes,
+ * takes more than a byte compare: a table of the bytes that are whitespace
+ * for a single-byte charset, and for UTF-8 the ASCII whitespace plus the
+ * three-byte sequences of the other chars Character#isWhitespace is true
+ * for (U+2003 and the like).
+ *
+ * @ThreadSafe
+ */
+final class ByteCharset {
+
+  private static final ByteCharset UTF_8 = new ByteCharset(StandardCharsets.UTF_8, true);
+  private static final ByteCharset ISO_8859_1 = new ByteCharset(StandardCharsets.ISO_8859_1, false);
+
+  final Charset charset;
+  private final boolean utf8;
+  private final boolean[] whitespace = new boolean[256];  // by unsigned byte value
+
+  private ByteCharset(final Charset charset, final boolean utf8) {
+    this.charset = charset;
+    this.utf8 = utf8;
+    for (int b = 0; b < 256; b++) {
+      whitespace[b] = (b < 0x80 || !utf8) &&
+          Character.isWhitespace(new String(new byte[] {(byte) b}, charset).charAt(0));
+    }
+  }
+
+  /**
+   * @return the ByteCharset for charset, or null if fields cannot be found on its bytes
+   */
+  static ByteCharset of(final Charset charset) {
+    if (charset.equals(StandardCharsets.UTF_8)) {
+      return UTF_8;
+    }
+    if (charset.equals(StandardCharsets.ISO_8859_1)) {
+      return ISO_8859_1;
+    }
+    if (ByteLineReader.isAsciiCompatible(charset) &&
+        charset.newEncoder().maxBytesPerChar() == 1.0f && charset.newDecoder().maxCharsPerByte() == 1.0f) {
+      return new ByteCharset(charset, false);
+    }
+    return null;
+  }
+
+  /**
+   * @return the number of bytes of the whitespace char that starts at
+   *         buf[i], or 0 if the char there is not whitespace
+   */
+  int whitespaceAt(final byte[] buf, final int i, final int end) {
+    final int b = buf[i] & 0xff;
+    if (b < 0x80 || !utf8) {
+      return whitespace[b] ? 1 : 0;
+    }
+    return i + 3 <= end && isWhitespace3(buf[i], buf[i + 1], buf[i + 2]) ? 3 : 0;
+  }
+
+  /**
+   * @return the number of bytes of the whitespace char that ends just before
+   *         buf[i], looking no further back than start, or 0 if the char
+   *         there is not whitespace
+   */
+  int whitespaceBefore(final byte[] buf, final int start, final int i) {
+    final int b = buf[i - 1] & 0xff;
+    if (b < 0x80 || !utf8) {
+      return whitespace[b] ? 1 : 0;
+    }
+    return i - 3 >= start && isWhitespace3(buf[i - 3], buf[i - 2], buf[i - 1]) ? 3 : 0;
+  }
+
+  /**
+   * @return true if the bytes are the UTF-8 encoding of a whitespace char
+   *         (all of which outside ASCII take three bytes)
+   */
+  private static boolean isWhitespace3(final byte b0, final byte b1, final byte b2) {
+    if ((b0 & 0xf0) != 0xe0 || (b1 & 0xc0) != 0x80 || (b2 & 0xc0) != 0x80) {
+      return false;
+    }
+    final int cp = (b0 & 0x0f) << 12 | (b1 & 0x3f) << 6 | (b2 & 0x3f);
+    return cp >= 0x800 && Character.isWhitespace(cp);  // below 0x800 is an overlong, malformed form
+  }
+}
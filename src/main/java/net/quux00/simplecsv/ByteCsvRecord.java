@@ -0,0 +1,234 @@
+package net.quux00.simplecsv;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A reusable record that holds the tokens of one CSV line as offsets into
+ * the line's bytes, as read from an InputStream or file, rather than as
+ * chars.  Read one with CsvReader#readNext(ByteCsvRecord).
+ *
+ * When the CsvReader reads bytes in UTF-8 or an ASCII-compatible single-byte
+ * charset, and its parser is one from the CsvParserBuilder that never drops
+ * chars from a token (the default: strictQuotes=false and
+ * retainEscapeChars=true, with ASCII separator, quote and escape chars), the
+ * fields are found on the bytes of the line and nothing is decoded until a
+ * field is asked for.  Then only that field is: getInt, getLong, getDouble
+ * and getBoolean parse the bytes without decoding them at all, and get(int)
+ * makes a String from an ASCII field with a plain byte copy.  The fields are
+ * those CsvParser gives for the line.
+ *
+ * Other readers and parsers decode and parse the line as readNext(LazyCsvRecord)
+ * does and fill the record with the Strings of the fields.
+ *
+ * The views returned by field(int) are only valid until the record is used to
+ * parse the next line.
+ *
+ * @NotThreadSafe
+ */
+public class ByteCsvRecord {
+
+  byte[] buf;
+  int[] starts;
+  int[] ends;
+  private int size;
+  ByteCharset charset;    // of the line in buf
+  boolean ascii;          // whether all of the line in buf is ASCII
+  private String[] strings;  // the fields, when they were parsed from chars rather than bytes
+  boolean decoded;  // whether the fields are the strings, not spans of buf
+
+  public ByteCsvRecord() {
+    this(CsvRecord.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity  initial number of fields the record can hold before growing
+   */
+  public ByteCsvRecord(int capacity) {
+    buf = new byte[CsvParser.INITIAL_READ_SIZE];
+    starts = new int[Math.max(capacity, 1)];
+    ends = new int[starts.length];
+  }
+
+  /**
+   * @return the number of fields in the record
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of chars in field i (decoding it if it is not ASCII)
+   */
+  public int length(int i) {
+    checkIndex(i);
+    if (decoded) {
+      return strings[i].length();
+    }
+    return isAscii(i) ? ends[i] - starts[i] : get(i).length();
+  }
+
+  /**
+   * @return a view of field i, backed by the record's bytes if the field is
+   *         ASCII, else the decoded field
+   */
+  public CharSequence field(int i) {
+    checkIndex(i);
+    if (decoded) {
+      return strings[i];
+    }
+    return isAscii(i) ? new FieldView(buf, starts[i], ends[i]) : get(i);
+  }
+
+  /**
+   * @return field i decoded into a new String
+   */
+  public String get(int i) {
+    checkIndex(i);
+    return decoded ? strings[i] : decode(i);
+  }
+
+  /**
+   * @return all fields decoded into new Strings
+   */
+  public String[] toArray() {
+    String[] ary = new String[size];
+    for (int i = 0; i < size; i++) {
+      ary[i] = decoded ? strings[i] : decode(i);
+    }
+    return ary;
+  }
+
+  /**
+   * Parses field i as an int, straight from the bytes for plain decimal
+   * numbers.  Same as Integer.parseInt(get(i)), see LazyCsvRecord#getInt.
+   */
+  public int getInt(int i) {
+    checkIndex(i);
+    if (!decoded) {
+      long v = FieldValues.parseDigits(buf, starts[i], ends[i], 10);
+      if (v != FieldValues.NOT_SIMPLE && v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+        return (int) v;
+      }
+    }
+    return Integer.parseInt(get(i));
+  }
+
+  /**
+   * Parses field i as a long.  Same as Long.parseLong(get(i)), see getInt.
+   */
+  public long getLong(int i) {
+    checkIndex(i);
+    if (!decoded) {
+      long v = FieldValues.parseDigits(buf, starts[i], ends[i], 18);
+      if (v != FieldValues.NOT_SIMPLE) {
+        return v;
+      }
+    }
+    return Long.parseLong(get(i));
+  }
+
+  /**
+   * Parses field i as a double, straight from the bytes for decimal numbers
+   * of up to 15 significant digits.  Same as Double.parseDouble(get(i)), see
+   * LazyCsvRecord#getDouble.
+   */
+  public double getDouble(int i) {
+    checkIndex(i);
+    if (!decoded) {
+      double d = FieldValues.parseSimpleDouble(buf, starts[i], ends[i]);
+      if (d == d) {
+        return d;
+      }
+    }
+    return Double.parseDouble(get(i));
+  }
+
+  /**
+   * @return true if field i is "true", ignoring case, as for Boolean.parseBoolean(get(i))
+   */
+  public boolean getBoolean(int i) {
+    checkIndex(i);
+    return decoded ? Boolean.parseBoolean(strings[i]) : FieldValues.isTrue(buf, starts[i], ends[i]);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private String decode(int i) {
+    // an ASCII field is the same in ISO-8859-1, which the JDK copies straight into a compact String
+    return new String(buf, starts[i], ends[i] - starts[i], ascii ? StandardCharsets.ISO_8859_1 : charset.charset);
+  }
+
+  private boolean isAscii(int i) {
+    if (ascii) {
+      return true;
+    }
+    for (int p = starts[i]; p < ends[i]; p++) {
+      if (buf[p] < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void checkIndex(int i) {
+    if (i >= size) {
+      throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+    }
+  }
+
+
+  /* --------------------------------- */
+  /* ---[ methods for the parsers ]--- */
+  /* --------------------------------- */
+
+  void clear() {
+    size = 0;
+    decoded = false;
+  }
+
+  /**
+   * Makes sure the buffer can hold at least n bytes, discarding its contents if it has to grow.
+   * @return the buffer
+   */
+  byte[] ensureCapacity(int n) {
+    if (buf.length < n) {
+      buf = new byte[Math.max(n, buf.length * 2)];
+    }
+    return buf;
+  }
+
+  /**
+   * Records a field spanning buf[start, end).
+   */
+  void addField(int start, int end) {
+    if (end < start) {
+      throw new StringIndexOutOfBoundsException(end - start);
+    }
+    if (size == starts.length) {
+      starts = Arrays.copyOf(starts, size * 2);
+      ends = Arrays.copyOf(ends, size * 2);
+    }
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  /**
+   * Adds a field parsed from the decoded line, for the readers and parsers
+   * that do not work on bytes.
+   */
+  void append(String tok) {
+    if (!decoded) {
+      decoded = true;
+      size = 0;
+    }
+    if (strings == null || size == strings.length) {
+      strings = strings == null ? new String[starts.length] : Arrays.copyOf(strings, size * 2);
+    }
+    strings[size++] = tok;
+  }
+}
@@ -0,0 +1,242 @@
+package net.quux00.simplecsv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * LineSource that reads lines straight from the bytes of an InputStream rather
+ * than through an InputStreamReader and BufferedReader.
+ *
+ * The line terminators are found with a SwarScanner, eight bytes at a time,
+ * which at the same time checks whether any byte of the line has its high bit
+ * set.  A line that is pure ASCII is copied into a String as is (an ASCII byte
+ * is the same char in every ASCII-compatible charset), so only lines with other
+ * chars in them are run through the charset's decoder.
+ *
+ * Lines can also be decoded straight into the buffer of a LazyCsvRecord for
+ * the char[] scanning parsers (see readLine(LazyCsvRecord)), so that the only
+ * copy of the line's bytes is the one the parser works on, or copied as bytes
+ * into a ByteCsvRecord for the parsers that find the fields on the bytes (see
+ * readLine(ByteCsvRecord)), so that only the fields asked for are decoded.
+ *
+ * Lines end at "\n", "\r" or "\r\n", as with BufferedReader#readLine.  Only
+ * usable with charsets for which isAsciiCompatible() is true.
+ *
+ * @NotThreadSafe
+ */
+final class ByteLineReader implements LineSource.IntoBytes {
+
+  static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private static final byte LF = '\n';
+  private static final byte CR = '\r';
+  private static final SwarScanner LINE_ENDS = new SwarScanner(LF, CR);
+
+  private final InputStream in;
+  private final Charset charset;
+  private byte[] buf;
+  private ByteBuffer words;
+  private int pos;    // start of the unread bytes in buf
+  private int limit;  // end of the unread bytes in buf
+  private boolean eof;
+  private boolean skipLF;  // the last line ended with "\r", so skip a "\n" right after it
+  private boolean lineIsAscii;  // set by nextLine()
+  private final CharsetDecoder decoder;
+  private final ByteCharset byteCharset;
+  private final CharsetDecoder asciiDecoder = StandardCharsets.ISO_8859_1.newDecoder();
+
+  ByteLineReader(final InputStream in, final Charset charset) {
+    this(in, charset, DEFAULT_BUFFER_SIZE);
+  }
+
+  ByteLineReader(final InputStream in, final Charset charset, final int bufferSize) {
+    if (!isAsciiCompatible(charset)) {
+      throw new IllegalArgumentException("Charset is not ASCII compatible: " + charset);
+    }
+    this.in = in;
+    this.charset = charset;
+    this.byteCharset = ByteCharset.of(charset);
+    this.decoder = charset.newDecoder().
+        onMalformedInput(CodingErrorAction.REPLACE).
+        onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.buf = new byte[Math.max(bufferSize, 16)];
+    this.words = SwarScanner.words(buf);
+  }
+
+  /**
+   * @return true if the charset decodes each byte 0-127 on its own to the char of the same
+   *         value (e.g., UTF-8 or ISO-8859-1 but not UTF-16)
+   */
+  static boolean isAsciiCompatible(final Charset charset) {
+    if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) ||
+        charset.equals(StandardCharsets.ISO_8859_1)) {
+      return true;
+    }
+    byte[] ascii = new byte[128];
+    for (int i = 0; i < ascii.length; i++) {
+      ascii[i] = (byte) i;
+    }
+    return charset.canEncode() &&
+        new String(ascii, charset).equals(new String(ascii, StandardCharsets.ISO_8859_1));
+  }
+
+  public String readLine() throws IOException {
+    int eol = nextLine();
+    if (eol < 0) {
+      return null;
+    }
+    String ln = lineIsAscii ?
+        new String(buf, pos, eol - pos, StandardCharsets.ISO_8859_1) :
+        new String(buf, pos, eol - pos, charset);
+    consumeLine(eol);
+    return ln;
+  }
+
+  public ByteCharset byteCharset() {
+    return byteCharset;
+  }
+
+  /**
+   * Copies the bytes of the next line into the buffer of the record, for a
+   * parser that finds the fields on them.
+   */
+  public int readLine(final ByteCsvRecord record) throws IOException {
+    int eol = nextLine();
+    if (eol < 0) {
+      return -1;
+    }
+    final int len = eol - pos;
+    final byte[] bytes = record.ensureCapacity(len + 3);
+    System.arraycopy(buf, pos, bytes, 1, len);
+    record.charset = byteCharset;
+    record.ascii = lineIsAscii;
+    consumeLine(eol);
+    return len + 1;
+  }
+
+  /**
+   * Decodes the next line straight into the buffer of the record, without
+   * creating a String for it.
+   */
+  public int readLine(final LazyCsvRecord record) throws IOException {
+    int eol = nextLine();
+    if (eol < 0) {
+      return -1;
+    }
+    final int len = eol - pos;
+    // an ASCII line is decoded as ISO-8859-1, the cheapest decoder (a plain widening copy)
+    final CharsetDecoder dec = lineIsAscii ? asciiDecoder : decoder;
+    final char[] cbuf = record.ensureCapacity((int) Math.ceil(len * dec.maxCharsPerByte()) + 3);
+    final CharBuffer out = CharBuffer.wrap(cbuf, 1, cbuf.length - 3);
+    dec.reset();
+    dec.decode(ByteBuffer.wrap(buf, pos, len), out, true);
+    dec.flush(out);
+    final int end = out.position();
+    consumeLine(eol);
+    return end;
+  }
+
+  /**
+   * Finds the end of the next line, reading more input as needed, and sets
+   * lineIsAscii for it.  The line is buf[pos, eol).
+   * @return the index of the line terminator or of the end of the input (eol),
+   *         or -1 if there are no more lines
+   */
+  private int nextLine() throws IOException {
+    if (skipLF) {
+      if (pos == limit) {
+        fill();
+      }
+      if (pos < limit && buf[pos] == LF) {
+        pos++;
+      }
+      skipLF = false;
+    }
+
+    int i = pos;         // no line terminator in buf[pos, i)
+    long highBits = 0;   // high bits of the bytes in buf[pos, i)
+    while (true) {
+      for (; i + 8 <= limit; i += 8) {
+        long word = words.getLong(i);
+        long m = LINE_ENDS.matches(word);
+        if (m != 0) {
+          highBits |= word & SwarScanner.highBitsBefore(m);
+          return endOfLine(i + SwarScanner.firstMatch(m), highBits);
+        }
+        highBits |= word;
+      }
+      for (; i < limit; i++) {
+        byte b = buf[i];
+        if (b == LF || b == CR) {
+          return endOfLine(i, highBits);
+        }
+        highBits |= b;
+      }
+
+      int scanned = i - pos;
+      if (!fill()) {
+        return pos == limit ? -1 : endOfLine(limit, highBits);
+      }
+      i = pos + scanned;
+    }
+  }
+
+  private int endOfLine(final int eol, final long highBits) {
+    lineIsAscii = (highBits & SwarScanner.HIGH_BITS) == 0;
+    return eol;
+  }
+
+  /**
+   * Consumes the line in buf[pos, eol) and the line terminator at eol, if any.
+   */
+  private void consumeLine(final int eol) {
+    if (eol < limit) {
+      skipLF = buf[eol] == CR;
+      pos = eol + 1;
+    } else {
+      pos = eol;
+    }
+  }
+
+  /**
+   * Reads more bytes after the unread bytes, first moving these to the start
+   * of the buffer and growing it if they fill it.
+   * @return false if the end of the input has been reached
+   */
+  private boolean fill() throws IOException {
+    if (eof) {
+      return false;
+    }
+    if (pos > 0) {
+      System.arraycopy(buf, pos, buf, 0, limit - pos);
+      limit -= pos;
+      pos = 0;
+    } else if (limit == buf.length) {
+      byte[] bigger = new byte[buf.length * 2];
+      System.arraycopy(buf, 0, bigger, 0, limit);
+      buf = bigger;
+      words = SwarScanner.words(buf);
+    }
+
+    int n;
+    do {
+      n = in.read(buf, limit, buf.length - limit);
+    } while (n == 0);
+    if (n < 0) {
+      eof = true;
+      return false;
+    }
+    limit += n;
+    return true;
+  }
+
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,537 @@
+package net.quux00.simplecsv;
+
+import java.util.List;
+
+/**
+ * A CsvParser that scans each line as a char[] window using index arithmetic
+ * rather than funneling every char through a StringBuilder.
+ *
+ * The line is copied once into the buffer of a LazyCsvRecord and each token is
+ * worked on in place: characters are only moved when something is dropped from
+ * the token (removed escape chars, chars outside quotes in strictQuotes mode).
+ * Trimming is done by adjusting the token's left/right indexes, which are then
+ * recorded as the field's offsets.  When Strings are wanted, exactly one is
+ * created per token.
+ *
+ * The output is identical to that of CsvParser for all settings.
+ * The CsvParserBuilder returns one of these, or one of the subclasses with a
+ * scan loop specialized for common settings, unless charArrayScanning(false)
+ * is set.
+ *
+ * This parser also does column projection (see CsvParserBuilder#columns):
+ * the chars of unwanted columns are only checked for quotes, escapes and
+ * separators and scanning stops after the last wanted column.
+ *
+ * @ThreadSafe
+ */
+class CharArrayCsvParser extends CsvParser {
+
+  // record used when the caller wants Strings rather than a LazyCsvRecord;
+  // one per thread, as the parser may be shared, dropped after a huge line
+  final ThreadLocal<LazyCsvRecord> scratch = new ThreadLocal<LazyCsvRecord>() {
+    @Override
+    protected LazyCsvRecord initialValue() {
+      return new LazyCsvRecord();
+    }
+  };
+
+  // keepColumns[i] is true if column i is wanted; null means keep all columns
+  private final boolean[] keepColumns;
+  final int lastColumn;
+
+  CharArrayCsvParser(final CsvParserBuilder builder) {
+    super(builder);
+    if (builder.columns == null) {
+      keepColumns = null;
+      lastColumn = Integer.MAX_VALUE;
+    } else {
+      int max = 0;
+      for (int col : builder.columns) {
+        max = Math.max(max, col);
+      }
+      keepColumns = new boolean[max + 1];
+      for (int col : builder.columns) {
+        keepColumns[col] = true;
+      }
+      lastColumn = max;
+    }
+  }
+
+  /**
+   * @return the columns kept by this parser, in ascending order, or null if all are kept
+   */
+  int[] getColumns() {
+    if (keepColumns == null) {
+      return null;
+    }
+    int n = 0;
+    for (boolean keep : keepColumns) {
+      if (keep) n++;
+    }
+    int[] cols = new int[n];
+    for (int i = 0, j = 0; i < keepColumns.length; i++) {
+      if (keepColumns[i]) cols[j++] = i;
+    }
+    return cols;
+  }
+
+  boolean isKept(int col) {
+    return keepColumns == null || (col < keepColumns.length && keepColumns[col]);
+  }
+
+  @Override
+  void parseInto(String ln, List<String> toks) {
+    final LazyCsvRecord record = scratch.get();
+    scan(ln, record);
+    for (int i = 0; i < record.size(); i++) {
+      toks.add(record.get(i));
+    }
+    if (record.buf.length > INITIAL_READ_SIZE * 1024 || record.starts.length > INITIAL_READ_SIZE * 1024) {
+      scratch.remove();  // do not hold on to the buffers of one huge line in every thread
+    }
+  }
+
+  @Override
+  public LazyCsvRecord parseLazy(String ln, LazyCsvRecord record) {
+    if (ln == null) {
+      return null;
+    }
+    scan(ln, record);
+    return record;
+  }
+
+  /**
+   * Copies the line into the record's buffer and records the offsets of each token.
+   * The line is copied to index 1 of the buffer so that there is always a free slot
+   * to write a quote char just before the first token and just after the last
+   * token (see isQuoted).
+   */
+  void scan(String ln, LazyCsvRecord record) {
+    final int end = ln.length() + 1;
+    final char[] buf = record.ensureCapacity(end + 2);
+    ln.getChars(0, ln.length(), buf, 1);
+    scan(record, end);
+  }
+
+  /**
+   * Scans a line that is already in buf[1, end) of the record's buffer, with at
+   * least one free slot after it (see ByteLineReader#readLine(LazyCsvRecord)).
+   */
+  void scan(LazyCsvRecord record, int end) {
+    record.clear();
+    scan(record.buf, end, record);
+  }
+
+  /**
+   * @return true if this parser can find the fields of a line on its bytes,
+   *         with scan(ByteCsvRecord, int): nothing is ever dropped from a
+   *         token while scanning (strictQuotes=false, retainEscapeChars=true),
+   *         all columns are kept and the special chars are all ASCII
+   */
+  boolean scansBytes() {
+    return !strictQuotes && retainEscapeChars && keepColumns == null && !nonAsciiSpecialChars;
+  }
+
+  /**
+   * Scans a line that is in buf[1, end) of the record's byte buffer, with at
+   * least two free slots after it (see ByteLineReader#readLine(ByteCsvRecord)),
+   * the way InPlaceCsvParser scans chars.  The special chars are ASCII and, in
+   * a ByteCharset, no other char has an ASCII byte in it, so the tokens are
+   * the same as for the decoded line.  Only for a parser that scansBytes().
+   */
+  void scan(final ByteCsvRecord record, final int end) {
+    record.clear();
+    final byte[] buf = record.buf;
+    boolean inQuotes = false;
+    boolean inEscape = false;
+    int start = 1;
+
+    for (int r = 1; r < end; r++) {
+      final byte b = buf[r];
+      final byte cls = b < 0 ? ORDINARY : charClasses[b];
+
+      if (cls == QUOTE) {
+        if (!inEscape) {
+          inQuotes = !inQuotes;
+        }
+        inEscape = false;
+
+      } else if (cls == ESCAPE) {
+        inEscape = !inEscape;
+
+      } else if (cls == SEPARATOR && !inQuotes) {
+        endOfToken(record, buf, start, r);
+        inEscape = false;
+        start = r + 1;
+
+      } else {
+        inEscape = false;
+        r = skipOrdinary(buf, r + 1, end) - 1;
+      }
+    }
+
+    checkBalanced(inQuotes);
+    endOfToken(record, buf, start, end);
+  }
+
+  /**
+   * Scans the line in buf[1, end), handling every combination of settings.
+   * The parsers for common settings override this with a loop that only
+   * does the work those settings need.
+   */
+  void scan(final char[] buf, final int end, final LazyCsvRecord record) {
+    boolean inQuotes = false;
+    boolean inEscape = false;
+    int start = 1;  // index of the first char of the current token
+    int w = 1;      // write index: stays equal to the read index until chars get dropped
+    int col = 0;
+    boolean keep = isKept(0);
+
+    for (int r = 1; r < end; r++) {
+      char c = buf[r];
+      byte cls = charClass(c);
+
+      if (!keep) {
+        // unwanted column: only track the quote and escape state to find its end
+        if (cls == QUOTE) {
+          if (!inEscape) {
+            inQuotes = !inQuotes;
+          }
+          inEscape = false;
+        } else if (cls == ESCAPE) {
+          inEscape = !inEscape;
+        } else if (cls == SEPARATOR && !inQuotes) {
+          inEscape = false;
+          start = w = r + 1;
+          keep = isKept(++col);
+        } else {
+          if (!strictQuotes || inQuotes) {
+            inEscape = false;
+          }
+          r = skipOrdinary(buf, r + 1, end) - 1;
+        }
+
+      } else if (cls == QUOTE) {
+        if (strictQuotes) {
+          if (inQuotes) {
+            if (inEscape) {
+              buf[w++] = c;
+            }
+          } else if (w == start) {
+            buf[w++] = c;
+          }
+        } else {
+          buf[w++] = c;
+        }
+        if (!inEscape) {
+          inQuotes = !inQuotes;
+        }
+        inEscape = false;
+
+      } else if (cls == ESCAPE) {
+        inEscape = !inEscape;
+        if (retainEscapeChars && (!strictQuotes || inQuotes)) {
+          buf[w++] = c;
+        }
+
+      } else if (cls == SEPARATOR && !inQuotes) {
+        endOfToken(record, buf, start, w);
+        if (col == lastColumn) {
+          return;  // no wanted columns left on this line
+        }
+        inEscape = false;
+        start = w = r + 1;
+        keep = isKept(++col);
+
+      } else if (!strictQuotes || inQuotes) {
+        buf[w++] = (inEscape && !retainEscapeChars) ? unescape(c) : c;
+        inEscape = false;
+        // the escape state cannot change in the rest of a run of ordinary chars
+        int runEnd = skipOrdinary(buf, r + 1, end);
+        w = moveRun(buf, r + 1, runEnd, w);
+        r = runEnd - 1;
+
+      } else {
+        // strictQuotes: drop the run of ordinary chars outside of quotes
+        r = skipOrdinary(buf, r + 1, end) - 1;
+      }
+    }
+
+    // done parsing the line
+    checkBalanced(inQuotes);
+    if (keep) {
+      endOfToken(record, buf, start, w);
+    }
+  }
+
+
+  /* --------------------------------- */
+  /* ---[ internal helper methods ]--- */
+  /* --------------------------------- */
+
+  void checkBalanced(boolean inQuotes) {
+    if (inQuotes && !allowedUnbalancedQuotes) {
+      throw new IllegalArgumentException("Un-terminated quoted field at end of CSV line");
+    }
+  }
+
+  /**
+   * Moves the chars in buf[from, to) down to w, unless they are already there.
+   * @return the write index after the moved chars
+   */
+  static int moveRun(char[] buf, int from, int to, int w) {
+    if (w != from) {
+      System.arraycopy(buf, from, buf, w, to - from);
+    }
+    return w + to - from;
+  }
+
+  static char unescape(char c) {
+    switch (c) {
+      case 'n': return '\n';
+      case 't': return '\t';
+      case 'r': return '\r';
+      case 'b': return '\b';
+      case 'f': return '\f';
+      default:  return c;
+    }
+  }
+
+  /**
+   * Trims the token following the same rules as CsvParser#trim and records
+   * its final offsets in the record.
+   * @param from index of the first char of the token in the buffer
+   * @param to index one past the last char of the token in the buffer
+   */
+  void endOfToken(LazyCsvRecord record, char[] buf, int from, int to) {
+    // in strictQuotes mode the closing quote is never copied while scanning,
+    // so add it if any chars were kept (see CsvParser#handleEndOfToken)
+    if (strictQuotes && to > from) {
+      buf[to++] = quotechar;
+    }
+
+    final int len = to - from;
+    int left = from;
+    int right = to - 1;
+
+    if (alwaysQuoteOutput) {
+      if (trimWhiteSpace && len >= 2) {
+        left = readLeftWhiteSpace(buf, left, right);
+        right = readRightWhiteSpace(buf, left, right);
+      }
+      if (left > right) {
+        right = left - 1;  // do not quote empty string
+      } else if (!isQuoted(buf, left, right)) {
+        buf[--left] = quotechar;
+        buf[++right] = quotechar;
+      }
+
+    } else if (!retainOuterQuotes) {
+      if (trimWhiteSpace) {
+        if (len >= 2) {
+          left = readLeftWhiteSpace(buf, left, right);
+          right = readRightWhiteSpace(buf, left, right);
+
+          if (left < right && buf[left] == quotechar && buf[right] == quotechar) {
+            left++;
+            right--;
+          }
+
+          left = readLeftWhiteSpace(buf, left, right);
+          right = readRightWhiteSpace(buf, left, right);
+        }
+      } else {
+        right = pluckOuterQuotes(buf, from, to) - 1;
+      }
+
+    } else if (trimWhiteSpace && len >= 2) {
+      left = readLeftWhiteSpace(buf, left, right);
+      right = readRightWhiteSpace(buf, left, right);
+    }
+    record.addField(left, right + 1);
+  }
+
+  /**
+   * Same check as CsvParser#ensureQuoted: are there already edge quotes, ignoring spaces?
+   * If not, the caller writes the missing quote chars into the buffer slots just outside
+   * of [left, right].  Those slots are either trimmed whitespace of this token, an already
+   * consumed separator (which the neighboring token may also set to the quote char) or one
+   * of the spare slots at either end of the buffer.
+   */
+  boolean isQuoted(char[] buf, int left, int right) {
+    return buf[readLeftWhiteSpace(buf, left, right)] == quotechar &&
+        buf[readRightWhiteSpace(buf, left, right)] == quotechar;
+  }
+
+  /**
+   * Removes the outer quotes (ignoring whitespace on the edges) of the token
+   * by shifting the chars of the token left in the buffer.
+   * @return the new end index (exclusive) of the token
+   */
+  int pluckOuterQuotes(char[] buf, int from, int to) {
+    if (to - from < 2) {
+      return to;
+    }
+
+    int newLeft  = readLeftWhiteSpace(buf, from, to - 1);
+    int newRight = readRightWhiteSpace(buf, from, to - 1);
+
+    // a lone quote (as an escaped one is, once its escape char is dropped) has no pair to remove
+    if (newLeft < newRight && buf[newLeft] == quotechar && buf[newRight] == quotechar) {
+      to = deleteCharAt(buf, newRight, to);
+      to = deleteCharAt(buf, newLeft, to);
+    }
+    return to;
+  }
+
+  private static int deleteCharAt(char[] buf, int idx, int to) {
+    System.arraycopy(buf, idx + 1, buf, idx, to - idx - 1);
+    return to - 1;
+  }
+
+  /**
+   * @return index of the first non-whitespace char in [left, right] or left if there is none
+   */
+  static int readLeftWhiteSpace(char[] buf, int left, int right) {
+    for (int i = left; i <= right; i++) {
+      if (!Character.isWhitespace(buf[i])) {
+        return i;
+      }
+    }
+    return left;
+  }
+
+  /**
+   * @return index of the last non-whitespace char in [left, right] or right if there is none
+   */
+  static int readRightWhiteSpace(char[] buf, int left, int right) {
+    for (int i = right; i >= left; i--) {
+      if (!Character.isWhitespace(buf[i])) {
+        return i;
+      }
+    }
+    return right;
+  }
+
+
+  /* ------------------------------------ */
+  /* ---[ the same, on a line's bytes ]--- */
+  /* ------------------------------------ */
+
+  /**
+   * @return index of the first byte in buf[from, to) that is not ORDINARY, or to if they all are
+   */
+  final int skipOrdinary(byte[] buf, int from, int to) {
+    final byte[] classes = charClasses;
+    for (int i = from; i < to; i++) {
+      byte b = buf[i];
+      if (b >= 0 && classes[b] != ORDINARY) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  /**
+   * endOfToken on bytes, for the settings of scansBytes().  Whitespace is
+   * trimmed a whole char at a time, so the token still starts and ends on a
+   * char boundary.
+   */
+  void endOfToken(ByteCsvRecord record, byte[] buf, int from, int to) {
+    final ByteCharset cs = record.charset;
+    final int len = to - from;
+    int left = from;
+    int right = to - 1;
+
+    if (alwaysQuoteOutput) {
+      if (trimWhiteSpace && len >= 2) {
+        left = readLeftWhiteSpace(cs, buf, left, right);
+        right = readRightWhiteSpace(cs, buf, left, right);
+      }
+      if (left > right) {
+        right = left - 1;  // do not quote empty string
+      } else if (!isQuoted(cs, buf, left, right)) {
+        buf[--left] = (byte) quotechar;
+        buf[++right] = (byte) quotechar;
+      }
+
+    } else if (!retainOuterQuotes) {
+      if (trimWhiteSpace) {
+        if (len >= 2) {
+          left = readLeftWhiteSpace(cs, buf, left, right);
+          right = readRightWhiteSpace(cs, buf, left, right);
+
+          if (left < right && buf[left] == quotechar && buf[right] == quotechar) {
+            left++;
+            right--;
+          }
+
+          left = readLeftWhiteSpace(cs, buf, left, right);
+          right = readRightWhiteSpace(cs, buf, left, right);
+        }
+      } else {
+        right = pluckOuterQuotes(cs, buf, from, to) - 1;
+      }
+
+    } else if (trimWhiteSpace && len >= 2) {
+      left = readLeftWhiteSpace(cs, buf, left, right);
+      right = readRightWhiteSpace(cs, buf, left, right);
+    }
+    record.addField(left, right + 1);
+  }
+
+  boolean isQuoted(ByteCharset cs, byte[] buf, int left, int right) {
+    return buf[readLeftWhiteSpace(cs, buf, left, right)] == quotechar &&
+        buf[readRightWhiteSpace(cs, buf, left, right)] == quotechar;
+  }
+
+  int pluckOuterQuotes(ByteCharset cs, byte[] buf, int from, int to) {
+    if (to - from < 2) {
+      return to;
+    }
+
+    int newLeft  = readLeftWhiteSpace(cs, buf, from, to - 1);
+    int newRight = readRightWhiteSpace(cs, buf, from, to - 1);
+
+    if (newLeft < newRight && buf[newLeft] == quotechar && buf[newRight] == quotechar) {
+      to = deleteByteAt(buf, newRight, to);
+      to = deleteByteAt(buf, newLeft, to);
+    }
+    return to;
+  }
+
+  private static int deleteByteAt(byte[] buf, int idx, int to) {
+    System.arraycopy(buf, idx + 1, buf, idx, to - idx - 1);
+    return to - 1;
+  }
+
+  /**
+   * @return index of the first byte of the first non-whitespace char in
+   *         [left, right] or left if there is none
+   */
+  static int readLeftWhiteSpace(ByteCharset cs, byte[] buf, int left, int right) {
+    for (int i = left; i <= right; ) {
+      int n = cs.whitespaceAt(buf, i, right + 1);
+      if (n == 0) {
+        return i;
+      }
+      i += n;
+    }
+    return left;
+  }
+
+  /**
+   * @return index of the last byte of the last non-whitespace char in
+   *         [left, right] or right if there is none
+   */
+  static int readRightWhiteSpace(ByteCharset cs, byte[] buf, int left, int right) {
+    for (int i = right; i >= left; ) {
+      int n = cs.whitespaceBefore(buf, left, i + 1);
+      if (n == 0) {
+        return i;
+      }
+      i -= n;
+    }
+    return right;
+  }
+}
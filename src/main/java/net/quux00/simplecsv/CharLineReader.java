@@ -0,0 +1,145 @@
+package net.quux00.simplecsv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * LineSource that reads a Reader into a refillable char buffer and finds the
+ * lines in it, in place of BufferedReader#readLine.
+ *
+ * A line is a window of the buffer: readLine(LazyCsvRecord) copies it in one
+ * block into the record the parser scans, so no String is created for it, and
+ * readLine() makes one String straight from the window.  BufferedReader builds
+ * each line in a StringBuilder whenever it spans a refill and then copies it
+ * into a String.
+ *
+ * Lines end at "\n", "\r" or "\r\n", as with BufferedReader#readLine.  The
+ * buffer grows to hold a line longer than it.
+ *
+ * @NotThreadSafe
+ */
+final class CharLineReader implements LineSource.IntoRecord {
+
+  static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final Reader in;
+  private char[] buf;
+  private int pos;    // start of the unread chars in buf
+  private int limit;  // end of the unread chars in buf
+  private boolean eof;
+  private boolean skipLF;  // the last line ended with "\r", so skip a "\n" right after it
+
+  CharLineReader(final Reader in) {
+    this(in, DEFAULT_BUFFER_SIZE);
+  }
+
+  CharLineReader(final Reader in, final int bufferSize) {
+    this.in = in;
+    this.buf = new char[Math.max(bufferSize, 16)];
+  }
+
+  public String readLine() throws IOException {
+    int eol = nextLine();
+    if (eol < 0) {
+      return null;
+    }
+    String ln = new String(buf, pos, eol - pos);
+    consumeLine(eol);
+    return ln;
+  }
+
+  public int readLine(final LazyCsvRecord record) throws IOException {
+    int eol = nextLine();
+    if (eol < 0) {
+      return -1;
+    }
+    final int len = eol - pos;
+    final char[] cbuf = record.ensureCapacity(len + 3);
+    System.arraycopy(buf, pos, cbuf, 1, len);
+    consumeLine(eol);
+    return len + 1;
+  }
+
+  /**
+   * Finds the end of the next line, reading more input as needed.
+   * The line is buf[pos, eol).
+   * @return the index of the line terminator or of the end of the input (eol),
+   *         or -1 if there are no more lines
+   */
+  private int nextLine() throws IOException {
+    if (skipLF) {
+      if (pos == limit) {
+        fill();
+      }
+      if (pos < limit && buf[pos] == '\n') {
+        pos++;
+      }
+      skipLF = false;
+    }
+
+    int i = pos;  // no line terminator in buf[pos, i)
+    while (true) {
+      final char[] b = buf;
+      final int lim = limit;
+      for (; i < lim; i++) {
+        char c = b[i];
+        if (c <= '\r' && (c == '\n' || c == '\r')) {
+          return i;
+        }
+      }
+
+      int scanned = i - pos;
+      if (!fill()) {
+        return pos == limit ? -1 : limit;
+      }
+      i = pos + scanned;
+    }
+  }
+
+  /**
+   * Consumes the line in buf[pos, eol) and the line terminator at eol, if any.
+   */
+  private void consumeLine(final int eol) {
+    if (eol < limit) {
+      skipLF = buf[eol] == '\r';
+      pos = eol + 1;
+    } else {
+      pos = eol;
+    }
+  }
+
+  /**
+   * Reads more chars after the unread chars, first moving these to the start
+   * of the buffer and growing it if they fill it.
+   * @return false if the end of the input has been reached
+   */
+  private boolean fill() throws IOException {
+    if (eof) {
+      return false;
+    }
+    if (pos > 0) {
+      System.arraycopy(buf, pos, buf, 0, limit - pos);
+      limit -= pos;
+      pos = 0;
+    } else if (limit == buf.length) {
+      char[] bigger = new char[buf.length * 2];
+      System.arraycopy(buf, 0, bigger, 0, limit);
+      buf = bigger;
+    }
+
+    int n;
+    do {
+      n = in.read(buf, limit, buf.length - limit);
+    } while (n == 0);
+    if (n < 0) {
+      eof = true;
+      return false;
+    }
+    limit += n;
+    return true;
+  }
+
+  public void close() throws IOException {
+    in.close();
+  }
+}
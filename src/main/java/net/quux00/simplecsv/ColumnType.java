@@ -0,0 +1,94 @@
+package net.quux00.simplecsv;
+
+/**
+ * How a column of a CsvTable is stored: as an int[], a long[] or a double[],
+ * or as Strings (dictionary-encoded when there are few distinct values).
+ */
+public enum ColumnType {
+  INT,
+  LONG,
+  DOUBLE,
+  STRING;
+
+  /**
+   * @return the narrowest type that holds both this type's values and the
+   *         given ones exactly (null stands for no values yet): a column of
+   *         LONG and DOUBLE values is STRING, since a double cannot hold
+   *         every long (not those above 2^53)
+   */
+  ColumnType widen(final ColumnType other) {
+    if (other == null || other == this) {
+      return this;
+    }
+    if (this == STRING || other == STRING) {
+      return STRING;
+    }
+    if (this == INT || other == INT) {
+      return this == INT ? other : this;
+    }
+    return STRING;  // LONG and DOUBLE
+  }
+
+  /**
+   * @return the narrowest type for buf[start, end), which must not be empty:
+   *         INT or LONG for an integer written the way Integer#toString or
+   *         Long#toString would (so "007" and "+7" are not numbers), DOUBLE
+   *         for a decimal number such as "-1.5" or "2e10", else STRING
+   */
+  static ColumnType of(final char[] buf, final int start, final int end) {
+    int p = start;
+    if (buf[p] == '-') {
+      p++;
+    }
+    final int digitsStart = p;
+    while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+      p++;
+    }
+    final int intDigits = p - digitsStart;
+    if (intDigits == 0 || (buf[digitsStart] == '0' && intDigits > 1)) {
+      return STRING;
+    }
+    if (p == end) {
+      if (intDigits <= 9) {
+        return INT;
+      }
+      if (intDigits > 19) {
+        return STRING;
+      }
+      long v = FieldValues.parseDigits(buf, start, end, 18);
+      if (v == FieldValues.NOT_SIMPLE) {
+        // 19 digits: may overflow a long
+        try {
+          v = Long.parseLong(new String(buf, start, end - start));
+        } catch (NumberFormatException e) {
+          return STRING;
+        }
+      }
+      return v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE ? INT : LONG;
+    }
+
+    if (buf[p] == '.') {
+      final int fractionStart = ++p;
+      while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+        p++;
+      }
+      if (p == fractionStart) {
+        return STRING;
+      }
+    }
+    if (p < end && (buf[p] == 'e' || buf[p] == 'E')) {
+      p++;
+      if (p < end && (buf[p] == '-' || buf[p] == '+')) {
+        p++;
+      }
+      final int exponentStart = p;
+      while (p < end && buf[p] >= '0' && buf[p] <= '9') {
+        p++;
+      }
+      if (p == exponentStart) {
+        return STRING;
+      }
+    }
+    return p == end ? DOUBLE : STRING;
+  }
+}
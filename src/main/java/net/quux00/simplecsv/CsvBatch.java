@@ -0,0 +1,266 @@
+package net.quux00.simplecsv;
+
+import java.util.Arrays;
+
+/**
+ * A block of parsed records, as read by CsvReader#readBatch.  The fields of
+ * all the records are packed one after the other into one char array, with
+ * one int per field for where it ends and one per record for its first
+ * field, so a batch of many rows is a handful of arrays rather than a
+ * String[] and a String per field for each of them.
+ *
+ * Fields are read as with LazyCsvRecord: as CharSequence views onto the
+ * batch's chars, or parsed as numbers straight from them, and only copied
+ * into Strings when asked for.
+ *
+ * A batch is not changed once CsvReader#readBatch has returned it, so it can
+ * be handed to other threads (through anything that publishes it safely, as
+ * a BlockingQueue or an ExecutorService does) and read by several at once.
+ */
+public class CsvBatch {
+
+  // the largest array that can be allocated (some JVMs reserve a few header words)
+  static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  // the most room a new batch makes before it has read anything; it grows,
+  // by half again, with what is actually read into it
+  private static final int INITIAL_ROWS = 1024;
+  private static final int INITIAL_FIELDS = 16 * 1024;
+  private static final int INITIAL_CHARS = 64 * 1024;
+
+  char[] chars;
+  private int length;       // chars used
+  private int[] fieldEnds;  // field f is chars[f == 0 ? 0 : fieldEnds[f - 1], fieldEnds[f])
+  private int fields;       // fields used
+  private int[] rowStarts;  // the fields of row r are [rowStarts[r], rowStarts[r + 1])
+  private int size;         // rows
+
+  /**
+   * Makes room for rows like first, but no more than a few hundred KB of it.
+   *
+   * @param maxRows the most rows that will be added
+   * @param first the first record to be added
+   */
+  CsvBatch(final int maxRows, final LazyCsvRecord first) {
+    final int n = Math.max(first.size(), 1);
+    long perRow = 1;
+    for (int i = 0; i < first.size(); i++) {
+      perRow += first.ends[i] - first.starts[i];
+    }
+    final int rows = Math.min(maxRows, INITIAL_ROWS);
+    rowStarts = new int[rows + 1];
+    fieldEnds = new int[(int) Math.min((long) rows * n, INITIAL_FIELDS)];
+    chars = new char[(int) Math.min(rows * perRow, INITIAL_CHARS)];
+  }
+
+  /**
+   * @return the number of rows in the batch
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of fields in row r
+   */
+  public int columns(final int r) {
+    checkRow(r);
+    return rowStarts[r + 1] - rowStarts[r];
+  }
+
+  /**
+   * @return the number of chars in field c of row r
+   */
+  public int length(final int r, final int c) {
+    final int f = index(r, c);
+    return fieldEnds[f] - start(f);
+  }
+
+  /**
+   * @return a view of field c of row r, backed by the batch's chars (no chars are copied)
+   */
+  public CharSequence field(final int r, final int c) {
+    final int f = index(r, c);
+    return new FieldView(chars, start(f), fieldEnds[f]);
+  }
+
+  /**
+   * @return field c of row r copied into a new String
+   */
+  public String get(final int r, final int c) {
+    final int f = index(r, c);
+    final int start = start(f);
+    return new String(chars, start, fieldEnds[f] - start);
+  }
+
+  /**
+   * @return all fields of row r copied into new Strings
+   */
+  public String[] toArray(final int r) {
+    checkRow(r);
+    final String[] ary = new String[rowStarts[r + 1] - rowStarts[r]];
+    for (int c = 0, f = rowStarts[r]; c < ary.length; c++, f++) {
+      final int start = start(f);
+      ary[c] = new String(chars, start, fieldEnds[f] - start);
+    }
+    return ary;
+  }
+
+  /**
+   * Parses field c of row r as an int.  Same as Integer.parseInt(get(r, c)),
+   * see LazyCsvRecord#getInt.
+   */
+  public int getInt(final int r, final int c) {
+    final int f = index(r, c);
+    long v = FieldValues.parseDigits(chars, start(f), fieldEnds[f], 10);
+    if (v != FieldValues.NOT_SIMPLE && v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+      return (int) v;
+    }
+    return Integer.parseInt(get(r, c));
+  }
+
+  /**
+   * Parses field c of row r as a long.  Same as Long.parseLong(get(r, c)),
+   * see LazyCsvRecord#getInt.
+   */
+  public long getLong(final int r, final int c) {
+    final int f = index(r, c);
+    long v = FieldValues.parseDigits(chars, start(f), fieldEnds[f], 18);
+    if (v != FieldValues.NOT_SIMPLE) {
+      return v;
+    }
+    return Long.parseLong(get(r, c));
+  }
+
+  /**
+   * Parses field c of row r as a double.  Same as Double.parseDouble(get(r, c)),
+   * see LazyCsvRecord#getDouble.
+   */
+  public double getDouble(final int r, final int c) {
+    final int f = index(r, c);
+    double d = FieldValues.parseSimpleDouble(chars, start(f), fieldEnds[f]);
+    if (d == d) {
+      return d;
+    }
+    return Double.parseDouble(get(r, c));
+  }
+
+  /**
+   * @return true if field c of row r is "true", ignoring case, as for
+   *         Boolean.parseBoolean(get(r, c))
+   */
+  public boolean getBoolean(final int r, final int c) {
+    final int f = index(r, c);
+    return FieldValues.isTrue(chars, start(f), fieldEnds[f]);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int r = 0; r < size; r++) {
+      if (r > 0) {
+        sb.append(", ");
+      }
+      sb.append(Arrays.toString(toArray(r)));
+    }
+    return sb.append(']').toString();
+  }
+
+  /**
+   * @return where field f (see index) starts in chars
+   */
+  int start(final int f) {
+    return f == 0 ? 0 : fieldEnds[f - 1];
+  }
+
+  /**
+   * @return where field f (see index) ends in chars
+   */
+  int end(final int f) {
+    return fieldEnds[f];
+  }
+
+  /**
+   * @return the index of field c of row r among the fields of the batch
+   */
+  int index(final int r, final int c) {
+    checkRow(r);
+    final int f = rowStarts[r] + c;
+    if (c < 0 || f >= rowStarts[r + 1]) {
+      throw new IndexOutOfBoundsException("Column: " + c + ", Columns: " + (rowStarts[r + 1] - rowStarts[r]));
+    }
+    return f;
+  }
+
+  private void checkRow(final int r) {
+    if (r < 0 || r >= size) {
+      throw new IndexOutOfBoundsException("Row: " + r + ", Size: " + size);
+    }
+  }
+
+
+  /* ----------------------------------- */
+  /* ---[ methods for the CsvReader ]--- */
+  /* ----------------------------------- */
+
+  /**
+   * Appends the fields of the record as the next row.
+   */
+  void add(final LazyCsvRecord record) {
+    final int n = record.size();
+    if (size + 1 == rowStarts.length) {
+      rowStarts = Arrays.copyOf(rowStarts, grow(rowStarts.length, rowStarts.length + 1L, "rows"));
+    }
+    if (fields + n > fieldEnds.length) {
+      fieldEnds = Arrays.copyOf(fieldEnds, grow(fieldEnds.length, (long) fields + n, "fields"));
+    }
+    long need = length;
+    for (int i = 0; i < n; i++) {
+      need += record.ends[i] - record.starts[i];
+    }
+    if (need > chars.length) {
+      chars = Arrays.copyOf(chars, grow(chars.length, need, "chars"));
+    }
+
+    final char[] src = record.buf;
+    for (int i = 0; i < n; i++) {
+      final int start = record.starts[i];
+      final int len = record.ends[i] - start;
+      System.arraycopy(src, start, chars, length, len);
+      length += len;
+      fieldEnds[fields++] = length;
+    }
+    rowStarts[++size] = fields;
+  }
+
+  /**
+   * Cuts the arrays down to what the rows read into the batch use.
+   */
+  void trim() {
+    if (rowStarts.length > size + 1) {
+      rowStarts = Arrays.copyOf(rowStarts, size + 1);
+    }
+    if (fieldEnds.length > fields) {
+      fieldEnds = Arrays.copyOf(fieldEnds, fields);
+    }
+    if (chars.length > length) {
+      chars = Arrays.copyOf(chars, length);
+    }
+  }
+
+  /**
+   * @param capacity the length of the array now
+   * @param needed the length it must have
+   * @param what what the array holds, for the exception
+   * @return the length to grow the array to: half again as long, or needed
+   *         if that is more, and at most MAX_ARRAY_SIZE
+   * @throws IllegalStateException if needed is more than MAX_ARRAY_SIZE
+   */
+  static int grow(final int capacity, final long needed, final String what) {
+    if (needed > MAX_ARRAY_SIZE) {
+      throw new IllegalStateException("Too many " + what + ": " + needed
+          + " needed, at most " + MAX_ARRAY_SIZE + " fit in an array");
+    }
+    return (int) Math.min(Math.max(capacity + (long) (capacity >> 1), needed), MAX_ARRAY_SIZE);
+  }
+}
@@ -6,7 +6,10 @@ import java.util.List;
 /**
  * The heart of the simplecsv library is the parser.
  * If you want to construct anything except the default parser, it is recommended
- * that you use the CsvParserBuilder.
+ * that you use the CsvParserBuilder.  The builder returns a subclass of CsvParser
+ * that is specialized for the settings chosen (see CharArrayCsvParser), whereas
+ * the constructors always give you this class, which builds each token in a
+ * StringBuilder.
  * 
  * The parser can be used standalone without the Reader. For example in a Hadoop
  * MapReduce scenario, no reader is needed, just a parser, so almost all of the
@@ -21,8 +24,13 @@ import java.util.List;
  *   - turn on allowUnbalancedQuotes mode
  *   - turn off retainEscapeChars mode
  *   - turn on alwaysQuoteOutput mode
+ *   - turn off charArrayScanning mode (see CharArrayCsvParser)
+ *   - only keep some of the columns (implies charArrayScanning)
  * 
- * @NotThreadSafe - only use one CsvParser per thread
+ * @ThreadSafe - the settings are final and all parse state is per call (or, for
+ * the scratch buffers of the char[] scanning parsers, per thread), so a single
+ * parser can be shared by any number of threads.  The records passed in to be
+ * filled are not thread-safe; use one per thread.
  */
 public class CsvParser {
   final char separator;
@@ -35,7 +43,11 @@ public class CsvParser {
   final boolean retainEscapeChars;        // if true, leaves escape chars in; if false removes them
   final boolean alwaysQuoteOutput;        // if true, put quote around around all outgoing tokens
   
-  final State state = new State();
+  // class of each ASCII char (see charClass), so the parse loops need one
+  // table lookup per char rather than comparing it to each special char
+  final byte[] charClasses;
+  final boolean nonAsciiSpecialChars;      // if true, a special char is outside the table
+
   
   public static final char DEFAULT_SEPARATOR = ',';
   public static final char DEFAULT_QUOTE_CHAR = '"';
@@ -46,11 +58,19 @@ public class CsvParser {
   public static final boolean DEFAULT_ALLOW_UNBALANCED_QUOTES = false;
   public static final boolean DEFAULT_RETAIN_ESCAPE_CHARS = true;
   public static final boolean DEFAULT_ALWAYS_QUOTE_OUTPUT = false;
+  public static final boolean DEFAULT_CHAR_ARRAY_SCANNING = true;
   
   static final int INITIAL_READ_SIZE = 128;
   
   // This is the "null" character - if a value is set to this then it is ignored.
   static final char NULL_CHARACTER = '\0';
+
+  // char classes
+  static final byte ORDINARY = 0;
+  static final byte SEPARATOR = 1;
+  static final byte QUOTE = 2;
+  static final byte ESCAPE = 3;
+  static final int CHAR_CLASS_TABLE_SIZE = 128;
   
   public CsvParser() {
     separator = DEFAULT_SEPARATOR;
@@ -62,6 +82,8 @@ public class CsvParser {
     retainOuterQuotes = DEFAULT_RETAIN_OUTER_QUOTES;
     retainEscapeChars = DEFAULT_RETAIN_ESCAPE_CHARS;
     alwaysQuoteOutput = DEFAULT_ALWAYS_QUOTE_OUTPUT;
+    charClasses = buildCharClasses();
+    nonAsciiSpecialChars = false;
   }
 
   /**
@@ -90,6 +112,18 @@ public class CsvParser {
     this.alwaysQuoteOutput = alwaysQuoteOutput;
     
     checkInvariants();
+    charClasses = buildCharClasses();
+    nonAsciiSpecialChars = separator >= CHAR_CLASS_TABLE_SIZE ||
+        quotechar >= CHAR_CLASS_TABLE_SIZE || escapechar >= CHAR_CLASS_TABLE_SIZE;
+  }
+
+  /**
+   * Constructs a parser with the settings of the builder.
+   */
+  CsvParser(final CsvParserBuilder builder) {
+    this(builder.separator, builder.quoteChar, builder.escapeChar,
+        builder.strictQuotes, builder.trimWhitespace, builder.allowUnbalancedQuotes,
+        builder.retainOuterQuotes, builder.retainEscapeChars, builder.alwaysQuoteOutput);
   }
   
   private void checkInvariants() {
@@ -104,6 +138,20 @@ public class CsvParser {
     }
   }
   
+  private byte[] buildCharClasses() {
+    byte[] classes = new byte[CHAR_CLASS_TABLE_SIZE];
+    if (separator < CHAR_CLASS_TABLE_SIZE) {
+      classes[separator] = SEPARATOR;
+    }
+    if (quotechar != NULL_CHARACTER && quotechar < CHAR_CLASS_TABLE_SIZE) {
+      classes[quotechar] = QUOTE;
+    }
+    if (escapechar != NULL_CHARACTER && escapechar < CHAR_CLASS_TABLE_SIZE) {
+      classes[escapechar] = ESCAPE;
+    }
+    return classes;
+  }
+
   private boolean anyCharactersAreTheSame(char separator, char quotechar, char escape) {
     return isSameCharacter(separator, quotechar) || isSameCharacter(separator, escape) || isSameCharacter(quotechar, escape);
   }
@@ -113,7 +161,8 @@ public class CsvParser {
   }
   
   
-  // keep track of mutable States for FSM of parsing
+  // keep track of mutable States for FSM of parsing; one per call to parseInto,
+  // so that the parser itself holds no mutable state and can be shared by threads
   static class State {
     boolean inQuotes = false;
     boolean inEscape = false;
@@ -147,24 +196,97 @@ public class CsvParser {
       return null; 
     }
     
-    StringBuilder sb = new StringBuilder(INITIAL_READ_SIZE);
     List<String> toks = new ArrayList<String>();
-    state.reset();
+    parseInto(ln, toks);
+    return toks;
+  }
+  
+  /**
+   * 
+   * @param ln
+   * @return
+   */
+  public String[] parseLine(String ln) {
+    List<String> toks = parse(ln);
+    if (toks == null) {
+      return null;
+    } else {
+      return toks.toArray(new String[toks.size()]);
+    }
+  }
+
+  /**
+   * Parses the line into a caller-owned record, replacing its previous contents.
+   * Reusing the same record for every line avoids allocating a List and a String[]
+   * per line.
+   * 
+   * @param ln line to parse
+   * @param record record to fill with the tokens of the line
+   * @return the record passed in or null if ln is null
+   */
+  public CsvRecord parseLine(String ln, CsvRecord record) {
+    if (ln == null) {
+      return null;
+    }
+    record.clear();
+    parseInto(ln, record);
+    return record;
+  }
+
+  /**
+   * Parses the line into a LazyCsvRecord, replacing its previous contents.
+   * The fields of the record are views onto a char buffer that are only
+   * turned into Strings when asked for.  This parser builds each token as a
+   * String and copies it into the record; use a parser from the
+   * CsvParserBuilder (with the default charArrayScanning mode) to have the record reference the scanned line
+   * directly with no copying.
+   * 
+   * @param ln line to parse
+   * @param record record to fill with the tokens of the line
+   * @return the record passed in or null if ln is null
+   */
+  public LazyCsvRecord parseLazy(String ln, LazyCsvRecord record) {
+    if (ln == null) {
+      return null;
+    }
+    List<String> toks = parse(ln);
+    record.clear();
+    for (String tok : toks) {
+      record.append(tok);
+    }
+    return record;
+  }
+
+  /**
+   * Does the actual parsing of a non-null line, adding each token to toks.
+   */
+  void parseInto(String ln, List<String> toks) {
+    StringBuilder sb = new StringBuilder(INITIAL_READ_SIZE);
+    final State state = new State();
+    final int len = ln.length();
     
-    for (int i = 0; i < ln.length(); i++) {
+    for (int i = 0; i < len; i++) {
       char c = ln.charAt(i);
+      byte cls = charClass(c);
       
-      if (isQuoteChar(c)) {
-        handleQuote(sb);
+      if (cls == QUOTE) {
+        handleQuote(sb, state);
       
-      } else if (isEscapeChar(c)) {
-        handleEscape(sb);
+      } else if (cls == ESCAPE) {
+        handleEscape(sb, state);
       
-      } else if (c == separator && !state.inQuotes) {
-        toks.add( handleEndOfToken(sb) );
+      } else if (cls == SEPARATOR && !state.inQuotes) {
+        toks.add( handleEndOfToken(sb, state) );
         
       } else {
-        handleRegular(sb, c);
+        handleRegular(sb, c, state);
+        // the first regular char reset the escape state, so the rest
+        // of a run of ordinary chars can be handled in one go
+        int runEnd = skipOrdinary(ln, i + 1, len);
+        if (runEnd > i + 1) {
+          handleRegularRun(sb, state, ln, i + 1, runEnd);
+          i = runEnd - 1;
+        }
       }
     }
     
@@ -172,30 +294,95 @@ public class CsvParser {
     if (state.inQuotes && !allowedUnbalancedQuotes) {
       throw new IllegalArgumentException("Un-terminated quoted field at end of CSV line");
     }
-    toks.add( handleEndOfToken(sb) );
-
-    return toks;
+    toks.add( handleEndOfToken(sb, state) );
   }
-  
+
   /**
-   * 
-   * @param ln
-   * @return
+   * Runs the quote and escape state machine of parseInto over ln, without
+   * building any tokens, to find out whether the line ends inside a quoted
+   * field, i.e., whether a record that has a line break in a quoted field
+   * continues on the next line.
+   *
+   * Only the new line is scanned: the state at the end of the previous lines of
+   * the record is passed in.  A line break inside quotes is an ordinary char,
+   * which ends any escape, so whether it is in quotes is all the state there is.
+   *
+   * @param ln the next line of a record
+   * @param inQuotes true if the previous lines of the record ended inside a quoted field
+   * @return true if the record ends inside a quoted field after ln
    */
-  public String[] parseLine(String ln) {
-    List<String> toks = parse(ln);
-    if (toks == null) {
-      return null;
-    } else {
-      return toks.toArray(new String[toks.size()]);
+  boolean endsInQuotes(String ln, boolean inQuotes) {
+    final State state = new State();
+    state.inQuotes = inQuotes;
+    final int len = ln.length();
+    for (int i = skipOrdinary(ln, 0, len); i < len; i = skipOrdinary(ln, i + 1, len)) {
+      byte cls = charClass(ln.charAt(i));
+      if (i > 0 && charClass(ln.charAt(i - 1)) == ORDINARY && (!strictQuotes || state.inQuotes)) {
+        state.escapeFound(false);  // a regular char came before this one
+      }
+      if (cls == QUOTE) {
+        state.quoteFound();
+        state.escapeFound(false);
+      } else if (cls == ESCAPE) {
+        state.escapeFound(true);
+      } else {
+        state.escapeFound(false);  // separator, as a token end or as a regular char in quotes
+      }
     }
+    return state.inQuotes;
   }
 
-  
+
   /* --------------------------------- */
   /* ---[ internal helper methods ]--- */
   /* --------------------------------- */
   
+  /**
+   * @return the class of the char: SEPARATOR, QUOTE, ESCAPE or ORDINARY
+   */
+  final byte charClass(char c) {
+    if (c < CHAR_CLASS_TABLE_SIZE) {
+      return charClasses[c];
+    } else if (!nonAsciiSpecialChars) {
+      return ORDINARY;
+    } else if (c == separator) {
+      return SEPARATOR;
+    } else if (isQuoteChar(c)) {
+      return QUOTE;
+    } else if (isEscapeChar(c)) {
+      return ESCAPE;
+    }
+    return ORDINARY;
+  }
+
+  /**
+   * @return index of the first char in ln[from, to) that is not ORDINARY, or to if they all are
+   */
+  final int skipOrdinary(String ln, int from, int to) {
+    final byte[] classes = charClasses;
+    for (int i = from; i < to; i++) {
+      char c = ln.charAt(i);
+      if (c < CHAR_CLASS_TABLE_SIZE ? classes[c] != ORDINARY : (nonAsciiSpecialChars && charClass(c) != ORDINARY)) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  /**
+   * @return index of the first char in buf[from, to) that is not ORDINARY, or to if they all are
+   */
+  final int skipOrdinary(char[] buf, int from, int to) {
+    final byte[] classes = charClasses;
+    for (int i = from; i < to; i++) {
+      char c = buf[i];
+      if (c < CHAR_CLASS_TABLE_SIZE ? classes[c] != ORDINARY : (nonAsciiSpecialChars && charClass(c) != ORDINARY)) {
+        return i;
+      }
+    }
+    return to;
+  }
+
   boolean isEscapeChar(char c) {
     // if the escapechar is set to the NULL_CHAR then it shouldn't
     // match anything => nothing is the escapechar
@@ -208,7 +395,7 @@ public class CsvParser {
     return c == quotechar && quotechar != NULL_CHARACTER;
   }
   
-  String handleEndOfToken(StringBuilder sb) {
+  String handleEndOfToken(StringBuilder sb, State state) {
     // in strictQuotes mode you don't know when to add the last seen
     // quote until the token is done; if the buffer has any characters
     // then you know a first quote was seen, so add the closing quote
@@ -221,7 +408,7 @@ public class CsvParser {
     return tok;
   }
 
-  void appendRegularChar(StringBuilder sb, char c) {
+  void appendRegularChar(StringBuilder sb, char c, State state) {
     if (state.inEscape && !retainEscapeChars) {
       switch (c) {
         case 'n': 
@@ -249,17 +436,27 @@ public class CsvParser {
     state.escapeFound(false);    
   }
   
-  void handleRegular(StringBuilder sb, char c) {
+  void handleRegular(StringBuilder sb, char c, State state) {
     if (strictQuotes) {
       if (state.inQuotes) {
-        appendRegularChar(sb, c);
+        appendRegularChar(sb, c, state);
       }
     } else {
-      appendRegularChar(sb, c);
+      appendRegularChar(sb, c, state);
     }
   }
   
-  void handleEscape(StringBuilder sb) {
+  /**
+   * Handles ln[from, to), a run of ORDINARY chars that directly follows a
+   * regular char, so the escape state cannot change within it.
+   */
+  void handleRegularRun(StringBuilder sb, State state, String ln, int from, int to) {
+    if (!strictQuotes || state.inQuotes) {
+      sb.append(ln, from, to);
+    }
+  }
+  
+  void handleEscape(StringBuilder sb, State state) {
     state.escapeFound(true);
     if (retainEscapeChars) {
       if (strictQuotes) {
@@ -272,7 +469,7 @@ public class CsvParser {
     }
   }
   
-  void handleQuote(StringBuilder sb) {
+  void handleQuote(StringBuilder sb, State state) {
     // always retain outer quotes while parsing and then remove them at the end if appropriate
     if (strictQuotes) {
       if (state.inQuotes) {
@@ -385,7 +582,7 @@ public class CsvParser {
     if (sb.length() < 2) {
       return new int[]{left, right};
     
-    } else if (sb.charAt(left) == quotechar && sb.charAt(right) == quotechar) {
+    } else if (left < right && sb.charAt(left) == quotechar && sb.charAt(right) == quotechar) {
       return new int[]{left+1, right-1};      
     
     } else {
@@ -428,7 +625,8 @@ public class CsvParser {
     int newLeft  = readLeftWhiteSpace(sb, left, right);
     int newRight = readRightWhiteSpace(sb, left, right);
     
-    if (sb.charAt(newLeft) == quotechar && sb.charAt(newRight) == quotechar) {
+    // a lone quote (as an escaped one is, once its escape char is dropped) has no pair to remove
+    if (newLeft < newRight && sb.charAt(newLeft) == quotechar && sb.charAt(newRight) == quotechar) {
       sb.deleteCharAt(newRight);
       sb.deleteCharAt(newLeft);
     }
@@ -10,6 +10,34 @@ public class CsvParserBuilder {
   boolean retainOuterQuotes = CsvParser.DEFAULT_RETAIN_OUTER_QUOTES;
   boolean retainEscapeChars = CsvParser.DEFAULT_RETAIN_ESCAPE_CHARS;
   boolean alwaysQuoteOutput = CsvParser.DEFAULT_ALWAYS_QUOTE_OUTPUT;
+  boolean charArrayScanning = CsvParser.DEFAULT_CHAR_ARRAY_SCANNING;
+  boolean vectorScanning = false;
+  boolean rfc4180 = false;
+  int[] columns = null;
+
+  public CsvParserBuilder() {}
+
+  /**
+   * Creates a builder with all the settings of an existing parser, so that
+   * a variant of it can be built.
+   */
+  public CsvParserBuilder(final CsvParser parser) {
+    separator = parser.separator;
+    quoteChar = parser.quotechar;
+    escapeChar = parser.escapechar;
+    strictQuotes = parser.strictQuotes;
+    trimWhitespace = parser.trimWhiteSpace;
+    allowUnbalancedQuotes = parser.allowedUnbalancedQuotes;
+    retainOuterQuotes = parser.retainOuterQuotes;
+    retainEscapeChars = parser.retainEscapeChars;
+    alwaysQuoteOutput = parser.alwaysQuoteOutput;
+    charArrayScanning = parser instanceof CharArrayCsvParser;
+    vectorScanning = parser instanceof IndexedCsvParser;
+    rfc4180 = parser instanceof Rfc4180CsvParser;
+    if (charArrayScanning) {
+      columns = ((CharArrayCsvParser) parser).getColumns();
+    }
+  }
   
   public CsvParserBuilder separator(final char separator) {
     this.separator = separator;
@@ -56,10 +84,95 @@ public class CsvParserBuilder {
     return this;
   }
 
+  /**
+   * If true (the default), the parser scans each line as a char[] window and
+   * creates exactly one String per token, with a scan loop specialized for the
+   * settings chosen. If false, each token is built in a StringBuilder, as the
+   * CsvParser constructors do. The parsed output is the same either way.
+   */
+  public CsvParserBuilder charArrayScanning(boolean charArray) {
+    this.charArrayScanning = charArray;
+    return this;
+  }
+
+  /**
+   * If true, the parser finds the separators, quote chars and escape chars of
+   * each line with the Vector API, many chars at a time, before parsing it.
+   * This is faster for wide lines with long fields, such as JSON documents
+   * embedded in a column.
+   *
+   * The Vector API is an incubator module of Java 17+, so it is only used if
+   * the JVM is started with --add-modules jdk.incubator.vector.  Otherwise,
+   * and for strictQuotes or column projection, the setting is ignored and the
+   * usual char[] scanning parser is built.  Implies charArrayScanning(true).
+   */
+  public CsvParserBuilder vectorScanning(boolean vector) {
+    this.vectorScanning = vector;
+    return this;
+  }
+
+  /**
+   * If true, the parser reads the RFC 4180 dialect of CSV, where a quote char
+   * inside a quoted field is written as two quote chars rather than escaped
+   * with the escape char, and only fields starting with a quote char are
+   * quoted.  For example, {@code "Stan ""The Man""",42} is parsed into
+   * {@code Stan "The Man"} and {@code 42}.
+   *
+   * The escape char and retainEscapeChars settings are ignored and strictQuotes
+   * may not be set.  See Rfc4180CsvParser for how the other settings apply.
+   */
+  public CsvParserBuilder rfc4180(boolean rfc4180) {
+    this.rfc4180 = rfc4180;
+    return this;
+  }
+
+  /**
+   * Only keep the tokens of the given (zero-based) columns, returned in column
+   * order.  The parser does not build tokens for any other column and stops
+   * scanning a line once the highest column wanted has been parsed, so the rest
+   * of the line is not checked for unbalanced quotes.  Lines with fewer columns
+   * return fewer tokens.
+   * 
+   * Column projection is done by the char[] scanning engine, so this implies
+   * charArrayScanning(true).  Pass no columns to keep all of them.
+   */
+  public CsvParserBuilder columns(final int... columns) {
+    if (columns == null || columns.length == 0) {
+      this.columns = null;
+      return this;
+    }
+    for (int col : columns) {
+      if (col < 0) {
+        throw new IllegalArgumentException("Column indexes may not be negative: " + col);
+      }
+    }
+    this.columns = columns.clone();
+    return this;
+  }
+
   /**
    * Constructs Parser
    */
   public CsvParser build() {
+    if (rfc4180) {
+      return new Rfc4180CsvParser(this);
+    }
+    if (columns != null) {
+      return new CharArrayCsvParser(this);
+    }
+    if (vectorScanning && !strictQuotes && StructuralIndexer.isVectorAvailable()) {
+      return new IndexedCsvParser(this);
+    }
+    if (charArrayScanning || vectorScanning) {
+      if (strictQuotes) {
+        return new StrictQuotesCsvParser(this);
+      } else if (escapeChar == CsvParser.NULL_CHARACTER) {
+        return new NoEscapeCsvParser(this);
+      } else if (retainEscapeChars) {
+        return new InPlaceCsvParser(this);
+      }
+      return new CharArrayCsvParser(this);
+    }
     return new CsvParser(
         separator,
         quoteChar,
@@ -16,13 +16,19 @@ package net.quux00.simplecsv;
  limitations under the License.
  */
 
-import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A very simple CSV reader released under a commercial-friendly license.
@@ -31,7 +37,7 @@ import java.util.List;
  */
 public class CsvReader implements Closeable, Iterable<String[]> {
 
-  private BufferedReader br;
+  private LineSource lines;
 
   private boolean hasNext = true;
 
@@ -41,6 +47,13 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 
   private boolean linesSkiped;
 
+  // names of the columns to keep, resolved against the header line on the first read
+  private String[] columnNames;
+
+  // records the lines are read into for the parser when the caller wants Strings
+  private LazyCsvRecord lineRecord;
+  private ByteCsvRecord byteRecord;
+
   /**
    * The default line to start reading.
    */
@@ -52,7 +65,7 @@ public class CsvReader implements Closeable, Iterable<String[]> {
    * @param reader the reader to an underlying CSV source.
    */
   public CsvReader(Reader reader) {
-    this(reader, DEFAULT_SKIP_LINES, new CsvParser());
+    this(reader, DEFAULT_SKIP_LINES, new CsvParserBuilder().build());
   }
 
   /**
@@ -62,7 +75,7 @@ public class CsvReader implements Closeable, Iterable<String[]> {
    * @param line      the line number to skip for start reading
    */
   public CsvReader(Reader reader, int line) {
-    this(reader, line, new CsvParser());
+    this(reader, line, new CsvParserBuilder().build());
   }
   
   /**
@@ -83,10 +96,60 @@ public class CsvReader implements Closeable, Iterable<String[]> {
    * @param csvParser the parser to use to parse input
    */
   public CsvReader(Reader reader, int line, CsvParser csvParser) {
-    this.br = (reader instanceof BufferedReader ?
-        (BufferedReader) reader : new BufferedReader(reader));
+    this(lineSource(reader), line, csvParser, null);
+  }
+
+  /**
+   * Constructs CsvReader that reads bytes in the given charset.  For ASCII-compatible
+   * charsets, such as UTF-8 and ISO-8859-1, the lines are found in the raw bytes and
+   * lines that are pure ASCII are not run through a charset decoder at all.
+   *
+   * @param in        the stream to an underlying CSV source.
+   * @param charset   the charset of the bytes
+   * @param line      the line number to skip for start reading
+   * @param csvParser the parser to use to parse input
+   */
+  public CsvReader(InputStream in, Charset charset, int line, CsvParser csvParser) {
+    this(lineSource(in, charset), line, csvParser, null);
+  }
+
+  /**
+   * Constructs CsvReader over any LineSource.  If columnNames is not null, only
+   * the named columns are kept: the first line after the skipped lines is read
+   * as the header to find the index of each column and is not returned.
+   *
+   * @param lines       the source of the lines (or records) to parse
+   * @param line        the line number to skip for start reading
+   * @param csvParser   the parser to use to parse input
+   * @param columnNames names of the columns to keep, as they appear in the header, or null
+   */
+  CsvReader(LineSource lines, int line, CsvParser csvParser, String[] columnNames) {
+    this.lines = lines;
     this.skipLines = line;
     this.parser = csvParser;
+    this.columnNames = columnNames;
+  }
+
+  static LineSource lineSource(Reader reader) {
+    return new CharLineReader(reader);
+  }
+
+  /**
+   * @param bufferSize size of the read buffer, in bytes or chars, or 0 for the default
+   */
+  static LineSource lineSource(Reader reader, int bufferSize) {
+    return new CharLineReader(reader, bufferSize > 0 ? bufferSize : CharLineReader.DEFAULT_BUFFER_SIZE);
+  }
+
+  static LineSource lineSource(InputStream in, Charset charset) {
+    return lineSource(in, charset, 0);
+  }
+
+  static LineSource lineSource(InputStream in, Charset charset, int bufferSize) {
+    if (ByteLineReader.isAsciiCompatible(charset)) {
+      return new ByteLineReader(in, charset, bufferSize > 0 ? bufferSize : ByteLineReader.DEFAULT_BUFFER_SIZE);
+    }
+    return lineSource(new InputStreamReader(in, charset), bufferSize);
   }
 
   /**
@@ -116,10 +179,216 @@ public class CsvReader implements Closeable, Iterable<String[]> {
    * @throws IOException if bad things happen during the read
    */
   public String[] readNext() throws IOException {
+    if (readsBytes()) {
+      ByteCsvRecord record = readNext(byteRecord());
+      return record == null ? null : record.toArray();
+    }
+    if (readsIntoRecord()) {
+      LazyCsvRecord record = readNext(lineRecord());
+      return record == null ? null : record.toArray();
+    }
     String ln = getNextLine();
     return parser.parseLine(ln);
   }
 
+  /**
+   * Reads the next line from the buffer and parses it into the record passed in,
+   * replacing its previous contents.  Reuse the same record across calls to
+   * avoid allocating a new String[] per line.
+   *
+   * @param record the record to fill with the tokens of the next line
+   * @return the record passed in or null if there are no more lines
+   * @throws IOException if bad things happen during the read
+   */
+  public CsvRecord readNext(CsvRecord record) throws IOException {
+    if (readsBytes()) {
+      ByteCsvRecord bytes = readNext(byteRecord());
+      if (bytes == null) {
+        return null;
+      }
+      record.clear();
+      for (int i = 0; i < bytes.size(); i++) {
+        record.add(bytes.get(i));
+      }
+      return record;
+    }
+    if (readsIntoRecord()) {
+      LazyCsvRecord lazy = readNext(lineRecord());
+      if (lazy == null) {
+        return null;
+      }
+      record.clear();
+      for (int i = 0; i < lazy.size(); i++) {
+        record.add(lazy.get(i));
+      }
+      return record;
+    }
+    String ln = getNextLine();
+    return parser.parseLine(ln, record);
+  }
+
+  /**
+   * Reads the next line from the buffer and parses it into the record passed in,
+   * without creating a String for any field until one is asked for.  See
+   * LazyCsvRecord.
+   *
+   * With a parser from the CsvParserBuilder, the line is copied (or, when reading
+   * bytes, decoded) straight from the read buffer into the record's buffer, so no
+   * String is created for the line either.
+   *
+   * @param record the record to fill with the tokens of the next line
+   * @return the record passed in or null if there are no more lines
+   * @throws IOException if bad things happen during the read
+   */
+  public LazyCsvRecord readNext(LazyCsvRecord record) throws IOException {
+    if (readsIntoRecord()) {
+      int end = ((LineSource.IntoRecord) lines).readLine(record);
+      if (end < 0) {
+        hasNext = false;
+        return null;
+      }
+      ((CharArrayCsvParser) parser).scan(record, end);
+      return record;
+    }
+    String ln = getNextLine();
+    return parser.parseLazy(ln, record);
+  }
+
+  /**
+   * Reads the next line and parses it into the record passed in, without
+   * decoding any field until one is asked for.  See ByteCsvRecord.
+   *
+   * When reading bytes (see CsvReaderBuilder) in UTF-8 or an ASCII-compatible
+   * single-byte charset, with a parser from the CsvParserBuilder for the
+   * default quote and escape settings, the fields are found on the bytes of
+   * the line.  Otherwise the line is decoded and parsed as for
+   * readNext(LazyCsvRecord) and the record holds the Strings of its fields.
+   *
+   * @param record the record to fill with the tokens of the next line
+   * @return the record passed in or null if there are no more lines
+   * @throws IOException if bad things happen during the read
+   */
+  public ByteCsvRecord readNext(ByteCsvRecord record) throws IOException {
+    if (readsBytes()) {
+      int end = ((LineSource.IntoBytes) lines).readLine(record);
+      if (end < 0) {
+        hasNext = false;
+        return null;
+      }
+      ((CharArrayCsvParser) parser).scan(record, end);
+      return record;
+    }
+    LazyCsvRecord lazy = readNext(lineRecord());
+    if (lazy == null) {
+      return null;
+    }
+    record.clear();
+    for (int i = 0; i < lazy.size(); i++) {
+      record.append(lazy.get(i));
+    }
+    return record;
+  }
+
+  /**
+   * Reads up to maxRows records into one CsvBatch, which packs the fields of
+   * all of them into one char array (see CsvBatch), in place of a String[]
+   * per record.  Each batch is a new one, not changed by later reads, so
+   * batches can be handed to other threads while the next is read.
+   *
+   * @param maxRows the most records to read into the batch
+   * @return a batch of between 1 and maxRows records, or null if there are no
+   *         more records
+   * @throws IOException if bad things happen during the read
+   * @throws IllegalStateException if the records are too large for one batch
+   *         (more than about 2G chars); read fewer per batch
+   */
+  public CsvBatch readBatch(int maxRows) throws IOException {
+    if (maxRows <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive: " + maxRows);
+    }
+    LazyCsvRecord record = lineRecord();
+    if (readNext(record) == null) {
+      return null;
+    }
+    CsvBatch batch = new CsvBatch(maxRows, record);
+    batch.add(record);
+    while (batch.size() < maxRows && readNext(record) != null) {
+      batch.add(record);
+    }
+    batch.trim();
+    return batch;
+  }
+
+  /**
+   * @param maxRows the most records per batch
+   * @return an Iterator over the remaining records in batches, as read by
+   *         readBatch(maxRows)
+   */
+  public Iterator<CsvBatch> batches(final int maxRows) {
+    if (maxRows <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive: " + maxRows);
+    }
+    return new Iterator<CsvBatch>() {
+      private CsvBatch nextBatch = read();
+
+      public boolean hasNext() {
+        return nextBatch != null;
+      }
+
+      public CsvBatch next() {
+        if (nextBatch == null) {
+          throw new NoSuchElementException();
+        }
+        CsvBatch temp = nextBatch;
+        nextBatch = read();
+        return temp;
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException("This is a read only iterator.");
+      }
+
+      private CsvBatch read() {
+        try {
+          return readBatch(maxRows);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+  }
+
+  /**
+   * @return true if lines are put straight into a LazyCsvRecord for the parser
+   */
+  private boolean readsIntoRecord() throws IOException {
+    skipLines();
+    return hasNext && lines instanceof LineSource.IntoRecord && parser instanceof CharArrayCsvParser;
+  }
+
+  /**
+   * @return true if the fields of lines are found on their bytes (see readNext(ByteCsvRecord))
+   */
+  private boolean readsBytes() throws IOException {
+    skipLines();
+    return hasNext && lines instanceof LineSource.IntoBytes && ((LineSource.IntoBytes) lines).byteCharset() != null &&
+        parser instanceof CharArrayCsvParser && ((CharArrayCsvParser) parser).scansBytes();
+  }
+
+  private ByteCsvRecord byteRecord() {
+    if (byteRecord == null) {
+      byteRecord = new ByteCsvRecord();
+    }
+    return byteRecord;
+  }
+
+  private LazyCsvRecord lineRecord() {
+    if (lineRecord == null) {
+      lineRecord = new LazyCsvRecord();
+    }
+    return lineRecord;
+  }
+
   /**
    * Reads the next line from the file.
    *
@@ -127,18 +396,56 @@ public class CsvReader implements Closeable, Iterable<String[]> {
    * @throws IOException if bad things happen during the read
    */
   // TODO: not sure I want all this nonsense about hasNext ...
-  private String getNextLine() throws IOException {
+  String getNextLine() throws IOException {
+    skipLines();
+    String nextLine = lines.readLine();
+    if (nextLine == null) {
+      hasNext = false;
+    }
+    return hasNext ? nextLine : null;
+  }
+
+  /**
+   * On the first read, skips the lines to skip and reads the header if there is one.
+   */
+  private void skipLines() throws IOException {
     if (!this.linesSkiped) {
       for (int i = 0; i < skipLines; i++) {
-        br.readLine();
+        lines.readLine();
       }
       this.linesSkiped = true;
+      if (columnNames != null) {
+        projectColumns(parser.parseLine(lines.readLine()));
+      }
     }
-    String nextLine = br.readLine();
-    if (nextLine == null) {
-      hasNext = false;
+  }
+
+  /**
+   * Replaces the parser with one that only keeps the columns named in columnNames.
+   *
+   * @param header the tokens of the header line (null if there is no header)
+   */
+  private void projectColumns(String[] header) {
+    if (header == null) {
+      return;
     }
-    return hasNext ? nextLine : null;
+    int[] columns = new int[columnNames.length];
+    for (int i = 0; i < columnNames.length; i++) {
+      columns[i] = indexOf(header, columnNames[i]);
+      if (columns[i] < 0) {
+        throw new IllegalArgumentException("Column not found in header: " + columnNames[i]);
+      }
+    }
+    parser = new CsvParserBuilder(parser).columns(columns).build();
+  }
+
+  private static int indexOf(String[] header, String name) {
+    for (int i = 0; i < header.length; i++) {
+      if (header[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
   }
 
   /**
@@ -147,7 +454,7 @@ public class CsvReader implements Closeable, Iterable<String[]> {
    * @throws IOException if the close fails
    */
   public void close() throws IOException {
-    br.close();
+    lines.close();
   }
 
   public Iterator<String[]> iterator() {
@@ -157,4 +464,29 @@ public class CsvReader implements Closeable, Iterable<String[]> {
       throw new RuntimeException(e);
     }
   }
+
+  /**
+   * A Spliterator over the remaining records that can be split: each split
+   * takes a batch of the lines, to be parsed by the thread that consumes it.
+   * See CsvSpliterator.
+   */
+  @Override
+  public Spliterator<String[]> spliterator() {
+    return new CsvSpliterator(this);
+  }
+
+  /**
+   * Returns a sequential Stream of the remaining records.  Made parallel (with
+   * Stream#parallel), the lines are still read by one thread at a time, in
+   * batches, but parsed on all the threads of the stream; the records keep
+   * the order of the file unless the stream is made unordered.
+   *
+   * An IOException from the read is thrown wrapped in a RuntimeException.
+   * Closing the stream does not close the reader.
+   *
+   * @return a Stream of the records, as the String[] readNext would return
+   */
+  public Stream<String[]> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
 }
@@ -1,11 +1,28 @@
 package net.quux00.simplecsv;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class CsvReaderBuilder {
   final Reader reader;
+  final InputStream in;
+  final Charset charset;
+  final FileChannel channel;
   int skipLines = CsvReader.DEFAULT_SKIP_LINES;
   CsvParser parser = null;
+  int[] columns = null;
+  String[] columnNames = null;
+  boolean multiLine = false;
+  int bufferSize = 0;
+  boolean memoryMapped = false;
+  int prefetchDepth = 0;
+  int prefetchBlockSize = PrefetchingInputStream.DEFAULT_BLOCK_SIZE;
 
   /**
    * Sets the reader to an underlying Csv source
@@ -17,6 +34,47 @@ public class CsvReaderBuilder {
       throw new IllegalArgumentException("Reader may not be null");
     }
     this.reader = reader;
+    this.in = null;
+    this.charset = null;
+    this.channel = null;
+  }
+
+  /**
+   * Sets the stream to an underlying Csv source and the charset of its bytes.
+   * See CsvReader#CsvReader(InputStream, Charset, int, CsvParser).
+   *
+   * @param in the stream to an underlying Csv source.
+   * @param charset the charset of the bytes
+   */
+  public CsvReaderBuilder(final InputStream in, final Charset charset) {
+    if (in == null) {
+      throw new IllegalArgumentException("InputStream may not be null");
+    }
+    if (charset == null) {
+      throw new IllegalArgumentException("Charset may not be null");
+    }
+    this.reader = null;
+    this.in = in;
+    this.charset = charset;
+    this.channel = null;
+  }
+
+  /**
+   * Opens the file at path as the underlying Csv source, reading its bytes
+   * in the given charset.  The file is closed when the CsvReader is closed.
+   *
+   * @param path the path to a Csv file
+   * @param charset the charset of the file
+   * @throws IOException if the file cannot be opened
+   */
+  public CsvReaderBuilder(final Path path, final Charset charset) throws IOException {
+    if (charset == null) {
+      throw new IllegalArgumentException("Charset may not be null");
+    }
+    this.reader = null;
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.in = Channels.newInputStream(channel);
+    this.charset = charset;
   }
 
   /**
@@ -41,13 +99,150 @@ public class CsvReaderBuilder {
   }
 
 
+  /**
+   * Only keep the tokens of the given (zero-based) columns.
+   * See CsvParserBuilder#columns for details.
+   *
+   * @param columns the indexes of the columns to keep
+   */
+  public CsvReaderBuilder columns(final int... columns) {
+    this.columns = columns;
+    this.columnNames = null;
+    return this;
+  }
+
+  /**
+   * Only keep the tokens of the named columns.  The first line after the skipped
+   * lines is read as the header to find the index of each name (which must match
+   * the parsed header token exactly) and is not returned by the reader.
+   * See CsvParserBuilder#columns for details.
+   *
+   * @param columnNames the names of the columns to keep
+   */
+  public CsvReaderBuilder columns(final String... columnNames) {
+    this.columnNames = columnNames;
+    this.columns = null;
+    return this;
+  }
+
+
+  /**
+   * If true, a record may be spread over several lines: when a line ends inside
+   * a quoted field, the record continues on the next line and the line break
+   * is kept in the field as "\n" (whatever the line terminator was).  The
+   * lines to skip and the header line are read as records too.
+   *
+   * A record is still only parsed once it is complete, so a record with a long
+   * quoted field takes memory in proportion to its length.
+   *
+   * @param multiLine true to allow line breaks in quoted fields
+   */
+  public CsvReaderBuilder multiLine(final boolean multiLine) {
+    this.multiLine = multiLine;
+    return this;
+  }
+
+
+  /**
+   * Sets the size of the buffer the input is read into, in chars for a Reader
+   * or bytes for an InputStream.  The default is 64 KiB of chars for a Reader
+   * and 8 KiB of bytes for an InputStream.  The buffer grows as needed to hold
+   * lines longer than it.
+   *
+   * @param bufferSize the size of the read buffer
+   */
+  public CsvReaderBuilder bufferSize(final int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+    }
+    this.bufferSize = bufferSize;
+    return this;
+  }
+
+
+  /**
+   * If true, the file is memory-mapped rather than read, and the lines are
+   * decoded from the mapped bytes straight into the parser's buffer, with no
+   * read() copy into the Java heap.  Files of any size are mapped in windows
+   * of 64 MB.  Only for builders made from a Path; if the charset is not
+   * ASCII-compatible (as UTF-16 is not), the file is read as usual.
+   *
+   * @param mapped true to memory-map the file
+   */
+  public CsvReaderBuilder memoryMapped(final boolean mapped) {
+    if (mapped && channel == null) {
+      throw new IllegalArgumentException("Only a file opened from a Path can be memory mapped");
+    }
+    this.memoryMapped = mapped;
+    return this;
+  }
+
+
+  /**
+   * Reads the input ahead on a thread of its own, up to depth blocks of 1 MB,
+   * so that reading overlaps parsing: while the records of one block are
+   * parsed, the next ones are being read.  This hides the latency of slow
+   * storage such as a network file system.  Closing the CsvReader stops the
+   * thread.  Only for builders made from an InputStream or a Path, and
+   * unused when the file is memory-mapped.
+   *
+   * @param depth the number of blocks to read ahead, or 0 not to read ahead
+   */
+  public CsvReaderBuilder prefetch(final int depth) {
+    return prefetch(depth, PrefetchingInputStream.DEFAULT_BLOCK_SIZE);
+  }
+
+
+  /**
+   * Reads the input ahead, up to depth blocks of blockSize bytes.
+   * See prefetch(int).
+   *
+   * @param depth the number of blocks to read ahead, or 0 not to read ahead
+   * @param blockSize the size of a block, in bytes
+   */
+  public CsvReaderBuilder prefetch(final int depth, final int blockSize) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Prefetch depth may not be negative: " + depth);
+    }
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+    }
+    if (depth > 0 && in == null) {
+      throw new IllegalArgumentException("Only an InputStream or a file opened from a Path can be prefetched");
+    }
+    this.prefetchDepth = depth;
+    this.prefetchBlockSize = blockSize;
+    return this;
+  }
+
+
   /**
    * Constructs CsvReader
    */
   public CsvReader build() {
     if (parser == null) {
-      parser = new CsvParser();
+      parser = new CsvParserBuilder().build();
+    }
+    if (columns != null) {
+      parser = new CsvParserBuilder(parser).columns(columns).build();
+    }
+    String[] names = (columnNames != null && columnNames.length > 0) ? columnNames.clone() : null;
+    LineSource lines;
+    if (memoryMapped && ByteLineReader.isAsciiCompatible(charset)) {
+      try {
+        lines = new MappedLineReader(channel, charset);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    } else if (reader == null) {
+      InputStream input = prefetchDepth > 0 ? new PrefetchingInputStream(in, prefetchDepth, prefetchBlockSize) : in;
+      lines = CsvReader.lineSource(input, charset, bufferSize);
+    } else {
+      lines = CsvReader.lineSource(reader, bufferSize);
+    }
+    if (multiLine) {
+      lines = new MultiLineRecordSource(lines, parser);
     }
-    return new CsvReader(reader, skipLines, parser);
+    return new CsvReader(lines, skipLines, parser, names);
   }
 }
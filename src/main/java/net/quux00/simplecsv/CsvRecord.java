@@ -0,0 +1,70 @@
+package net.quux00.simplecsv;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A reusable holder for the tokens of one CSV line: a growable String array
+ * plus a field count.
+ *
+ * Pass the same CsvRecord to CsvParser#parseLine(String, CsvRecord) or
+ * CsvReader#readNext(CsvRecord) for every line and the only per-line
+ * allocations left are the token Strings themselves.  If you know how many
+ * columns your data has, give that as the initial capacity so the backing
+ * array never has to grow.
+ *
+ * The contents are replaced on each parse, so copy out anything you want
+ * to keep (e.g., with toArray(new String[0])).
+ *
+ * @NotThreadSafe
+ */
+public class CsvRecord extends AbstractList<String> implements RandomAccess {
+
+  static final int DEFAULT_CAPACITY = 16;
+
+  private String[] fields;
+  private int size;
+
+  public CsvRecord() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity  initial number of fields the record can hold before growing
+   */
+  public CsvRecord(int capacity) {
+    fields = new String[Math.max(capacity, 1)];
+  }
+
+  @Override
+  public String get(int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return fields[index];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean add(String field) {
+    if (size == fields.length) {
+      fields = Arrays.copyOf(fields, size * 2);
+    }
+    fields[size++] = field;
+    return true;
+  }
+
+  /**
+   * Empties the record, keeping the backing array for reuse.
+   */
+  @Override
+  public void clear() {
+    Arrays.fill(fields, 0, size, null);
+    size = 0;
+  }
+}
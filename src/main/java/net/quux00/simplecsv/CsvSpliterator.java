@@ -0,0 +1,137 @@
+package net.quux00.simplecsv;
+
+import java.io.IOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the records of a CsvReader, for CsvReader#stream.
+ *
+ * trySplit reads a batch of lines (or, in multi-line mode, of whole records)
+ * and hands them off unparsed: they are parsed by whichever thread takes the
+ * batch, with the reader's parser, which is thread-safe.  So in a parallel
+ * stream the reading stays on one thread at a time but the parsing is spread
+ * over the fork-join workers.  The batches grow by BATCH_UNIT lines with each
+ * split, as do those of Spliterators#spliteratorUnknownSize, so a small input
+ * is not all read by the first split.
+ *
+ * @NotThreadSafe - as with any Spliterator, each is used by one thread at a
+ * time; the batches split off are independent of the reader.
+ */
+final class CsvSpliterator implements Spliterator<String[]> {
+
+  static final int BATCH_UNIT = 1024;
+  static final int MAX_BATCH = 1 << 25;
+
+  private static final int CHARACTERISTICS = ORDERED | NONNULL;
+
+  private final CsvReader reader;
+  private int batch;  // lines in the last batch split off
+
+  CsvSpliterator(final CsvReader reader) {
+    this.reader = reader;
+  }
+
+  public boolean tryAdvance(final Consumer<? super String[]> action) {
+    String[] record = read();
+    if (record == null) {
+      return false;
+    }
+    action.accept(record);
+    return true;
+  }
+
+  public void forEachRemaining(final Consumer<? super String[]> action) {
+    String[] record;
+    while ((record = read()) != null) {
+      action.accept(record);
+    }
+  }
+
+  private String[] read() {
+    try {
+      return reader.readNext();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public Spliterator<String[]> trySplit() {
+    final int n = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+    final String[] lines = new String[n];
+    int count = 0;
+    try {
+      String ln;
+      while (count < n && (ln = reader.getNextLine()) != null) {
+        lines[count++] = ln;
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    if (count == 0) {
+      return null;
+    }
+    batch = count;
+    // the parser is read after the lines, as the header read on the first one may replace it
+    return new Batch(lines, 0, count, reader.parser);
+  }
+
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  public int characteristics() {
+    return CHARACTERISTICS;
+  }
+
+  /**
+   * Unparsed lines split off the reader, parsed as they are consumed.
+   */
+  static final class Batch implements Spliterator<String[]> {
+    private final String[] lines;
+    private int index;        // next line to parse
+    private final int fence;  // one past the last line
+    private final CsvParser parser;
+
+    Batch(final String[] lines, final int index, final int fence, final CsvParser parser) {
+      this.lines = lines;
+      this.index = index;
+      this.fence = fence;
+      this.parser = parser;
+    }
+
+    public boolean tryAdvance(final Consumer<? super String[]> action) {
+      if (index >= fence) {
+        return false;
+      }
+      String ln = lines[index];
+      lines[index++] = null;  // let the line go once parsed
+      action.accept(parser.parseLine(ln));
+      return true;
+    }
+
+    public void forEachRemaining(final Consumer<? super String[]> action) {
+      while (tryAdvance(action)) {
+        // parses the next line
+      }
+    }
+
+    public Spliterator<String[]> trySplit() {
+      final int mid = (index + fence) >>> 1;
+      if (mid <= index) {
+        return null;
+      }
+      Batch prefix = new Batch(lines, index, mid, parser);
+      index = mid;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    public int characteristics() {
+      return CHARACTERISTICS | SIZED | SUBSIZED;
+    }
+  }
+}
@@ -0,0 +1,500 @@
+package net.quux00.simplecsv;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A whole Csv file held in memory column by column, as loaded by
+ * CsvTableBuilder#load.  Each column has a ColumnType and is stored in as
+ * few objects as that allows:
+ *
+ *   INT, LONG, DOUBLE - one int[], long[] or double[], with a BitSet marking
+ *                       the empty fields (see isNull)
+ *   STRING            - while the column has few distinct values, a char
+ *                       code per row into an array of them (a dictionary);
+ *                       otherwise all values packed into one char[] with an
+ *                       int per row for where each ends
+ *
+ * so a table takes a few bytes per field rather than the String[] per row
+ * and String per field that CsvReader#readAll holds on to.
+ *
+ * A table is not changed once loaded, so it can be read by several threads
+ * at once (once it is published safely to them).
+ */
+public class CsvTable {
+
+  // the most distinct values a dictionary-encoded column can have: its codes are chars
+  static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+  private final String[] names;  // null without a header
+  private final Column[] columns;
+  private final int rows;
+
+  CsvTable(final String[] names, final Column[] columns, final int rows) {
+    this.names = names;
+    this.columns = columns;
+    this.rows = rows;
+  }
+
+  /**
+   * @return the number of rows in the table, not counting a header
+   */
+  public int rowCount() {
+    return rows;
+  }
+
+  /**
+   * @return the number of columns in the table
+   */
+  public int columnCount() {
+    return columns.length;
+  }
+
+  /**
+   * @return the name of column c from the header, or null if the table was
+   *         loaded without one
+   */
+  public String columnName(final int c) {
+    column(c);
+    return names == null ? null : names[c];
+  }
+
+  /**
+   * @return the first column named name in the header, or -1 if there is none
+   */
+  public int columnIndex(final String name) {
+    if (names != null) {
+      for (int c = 0; c < names.length; c++) {
+        if (names[c].equals(name)) {
+          return c;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the type column c is stored as
+   */
+  public ColumnType columnType(final int c) {
+    return column(c).type;
+  }
+
+  /**
+   * @return true if column c is numeric and the field in row r was empty
+   *         (its getters then return 0).  Fields of a STRING column are
+   *         never null: an empty field is "".
+   */
+  public boolean isNull(final int r, final int c) {
+    final Column column = column(c);
+    return column.nulls != null && column.nulls.get(checkRow(r));
+  }
+
+  /**
+   * @return the value in row r of an INT column
+   * @throws UnsupportedOperationException for the other column types
+   */
+  public int getInt(final int r, final int c) {
+    return column(c).getInt(checkRow(r));
+  }
+
+  /**
+   * @return the value in row r of an INT or LONG column
+   * @throws UnsupportedOperationException for the other column types
+   */
+  public long getLong(final int r, final int c) {
+    return column(c).getLong(checkRow(r));
+  }
+
+  /**
+   * @return the value in row r of an INT, LONG or DOUBLE column
+   * @throws UnsupportedOperationException for a STRING column
+   */
+  public double getDouble(final int r, final int c) {
+    return column(c).getDouble(checkRow(r));
+  }
+
+  /**
+   * @return the value in row r of column c as a String: the field itself for
+   *         a STRING column, else the number as Integer/Long/Double#toString
+   *         writes it or "" if it is null
+   */
+  public String getString(final int r, final int c) {
+    return column(c).getString(checkRow(r));
+  }
+
+  /**
+   * @return the number of distinct values of column c if it is a
+   *         dictionary-encoded STRING column, else -1
+   */
+  public int dictionarySize(final int c) {
+    final Column column = column(c);
+    if (column instanceof StringColumn && ((StringColumn) column).dictionary != null) {
+      return ((StringColumn) column).dictionary.length;
+    }
+    return -1;
+  }
+
+  private Column column(final int c) {
+    if (c < 0 || c >= columns.length) {
+      throw new IndexOutOfBoundsException("Column: " + c + ", Columns: " + columns.length);
+    }
+    return columns[c];
+  }
+
+  private int checkRow(final int r) {
+    if (r < 0 || r >= rows) {
+      throw new IndexOutOfBoundsException("Row: " + r + ", Rows: " + rows);
+    }
+    return r;
+  }
+
+
+  /* -------------------------------------------- */
+  /* ---[ column storage for CsvTableBuilder ]--- */
+  /* -------------------------------------------- */
+
+  static Column newColumn(final ColumnType type) {
+    switch (type) {
+    case INT:
+      return new IntColumn();
+    case LONG:
+      return new LongColumn();
+    case DOUBLE:
+      return new DoubleColumn();
+    default:
+      return new StringColumn();
+    }
+  }
+
+  /**
+   * The values of one column, appended row by row while the table is loaded.
+   */
+  abstract static class Column {
+    static final int INITIAL_CAPACITY = 1024;
+
+    final ColumnType type;
+    BitSet nulls;  // numeric columns: the rows whose field was empty, null if there are none
+    int size;
+
+    Column(final ColumnType type) {
+      this.type = type;
+    }
+
+    /**
+     * Appends buf[start, end) as the value of the next row.
+     * @throws NumberFormatException if a numeric column cannot parse it
+     */
+    abstract void add(char[] buf, int start, int end);
+
+    /**
+     * Shrinks the storage to the values added, once they all have been.
+     */
+    abstract void trim();
+
+    /**
+     * Marks the next row as null if buf[start, end) is empty.
+     * @return true if it is
+     */
+    final boolean isNull(final int start, final int end) {
+      if (start < end) {
+        return false;
+      }
+      if (nulls == null) {
+        nulls = new BitSet();
+      }
+      nulls.set(size);
+      return true;
+    }
+
+    final boolean isNull(final int r) {
+      return nulls != null && nulls.get(r);
+    }
+
+    int getInt(final int r) {
+      throw new UnsupportedOperationException("Not an INT column: " + type);
+    }
+
+    long getLong(final int r) {
+      throw new UnsupportedOperationException("Not an INT or LONG column: " + type);
+    }
+
+    double getDouble(final int r) {
+      throw new UnsupportedOperationException("Not a numeric column: " + type);
+    }
+
+    abstract String getString(int r);
+  }
+
+  static final class IntColumn extends Column {
+    private int[] values = new int[INITIAL_CAPACITY];
+
+    IntColumn() {
+      super(ColumnType.INT);
+    }
+
+    void add(final char[] buf, final int start, final int end) {
+      long v = 0;
+      if (!isNull(start, end)) {
+        v = FieldValues.parseDigits(buf, start, end, 10);
+        if (v == FieldValues.NOT_SIMPLE || v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+          v = Integer.parseInt(new String(buf, start, end - start));
+        }
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, CsvBatch.grow(size, size + 1L, "rows"));
+      }
+      values[size++] = (int) v;
+    }
+
+    void trim() {
+      values = Arrays.copyOf(values, size);
+    }
+
+    int getInt(final int r) {
+      return values[r];
+    }
+
+    long getLong(final int r) {
+      return values[r];
+    }
+
+    double getDouble(final int r) {
+      return values[r];
+    }
+
+    String getString(final int r) {
+      return isNull(r) ? "" : Integer.toString(values[r]);
+    }
+  }
+
+  static final class LongColumn extends Column {
+    private long[] values = new long[INITIAL_CAPACITY];
+
+    LongColumn() {
+      super(ColumnType.LONG);
+    }
+
+    void add(final char[] buf, final int start, final int end) {
+      long v = 0;
+      if (!isNull(start, end)) {
+        v = FieldValues.parseDigits(buf, start, end, 18);
+        if (v == FieldValues.NOT_SIMPLE) {
+          v = Long.parseLong(new String(buf, start, end - start));
+        }
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, CsvBatch.grow(size, size + 1L, "rows"));
+      }
+      values[size++] = v;
+    }
+
+    void trim() {
+      values = Arrays.copyOf(values, size);
+    }
+
+    long getLong(final int r) {
+      return values[r];
+    }
+
+    double getDouble(final int r) {
+      return values[r];
+    }
+
+    String getString(final int r) {
+      return isNull(r) ? "" : Long.toString(values[r]);
+    }
+  }
+
+  static final class DoubleColumn extends Column {
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    DoubleColumn() {
+      super(ColumnType.DOUBLE);
+    }
+
+    void add(final char[] buf, final int start, final int end) {
+      double d = 0;
+      if (!isNull(start, end)) {
+        d = FieldValues.parseSimpleDouble(buf, start, end);
+        if (d != d) {
+          d = Double.parseDouble(new String(buf, start, end - start));
+        }
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, CsvBatch.grow(size, size + 1L, "rows"));
+      }
+      values[size++] = d;
+    }
+
+    void trim() {
+      values = Arrays.copyOf(values, size);
+    }
+
+    double getDouble(final int r) {
+      return values[r];
+    }
+
+    String getString(final int r) {
+      return isNull(r) ? "" : Double.toString(values[r]);
+    }
+  }
+
+  /**
+   * Starts out dictionary-encoded and switches to packed chars for good once
+   * it has more distinct values than a char code can tell apart, or once
+   * more than half of (at least INITIAL_CAPACITY) rows have values not seen
+   * before, as the dictionary then saves little.
+   *
+   * The dictionary is looked up straight from the chars, in an open
+   * addressing table of codes hashed as String#hashCode does, so a String is
+   * only made for a value the first time it is seen.
+   */
+  static final class StringColumn extends Column {
+    // dictionary-encoded
+    String[] dictionary = new String[16];
+    private int distinct;
+    private int[] slots = new int[32];  // code + 1 of the value hashed there, 0 if none
+    private char[] rowCodes = new char[INITIAL_CAPACITY];
+
+    // packed
+    private char[] chars;
+    private int length;  // chars used
+    private int[] ends;  // row r is chars[r == 0 ? 0 : ends[r - 1], ends[r])
+
+    StringColumn() {
+      super(ColumnType.STRING);
+    }
+
+    void add(final char[] buf, final int start, final int end) {
+      if (dictionary != null) {
+        final int code = code(buf, start, end);
+        if (code >= 0) {
+          if (size == rowCodes.length) {
+            rowCodes = Arrays.copyOf(rowCodes, CsvBatch.grow(size, size + 1L, "rows"));
+          }
+          rowCodes[size++] = (char) code;
+          return;
+        }
+        pack();
+      }
+      append(buf, start, end);
+    }
+
+    /**
+     * @return the code of buf[start, end), adding it to the dictionary if it
+     *         is new, or -1 if the column should be packed instead
+     */
+    private int code(final char[] buf, final int start, final int end) {
+      final int len = end - start;
+      int h = 0;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + buf[i];
+      }
+      final int mask = slots.length - 1;
+      int i = spread(h) & mask;
+      for (int slot; (slot = slots[i]) != 0; i = (i + 1) & mask) {
+        final String s = dictionary[slot - 1];
+        if (s.length() == len && matches(s, buf, start)) {
+          return slot - 1;
+        }
+      }
+
+      if (distinct == MAX_DICTIONARY_SIZE || (size >= INITIAL_CAPACITY && distinct > size / 2)) {
+        return -1;
+      }
+      if (distinct == dictionary.length) {
+        dictionary = Arrays.copyOf(dictionary, distinct * 2);
+      }
+      dictionary[distinct] = new String(buf, start, len);
+      slots[i] = ++distinct;
+      if (distinct * 2 > slots.length) {
+        rehash();
+      }
+      return distinct - 1;
+    }
+
+    private static boolean matches(final String s, final char[] buf, final int start) {
+      for (int k = 0; k < s.length(); k++) {
+        if (s.charAt(k) != buf[start + k]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static int spread(final int h) {
+      return h ^ (h >>> 16);
+    }
+
+    private void rehash() {
+      slots = new int[slots.length * 2];
+      final int mask = slots.length - 1;
+      for (int code = 0; code < distinct; code++) {
+        int i = spread(dictionary[code].hashCode()) & mask;
+        while (slots[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        slots[i] = code + 1;
+      }
+    }
+
+    /**
+     * Switches to packed chars, copying in the values added so far.
+     */
+    private void pack() {
+      long need = 0;
+      for (int r = 0; r < size; r++) {
+        need += dictionary[rowCodes[r]].length();
+      }
+      chars = new char[CsvBatch.grow((int) Math.min(need, Integer.MAX_VALUE), Math.max(need, 16), "chars")];
+      ends = new int[Math.max(CsvBatch.grow(size, size, "rows"), INITIAL_CAPACITY)];
+      final int n = size;
+      size = 0;
+      for (int r = 0; r < n; r++) {
+        final String s = dictionary[rowCodes[r]];
+        s.getChars(0, s.length(), chars, length);
+        length += s.length();
+        ends[size++] = length;
+      }
+      dictionary = null;
+      slots = null;
+      rowCodes = null;
+    }
+
+    private void append(final char[] buf, final int start, final int end) {
+      final int len = end - start;
+      if (length + len > chars.length) {
+        chars = Arrays.copyOf(chars, CsvBatch.grow(chars.length, (long) length + len, "chars"));
+      }
+      if (size == ends.length) {
+        ends = Arrays.copyOf(ends, CsvBatch.grow(size, size + 1L, "rows"));
+      }
+      System.arraycopy(buf, start, chars, length, len);
+      length += len;
+      ends[size++] = length;
+    }
+
+    void trim() {
+      if (dictionary != null && distinct > size / 2) {
+        pack();
+      }
+      if (dictionary != null) {
+        dictionary = Arrays.copyOf(dictionary, distinct);
+        rowCodes = Arrays.copyOf(rowCodes, size);
+        slots = null;
+      } else {
+        chars = Arrays.copyOf(chars, length);
+        ends = Arrays.copyOf(ends, size);
+      }
+    }
+
+    String getString(final int r) {
+      if (dictionary != null) {
+        return dictionary[rowCodes[r]];
+      }
+      final int start = r == 0 ? 0 : ends[r - 1];
+      return new String(chars, start, ends[r] - start);
+    }
+  }
+}
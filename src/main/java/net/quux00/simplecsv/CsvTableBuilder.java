@@ -0,0 +1,179 @@
+package net.quux00.simplecsv;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the records of a CsvReader into a CsvTable.
+ *
+ * With columnTypes given, each record is parsed into the columns as it is
+ * read.  Without, the type of each column is inferred from all of its
+ * values: the rows are first read into CsvBatches (a few bytes per field),
+ * then each batch is parsed into the columns and dropped.  Empty fields do
+ * not count, and a column with nothing but empty fields is a STRING column.
+ * A column of both INT and DOUBLE values is DOUBLE, but one of LONG and
+ * DOUBLE values is STRING, so no long is rounded to a double.
+ */
+public class CsvTableBuilder {
+
+  static final int BATCH_ROWS = 8192;
+
+  final CsvReader reader;
+  boolean header = false;
+  ColumnType[] types = null;
+
+  /**
+   * @param reader the reader to load all (remaining) records of; it is not closed
+   */
+  public CsvTableBuilder(final CsvReader reader) {
+    if (reader == null) {
+      throw new IllegalArgumentException("CsvReader may not be null");
+    }
+    this.reader = reader;
+  }
+
+  /**
+   * Whether the first record holds the column names rather than values.
+   */
+  public CsvTableBuilder header(final boolean header) {
+    this.header = header;
+    return this;
+  }
+
+  /**
+   * The type of each column, in order, rather than inferring them.  A field
+   * of a numeric column that is not a number then fails the load with a
+   * NumberFormatException.
+   */
+  public CsvTableBuilder columnTypes(final ColumnType... types) {
+    if (types.length == 0) {
+      throw new IllegalArgumentException("At least one column type must be given");
+    }
+    for (ColumnType t : types) {
+      if (t == null) {
+        throw new IllegalArgumentException("Column types may not be null");
+      }
+    }
+    this.types = types.clone();
+    return this;
+  }
+
+  /**
+   * Reads all records left in the reader into a new table.  There are as
+   * many columns as columnTypes gives or else as the header has or else as
+   * the longest record has.  Fields past the last column are dropped and
+   * missing ones are taken to be empty.
+   */
+  public CsvTable load() throws IOException {
+    LazyCsvRecord record = new LazyCsvRecord();
+    String[] names = null;
+    if (header) {
+      if (reader.readNext(record) == null) {
+        return new CsvTable(new String[0], new CsvTable.Column[0], 0);
+      }
+      names = new String[record.size()];
+      for (int c = 0; c < names.length; c++) {
+        names[c] = record.get(c);
+      }
+      if (types != null && types.length != names.length) {
+        throw new IllegalArgumentException("The header has " + names.length + " columns but "
+            + types.length + " column types were given");
+      }
+    }
+    return types != null ? loadDeclared(record, names) : loadInferred(names);
+  }
+
+  private CsvTable loadDeclared(final LazyCsvRecord record, final String[] names) throws IOException {
+    final CsvTable.Column[] columns = newColumns(types);
+    int rows = 0;
+    while (reader.readNext(record) != null) {
+      final int n = Math.min(record.size(), columns.length);
+      int c = 0;
+      try {
+        for (; c < n; c++) {
+          columns[c].add(record.buf, record.starts[c], record.ends[c]);
+        }
+        for (; c < columns.length; c++) {
+          columns[c].add(record.buf, 0, 0);
+        }
+      } catch (NumberFormatException e) {
+        throw rowFailure(rows, c, names, e);
+      }
+      rows++;
+    }
+    return table(names, columns, rows);
+  }
+
+  private CsvTable loadInferred(final String[] names) throws IOException {
+    final List<CsvBatch> batches = new ArrayList<CsvBatch>();
+    ColumnType[] inferred = new ColumnType[names == null ? 0 : names.length];
+    CsvBatch batch;
+    while ((batch = reader.readBatch(BATCH_ROWS)) != null) {
+      batches.add(batch);
+      for (int r = 0; r < batch.size(); r++) {
+        final int n = names == null ? batch.columns(r) : Math.min(batch.columns(r), names.length);
+        if (n > inferred.length) {
+          final ColumnType[] more = new ColumnType[n];
+          System.arraycopy(inferred, 0, more, 0, inferred.length);
+          inferred = more;
+        }
+        for (int c = 0; c < n; c++) {
+          final int f = batch.index(r, c);
+          final int start = batch.start(f);
+          final int end = batch.end(f);
+          if (start < end && inferred[c] != ColumnType.STRING) {
+            inferred[c] = ColumnType.of(batch.chars, start, end).widen(inferred[c]);
+          }
+        }
+      }
+    }
+    for (int c = 0; c < inferred.length; c++) {
+      if (inferred[c] == null) {
+        inferred[c] = ColumnType.STRING;
+      }
+    }
+
+    final CsvTable.Column[] columns = newColumns(inferred);
+    int rows = 0;
+    for (int i = 0; i < batches.size(); i++) {
+      batch = batches.set(i, null);
+      for (int r = 0; r < batch.size(); r++, rows++) {
+        final int n = Math.min(batch.columns(r), columns.length);
+        int c = 0;
+        for (; c < n; c++) {
+          final int f = batch.index(r, c);
+          columns[c].add(batch.chars, batch.start(f), batch.end(f));
+        }
+        for (; c < columns.length; c++) {
+          columns[c].add(batch.chars, 0, 0);
+        }
+      }
+    }
+    return table(names, columns, rows);
+  }
+
+  private static CsvTable.Column[] newColumns(final ColumnType[] types) {
+    final CsvTable.Column[] columns = new CsvTable.Column[types.length];
+    for (int c = 0; c < columns.length; c++) {
+      columns[c] = CsvTable.newColumn(types[c]);
+    }
+    return columns;
+  }
+
+  private static CsvTable table(final String[] names, final CsvTable.Column[] columns, final int rows) {
+    for (CsvTable.Column column : columns) {
+      column.trim();
+    }
+    return new CsvTable(names, columns, rows);
+  }
+
+  private static NumberFormatException rowFailure(final int row, final int c, final String[] names,
+      final NumberFormatException cause) {
+    final String column = names == null ? Integer.toString(c) : c + " (" + names[c] + ")";
+    final NumberFormatException e = new NumberFormatException("Row " + row + ", column " + column
+        + ": " + cause.getMessage());
+    e.initCause(cause);
+    return e;
+  }
+}
@@ -0,0 +1,177 @@
+package net.quux00.simplecsv;
+
+/**
+ * Parses numbers and booleans straight from a field in a char[] or a byte[],
+ * without making a String of it, for LazyCsvRecord, ByteCsvRecord, CsvBatch
+ * and CsvTable.  Each parse is written once for both kinds of buffer: one of
+ * chars and bytes is null and at() reads from the other.  Bytes are read
+ * signed, so a byte outside ASCII is never taken for a digit or a letter.
+ *
+ * Only the simple forms are parsed here; the callers hand anything else
+ * (NOT_SIMPLE or NaN) to the JDK, so the results are always those of
+ * Integer.parseInt, Long.parseLong and Double.parseDouble.
+ */
+final class FieldValues {
+
+  // returned by parseDigits when the field has to be parsed by the JDK instead
+  static final long NOT_SIMPLE = Long.MIN_VALUE;
+
+  // the powers of ten that are exact as doubles
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+    1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private FieldValues() {
+  }
+
+  /**
+   * Parses buf[start, end) as an optional sign followed by one to maxDigits ASCII digits.
+   * With maxDigits of at most 18 this cannot overflow.
+   * @return the value or NOT_SIMPLE if the chars are not in that form
+   */
+  static long parseDigits(char[] buf, int start, int end, int maxDigits) {
+    return parseDigits(buf, null, start, end, maxDigits);
+  }
+
+  /**
+   * Same as parseDigits(char[], int, int, int), on bytes.
+   */
+  static long parseDigits(byte[] buf, int start, int end, int maxDigits) {
+    return parseDigits(null, buf, start, end, maxDigits);
+  }
+
+  /**
+   * Parses buf[start, end) if it is a decimal number of the form
+   * [sign] digits [. digits] [(e|E) [sign] digits] with at most 15 significant
+   * digits and a resulting power of ten of at most 22 either way.  Both the
+   * digits and the power of ten are then exact doubles, so a single multiply
+   * or divide gives the correctly rounded result, as Double.parseDouble does.
+   * @return the value or NaN if the chars are not in that form
+   */
+  static double parseSimpleDouble(char[] buf, int start, int end) {
+    return parseSimpleDouble(buf, null, start, end);
+  }
+
+  /**
+   * Same as parseSimpleDouble(char[], int, int), on bytes.
+   */
+  static double parseSimpleDouble(byte[] buf, int start, int end) {
+    return parseSimpleDouble(null, buf, start, end);
+  }
+
+  /**
+   * @return true if buf[start, end) is "true", ignoring case
+   */
+  static boolean isTrue(char[] buf, int start, int end) {
+    return isTrue(buf, null, start, end);
+  }
+
+  /**
+   * Same as isTrue(char[], int, int), on bytes.
+   */
+  static boolean isTrue(byte[] buf, int start, int end) {
+    return isTrue(null, buf, start, end);
+  }
+
+  private static int at(final char[] chars, final byte[] bytes, final int p) {
+    return chars != null ? chars[p] : bytes[p];
+  }
+
+  private static long parseDigits(final char[] chars, final byte[] bytes, final int start, final int end,
+      final int maxDigits) {
+    int p = start;
+    boolean negative = false;
+    if (p < end) {
+      final int c = at(chars, bytes, p);
+      if (c == '-' || c == '+') {
+        negative = c == '-';
+        p++;
+      }
+    }
+    if (p == end || end - p > maxDigits) {
+      return NOT_SIMPLE;
+    }
+    long v = 0;
+    for (; p < end; p++) {
+      int d = at(chars, bytes, p) - '0';
+      if (d < 0 || d > 9) {
+        return NOT_SIMPLE;
+      }
+      v = v * 10 + d;
+    }
+    return negative ? -v : v;
+  }
+
+  private static double parseSimpleDouble(final char[] chars, final byte[] bytes, final int start, final int end) {
+    int p = start;
+    boolean negative = false;
+    if (p < end) {
+      final int c = at(chars, bytes, p);
+      if (c == '-' || c == '+') {
+        negative = c == '-';
+        p++;
+      }
+    }
+
+    long mantissa = 0;
+    int digits = 0;        // significant digits in the mantissa
+    int anyDigits = 0;     // all digits, including leading zeros
+    int exponent = 0;
+    boolean dot = false;
+    for (; p < end; p++) {
+      int c = at(chars, bytes, p);
+      if (c >= '0' && c <= '9') {
+        anyDigits++;
+        if (mantissa != 0 || c != '0') {
+          if (++digits > 15) {
+            return Double.NaN;
+          }
+          mantissa = mantissa * 10 + (c - '0');
+        }
+        if (dot) {
+          exponent--;
+        }
+      } else if (c == '.' && !dot) {
+        dot = true;
+      } else {
+        break;
+      }
+    }
+    if (anyDigits == 0) {
+      return Double.NaN;
+    }
+
+    if (p < end) {
+      int c = at(chars, bytes, p++);
+      if (c != 'e' && c != 'E') {
+        return Double.NaN;
+      }
+      long v = parseDigits(chars, bytes, p, end, 3);
+      if (v == NOT_SIMPLE) {
+        return Double.NaN;
+      }
+      exponent += (int) v;
+    }
+
+    double d = mantissa;
+    if (exponent < 0) {
+      if (exponent < -22) {
+        return Double.NaN;
+      }
+      d /= POWERS_OF_TEN[-exponent];
+    } else if (exponent > 0) {
+      if (exponent > 22) {
+        return Double.NaN;
+      }
+      d *= POWERS_OF_TEN[exponent];
+    }
+    return negative ? -d : d;
+  }
+
+  private static boolean isTrue(final char[] chars, final byte[] bytes, final int start, final int end) {
+    return end - start == 4 &&
+        (at(chars, bytes, start) | 0x20) == 't' && (at(chars, bytes, start + 1) | 0x20) == 'r' &&
+        (at(chars, bytes, start + 2) | 0x20) == 'u' && (at(chars, bytes, start + 3) | 0x20) == 'e';
+  }
+}
@@ -0,0 +1,58 @@
+package net.quux00.simplecsv;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A CharSequence over a field in a char[], or in a byte[] where the field is
+ * all ASCII, as handed out by LazyCsvRecord, ByteCsvRecord and CsvBatch.
+ * It reads the array it was made over, so it is only valid for as long as
+ * its owner keeps the field there.
+ */
+final class FieldView implements CharSequence {
+  private final char[] chars;  // null for a view of bytes
+  private final byte[] bytes;  // null for a view of chars
+  private final int start;
+  private final int end;
+
+  FieldView(char[] chars, int start, int end) {
+    this(chars, null, start, end);
+  }
+
+  /**
+   * @param bytes holding ASCII in [start, end), each byte being the char of its value
+   */
+  FieldView(byte[] bytes, int start, int end) {
+    this(null, bytes, start, end);
+  }
+
+  private FieldView(char[] chars, byte[] bytes, int start, int end) {
+    this.chars = chars;
+    this.bytes = bytes;
+    this.start = start;
+    this.end = end;
+  }
+
+  public int length() {
+    return end - start;
+  }
+
+  public char charAt(int index) {
+    if (index < 0 || index >= end - start) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + (end - start));
+    }
+    return chars != null ? chars[start + index] : (char) bytes[start + index];
+  }
+
+  public CharSequence subSequence(int from, int to) {
+    if (from < 0 || to > end - start || from > to) {
+      throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), Length: " + (end - start));
+    }
+    return new FieldView(chars, bytes, start + from, start + to);
+  }
+
+  @Override
+  public String toString() {
+    return chars != null ? new String(chars, start, end - start)
+        : new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+  }
+}
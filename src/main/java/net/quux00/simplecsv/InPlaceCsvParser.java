@@ -0,0 +1,52 @@
+package net.quux00.simplecsv;
+
+/**
+ * CharArrayCsvParser for the default settings and any others where nothing is
+ * ever dropped from a token while scanning: strictQuotes=false and
+ * retainEscapeChars=true.  Each token is then simply the chars between two
+ * separators, so the scan loop only tracks the quote and escape state and never
+ * writes to the buffer.  Trimming and quoting are done per token as usual.
+ *
+ * Chosen by CsvParserBuilder#build for those settings.
+ *
+ * @ThreadSafe
+ */
+class InPlaceCsvParser extends CharArrayCsvParser {
+
+  InPlaceCsvParser(final CsvParserBuilder builder) {
+    super(builder);
+  }
+
+  @Override
+  void scan(final char[] buf, final int end, final LazyCsvRecord record) {
+    boolean inQuotes = false;
+    boolean inEscape = false;
+    int start = 1;
+
+    for (int r = 1; r < end; r++) {
+      byte cls = charClass(buf[r]);
+
+      if (cls == QUOTE) {
+        if (!inEscape) {
+          inQuotes = !inQuotes;
+        }
+        inEscape = false;
+
+      } else if (cls == ESCAPE) {
+        inEscape = !inEscape;
+
+      } else if (cls == SEPARATOR && !inQuotes) {
+        endOfToken(record, buf, start, r);
+        inEscape = false;
+        start = r + 1;
+
+      } else {
+        inEscape = false;
+        r = skipOrdinary(buf, r + 1, end) - 1;
+      }
+    }
+
+    checkBalanced(inQuotes);
+    endOfToken(record, buf, start, end);
+  }
+}
@@ -0,0 +1,92 @@
+package net.quux00.simplecsv;
+
+/**
+ * CharArrayCsvParser that first finds the positions of all separators, quote
+ * chars and escape chars in the line with a StructuralIndexer and then runs the
+ * parsing state machine over those positions only.  The chars between two
+ * indexed positions are ordinary, so they are handled as one run.
+ *
+ * This pays off for wide lines with long stretches of ordinary chars when the
+ * indexer can use the Vector API (see StructuralIndexer).  Handles every
+ * setting except strictQuotes.
+ *
+ * Chosen by CsvParserBuilder#build when vectorScanning(true) is set and the
+ * Vector API is available.
+ *
+ * @ThreadSafe
+ */
+class IndexedCsvParser extends CharArrayCsvParser {
+
+  private final StructuralIndexer indexer;
+
+  IndexedCsvParser(final CsvParserBuilder builder) {
+    super(builder);
+    if (strictQuotes) {
+      throw new IllegalArgumentException("IndexedCsvParser does not support strictQuotes");
+    }
+    indexer = StructuralIndexer.create(this);
+  }
+
+  @Override
+  void scan(final char[] buf, final int end, final LazyCsvRecord record) {
+    final int[] idx = record.ensureIndexCapacity(end);
+    final int n = indexer.index(buf, 1, end, idx);
+
+    boolean inQuotes = false;
+    boolean inEscape = false;
+    int start = 1;
+    int w = 1;
+    int r = 1;  // index of the first char after the last structural char
+
+    for (int k = 0; k < n; k++) {
+      final int p = idx[k];
+      if (p > r) {
+        w = copyRun(buf, r, p, w, inEscape);
+        inEscape = false;
+      }
+
+      final char c = buf[p];
+      final byte cls = charClass(c);
+      if (cls == QUOTE) {
+        buf[w++] = c;
+        if (!inEscape) {
+          inQuotes = !inQuotes;
+        }
+        inEscape = false;
+
+      } else if (cls == ESCAPE) {
+        inEscape = !inEscape;
+        if (retainEscapeChars) {
+          buf[w++] = c;
+        }
+
+      } else if (!inQuotes) {
+        endOfToken(record, buf, start, w);
+        inEscape = false;
+        start = w = p + 1;
+
+      } else {
+        // separator inside quotes
+        buf[w++] = (inEscape && !retainEscapeChars) ? unescape(c) : c;
+        inEscape = false;
+      }
+      r = p + 1;
+    }
+
+    if (end > r) {
+      w = copyRun(buf, r, end, w, inEscape);
+    }
+    checkBalanced(inQuotes);
+    endOfToken(record, buf, start, w);
+  }
+
+  /**
+   * Moves the run of ordinary chars in buf[from, to) down to w, unescaping
+   * its first char if it follows an escape char that is being removed.
+   * @return the write index after the run
+   */
+  private int copyRun(final char[] buf, final int from, final int to, int w, final boolean inEscape) {
+    buf[w++] = (inEscape && !retainEscapeChars) ? unescape(buf[from]) : buf[from];
+    return moveRun(buf, from + 1, to, w);
+  }
+}
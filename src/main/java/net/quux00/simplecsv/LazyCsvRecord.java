@@ -0,0 +1,206 @@
+package net.quux00.simplecsv;
+
+import java.util.Arrays;
+
+/**
+ * A reusable record that holds the tokens of one CSV line as offsets into a
+ * char buffer rather than as Strings.  Each field is exposed as a CharSequence
+ * view onto the buffer and is only copied into a String when you ask for one
+ * with get(int) or toString() on the view.
+ *
+ * With a parser from the CsvParserBuilder (in its default charArrayScanning
+ * mode), the buffer is the scanned line itself: trimming, removal of outer
+ * quotes and removal of escape chars are done in place, so no field content
+ * is copied at all until it is asked for.  Other parsers copy their tokens
+ * into the buffer after parsing.
+ *
+ * The views returned by field(int) are only valid until the record is used to
+ * parse the next line.
+ *
+ * @NotThreadSafe
+ */
+public class LazyCsvRecord {
+
+  char[] buf;
+  int[] starts;
+  int[] ends;
+  private int size;
+  private int[] index;  // scratch space for parsers that index the line first
+
+  public LazyCsvRecord() {
+    this(CsvRecord.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity  initial number of fields the record can hold before growing
+   */
+  public LazyCsvRecord(int capacity) {
+    buf = new char[CsvParser.INITIAL_READ_SIZE];
+    starts = new int[Math.max(capacity, 1)];
+    ends = new int[starts.length];
+  }
+
+  /**
+   * @return the number of fields in the record
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of chars in field i
+   */
+  public int length(int i) {
+    checkIndex(i);
+    return ends[i] - starts[i];
+  }
+
+  /**
+   * @return a view of field i, backed by the record's buffer (no chars are copied)
+   */
+  public CharSequence field(int i) {
+    checkIndex(i);
+    return new FieldView(buf, starts[i], ends[i]);
+  }
+
+  /**
+   * @return field i copied into a new String
+   */
+  public String get(int i) {
+    checkIndex(i);
+    return new String(buf, starts[i], ends[i] - starts[i]);
+  }
+
+  /**
+   * @return all fields copied into new Strings
+   */
+  public String[] toArray() {
+    String[] ary = new String[size];
+    for (int i = 0; i < size; i++) {
+      ary[i] = new String(buf, starts[i], ends[i] - starts[i]);
+    }
+    return ary;
+  }
+
+  /**
+   * Parses field i as an int, straight from the record's buffer for plain
+   * decimal numbers.  The result, and when a NumberFormatException is thrown,
+   * is the same as for Integer.parseInt(get(i)).  The field is what the parser
+   * made of the token, so with trimWhitespace(false) a field with spaces
+   * around the number is not a number.
+   */
+  public int getInt(int i) {
+    checkIndex(i);
+    long v = FieldValues.parseDigits(buf, starts[i], ends[i], 10);
+    if (v != FieldValues.NOT_SIMPLE && v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+      return (int) v;
+    }
+    return Integer.parseInt(get(i));
+  }
+
+  /**
+   * Parses field i as a long.  Same as Long.parseLong(get(i)), see getInt.
+   */
+  public long getLong(int i) {
+    checkIndex(i);
+    long v = FieldValues.parseDigits(buf, starts[i], ends[i], 18);
+    if (v != FieldValues.NOT_SIMPLE) {
+      return v;
+    }
+    return Long.parseLong(get(i));
+  }
+
+  /**
+   * Parses field i as a double, straight from the record's buffer for decimal
+   * numbers of up to 15 significant digits (with an optional exponent).  The
+   * result, and when a NumberFormatException is thrown, is the same as for
+   * Double.parseDouble(get(i)).
+   */
+  public double getDouble(int i) {
+    checkIndex(i);
+    double d = FieldValues.parseSimpleDouble(buf, starts[i], ends[i]);
+    if (d == d) {
+      return d;
+    }
+    return Double.parseDouble(get(i));
+  }
+
+  /**
+   * @return true if field i is "true", ignoring case, as for Boolean.parseBoolean(get(i))
+   */
+  public boolean getBoolean(int i) {
+    checkIndex(i);
+    return FieldValues.isTrue(buf, starts[i], ends[i]);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private void checkIndex(int i) {
+    if (i >= size) {
+      throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+    }
+  }
+
+
+  /* --------------------------------- */
+  /* ---[ methods for the parsers ]--- */
+  /* --------------------------------- */
+
+  void clear() {
+    size = 0;
+  }
+
+  /**
+   * Makes sure the buffer can hold at least n chars, discarding its contents if it has to grow.
+   * @return the buffer
+   */
+  char[] ensureCapacity(int n) {
+    if (buf.length < n) {
+      buf = new char[Math.max(n, buf.length * 2)];
+    }
+    return buf;
+  }
+
+  /**
+   * @return an int array of at least n entries for the parser's structural index of the buffer
+   */
+  int[] ensureIndexCapacity(int n) {
+    if (index == null || index.length < n) {
+      index = new int[Math.max(n, buf.length)];
+    }
+    return index;
+  }
+
+  /**
+   * Records a field spanning buf[start, end).
+   */
+  void addField(int start, int end) {
+    if (end < start) {
+      throw new StringIndexOutOfBoundsException(end - start);
+    }
+    if (size == starts.length) {
+      starts = Arrays.copyOf(starts, size * 2);
+      ends = Arrays.copyOf(ends, size * 2);
+    }
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  /**
+   * Copies a token to the end of the buffer and records it as the next field.
+   * Used by parsers that produce Strings rather than scanning into the buffer.
+   */
+  void append(String tok) {
+    int start = size == 0 ? 0 : ends[size - 1];
+    int end = start + tok.length();
+    if (buf.length < end) {
+      buf = Arrays.copyOf(buf, Math.max(end, buf.length * 2));
+    }
+    tok.getChars(0, tok.length(), buf, start);
+    addField(start, end);
+  }
+}
@@ -0,0 +1,61 @@
+package net.quux00.simplecsv;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where the CsvReader gets its lines from.
+ */
+interface LineSource extends Closeable {
+
+  /**
+   * @return the next line without its line terminator, or null at the end of the input
+   * @throws IOException if bad things happen during the read
+   */
+  String readLine() throws IOException;
+
+
+  /**
+   * LineSource that can also put the next line straight into the buffer of a
+   * LazyCsvRecord, for the char[] scanning parsers, without creating a String
+   * for it.
+   */
+  interface IntoRecord extends LineSource {
+
+    /**
+     * Puts the next line into the buffer of the record, starting at index 1
+     * and with at least two free slots after it (the layout
+     * CharArrayCsvParser#scan(LazyCsvRecord, int) expects).
+     *
+     * @return index one past the last char of the line in the record's buffer,
+     *         or -1 at the end of the input
+     * @throws IOException if bad things happen during the read
+     */
+    int readLine(LazyCsvRecord record) throws IOException;
+  }
+
+
+  /**
+   * LineSource of bytes that can also put the next line's bytes into the
+   * buffer of a ByteCsvRecord, for the parsers that find fields on bytes
+   * (see CharArrayCsvParser#scan(ByteCsvRecord, int)).
+   */
+  interface IntoBytes extends IntoRecord {
+
+    /**
+     * @return the charset of the bytes, or null if fields cannot be found on them
+     */
+    ByteCharset byteCharset();
+
+    /**
+     * Puts the bytes of the next line into the buffer of the record, starting
+     * at index 1 and with at least two free slots after it, and sets the
+     * record's charset and whether the line is all ASCII.
+     *
+     * @return index one past the last byte of the line in the record's buffer,
+     *         or -1 at the end of the input
+     * @throws IOException if bad things happen during the read
+     */
+    int readLine(ByteCsvRecord record) throws IOException;
+  }
+}
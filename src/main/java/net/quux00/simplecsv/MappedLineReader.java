@@ -0,0 +1,275 @@
+package net.quux00.simplecsv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * LineSource that memory-maps a file and finds the lines in the mapped bytes,
+ * the way ByteLineReader does in its read buffer: with a SwarScanner, eight
+ * bytes at a time, noting whether the line is pure ASCII.
+ *
+ * There is no read() call per buffer: the line ends are found in the mapped
+ * pages themselves, and each line is copied from them in one block into a
+ * scratch array to be decoded into the record the parser scans, or into the
+ * bytes of a ByteCsvRecord for a parser that finds the fields on them.
+ *
+ * A MappedByteBuffer holds at most 2 GB, so the file is mapped in windows of
+ * DEFAULT_WINDOW_SIZE bytes.  When a line runs past the end of a window, the
+ * next window is mapped starting at that line; a window grows to hold a line
+ * longer than it.
+ *
+ * Lines end at "\n", "\r" or "\r\n", as with BufferedReader#readLine.  Only
+ * usable with charsets for which ByteLineReader#isAsciiCompatible is true.
+ *
+ * @NotThreadSafe
+ */
+final class MappedLineReader implements LineSource.IntoBytes {
+
+  static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+  // the largest window that can be mapped (a ByteBuffer has int indexes)
+  private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+  private static final byte LF = '\n';
+  private static final byte CR = '\r';
+  private static final SwarScanner LINE_ENDS = new SwarScanner(LF, CR);
+
+  private final FileChannel channel;
+  private final long size;
+  private final Charset charset;
+  private final int windowSize;
+  private MappedByteBuffer window;
+  private long windowStart;  // file position of window index 0
+  private int pos;           // start of the unread bytes in the window
+  private int limit;         // end of the window
+  private boolean skipLF;    // the last line ended with "\r", so skip a "\n" right after it
+  private boolean lineIsAscii;  // set by nextLine()
+  private byte[] lineBytes = new byte[CsvParser.INITIAL_READ_SIZE];  // scratch for the line being decoded
+  private final CharsetDecoder decoder;
+  private final ByteCharset byteCharset;
+  private final CharsetDecoder asciiDecoder = StandardCharsets.ISO_8859_1.newDecoder();
+
+  MappedLineReader(final FileChannel channel, final Charset charset) throws IOException {
+    this(channel, charset, DEFAULT_WINDOW_SIZE);
+  }
+
+  MappedLineReader(final FileChannel channel, final Charset charset, final int windowSize) throws IOException {
+    this(channel, charset, windowSize, channel.position());
+  }
+
+  /**
+   * Reads the file from the given position on, without using or changing the
+   * position of the channel, so several readers can share it.
+   */
+  MappedLineReader(final FileChannel channel, final Charset charset, final int windowSize, final long start)
+      throws IOException {
+    if (!ByteLineReader.isAsciiCompatible(charset)) {
+      throw new IllegalArgumentException("Charset is not ASCII compatible: " + charset);
+    }
+    this.channel = channel;
+    this.size = channel.size();
+    this.charset = charset;
+    this.windowSize = Math.max(windowSize, 16);
+    this.byteCharset = ByteCharset.of(charset);
+    this.decoder = charset.newDecoder().
+        onMalformedInput(CodingErrorAction.REPLACE).
+        onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.windowStart = Math.min(start, size);
+    map(0);
+  }
+
+  public String readLine() throws IOException {
+    int eol = nextLine();
+    if (eol < 0) {
+      return null;
+    }
+    final int len = copyLine(eol);
+    consumeLine(eol);
+    return new String(lineBytes, 0, len, lineIsAscii ? StandardCharsets.ISO_8859_1 : charset);
+  }
+
+  public ByteCharset byteCharset() {
+    return byteCharset;
+  }
+
+  /**
+   * Copies the bytes of the next line into the buffer of the record, for a
+   * parser that finds the fields on them.
+   */
+  public int readLine(final ByteCsvRecord record) throws IOException {
+    int eol = nextLine();
+    if (eol < 0) {
+      return -1;
+    }
+    final int len = eol - pos;
+    final byte[] bytes = record.ensureCapacity(len + 3);
+    final ByteBuffer src = window.duplicate();
+    src.position(pos);
+    src.get(bytes, 1, len);
+    record.charset = byteCharset;
+    record.ascii = lineIsAscii;
+    consumeLine(eol);
+    return len + 1;
+  }
+
+  /**
+   * Decodes the next line into the buffer of the record, without creating a
+   * String for it.
+   */
+  public int readLine(final LazyCsvRecord record) throws IOException {
+    int eol = nextLine();
+    if (eol < 0) {
+      return -1;
+    }
+    final int len = copyLine(eol);
+    // an ASCII line is decoded as ISO-8859-1, the cheapest decoder (a plain widening copy)
+    final CharsetDecoder dec = lineIsAscii ? asciiDecoder : decoder;
+    final char[] cbuf = record.ensureCapacity((int) Math.ceil(len * dec.maxCharsPerByte()) + 3);
+    final CharBuffer out = CharBuffer.wrap(cbuf, 1, cbuf.length - 3);
+    dec.reset();
+    dec.decode(ByteBuffer.wrap(lineBytes, 0, len), out, true);
+    dec.flush(out);
+    final int end = out.position();
+    consumeLine(eol);
+    return end;
+  }
+
+  /**
+   * Copies the line in window[pos, eol) into lineBytes in one block.  The JDK
+   * decoders only have their fast loops for heap arrays; fed a mapped buffer
+   * they go byte by byte.
+   * @return the length of the line
+   */
+  private int copyLine(final int eol) {
+    final int len = eol - pos;
+    if (lineBytes.length < len) {
+      lineBytes = new byte[Math.max(len, lineBytes.length * 2)];
+    }
+    ByteBuffer src = window.duplicate();
+    src.position(pos);
+    src.get(lineBytes, 0, len);
+    return len;
+  }
+
+  /**
+   * Finds the end of the next line, mapping the next window as needed, and
+   * sets lineIsAscii for it.  The line is window[pos, eol).
+   * @return the index of the line terminator or of the end of the file (eol),
+   *         or -1 if there are no more lines
+   */
+  private int nextLine() throws IOException {
+    skipLineFeed();
+
+    int i = pos;         // no line terminator in window[pos, i)
+    long highBits = 0;   // high bits of the bytes in window[pos, i)
+    while (true) {
+      final MappedByteBuffer w = window;
+      for (; i + 8 <= limit; i += 8) {
+        long word = w.getLong(i);
+        long m = LINE_ENDS.matches(word);
+        if (m != 0) {
+          highBits |= word & SwarScanner.highBitsBefore(m);
+          return endOfLine(i + SwarScanner.firstMatch(m), highBits);
+        }
+        highBits |= word;
+      }
+      for (; i < limit; i++) {
+        byte b = w.get(i);
+        if (b == LF || b == CR) {
+          return endOfLine(i, highBits);
+        }
+        highBits |= b;
+      }
+
+      int scanned = i - pos;
+      if (!nextWindow()) {
+        return pos == limit ? -1 : endOfLine(limit, highBits);
+      }
+      i = pos + scanned;
+    }
+  }
+
+  /**
+   * Skips a "\n" right after a line that ended with "\r".
+   */
+  private void skipLineFeed() throws IOException {
+    if (skipLF) {
+      if (pos == limit) {
+        nextWindow();
+      }
+      if (pos < limit && window.get(pos) == LF) {
+        pos++;
+      }
+      skipLF = false;
+    }
+  }
+
+  /**
+   * @return the position in the file of the start of the next line (the end
+   *         of the file when all lines have been read)
+   */
+  long position() throws IOException {
+    skipLineFeed();
+    return windowStart + pos;
+  }
+
+  private int endOfLine(final int eol, final long highBits) {
+    lineIsAscii = (highBits & SwarScanner.HIGH_BITS) == 0;
+    return eol;
+  }
+
+  /**
+   * Consumes the line in window[pos, eol) and the line terminator at eol, if any.
+   */
+  private void consumeLine(final int eol) {
+    if (eol < limit) {
+      skipLF = window.get(eol) == CR;
+      pos = eol + 1;
+    } else {
+      pos = eol;
+    }
+  }
+
+  /**
+   * Maps the next window of the file, starting at the unread bytes, and
+   * growing it if the unread bytes fill the current one.
+   * @return false if the end of the file has been reached
+   */
+  private boolean nextWindow() throws IOException {
+    if (windowStart + limit >= size) {
+      return false;
+    }
+    final int unread = limit - pos;
+    windowStart += pos;
+    if (unread == limit && unread >= MAX_WINDOW_SIZE) {
+      throw new IOException("Line too long to map: more than " + MAX_WINDOW_SIZE + " bytes");
+    }
+    // a line that filled the whole window gets a window twice its size so far
+    map((int) Math.min(unread < limit ? (long) unread + windowSize : (long) unread * 2, MAX_WINDOW_SIZE));
+    return true;
+  }
+
+  /**
+   * Maps the window starting at windowStart, of at least minSize bytes
+   * (or to the end of the file).
+   */
+  private void map(final int minSize) throws IOException {
+    final long len = Math.min(size - windowStart, Math.max(windowSize, minSize));
+    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, len);
+    window.order(ByteOrder.LITTLE_ENDIAN);  // the byte order SwarScanner expects
+    pos = 0;
+    limit = (int) len;
+  }
+
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,58 @@
+package net.quux00.simplecsv;
+
+import java.io.IOException;
+
+/**
+ * LineSource that returns whole records rather than lines: while a line ends
+ * inside a quoted field, the next line is joined onto it, with a "\n" between
+ * them, as the record continues there.
+ *
+ * Whether a record continues is found with CsvParser#endsInQuotes, which only
+ * scans the line just read, carrying the quote state over from the lines
+ * before it.  So a record spread over many lines is scanned once here and
+ * once more when it is parsed, however long it gets.
+ *
+ * A quoted field that is never closed runs to the end of the input, where the
+ * parser reports it as unbalanced (unless allowUnbalancedQuotes is set).
+ *
+ * @NotThreadSafe
+ */
+final class MultiLineRecordSource implements LineSource {
+
+  private final LineSource lines;
+  private final CsvParser parser;
+  private final StringBuilder record = new StringBuilder(CsvParser.INITIAL_READ_SIZE);
+
+  MultiLineRecordSource(final LineSource lines, final CsvParser parser) {
+    this.lines = lines;
+    this.parser = parser;
+  }
+
+  public String readLine() throws IOException {
+    String ln = lines.readLine();
+    if (ln == null || !parser.endsInQuotes(ln, false)) {
+      return ln;
+    }
+
+    record.setLength(0);
+    record.append(ln);
+    do {
+      ln = lines.readLine();
+      if (ln == null) {
+        break;
+      }
+      record.append('\n').append(ln);
+    } while (parser.endsInQuotes(ln, true));
+
+    String rec = record.toString();
+    if (record.capacity() > CsvParser.INITIAL_READ_SIZE * 1024) {
+      record.setLength(0);
+      record.trimToSize();  // do not hold on to the buffer of one huge record
+    }
+    return rec;
+  }
+
+  public void close() throws IOException {
+    lines.close();
+  }
+}
@@ -0,0 +1,41 @@
+package net.quux00.simplecsv;
+
+/**
+ * CharArrayCsvParser for strictQuotes=false with no escape char.  Nothing is
+ * ever dropped from a token and there is no escape state to track, so the scan
+ * loop only has to look for quotes and separators.
+ *
+ * Chosen by CsvParserBuilder#build for those settings.
+ *
+ * @ThreadSafe
+ */
+class NoEscapeCsvParser extends CharArrayCsvParser {
+
+  NoEscapeCsvParser(final CsvParserBuilder builder) {
+    super(builder);
+  }
+
+  @Override
+  void scan(final char[] buf, final int end, final LazyCsvRecord record) {
+    boolean inQuotes = false;
+    int start = 1;
+
+    for (int r = 1; r < end; r++) {
+      byte cls = charClass(buf[r]);
+
+      if (cls == QUOTE) {
+        inQuotes = !inQuotes;
+
+      } else if (cls == SEPARATOR && !inQuotes) {
+        endOfToken(record, buf, start, r);
+        start = r + 1;
+
+      } else {
+        r = skipOrdinary(buf, r + 1, end) - 1;
+      }
+    }
+
+    checkBalanced(inQuotes);
+    endOfToken(record, buf, start, end);
+  }
+}
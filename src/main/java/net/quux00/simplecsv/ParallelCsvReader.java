@@ -0,0 +1,452 @@
+package net.quux00.simplecsv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads a Csv file with several threads.  The file is split into byte ranges,
+ * each moved forward to the start of the next record, and each range is parsed
+ * on a thread of its own with its own copy of the parser, the way the splits
+ * of a file are handed to the mappers of a Hadoop job.
+ *
+ * The records come out of readNext either in file order, the records of each
+ * split being held until the splits before it have been read, or, with
+ * ParallelCsvReaderBuilder#ordered(false), in whatever order the threads
+ * parse them, which never holds a thread back waiting for the reader.
+ *
+ * A split starts at the first line after its byte offset, and the split
+ * before it reads on to there.  In multi-line mode a line may also be the
+ * continuation of a quoted field, and whether it is depends on every quote
+ * before it, so the splits are first scanned for quotes, in parallel: each
+ * finds (with CsvParser#endsInQuotes) whether its lines end in quotes both if
+ * they start inside quotes and if they do not.  Chaining these from the start
+ * of the file gives whether each split starts inside quotes, and so where its
+ * first record starts.  This scan is an extra pass over the file, lighter
+ * than parsing it.
+ *
+ * Create one with ParallelCsvReaderBuilder.
+ *
+ * @NotThreadSafe - the records are read by one thread; the parsing threads
+ * belong to the reader.
+ */
+public class ParallelCsvReader implements Closeable, Iterable<String[]> {
+
+  // records handed from a parsing thread to the reader at a time
+  static final int BATCH_SIZE = 1024;
+
+  // batches a parsing thread may get ahead of the reader by, when unordered
+  private static final int QUEUE_DEPTH = 16;
+
+  // window mapped to look for a record boundary; grows for longer records
+  private static final int BOUNDARY_WINDOW_SIZE = 64 * 1024;
+
+  private static final Batch END = new Batch(null, null);
+
+  private final FileChannel channel;
+  private final Charset charset;
+  private final CsvParser parser;
+  private final int skipLines;
+  private final boolean multiLine;
+  private final int threads;
+  private final int splitSize;
+  private final boolean ordered;
+
+  private ExecutorService executor;
+  private long[] offsets;  // split k is the records starting in [offsets[k], offsets[k + 1]), once aligned
+  private boolean[] inQuotes;  // whether the first line of split k continues a quoted field (multi-line only)
+  private List<BlockingQueue<Batch>> queues;  // one per split when ordered, else one for all
+  private int split;       // split being read when ordered, else the number of splits finished
+  private int submitted;   // number of splits handed to the executor
+  private List<String[]> batch = Collections.emptyList();
+  private int next;        // index in batch of the next record
+  private boolean closed;
+
+  ParallelCsvReader(FileChannel channel, Charset charset, CsvParser parser, int skipLines,
+                    boolean multiLine, int threads, int splitSize, boolean ordered) {
+    this.channel = channel;
+    this.charset = charset;
+    this.parser = parser;
+    this.skipLines = skipLines;
+    this.multiLine = multiLine;
+    this.threads = threads;
+    this.splitSize = splitSize;
+    this.ordered = ordered;
+  }
+
+  /**
+   * Reads the rest of the file into a List with each element being a
+   * String[] of tokens.
+   *
+   * @return a List of String[], with each String[] representing
+   *         a record of the file.
+   * @throws IOException if bad things happen during the read
+   */
+  public List<String[]> readAll() throws IOException {
+    List<String[]> allElements = new ArrayList<String[]>();
+    String[] nextLineAsTokens;
+    while ((nextLineAsTokens = readNext()) != null) {
+      allElements.add(nextLineAsTokens);
+    }
+    return allElements;
+  }
+
+  /**
+   * Reads the next record, starting the parsing threads on the first call.
+   *
+   * @return a string array with each comma-separated element as a separate
+   *         entry, or null if there are no more records
+   * @throws IOException if bad things happen during the read, on this thread
+   *         or on a parsing thread
+   */
+  public String[] readNext() throws IOException {
+    if (next == batch.size() && !nextBatch()) {
+      return null;
+    }
+    return batch.get(next++);
+  }
+
+  /**
+   * @return false if all splits have been read
+   */
+  private boolean nextBatch() throws IOException {
+    if (closed) {
+      return false;
+    }
+    if (queues == null) {
+      start();
+    }
+    final int splits = offsets.length - 1;
+    while (split < splits) {
+      Batch b = take(queues.get(ordered ? split : 0));
+      if (b.failure != null) {
+        close();
+        throw rethrow(b.failure);
+      }
+      if (b != END) {
+        batch = b.rows;
+        next = 0;
+        return true;
+      }
+      split++;
+      if (ordered && submitted < splits) {
+        submit(submitted);
+      }
+    }
+    batch = Collections.emptyList();
+    next = 0;
+    return false;
+  }
+
+  private static Batch take(BlockingQueue<Batch> queue) throws IOException {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for records");
+    }
+  }
+
+  private static IOException rethrow(Throwable t) {
+    if (t instanceof IOException) {
+      return (IOException) t;
+    }
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    throw new RuntimeException(t);
+  }
+
+  /**
+   * Splits the file after the lines to skip, and starts parsing the splits:
+   * all of them when unordered, else two per thread ahead of the reader, so
+   * the records held for it stay within a few splits.
+   */
+  private void start() throws IOException {
+    final long size = channel.size();
+    final long dataStart = dataStart();
+    final int splits = (int) Math.max(threads, Math.min((size - dataStart) / splitSize + 1, Integer.MAX_VALUE - 1));
+    offsets = new long[splits + 1];
+    for (int k = 0; k <= splits; k++) {
+      offsets[k] = dataStart + (size - dataStart) * k / splits;
+    }
+
+    queues = new ArrayList<BlockingQueue<Batch>>();
+    if (ordered) {
+      for (int k = 0; k < splits; k++) {
+        queues.add(new LinkedBlockingQueue<Batch>());
+      }
+    } else {
+      queues.add(new ArrayBlockingQueue<Batch>(QUEUE_DEPTH * threads));
+    }
+
+    executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "ParallelCsvReader-" + count.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      }
+    });
+    if (multiLine) {
+      scanQuotes();
+    }
+    int ahead = ordered ? Math.min(splits, 2 * threads) : splits;
+    while (submitted < ahead) {
+      submit(submitted);
+    }
+  }
+
+  private void submit(final int k) {
+    executor.execute(new Split(k, queues.get(ordered ? k : 0)));
+    submitted++;
+  }
+
+  /**
+   * @return the position of the first record after the lines to skip
+   */
+  private long dataStart() throws IOException {
+    if (skipLines == 0) {
+      return 0;
+    }
+    MappedLineReader lines = new MappedLineReader(channel, charset, BOUNDARY_WINDOW_SIZE, 0);
+    LineSource records = multiLine ? new MultiLineRecordSource(lines, parser) : lines;
+    for (int i = 0; i < skipLines; i++) {
+      records.readLine();
+    }
+    return lines.position();
+  }
+
+  /**
+   * Sets inQuotes for every split, from the quote transitions of the splits
+   * before it, found in parallel.
+   */
+  private void scanQuotes() throws IOException {
+    final int splits = offsets.length - 1;
+    List<Future<Integer>> transitions = new ArrayList<Future<Integer>>(splits);
+    for (int k = 0; k < splits; k++) {
+      final int split = k;
+      transitions.add(executor.submit(new Callable<Integer>() {
+        public Integer call() throws IOException {
+          return quoteTransition(split);
+        }
+      }));
+    }
+    inQuotes = new boolean[splits + 1];
+    try {
+      for (int k = 0; k < splits; k++) {
+        int transition = transitions.get(k).get();
+        inQuotes[k + 1] = (transition & (inQuotes[k] ? 2 : 1)) != 0;
+      }
+    } catch (InterruptedException e) {
+      close();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for the quote scan");
+    } catch (ExecutionException e) {
+      close();
+      throw rethrow(e.getCause());
+    }
+  }
+
+  /**
+   * Scans the lines that start in split k (before it is moved to a record
+   * boundary) for quotes.
+   *
+   * @return whether the last line ends inside quotes: bit 0 if the first line
+   *         starts outside quotes, bit 1 if it starts inside them
+   */
+  private int quoteTransition(final int k) throws IOException {
+    final long start = lineStart(offsets[k]);
+    final long end = lineStart(offsets[k + 1]);
+    boolean outside = false;
+    boolean inside = true;
+    if (start < end) {
+      MappedLineReader lines = new MappedLineReader(channel, charset, windowSize(start, end), start);
+      while (lines.position() < end) {
+        String ln = lines.readLine();
+        if (outside == inside) {
+          // from here on both are the same
+          outside = inside = parser.endsInQuotes(ln, inside);
+        } else {
+          outside = parser.endsInQuotes(ln, outside);
+          inside = parser.endsInQuotes(ln, inside);
+        }
+      }
+    }
+    return (outside ? 1 : 0) | (inside ? 2 : 0);
+  }
+
+  /**
+   * @return the position of the first line starting at or after offset
+   *         (the end of the file if there is none)
+   */
+  private long lineStart(final long offset) throws IOException {
+    if (offset == offsets[0] || offset == offsets[offsets.length - 1]) {
+      return offset;
+    }
+    MappedLineReader lines = new MappedLineReader(channel, charset, BOUNDARY_WINDOW_SIZE, offset - 1);
+    lines.readLine();  // the rest of the line the byte before offset is in
+    return lines.position();
+  }
+
+  /**
+   * @return the position of the first record of split k: its first line or,
+   *         if that continues a quoted field, the line after the field ends
+   */
+  long recordStart(final int k) throws IOException {
+    final long start = lineStart(offsets[k]);
+    if (!multiLine || !inQuotes[k]) {
+      return start;
+    }
+    MappedLineReader lines = new MappedLineReader(channel, charset, BOUNDARY_WINDOW_SIZE, start);
+    String ln;
+    while ((ln = lines.readLine()) != null && parser.endsInQuotes(ln, true)) {
+      // still in the record of the split before
+    }
+    return lines.position();
+  }
+
+  private static int windowSize(final long start, final long end) {
+    return (int) Math.min(end - start, MappedLineReader.DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Closes the file and stops the parsing threads.
+   *
+   * @throws IOException if the close fails
+   */
+  public void close() throws IOException {
+    closed = true;
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    channel.close();
+  }
+
+  public Iterator<String[]> iterator() {
+    return new Iterator<String[]>() {
+      private String[] nextLine = read();
+
+      public boolean hasNext() {
+        return nextLine != null;
+      }
+
+      public String[] next() {
+        if (nextLine == null) {
+          throw new NoSuchElementException();
+        }
+        String[] temp = nextLine;
+        nextLine = read();
+        return temp;
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException("This is a read only iterator.");
+      }
+
+      private String[] read() {
+        try {
+          return readNext();
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Records parsed by a Split, or the failure that ended it.  END marks the
+   * end of a split.
+   */
+  private static final class Batch {
+    final List<String[]> rows;
+    final Throwable failure;
+
+    Batch(List<String[]> rows, Throwable failure) {
+      this.rows = rows;
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * Parses the records of split k, putting them on a queue in batches.
+   */
+  private final class Split implements Runnable {
+    private final int k;
+    private final BlockingQueue<Batch> queue;
+    private List<String[]> rows = new ArrayList<String[]>(BATCH_SIZE);  // records not yet put on the queue
+
+    Split(int k, BlockingQueue<Batch> queue) {
+      this.k = k;
+      this.queue = queue;
+    }
+
+    public void run() {
+      try {
+        try {
+          parse(recordStart(k), recordStart(k + 1));
+          queue.put(END);
+        } catch (InterruptedException e) {
+          throw e;
+        } catch (Throwable t) {
+          // the records before the failure are read first, as from a CsvReader
+          if (!rows.isEmpty()) {
+            queue.put(new Batch(rows, null));
+          }
+          queue.put(new Batch(null, t));
+        }
+      } catch (InterruptedException e) {
+        // the reader was closed
+      }
+    }
+
+    private void parse(final long start, final long end) throws IOException, InterruptedException {
+      if (start >= end) {
+        return;
+      }
+      final CsvParser splitParser = new CsvParserBuilder(parser).build();
+      final MappedLineReader lines = new MappedLineReader(channel, charset, windowSize(start, end), start);
+      final CsvReader reader = new CsvReader(multiLine ? new MultiLineRecordSource(lines, splitParser) : lines,
+          0, splitParser, null);
+      while (lines.position() < end) {
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        String[] row = reader.readNext();
+        if (row == null) {
+          break;
+        }
+        rows.add(row);
+        if (rows.size() == BATCH_SIZE) {
+          queue.put(new Batch(rows, null));
+          rows = new ArrayList<String[]>(BATCH_SIZE);
+        }
+      }
+      if (!rows.isEmpty()) {
+        queue.put(new Batch(rows, null));
+        rows = new ArrayList<String[]>(0);
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package net.quux00.simplecsv;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ParallelCsvReaderBuilder {
+
+  static final int DEFAULT_SPLIT_SIZE = 4 << 20;
+
+  final FileChannel channel;
+  final Charset charset;
+  int skipLines = CsvReader.DEFAULT_SKIP_LINES;
+  CsvParser parser = null;
+  int[] columns = null;
+  boolean multiLine = false;
+  int threads = Runtime.getRuntime().availableProcessors();
+  int splitSize = DEFAULT_SPLIT_SIZE;
+  boolean ordered = true;
+
+  /**
+   * Opens the file at path as the underlying Csv source, reading its bytes
+   * in the given charset.  The file is closed when the ParallelCsvReader is
+   * closed.
+   *
+   * @param path the path to a Csv file
+   * @param charset the charset of the file, which must be ASCII-compatible
+   *        (as UTF-8 and ISO-8859-1 are, but UTF-16 is not) for the line
+   *        terminators to be found in the bytes
+   * @throws IOException if the file cannot be opened
+   */
+  public ParallelCsvReaderBuilder(final Path path, final Charset charset) throws IOException {
+    if (charset == null) {
+      throw new IllegalArgumentException("Charset may not be null");
+    }
+    if (!ByteLineReader.isAsciiCompatible(charset)) {
+      throw new IllegalArgumentException("Charset is not ASCII compatible: " + charset);
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.charset = charset;
+  }
+
+  /**
+   * Sets the line number to skip for start reading
+   *
+   * @param skipLines the line number to skip for start reading
+   */
+  public ParallelCsvReaderBuilder skipLines(final int skipLines) {
+    this.skipLines = (skipLines <= 0 ? 0 : skipLines);
+    return this;
+  }
+
+
+  /**
+   * Sets the parser to use to parse the input.  Each split is parsed with a
+   * copy of it (see CsvParserBuilder#CsvParserBuilder(CsvParser)).
+   *
+   * @param CsvParser the parser to use to parse the input
+   */
+  public ParallelCsvReaderBuilder csvParser(final CsvParser CsvParser) {
+    this.parser = CsvParser;
+    return this;
+  }
+
+
+  /**
+   * Only keep the tokens of the given (zero-based) columns.
+   * See CsvParserBuilder#columns for details.
+   *
+   * @param columns the indexes of the columns to keep
+   */
+  public ParallelCsvReaderBuilder columns(final int... columns) {
+    this.columns = columns;
+    return this;
+  }
+
+
+  /**
+   * If true, a record may be spread over several lines, as with
+   * CsvReaderBuilder#multiLine.  Finding where each split starts then takes
+   * a parallel scan of the file for quotes before the parsing starts.
+   *
+   * @param multiLine true to allow line breaks in quoted fields
+   */
+  public ParallelCsvReaderBuilder multiLine(final boolean multiLine) {
+    this.multiLine = multiLine;
+    return this;
+  }
+
+
+  /**
+   * Sets the number of threads parsing the file.  The default is the number
+   * of available processors.
+   *
+   * @param threads the number of parsing threads
+   */
+  public ParallelCsvReaderBuilder threads(final int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Threads must be positive: " + threads);
+    }
+    this.threads = threads;
+    return this;
+  }
+
+
+  /**
+   * Sets the size in bytes of the ranges the file is split into, one per task
+   * for the parsing threads; there are at least as many splits as threads.
+   * The default is 4 MB.  When ordered, the records of about two splits per
+   * thread may be held in memory ahead of the reader.
+   *
+   * @param splitSize the size of a split
+   */
+  public ParallelCsvReaderBuilder splitSize(final int splitSize) {
+    if (splitSize <= 0) {
+      throw new IllegalArgumentException("Split size must be positive: " + splitSize);
+    }
+    this.splitSize = splitSize;
+    return this;
+  }
+
+
+  /**
+   * If true (the default), the records are read in the order they are in
+   * the file.  If false, they are read in the order they are parsed: the
+   * records of a split stay in order, but the splits are interleaved.
+   *
+   * @param ordered false to read records as soon as any thread parses them
+   */
+  public ParallelCsvReaderBuilder ordered(final boolean ordered) {
+    this.ordered = ordered;
+    return this;
+  }
+
+
+  /**
+   * Constructs ParallelCsvReader
+   */
+  public ParallelCsvReader build() {
+    if (parser == null) {
+      parser = new CsvParserBuilder().build();
+    }
+    if (columns != null) {
+      parser = new CsvParserBuilder(parser).columns(columns).build();
+    }
+    return new ParallelCsvReader(channel, charset, parser, skipLines, multiLine, threads, splitSize, ordered);
+  }
+}
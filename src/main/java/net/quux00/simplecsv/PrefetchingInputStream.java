@@ -0,0 +1,183 @@
+package net.quux00.simplecsv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream that reads another one ahead on a thread of its own, so that
+ * the reads overlap the parsing of what was read before.
+ *
+ * The thread fills blocks of blockSize bytes, from a ring of depth + 1
+ * buffers, and queues them; read() copies from the oldest filled block and,
+ * once it is used up, hands its buffer back to be filled again.  So at most
+ * depth blocks are read ahead of the one being read and no buffer is
+ * allocated after the first ones.  While no block is queued, a block is
+ * handed over after each read into it, however little it holds, so a slow
+ * stream does not keep the reader waiting for a whole block.  A read of no
+ * bytes is tried again, so an empty block is never handed over.  A failed read
+ * on the thread is thrown by read() after the bytes read before it.
+ *
+ * close() stops the thread: it is interrupted and the underlying stream is
+ * closed, which ends a read it is blocked in for the streams that support
+ * asynchronous close (files, sockets).  The thread is a daemon, so one that is
+ * blocked for good does not keep the JVM alive.
+ *
+ * @NotThreadSafe - read by one thread, besides the one reading ahead
+ */
+final class PrefetchingInputStream extends InputStream {
+
+  static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+  private static final Block END = new Block(null, -1, null);
+
+  private final InputStream in;
+  private final BlockingQueue<byte[]> free;   // buffers to fill
+  private final BlockingQueue<Block> filled;  // blocks read ahead, oldest first
+  final Thread thread;
+  private Block current;
+  private int pos;  // next byte to read in current
+  private volatile boolean closed;
+
+  PrefetchingInputStream(final InputStream in, final int depth, final int blockSize) {
+    if (depth <= 0) {
+      throw new IllegalArgumentException("Prefetch depth must be positive: " + depth);
+    }
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+    }
+    this.in = in;
+    this.free = new ArrayBlockingQueue<byte[]>(depth + 1);
+    this.filled = new ArrayBlockingQueue<Block>(depth + 1);
+    for (int i = 0; i <= depth; i++) {
+      free.add(new byte[blockSize]);
+    }
+    this.thread = new Thread(new Runnable() {
+      public void run() {
+        readAhead();
+      }
+    }, "PrefetchingInputStream");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Runs on the thread: fills free buffers until the end of the stream, a
+   * failure or close().
+   */
+  private void readAhead() {
+    try {
+      while (true) {
+        byte[] buf = free.take();
+        int len = 0;
+        int n = 0;
+        try {
+          while (len < buf.length && (n = in.read(buf, len, buf.length - len)) >= 0) {
+            len += n;
+            if (n > 0 && filled.isEmpty()) {
+              break;  // nothing queued: hand over what there is rather than keep the reader waiting
+            }
+          }
+        } catch (IOException e) {
+          if (len > 0) {
+            filled.put(new Block(buf, len, null));
+          }
+          filled.put(closed ? END : new Block(null, -1, e));
+          return;
+        }
+        if (len > 0) {
+          filled.put(new Block(buf, len, null));
+        }
+        if (n < 0) {
+          filled.put(END);
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      // closed
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextBlock()) {
+      return -1;
+    }
+    return current.buf[pos++] & 0xff;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!nextBlock()) {
+      return -1;
+    }
+    final int n = Math.min(len, current.len - pos);
+    System.arraycopy(current.buf, pos, b, off, n);
+    pos += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return current == null || current == END ? 0 : current.len - pos;
+  }
+
+  /**
+   * Makes current a block with bytes left to read, handing back the buffer
+   * of the one used up.
+   * @return false at the end of the stream
+   */
+  private boolean nextBlock() throws IOException {
+    if (current != null && pos < current.len) {
+      return true;
+    }
+    if (current == END || closed) {
+      return false;
+    }
+    if (current != null) {
+      free.add(current.buf);
+    }
+    try {
+      current = filled.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for the stream to be read");
+    }
+    pos = 0;
+    if (current.failure != null) {
+      IOException failure = current.failure;
+      current = END;
+      throw failure;
+    }
+    return current != END;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      thread.interrupt();
+      in.close();
+    }
+  }
+
+  /**
+   * Bytes read ahead, or the failure that stopped the reading.
+   */
+  private static final class Block {
+    final byte[] buf;
+    final int len;
+    final IOException failure;
+
+    Block(byte[] buf, int len, IOException failure) {
+      this.buf = buf;
+      this.len = len;
+      this.failure = failure;
+    }
+  }
+}
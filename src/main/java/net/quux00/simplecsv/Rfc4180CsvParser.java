@@ -0,0 +1,188 @@
+package net.quux00.simplecsv;
+
+/**
+ * CharArrayCsvParser for the RFC 4180 dialect of CSV: a quote char inside a
+ * quoted field is written as two quote chars and there is no escape char.
+ *
+ * A field is quoted only if it starts with the quote char (after leading
+ * whitespace when trimWhitespace is set).  Its value is everything up to the
+ * closing quote, with each doubled quote char collapsed into one.  Any chars
+ * between the closing quote and the next separator are kept as they are.  In a
+ * field that does not start with a quote char, quote chars are ordinary chars.
+ *
+ * Most fields of typical data are unquoted.  For those the scan loop only looks
+ * for the next separator, and the field is recorded as offsets into the line
+ * with no chars copied.  Chars of quoted fields are only moved once the first
+ * doubled quote has been dropped.
+ *
+ * The other settings apply as for CsvParser: trimWhitespace trims unquoted
+ * fields and the whitespace around a quoted field (but never inside the
+ * quotes), retainOuterQuotes keeps the quotes of quoted fields, alwaysQuoteOutput
+ * puts quotes around every non-empty field and allowUnbalancedQuotes turns an
+ * unterminated quoted field into one running to the end of the line.  The
+ * escape char and retainEscapeChars settings are not used and strictQuotes is
+ * not supported.  Column projection is supported.
+ *
+ * Chosen by CsvParserBuilder#build when rfc4180(true) is set.
+ *
+ * @ThreadSafe
+ */
+class Rfc4180CsvParser extends CharArrayCsvParser {
+
+  Rfc4180CsvParser(final CsvParserBuilder builder) {
+    super(builder);
+    if (strictQuotes) {
+      throw new IllegalArgumentException("Rfc4180CsvParser does not support strictQuotes");
+    }
+  }
+
+  @Override
+  boolean scansBytes() {
+    return false;  // doubled quotes are dropped from a token
+  }
+
+  @Override
+  void scan(final char[] buf, final int end, final LazyCsvRecord record) {
+    final char sep = separator;
+    final char quote = quotechar;
+    final boolean keepQuotes = retainOuterQuotes || alwaysQuoteOutput;
+    int col = 0;
+    int r = 1;  // read index: start of the current field
+
+    while (true) {
+      int p = r;
+      if (trimWhiteSpace) {
+        while (p < end && buf[p] != sep && Character.isWhitespace(buf[p])) {
+          p++;
+        }
+      }
+
+      int left;   // first char of the field's value
+      int right;  // one past the last char of the field's value
+      if (p < end && buf[p] == quote && quote != NULL_CHARACTER) {
+        left = keepQuotes ? p : p + 1;
+        int w = p + 1;  // write index: stays equal to the read index until a quote gets dropped
+        r = p + 1;
+        while (true) {
+          int q = r;
+          while (q < end && buf[q] != quote) {
+            q++;
+          }
+          w = moveRun(buf, r, q, w);
+          if (q == end) {
+            checkBalanced(true);
+            r = end;
+            break;
+          }
+          if (q + 1 < end && buf[q + 1] == quote) {
+            buf[w++] = quote;  // doubled quote
+            r = q + 2;
+          } else {
+            if (keepQuotes) {
+              buf[w++] = quote;
+            }
+            r = q + 1;
+            break;
+          }
+        }
+        // chars between the closing quote and the separator
+        final int closed = w;
+        int s = r;
+        while (s < end && buf[s] != sep) {
+          s++;
+        }
+        right = moveRun(buf, r, s, w);
+        if (trimWhiteSpace) {
+          while (right > closed && Character.isWhitespace(buf[right - 1])) {
+            right--;
+          }
+        }
+        r = s;
+
+      } else {
+        // unquoted field: the value is the span up to the next separator,
+        // recorded as is (leading whitespace was already skipped if trimming)
+        int s = p;
+        while (s < end && buf[s] != sep) {
+          s++;
+        }
+        left = p;
+        right = s;
+        if (trimWhiteSpace) {
+          while (right > left && Character.isWhitespace(buf[right - 1])) {
+            right--;
+          }
+        }
+        if (alwaysQuoteOutput && right > left) {
+          // the slots just outside the value are whitespace, a separator or a spare slot
+          buf[--left] = quote;
+          buf[right++] = quote;
+        }
+        r = s;
+      }
+
+      if (isKept(col)) {
+        record.addField(left, right);
+        if (col == lastColumn) {
+          return;  // no wanted columns left on this line
+        }
+      }
+      if (r >= end) {
+        return;
+      }
+      r++;  // past the separator
+      col++;
+    }
+  }
+
+  /**
+   * In RFC 4180 a quote char only opens a quoted field at the start of a
+   * field, so the fields have to be followed rather than just counting quotes.
+   */
+  @Override
+  boolean endsInQuotes(final String ln, final boolean inQuotes) {
+    int i = inQuotes ? skipQuoted(ln, 0) : skipQuotedStart(ln, 0);
+    while (i >= 0) {
+      i = ln.indexOf(separator, i);
+      if (i < 0) {
+        return false;
+      }
+      i = skipQuotedStart(ln, i + 1);
+    }
+    return true;
+  }
+
+  /**
+   * @param from index of the start of a field
+   * @return index of the first char after the quoted part of the field, if it
+   *         is a quoted field, or of the first char of the field if it is not;
+   *         -1 if the quoted field does not end on this line
+   */
+  private int skipQuotedStart(final String ln, final int from) {
+    int i = from;
+    if (trimWhiteSpace) {
+      while (i < ln.length() && ln.charAt(i) != separator && Character.isWhitespace(ln.charAt(i))) {
+        i++;
+      }
+    }
+    if (i < ln.length() && ln.charAt(i) == quotechar && quotechar != NULL_CHARACTER) {
+      return skipQuoted(ln, i + 1);
+    }
+    return from;
+  }
+
+  /**
+   * @param from index of the first char after the opening quote
+   * @return index of the first char after the closing quote, or -1 if the
+   *         quoted field does not end on this line
+   */
+  private int skipQuoted(final String ln, final int from) {
+    final int len = ln.length();
+    for (int q = ln.indexOf(quotechar, from); q >= 0; q = ln.indexOf(quotechar, q + 2)) {
+      if (q + 1 == len || ln.charAt(q + 1) != quotechar) {
+        return q + 1;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,68 @@
+package net.quux00.simplecsv;
+
+/**
+ * CharArrayCsvParser for strictQuotes=true.  Only the chars between quotes are
+ * kept, so the scan loop compacts each token in place, without re-checking the
+ * strictQuotes setting for every char.
+ *
+ * Chosen by CsvParserBuilder#build for that setting.
+ *
+ * @ThreadSafe
+ */
+class StrictQuotesCsvParser extends CharArrayCsvParser {
+
+  StrictQuotesCsvParser(final CsvParserBuilder builder) {
+    super(builder);
+  }
+
+  @Override
+  void scan(final char[] buf, final int end, final LazyCsvRecord record) {
+    final boolean unescape = !retainEscapeChars;
+    boolean inQuotes = false;
+    boolean inEscape = false;
+    int start = 1;
+    int w = 1;
+
+    for (int r = 1; r < end; r++) {
+      char c = buf[r];
+      byte cls = charClass(c);
+
+      if (cls == QUOTE) {
+        // keep the opening quote and escaped quotes
+        if (inQuotes ? inEscape : w == start) {
+          buf[w++] = c;
+        }
+        if (!inEscape) {
+          inQuotes = !inQuotes;
+        }
+        inEscape = false;
+
+      } else if (cls == ESCAPE) {
+        inEscape = !inEscape;
+        if (inQuotes && !unescape) {
+          buf[w++] = c;
+        }
+
+      } else if (cls == SEPARATOR && !inQuotes) {
+        endOfToken(record, buf, start, w);
+        inEscape = false;
+        start = w = r + 1;
+
+      } else if (inQuotes) {
+        buf[w++] = (inEscape && unescape) ? unescape(c) : c;
+        inEscape = false;
+        // the escape state cannot change in the rest of a run of ordinary chars
+        int runEnd = skipOrdinary(buf, r + 1, end);
+        w = moveRun(buf, r + 1, runEnd, w);
+        r = runEnd - 1;
+
+      } else {
+        // drop the run of ordinary chars outside of quotes
+        r = skipOrdinary(buf, r + 1, end) - 1;
+      }
+    }
+
+    checkBalanced(inQuotes);
+    endOfToken(record, buf, start, w);
+  }
+}
@@ -0,0 +1,78 @@
+package net.quux00.simplecsv;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Finds the structural chars (separator, quote char and escape char) of a line
+ * ahead of parsing, so that the parser only has to visit those positions and
+ * can treat everything between two of them as a run of ordinary chars.
+ *
+ * This class checks one char at a time using the parser's char class table.
+ * When the simplecsv jar is run on Java 17 or later with the incubator Vector
+ * API module enabled (--add-modules jdk.incubator.vector), create() returns a
+ * VectorStructuralIndexer instead, which compares a whole vector of chars
+ * (16 to 64 depending on the hardware) per step.  That class is compiled by
+ * the jdk17 build profile and loaded by reflection, so on older runtimes or
+ * without the module this class is used.
+ */
+class StructuralIndexer {
+
+  private static final String VECTOR_INDEXER = "net.quux00.simplecsv.VectorStructuralIndexer";
+  private static final Constructor<? extends StructuralIndexer> VECTOR_CONSTRUCTOR = findVectorIndexer();
+
+  final CsvParser parser;
+
+  StructuralIndexer(final CsvParser parser) {
+    this.parser = parser;
+  }
+
+  /**
+   * @return an indexer for the special chars of the parser, using the Vector API if it is available
+   */
+  static StructuralIndexer create(final CsvParser parser) {
+    if (VECTOR_CONSTRUCTOR != null) {
+      try {
+        return VECTOR_CONSTRUCTOR.newInstance(parser);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return new StructuralIndexer(parser);
+  }
+
+  /**
+   * @return true if create() returns an indexer that uses the Vector API
+   */
+  static boolean isVectorAvailable() {
+    return VECTOR_CONSTRUCTOR != null;
+  }
+
+  private static Constructor<? extends StructuralIndexer> findVectorIndexer() {
+    try {
+      Class<? extends StructuralIndexer> cls =
+          Class.forName(VECTOR_INDEXER).asSubclass(StructuralIndexer.class);
+      Constructor<? extends StructuralIndexer> ctor = cls.getDeclaredConstructor(CsvParser.class);
+      // fails here if the jdk.incubator.vector module is not present
+      ctor.newInstance(new CsvParser());
+      return ctor;
+    } catch (ReflectiveOperationException e) {
+      return null;
+    } catch (LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * Writes the index of every char in buf[from, to) that is not ORDINARY
+   * into idx, in ascending order.
+   * @param idx  must have room for to - from entries
+   * @return the number of indexes written
+   */
+  int index(final char[] buf, final int from, final int to, final int[] idx) {
+    int n = 0;
+    for (int i = parser.skipOrdinary(buf, from, to); i < to; i = parser.skipOrdinary(buf, i + 1, to)) {
+      idx[n++] = i;
+    }
+    return n;
+  }
+}
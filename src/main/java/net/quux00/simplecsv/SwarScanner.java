@@ -0,0 +1,115 @@
+package net.quux00.simplecsv;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds a small set of target bytes (up to four, e.g. the line terminators or
+ * the separator, quote and escape chars) in a byte array eight bytes at a time,
+ * treating each eight bytes as a long and using SWAR ("SIMD within a
+ * register") bit tricks to test all of them at once.
+ *
+ * The words are read through a little-endian ByteBuffer view of the array, so
+ * the first byte of the word is its lowest byte and the index of the first
+ * match is the number of trailing zero bits divided by eight.
+ *
+ * Target bytes must be ASCII, which makes the scan safe on UTF-8 (and other
+ * ASCII-compatible) input: all bytes of a multi-byte char have the high bit set.
+ */
+final class SwarScanner {
+
+  static final long LOW_BITS = 0x7f7f7f7f7f7f7f7fL;
+  static final long HIGH_BITS = 0x8080808080808080L;
+  private static final long ONES = 0x0101010101010101L;
+
+  // each target byte repeated eight times; unused slots repeat the first target
+  private final long target0;
+  private final long target1;
+  private final long target2;
+  private final long target3;
+
+  SwarScanner(final byte... targets) {
+    if (targets.length == 0 || targets.length > 4) {
+      throw new IllegalArgumentException("SwarScanner takes one to four target bytes");
+    }
+    for (byte b : targets) {
+      if (b < 0) {
+        throw new IllegalArgumentException("SwarScanner target bytes must be ASCII: " + b);
+      }
+    }
+    target0 = broadcast(targets[0]);
+    target1 = broadcast(targets[Math.min(1, targets.length - 1)]);
+    target2 = broadcast(targets[Math.min(2, targets.length - 1)]);
+    target3 = broadcast(targets[Math.min(3, targets.length - 1)]);
+  }
+
+  /**
+   * @return a little-endian view of buf for reading words with ByteBuffer#getLong(int)
+   */
+  static ByteBuffer words(final byte[] buf) {
+    return ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  static long broadcast(final byte b) {
+    return ONES * (b & 0xff);
+  }
+
+  /**
+   * @return a word with the high bit set in exactly the bytes of x that are zero
+   */
+  static long zeroBytes(final long x) {
+    // adding 0x7f to the low seven bits of a byte carries into its high bit
+    // unless they are all zero; this never carries into the next byte
+    long t = (x & LOW_BITS) + LOW_BITS;
+    return ~(t | x | LOW_BITS);
+  }
+
+  /**
+   * @return a word with the high bit set in exactly the bytes of word that are target bytes
+   */
+  long matches(final long word) {
+    return zeroBytes(word ^ target0) | zeroBytes(word ^ target1) |
+        zeroBytes(word ^ target2) | zeroBytes(word ^ target3);
+  }
+
+  /**
+   * @param matches a non-zero result of matches()
+   * @return the offset within the word of the first matching byte
+   */
+  static int firstMatch(final long matches) {
+    return Long.numberOfTrailingZeros(matches) >>> 3;
+  }
+
+  /**
+   * @param matches a non-zero result of matches()
+   * @return a mask of the high bits of the bytes before the first matching byte
+   */
+  static long highBitsBefore(final long matches) {
+    return ((matches & -matches) - 1) & HIGH_BITS;
+  }
+
+  boolean isTarget(final byte b) {
+    // only the lowest byte of the word holds b
+    return (matches(b & 0xff) & 0x80) != 0;
+  }
+
+  /**
+   * @param words the view of buf returned by words(buf)
+   * @return index of the first target byte in buf[from, to), or to if there is none
+   */
+  int indexOf(final byte[] buf, final ByteBuffer words, final int from, final int to) {
+    int i = from;
+    for (; i + 8 <= to; i += 8) {
+      long m = matches(words.getLong(i));
+      if (m != 0) {
+        return i + firstMatch(m);
+      }
+    }
+    for (; i < to; i++) {
+      if (isTarget(buf[i])) {
+        return i;
+      }
+    }
+    return to;
+  }
+}
@@ -0,0 +1,214 @@
+package net.quux00.simplecsv.bean;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The constructor, setters and getters of a bean class as plain
+ * Supplier/BiConsumer/Function objects, made once per class (and method)
+ * and shared by all CsvToBeans and BeanToCsvs.
+ *
+ * They are generated with LambdaMetafactory, so calling one is an interface
+ * call straight to the bean's method, which the JIT can inline, rather than
+ * a reflective Method.invoke with its access and argument checks.  Where
+ * that is not possible - a class that is not public, or not visible from the
+ * class loader of this library - they call the Method (or newInstance) as
+ * before.
+ *
+ * Exceptions thrown by the bean's methods are passed on as they are, except
+ * that a checked one from a reflective call is wrapped in an
+ * UndeclaredThrowableException.
+ *
+ * @ThreadSafe
+ */
+final class BeanAccessors {
+
+  private static final ClassValue<BeanAccessors> ACCESSORS = new ClassValue<BeanAccessors>() {
+    @Override
+    protected BeanAccessors computeValue(Class<?> type) {
+      return new BeanAccessors(type);
+    }
+  };
+
+  private final Class<?> type;
+  private volatile Supplier<Object> constructor;  // null until looked up
+  private volatile boolean constructorLookedUp;
+  private final ConcurrentMap<Method, BiConsumer<Object, Object>> setters =
+      new ConcurrentHashMap<Method, BiConsumer<Object, Object>>();
+  private final ConcurrentMap<Method, Function<Object, Object>> getters =
+      new ConcurrentHashMap<Method, Function<Object, Object>>();
+
+  private BeanAccessors(final Class<?> type) {
+    this.type = type;
+  }
+
+  /**
+   * @return a Supplier calling the public no-arg constructor of type, or
+   *         null if none can be generated (call type.newInstance() instead,
+   *         which throws the right exception if there is no such constructor)
+   */
+  static Supplier<Object> constructor(final Class<?> type) {
+    final BeanAccessors accessors = ACCESSORS.get(type);
+    if (!accessors.constructorLookedUp) {
+      accessors.constructor = accessors.generateConstructor();
+      accessors.constructorLookedUp = true;
+    }
+    return accessors.constructor;
+  }
+
+  /**
+   * @return a BiConsumer calling setter on the bean with the value
+   */
+  static BiConsumer<Object, Object> setter(final Method setter) {
+    final BeanAccessors accessors = ACCESSORS.get(setter.getDeclaringClass());
+    BiConsumer<Object, Object> accessor = accessors.setters.get(setter);
+    if (accessor == null) {
+      accessor = generateSetter(setter);
+      accessors.setters.putIfAbsent(setter, accessor);
+    }
+    return accessor;
+  }
+
+  /**
+   * @return a Function calling getter on the bean
+   */
+  static Function<Object, Object> getter(final Method getter) {
+    final BeanAccessors accessors = ACCESSORS.get(getter.getDeclaringClass());
+    Function<Object, Object> accessor = accessors.getters.get(getter);
+    if (accessor == null) {
+      accessor = generateGetter(getter);
+      accessors.getters.putIfAbsent(getter, accessor);
+    }
+    return accessor;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Supplier<Object> generateConstructor() {
+    if (!accessible(type) || Modifier.isAbstract(type.getModifiers())) {
+      return null;
+    }
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      final MethodHandle impl = lookup.findConstructor(type, MethodType.methodType(void.class));
+      final CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+          MethodType.methodType(Supplier.class),
+          MethodType.methodType(Object.class),
+          impl,
+          MethodType.methodType(type));
+      return (Supplier<Object>) site.getTarget().invoke();
+    } catch (Throwable e) {
+      return null;  // no public no-arg constructor, say
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> generateSetter(final Method setter) {
+    final Class<?>[] params = setter.getParameterTypes();
+    if (params.length == 1 && accessible(setter) && accessible(params[0])) {
+      try {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+            MethodType.methodType(BiConsumer.class),
+            MethodType.methodType(void.class, Object.class, Object.class),
+            lookup.unreflect(setter),
+            MethodType.methodType(void.class, setter.getDeclaringClass(), wrap(params[0])));
+        return (BiConsumer<Object, Object>) site.getTarget().invoke();
+      } catch (Throwable e) {
+        // fall back to reflection
+      }
+    }
+    return new BiConsumer<Object, Object>() {
+      public void accept(Object bean, Object value) {
+        invoke(setter, bean, value);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> generateGetter(final Method getter) {
+    if (getter.getParameterTypes().length == 0 && getter.getReturnType() != void.class
+        && accessible(getter) && accessible(getter.getReturnType())) {
+      try {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+            MethodType.methodType(Function.class),
+            MethodType.methodType(Object.class, Object.class),
+            lookup.unreflect(getter),
+            MethodType.methodType(wrap(getter.getReturnType()), getter.getDeclaringClass()));
+        return (Function<Object, Object>) site.getTarget().invoke();
+      } catch (Throwable e) {
+        // fall back to reflection
+      }
+    }
+    return new Function<Object, Object>() {
+      public Object apply(Object bean) {
+        return invoke(getter, bean);
+      }
+    };
+  }
+
+  private static Object invoke(final Method method, final Object bean, final Object... args) {
+    try {
+      return method.invoke(bean, args);
+    } catch (InvocationTargetException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new UndeclaredThrowableException(cause);
+    } catch (IllegalAccessException e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+  /**
+   * @return whether a generated class, defined next to this one, may call method
+   */
+  private static boolean accessible(final Method method) {
+    return Modifier.isPublic(method.getModifiers()) && accessible(method.getDeclaringClass());
+  }
+
+  /**
+   * @return whether a generated class, defined next to this one, may refer to cls
+   */
+  private static boolean accessible(final Class<?> cls) {
+    Class<?> c = cls;
+    while (c.isArray()) {
+      c = c.getComponentType();
+    }
+    if (c.isPrimitive()) {
+      return true;
+    }
+    for (Class<?> outer = c; outer != null; outer = outer.getEnclosingClass()) {
+      if (!Modifier.isPublic(outer.getModifiers())) {
+        return false;
+      }
+    }
+    try {
+      return Class.forName(c.getName(), false, BeanAccessors.class.getClassLoader()) == c;
+    } catch (ClassNotFoundException e) {
+      return false;  // from a class loader that cannot be seen from here
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+
+  private static Class<?> wrap(final Class<?> cls) {
+    return MethodType.methodType(cls).wrap().returnType();
+  }
+}
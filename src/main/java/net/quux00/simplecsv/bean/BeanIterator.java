@@ -0,0 +1,81 @@
+package net.quux00.simplecsv.bean;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.quux00.simplecsv.CsvReader;
+
+/**
+ * Iterates over the beans the remaining records of a CsvReader map to,
+ * reading and mapping each record as it is asked for, so only one record
+ * and one bean are held at a time.  Made by CsvToBean#iterator.
+ *
+ * The CsvReader is closed once the last record has been read, or by
+ * close() if the iteration stops before then, so use it in a
+ * try-with-resources block.  A failure to read or map a record is thrown
+ * from hasNext() or next() as a RuntimeException, as CsvToBean#parse throws it.
+ *
+ * @NotThreadSafe
+ */
+public class BeanIterator<T> implements Iterator<T>, Closeable {
+
+  private final CsvToBean<T> csvToBean;
+  private final MappingStrategy<T> mapper;
+  private final CsvReader csv;
+  private String[] nextLine;  // null until read
+  private boolean done;
+
+  BeanIterator(CsvToBean<T> csvToBean, MappingStrategy<T> mapper, CsvReader csv) {
+    this.csvToBean = csvToBean;
+    this.mapper = mapper;
+    this.csv = csv;
+  }
+
+  public boolean hasNext() {
+    if (nextLine == null && !done) {
+      try {
+        nextLine = csv.readNext();
+      } catch (IOException e) {
+        throw new RuntimeException("Error parsing CSV!", e);
+      }
+      if (nextLine == null) {
+        close();
+      }
+    }
+    return nextLine != null;
+  }
+
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    String[] line = nextLine;
+    nextLine = null;
+    try {
+      return csvToBean.processLine(mapper, line);
+    } catch (Exception e) {
+      throw new RuntimeException("Error parsing CSV!", e);
+    }
+  }
+
+  public void remove() {
+    throw new UnsupportedOperationException("This is a read only iterator.");
+  }
+
+  /**
+   * Closes the CsvReader, ending the iteration.
+   */
+  public void close() {
+    if (!done) {
+      done = true;
+      nextLine = null;
+      try {
+        csv.close();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
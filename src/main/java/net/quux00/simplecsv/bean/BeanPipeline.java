@@ -0,0 +1,183 @@
+package net.quux00.simplecsv.bean;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import net.quux00.simplecsv.CsvReader;
+
+/**
+ * Maps the records of a CsvReader to beans on a pool of worker threads, for
+ * CsvToBean#parse(mapper, csv, action, threads, ordered).  The calling
+ * thread reads the records, in batches of BATCH_SIZE, and hands each batch
+ * to a worker, which maps it with CsvToBean#processLine.  The beans are
+ * handed to the action on the calling thread as well: in the order of the
+ * file, or in the order the batches are done.
+ *
+ * At most two batches per worker are read ahead of the beans handed to the
+ * action, so memory stays bounded however large the input is.  The columns
+ * of each batch are looked up in the MappingPlan on the calling thread
+ * before it is handed over, so the workers only call createBean, the
+ * converters and the setters.
+ */
+final class BeanPipeline<T> {
+
+  static final int BATCH_SIZE = 1024;
+
+  private final CsvToBean<T> csvToBean;
+  private final MappingStrategy<T> mapper;
+  private final MappingPlan<T> plan;
+  private final Consumer<? super T> action;
+  private final int maxInFlight;
+  private final boolean ordered;
+  private final ExecutorService workers;
+  private final CompletionService<List<T>> done;  // unordered only
+  private final ArrayDeque<Future<List<T>>> inFlight = new ArrayDeque<Future<List<T>>>();  // ordered only
+  private int pending;  // batches handed over and not yet handed to the action
+  private long count;
+
+  BeanPipeline(CsvToBean<T> csvToBean, MappingStrategy<T> mapper, MappingPlan<T> plan,
+      Consumer<? super T> action, int threads, boolean ordered) {
+    this.csvToBean = csvToBean;
+    this.mapper = mapper;
+    this.plan = plan;
+    this.action = action;
+    this.maxInFlight = 2 * threads;
+    this.ordered = ordered;
+    this.workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger n = new AtomicInteger();
+
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "CsvToBean-" + n.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      }
+    });
+    this.done = ordered ? null : new ExecutorCompletionService<List<T>>(workers);
+  }
+
+  /**
+   * Reads, maps and hands on all remaining records of csv.
+   * @return the number of beans handed to the action
+   */
+  long run(final CsvReader csv) {
+    try {
+      String[][] batch = new String[BATCH_SIZE][];
+      int n = 0;
+      int widest = 0;
+      String[] line;
+      while ((line = readNext(csv)) != null) {
+        batch[n++] = line;
+        widest = Math.max(widest, line.length);
+        if (n == BATCH_SIZE) {
+          submit(batch, n, widest);
+          batch = new String[BATCH_SIZE][];
+          n = 0;
+          widest = 0;
+        }
+      }
+      if (n > 0) {
+        submit(batch, n, widest);
+      }
+      while (pending > 0) {
+        deliver(true);
+      }
+      return count;
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private String[] readNext(final CsvReader csv) {
+    try {
+      return csv.readNext();
+    } catch (Exception e) {
+      throw new RuntimeException("Error parsing CSV!", e);
+    }
+  }
+
+  private void submit(final String[][] lines, final int n, final int widest) {
+    try {
+      plan.columns(widest);
+    } catch (Exception e) {
+      throw new RuntimeException("Error parsing CSV!", e);
+    }
+    final Callable<List<T>> task = new Callable<List<T>>() {
+      public List<T> call() throws Exception {
+        final List<T> beans = new ArrayList<T>(n);
+        for (int i = 0; i < n; i++) {
+          beans.add(csvToBean.processLine(mapper, lines[i]));
+        }
+        return beans;
+      }
+    };
+    if (ordered) {
+      inFlight.add(workers.submit(task));
+    } else {
+      done.submit(task);
+    }
+    pending++;
+
+    // hand on what is done already, and wait for a batch once enough are ahead
+    while (pending > 0 && deliver(pending >= maxInFlight)) {
+      // loop
+    }
+  }
+
+  /**
+   * Hands the beans of the next batch (in the order of the file, or the
+   * first done) to the action.
+   * @param wait whether to wait for the batch to be mapped
+   * @return false if wait is false and the batch is not mapped yet
+   */
+  private boolean deliver(final boolean wait) {
+    final Future<List<T>> next;
+    if (ordered) {
+      next = inFlight.peek();
+      if (!wait && !next.isDone()) {
+        return false;
+      }
+      inFlight.remove();
+    } else {
+      next = wait ? take() : done.poll();
+      if (next == null) {
+        return false;
+      }
+    }
+    pending--;
+
+    final List<T> beans;
+    try {
+      beans = next.get();
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Error parsing CSV!", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted waiting for beans to be mapped", e);
+    }
+    for (T bean : beans) {
+      action.accept(bean);
+      count++;
+    }
+    return true;
+  }
+
+  private Future<List<T>> take() {
+    try {
+      return done.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted waiting for beans to be mapped", e);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import net.quux00.simplecsv.CsvWriter;
 
@@ -47,9 +48,9 @@ public class BeanToCsv<T> {
 
     try {
       csv.writeNext(processHeader(mapper));
-      List<Method> getters = findGetters(mapper);
+      List<Function<Object, Object>> getters = accessors(findGetters(mapper));
       for (Object obj : objects) {
-        String[] line = processObject(getters, obj);
+        String[] line = toLine(getters, obj);
         csv.writeNext(line);
       }
       return true;
@@ -74,17 +75,30 @@ public class BeanToCsv<T> {
   protected String[] processObject(List<Method> getters, Object bean)
       throws IntrospectionException, IllegalArgumentException,
       IllegalAccessException, InvocationTargetException {
-    List<String> values = new ArrayList<String>();
-    // retrieve bean values
+    return toLine(accessors(getters), bean);
+  }
+
+  /**
+   * @return the values the getters return for the bean, as Strings
+   */
+  private String[] toLine(List<Function<Object, Object>> getters, Object bean) {
+    String[] values = new String[getters.size()];
+    for (int i = 0; i < values.length; i++) {
+      Object value = getters.get(i).apply(bean);
+      values[i] = value == null ? "null" : value.toString();
+    }
+    return values;
+  }
+
+  /**
+   * @return the getters as Functions generated by BeanAccessors
+   */
+  private List<Function<Object, Object>> accessors(List<Method> getters) {
+    List<Function<Object, Object>> accessors = new ArrayList<Function<Object, Object>>(getters.size());
     for (Method getter : getters) {
-      Object value = getter.invoke(bean, (Object[]) null);
-      if (value == null) {
-        values.add("null");
-      } else {
-        values.add(value.toString());
-      }
+      accessors.add(BeanAccessors.getter(getter));
     }
-    return values.toArray(new String[0]);
+    return accessors;
   }
 
   /**
@@ -0,0 +1,347 @@
+package net.quux00.simplecsv.bean;
+
+import java.beans.PropertyEditor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The FieldConverters built into CsvToBean, and the adapter that makes a
+ * PropertyEditor one.
+ *
+ * The numbers are parsed as decimal, straight from the CharSequence where
+ * they are plain digits, without the hex and octal forms the JDK's
+ * PropertyEditors allow (Integer.decode reads "010" as 8).  An empty field
+ * is null for a wrapper type, a NumberFormatException for a primitive.
+ * Booleans are "true" or "false", ignoring case, as for the JDK's
+ * BooleanEditor.
+ */
+final class Converters {
+
+  private Converters() {
+  }
+
+  private static final Map<Class<?>, FieldConverter<?>> BUILT_IN = new HashMap<Class<?>, FieldConverter<?>>();
+
+  static {
+    BUILT_IN.put(String.class, new FieldConverter<String>() {
+      public String convert(CharSequence field) {
+        return field.toString();
+      }
+    });
+    BUILT_IN.put(int.class, new IntConverter(false));
+    BUILT_IN.put(Integer.class, new IntConverter(true));
+    BUILT_IN.put(long.class, new LongConverter(false));
+    BUILT_IN.put(Long.class, new LongConverter(true));
+    BUILT_IN.put(short.class, new ShortConverter(false));
+    BUILT_IN.put(Short.class, new ShortConverter(true));
+    BUILT_IN.put(byte.class, new ByteConverter(false));
+    BUILT_IN.put(Byte.class, new ByteConverter(true));
+    BUILT_IN.put(double.class, new DoubleConverter(false));
+    BUILT_IN.put(Double.class, new DoubleConverter(true));
+    BUILT_IN.put(float.class, new FloatConverter(false));
+    BUILT_IN.put(Float.class, new FloatConverter(true));
+    BUILT_IN.put(boolean.class, new BooleanConverter(false));
+    BUILT_IN.put(Boolean.class, new BooleanConverter(true));
+    BUILT_IN.put(char.class, new CharConverter(false));
+    BUILT_IN.put(Character.class, new CharConverter(true));
+
+    BUILT_IN.put(BigDecimal.class, new NullableConverter<BigDecimal>() {
+      BigDecimal parse(CharSequence field) {
+        return new BigDecimal(field.toString());
+      }
+    });
+    BUILT_IN.put(BigInteger.class, new NullableConverter<BigInteger>() {
+      BigInteger parse(CharSequence field) {
+        return new BigInteger(field.toString());
+      }
+    });
+
+    BUILT_IN.put(LocalDate.class, new NullableConverter<LocalDate>() {
+      LocalDate parse(CharSequence field) {
+        return LocalDate.parse(field);
+      }
+    });
+    BUILT_IN.put(LocalTime.class, new NullableConverter<LocalTime>() {
+      LocalTime parse(CharSequence field) {
+        return LocalTime.parse(field);
+      }
+    });
+    BUILT_IN.put(LocalDateTime.class, new NullableConverter<LocalDateTime>() {
+      LocalDateTime parse(CharSequence field) {
+        return LocalDateTime.parse(field);
+      }
+    });
+    BUILT_IN.put(OffsetDateTime.class, new NullableConverter<OffsetDateTime>() {
+      OffsetDateTime parse(CharSequence field) {
+        return OffsetDateTime.parse(field);
+      }
+    });
+    BUILT_IN.put(ZonedDateTime.class, new NullableConverter<ZonedDateTime>() {
+      ZonedDateTime parse(CharSequence field) {
+        return ZonedDateTime.parse(field);
+      }
+    });
+    BUILT_IN.put(Instant.class, new NullableConverter<Instant>() {
+      Instant parse(CharSequence field) {
+        return Instant.parse(field);
+      }
+    });
+    BUILT_IN.put(Duration.class, new NullableConverter<Duration>() {
+      Duration parse(CharSequence field) {
+        return Duration.parse(field);
+      }
+    });
+  }
+
+  /**
+   * @return the built-in converter for type, or null if there is none
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static FieldConverter<?> builtIn(final Class<?> type) {
+    if (type.isEnum()) {
+      return new EnumConverter(type);
+    }
+    return BUILT_IN.get(type);
+  }
+
+  /**
+   * @return a converter that calls the editor
+   */
+  static FieldConverter<Object> fromEditor(final PropertyEditor editor) {
+    return new EditorConverter(editor);
+  }
+
+
+  /**
+   * Sets the text of a PropertyEditor and takes its value.  Editors keep the
+   * value they were set to, and one may be shared by several columns of its
+   * type, so this is done holding the editor's lock.
+   */
+  static final class EditorConverter implements FieldConverter<Object> {
+    final PropertyEditor editor;
+
+    EditorConverter(PropertyEditor editor) {
+      this.editor = editor;
+    }
+
+    public Object convert(CharSequence field) {
+      synchronized (editor) {
+        editor.setAsText(field.toString());
+        return editor.getValue();
+      }
+    }
+  }
+
+  /**
+   * Converts an empty field to null, others with parse.
+   */
+  abstract static class NullableConverter<V> implements FieldConverter<V> {
+    public V convert(CharSequence field) {
+      return field.length() == 0 ? null : parse(field);
+    }
+
+    abstract V parse(CharSequence field);
+  }
+
+  static final class EnumConverter<E extends Enum<E>> extends NullableConverter<E> {
+    private final Class<E> type;
+    private final Map<String, E> constants = new HashMap<String, E>();
+
+    EnumConverter(Class<E> type) {
+      this.type = type;
+      for (E e : type.getEnumConstants()) {
+        constants.put(e.name(), e);
+      }
+    }
+
+    E parse(CharSequence field) {
+      final E e = constants.get(field.toString());
+      if (e == null) {
+        throw new IllegalArgumentException("No enum constant " + type.getName() + "." + field);
+      }
+      return e;
+    }
+  }
+
+  /**
+   * Parses a number: null for an empty field of a wrapper type.
+   */
+  abstract static class NumberConverter<V> implements FieldConverter<V> {
+    private final boolean nullable;
+
+    NumberConverter(boolean nullable) {
+      this.nullable = nullable;
+    }
+
+    public V convert(CharSequence field) {
+      if (field.length() == 0) {
+        if (nullable) {
+          return null;
+        }
+        throw new NumberFormatException("For input string: \"\"");
+      }
+      return parse(field);
+    }
+
+    abstract V parse(CharSequence field);
+  }
+
+  /**
+   * @return the value of field if it is an optional '-' or '+' followed by
+   *         1 to 18 ASCII digits, else Long.MIN_VALUE
+   */
+  static long parseDigits(final CharSequence field) {
+    final int end = field.length();
+    int p = 0;
+    boolean negative = false;
+    if (end > 0 && (field.charAt(0) == '-' || field.charAt(0) == '+')) {
+      negative = field.charAt(0) == '-';
+      p++;
+    }
+    if (p == end || end - p > 18) {
+      return Long.MIN_VALUE;
+    }
+    long v = 0;
+    for (; p < end; p++) {
+      final int d = field.charAt(p) - '0';
+      if (d < 0 || d > 9) {
+        return Long.MIN_VALUE;
+      }
+      v = v * 10 + d;
+    }
+    return negative ? -v : v;
+  }
+
+  static final class IntConverter extends NumberConverter<Integer> {
+    IntConverter(boolean nullable) {
+      super(nullable);
+    }
+
+    Integer parse(CharSequence field) {
+      final long v = parseDigits(field);
+      if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+        return (int) v;
+      }
+      return Integer.parseInt(field.toString());  // throws the NumberFormatException
+    }
+  }
+
+  static final class LongConverter extends NumberConverter<Long> {
+    LongConverter(boolean nullable) {
+      super(nullable);
+    }
+
+    Long parse(CharSequence field) {
+      final long v = parseDigits(field);
+      return v != Long.MIN_VALUE ? v : Long.parseLong(field.toString());
+    }
+  }
+
+  static final class ShortConverter extends NumberConverter<Short> {
+    ShortConverter(boolean nullable) {
+      super(nullable);
+    }
+
+    Short parse(CharSequence field) {
+      final long v = parseDigits(field);
+      if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) {
+        return (short) v;
+      }
+      return Short.parseShort(field.toString());
+    }
+  }
+
+  static final class ByteConverter extends NumberConverter<Byte> {
+    ByteConverter(boolean nullable) {
+      super(nullable);
+    }
+
+    Byte parse(CharSequence field) {
+      final long v = parseDigits(field);
+      if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) {
+        return (byte) v;
+      }
+      return Byte.parseByte(field.toString());
+    }
+  }
+
+  static final class DoubleConverter extends NumberConverter<Double> {
+    DoubleConverter(boolean nullable) {
+      super(nullable);
+    }
+
+    Double parse(CharSequence field) {
+      return Double.parseDouble(field.toString());
+    }
+  }
+
+  static final class FloatConverter extends NumberConverter<Float> {
+    FloatConverter(boolean nullable) {
+      super(nullable);
+    }
+
+    Float parse(CharSequence field) {
+      return Float.parseFloat(field.toString());
+    }
+  }
+
+  static final class BooleanConverter implements FieldConverter<Boolean> {
+    private final boolean nullable;
+
+    BooleanConverter(boolean nullable) {
+      this.nullable = nullable;
+    }
+
+    public Boolean convert(CharSequence field) {
+      if (field.length() == 0 && nullable) {
+        return null;
+      }
+      if (is(field, "true")) {
+        return Boolean.TRUE;
+      }
+      if (is(field, "false")) {
+        return Boolean.FALSE;
+      }
+      throw new IllegalArgumentException("Not a boolean: \"" + field + "\"");
+    }
+
+    private static boolean is(final CharSequence field, final String word) {
+      if (field.length() != word.length()) {
+        return false;
+      }
+      for (int i = 0; i < word.length(); i++) {
+        if (Character.toLowerCase(field.charAt(i)) != word.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  static final class CharConverter implements FieldConverter<Character> {
+    private final boolean nullable;
+
+    CharConverter(boolean nullable) {
+      this.nullable = nullable;
+    }
+
+    public Character convert(CharSequence field) {
+      if (field.length() == 0 && nullable) {
+        return null;
+      }
+      if (field.length() != 1) {
+        throw new IllegalArgumentException("Not a single char: \"" + field + "\"");
+      }
+      return field.charAt(0);
+    }
+  }
+}
@@ -23,73 +23,257 @@ import java.beans.PropertyEditorManager;
 import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import net.quux00.simplecsv.CsvReader;
 
 public class CsvToBean<T> {
-  private Map<Class<?>, PropertyEditor> editorMap = null;
+  private final Map<Class<?>, PropertyEditor> editorMap = new ConcurrentHashMap<Class<?>, PropertyEditor>();
+  private final Map<Class<?>, FieldConverter<?>> converters = new ConcurrentHashMap<Class<?>, FieldConverter<?>>();
+  private volatile MappingPlan<T> plan = null;  // for the last mapper used
+  private final boolean overridesConvertValue = overrides("convertValue", String.class, PropertyDescriptor.class);
+  private final boolean overridesGetPropertyEditor = overrides("getPropertyEditor", PropertyDescriptor.class);
 
   public CsvToBean() {
   }
 
+  /**
+   * Converts the fields of properties of the given type with converter,
+   * rather than with the built-in converter or PropertyEditor for it.
+   * Registered before parsing; a property with its own PropertyEditor class
+   * in its descriptor still uses that, and a subclass that overrides
+   * convertValue or getPropertyEditor converts its own way.
+   */
+  public <V> void registerConverter(Class<V> type, FieldConverter<? extends V> converter) {
+    if (type == null || converter == null) {
+      throw new IllegalArgumentException("Type and converter may not be null");
+    }
+    converters.put(type, converter);
+  }
+
   public List<T> parse(MappingStrategy<T> mapper, Reader reader) {
     return parse(mapper, new CsvReader(reader));
   }
 
   public List<T> parse(MappingStrategy<T> mapper, CsvReader csv) {
+    final List<T> list = new ArrayList<T>();
+    parse(mapper, csv, new Consumer<T>() {
+      public void accept(T bean) {
+        list.add(bean); // TODO: (Kyle) null check object
+      }
+    });
+    return list;
+  }
+
+  /**
+   * Maps the remaining records of csv to beans one at a time, handing each
+   * to action before the next record is read, so no more than one bean is
+   * held at a time.  The reader is not closed.
+   *
+   * A failure to read or map a record is thrown as a RuntimeException, as
+   * by parse(mapper, csv); one thrown by action is passed on as it is.
+   *
+   * @return the number of beans handed to action
+   */
+  public long parse(MappingStrategy<T> mapper, CsvReader csv, Consumer<? super T> action) {
+    start(mapper, csv);
+    long count = 0;
+    while (true) {
+      T bean;
+      try {
+        String[] line = csv.readNext();
+        if (line == null) {
+          return count;
+        }
+        bean = processLine(mapper, line);
+      } catch (Exception e) {
+        throw new RuntimeException("Error parsing CSV!", e);
+      }
+      action.accept(bean);
+      count++;
+    }
+  }
+
+  /**
+   * Maps the remaining records of csv to beans on threads worker threads,
+   * while this thread reads the records: it reads them in batches, each of
+   * which is mapped by one of the workers, and hands the beans to action.
+   * This pays off where the mapping (conversion and setters) costs more
+   * than the reading, as it does for beans of many columns.
+   *
+   * action is called on this thread, one bean at a time, in the order of
+   * the records if ordered is true, else in the order the batches are
+   * mapped in.  Only a few batches per worker are read ahead of it, so
+   * memory stays bounded.  The reader is not closed.
+   *
+   * The workers call processLine, createBean of the mapper and the
+   * converters at the same time: the strategies and converters of this
+   * package allow that, a FieldConverter registered or a MappingStrategy
+   * written for this must too.  A property converted with a PropertyEditor
+   * holds the editor's lock for each field.
+   *
+   * A failure to read or map a record is thrown as a RuntimeException, as
+   * by parse(mapper, csv); one thrown by action is passed on as it is.
+   *
+   * @return the number of beans handed to action
+   */
+  public long parse(MappingStrategy<T> mapper, CsvReader csv, Consumer<? super T> action, int threads, boolean ordered) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+    }
+    start(mapper, csv);
+    return new BeanPipeline<T>(this, mapper, plan, action, threads, ordered).run(csv);
+  }
+
+  /**
+   * Same as parse(mapper, csv), with the records mapped to beans on threads
+   * worker threads; see parse(mapper, csv, action, threads, ordered).  The
+   * beans keep the order of the records.
+   */
+  public List<T> parse(MappingStrategy<T> mapper, CsvReader csv, int threads) {
+    final List<T> list = new ArrayList<T>();
+    parse(mapper, csv, new Consumer<T>() {
+      public void accept(T bean) {
+        list.add(bean);
+      }
+    }, threads, true);
+    return list;
+  }
+
+  /**
+   * Captures the header, then returns an Iterator that reads and maps the
+   * remaining records of csv as it is advanced.  It closes the reader after
+   * the last record, or when it is closed itself.  See BeanIterator.
+   */
+  public BeanIterator<T> iterator(MappingStrategy<T> mapper, CsvReader csv) {
+    start(mapper, csv);
+    return new BeanIterator<T>(this, mapper, csv);
+  }
+
+  /**
+   * Captures the header, then returns a sequential Stream that reads and
+   * maps the remaining records of csv as they are consumed.  Closing the
+   * stream closes the reader, so use it in a try-with-resources block.
+   */
+  public Stream<T> stream(MappingStrategy<T> mapper, CsvReader csv) {
+    final BeanIterator<T> iterator = iterator(mapper, csv);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+        .onClose(new Runnable() {
+          public void run() {
+            iterator.close();
+          }
+        });
+  }
+
+  /**
+   * Captures the header for mapper and starts a new MappingPlan for it.
+   */
+  private void start(MappingStrategy<T> mapper, CsvReader csv) {
     try {
       mapper.captureHeader(csv);
-      String[] line;
-      List<T> list = new ArrayList<T>();
-      while (null != (line = csv.readNext())) {
-        T obj = processLine(mapper, line);
-        list.add(obj); // TODO: (Kyle) null check object
-      }
-      return list;
     } catch (Exception e) {
       throw new RuntimeException("Error parsing CSV!", e);
     }
+    plan = new MappingPlan<T>(mapper, this);  // the header may map the columns differently
   }
 
+  /**
+   * Maps the line to a new bean.  The setter, editor and trimming of each
+   * column are looked up from the mapper once, into a MappingPlan that is
+   * kept for the following lines mapped with the same mapper.
+   */
   protected T processLine(MappingStrategy<T> mapper, String[] line) throws IllegalAccessException, InvocationTargetException, InstantiationException, IntrospectionException {
-    T bean = mapper.createBean();
-    for (int col = 0; col < line.length; col++) {
-      PropertyDescriptor prop = mapper.findDescriptor(col);
-      if (null != prop) {
-        String value = checkForTrim(line[col], prop);
-        Object obj = convertValue(value, prop);
-        prop.getWriteMethod().invoke(bean, obj);
-      }
+    if (plan == null || plan.mapper != mapper) {
+      plan = new MappingPlan<T>(mapper, this);
     }
-    return bean;
+    return plan.map(line);
   }
 
-  private String checkForTrim(String s, PropertyDescriptor prop) {
-    return trimmableProperty(prop) ? s.trim() : s;
+  /**
+   * Converts a field to the type of its property, as standardConverter
+   * says.  A subclass may override this to convert
+   * fields its own way: it is then called for every field mapped, in place
+   * of the converter (so not once per column).  It is called from several
+   * threads at once by parse(mapper, csv, action, threads, ordered).
+   *
+   * @param value the field, trimmed unless the property is a String
+   */
+  protected Object convertValue(String value, PropertyDescriptor prop) throws InstantiationException, IllegalAccessException {
+    FieldConverter<?> converter = standardConverter(prop);
+    return converter == null ? value : converter.convert(value);
   }
 
-  private boolean trimmableProperty(PropertyDescriptor prop) {
-    return !prop.getPropertyType().getName().contains("String");
+  /**
+   * Looks up how the fields of a property are converted: by calling
+   * convertValue for each if a subclass overrides it, else as
+   * standardConverter says.
+   * @return the converter, or null to set the fields as they are
+   */
+  FieldConverter<?> findConverter(final PropertyDescriptor prop) throws InstantiationException, IllegalAccessException {
+    if (!overridesConvertValue) {
+      return standardConverter(prop);
+    }
+    return new FieldConverter<Object>() {
+      public Object convert(CharSequence field) {
+        try {
+          return convertValue(field.toString(), prop);
+        } catch (InstantiationException e) {
+          throw new RuntimeException(e);
+        } catch (IllegalAccessException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
   }
 
-  protected Object convertValue(String value, PropertyDescriptor prop) throws InstantiationException, IllegalAccessException {
-    PropertyEditor editor = getPropertyEditor(prop);
-    Object obj = value;
-    if (null != editor) {
-      editor.setAsText(value);
-      obj = editor.getValue();
+  /**
+   * Looks up how the fields of a property are converted unless convertValue
+   * is overridden.  If a subclass overrides getPropertyEditor, with the
+   * editor it gives, asked for each field as convertValue did before there
+   * were converters.  Else with the PropertyEditor class of its descriptor
+   * if it has one, else with the converter registered for its type, else
+   * with the built-in one (see Converters), else with the PropertyEditor
+   * found for its type.
+   * @return the converter, or null to set the fields as they are
+   */
+  private FieldConverter<?> standardConverter(final PropertyDescriptor prop) throws InstantiationException, IllegalAccessException {
+    if (overridesGetPropertyEditor) {
+      return new FieldConverter<Object>() {
+        public Object convert(CharSequence field) {
+          PropertyEditor editor;
+          try {
+            editor = getPropertyEditor(prop);
+          } catch (InstantiationException e) {
+            throw new RuntimeException(e);
+          } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+          }
+          return editor == null ? field.toString() : Converters.fromEditor(editor).convert(field);
+        }
+      };
+    }
+    if (prop.getPropertyEditorClass() == null) {
+      Class<?> type = prop.getPropertyType();
+      FieldConverter<?> converter = converters.get(type);
+      if (converter == null) {
+        converter = Converters.builtIn(type);
+      }
+      if (converter != null) {
+        return converter;
+      }
     }
-    return obj;
+    PropertyEditor editor = getPropertyEditor(prop);
+    return editor == null ? null : Converters.fromEditor(editor);
   }
 
   private PropertyEditor getPropertyEditorValue(Class<?> cls) {
-    if (editorMap == null) {
-      editorMap = new HashMap<Class<?>, PropertyEditor>();
-    }
-
     PropertyEditor editor = editorMap.get(cls);
 
     if (editor == null) {
@@ -109,6 +293,8 @@ public class CsvToBean<T> {
 
   /*
    * Attempt to find custom property editor on descriptor first, else try the propery editor manager.
+   * A subclass that overrides this is asked for the editor of each field, for all property types
+   * (see standardConverter).
    */
   protected PropertyEditor getPropertyEditor(PropertyDescriptor desc) throws InstantiationException, IllegalAccessException {
     Class<?> cls = desc.getPropertyEditorClass();
@@ -116,4 +302,19 @@ public class CsvToBean<T> {
     return getPropertyEditorValue(desc.getPropertyType());
   }
 
+  /**
+   * @return true if a subclass declares the method, overriding that of CsvToBean
+   */
+  private boolean overrides(String name, Class<?>... parameterTypes) {
+    for (Class<?> cls = getClass(); cls != CsvToBean.class; cls = cls.getSuperclass()) {
+      try {
+        cls.getDeclaredMethod(name, parameterTypes);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // look in the superclass
+      }
+    }
+    return false;
+  }
+
 }
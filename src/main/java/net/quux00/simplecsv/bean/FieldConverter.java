@@ -0,0 +1,25 @@
+package net.quux00.simplecsv.bean;
+
+/**
+ * Converts the text of a Csv field to the type of the bean property it is
+ * mapped to.  CsvToBean has converters built in for the primitives and
+ * their wrappers, BigDecimal, BigInteger, enums and the java.time types;
+ * others can be registered with CsvToBean#registerConverter.  Properties of
+ * any other type are converted with a java.beans.PropertyEditor, as before.
+ *
+ * A converter is looked up once per column and then called for each field
+ * of it, possibly from several threads at once, so it must be thread-safe:
+ * ideally it keeps no state at all.
+ *
+ * @param <V> the type converted to
+ */
+public interface FieldConverter<V> {
+
+  /**
+   * @param field the text of the field, trimmed unless the property is a String
+   * @return the value to set the property to
+   * @throws RuntimeException (such as a NumberFormatException or a
+   *         DateTimeParseException) if the text is not a value of the type
+   */
+  V convert(CharSequence field);
+}
@@ -7,6 +7,7 @@ import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import net.quux00.simplecsv.CsvReader;
 
@@ -28,8 +29,10 @@ import net.quux00.simplecsv.CsvReader;
 
 public class HeaderColumnNameMappingStrategy<T> implements MappingStrategy<T> {
     protected String[] header;
-    protected Map<String, PropertyDescriptor> descriptorMap = null;
+    protected volatile Map<String, PropertyDescriptor> descriptorMap = null;
     protected Class<T> type;
+    private volatile Class<T> constructorType = null;   // the type constructor was looked up for, set after it
+    private Supplier<Object> constructor = null;
 
     public void captureHeader(CsvReader reader) throws IOException {
         header = reader.readNext();
@@ -70,8 +73,19 @@ public class HeaderColumnNameMappingStrategy<T> implements MappingStrategy<T> {
         return beanInfo.getPropertyDescriptors();
     }
 
+    /**
+     * Makes a bean with the public no-arg constructor of the type, called
+     * through a generated Supplier (see BeanAccessors) where possible.
+     */
+    @SuppressWarnings("unchecked")
     public T createBean() throws InstantiationException, IllegalAccessException {
-        return type.newInstance();
+        final Class<T> t = type;
+        if (constructorType != t) {
+            constructor = BeanAccessors.constructor(t);
+            constructorType = t;
+        }
+        final Supplier<Object> c = constructor;
+        return c != null ? (T) c.get() : t.newInstance();
     }
 
     public Class<T> getType() {
@@ -0,0 +1,95 @@
+package net.quux00.simplecsv.bean;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * What CsvToBean does with each column of a line, worked out once per
+ * MappingStrategy (after its header is captured) rather than for every
+ * field: the property's setter (as a BeanAccessors BiConsumer), the
+ * FieldConverter to its type and whether the field is trimmed first.
+ * Mapping a line is then a walk over an array of columns.
+ *
+ * The columns are looked up from the strategy as lines with more of them
+ * are seen, since a MappingStrategy does not say how many it maps.  The
+ * lookups are made under a lock, and the columns published through a
+ * volatile field, so a plan can map lines on several threads at once, as
+ * long as the strategy's createBean and the converters are thread-safe
+ * (those of this package are).
+ *
+ * @ThreadSafe
+ */
+final class MappingPlan<T> {
+
+  final MappingStrategy<T> mapper;
+  private final CsvToBean<T> csvToBean;
+  private volatile Column[] columns = new Column[0];  // null where a column is not mapped
+
+  MappingPlan(final MappingStrategy<T> mapper, final CsvToBean<T> csvToBean) {
+    this.mapper = mapper;
+    this.csvToBean = csvToBean;
+  }
+
+  /**
+   * Makes a bean and sets the properties the fields of line are mapped to.
+   */
+  T map(final String[] line) throws IllegalAccessException, InstantiationException, IntrospectionException {
+    final Column[] cols = columns(line.length);
+    final T bean = mapper.createBean();
+    for (int col = 0; col < line.length; col++) {
+      final Column column = cols[col];
+      if (column != null) {
+        column.setter.accept(bean, column.convert(line[col]));
+      }
+    }
+    return bean;
+  }
+
+  /**
+   * @return the columns, looked up from the mapper up to at least n
+   */
+  Column[] columns(final int n) throws IntrospectionException, InstantiationException, IllegalAccessException {
+    final Column[] cols = columns;
+    return n <= cols.length ? cols : lookUp(n);
+  }
+
+  private synchronized Column[] lookUp(final int n)
+      throws IntrospectionException, InstantiationException, IllegalAccessException {
+    final Column[] cols = columns;
+    if (n <= cols.length) {
+      return cols;
+    }
+    final Column[] more = Arrays.copyOf(cols, n);
+    for (int col = cols.length; col < n; col++) {
+      final PropertyDescriptor prop = mapper.findDescriptor(col);
+      if (prop != null) {
+        more[col] = new Column(BeanAccessors.setter(prop.getWriteMethod()), csvToBean.findConverter(prop),
+            !prop.getPropertyType().getName().contains("String"));
+      }
+    }
+    columns = more;
+    return more;
+  }
+
+  /**
+   * How the fields of one column are set on a bean.
+   */
+  static final class Column {
+    final BiConsumer<Object, Object> setter;
+    final FieldConverter<?> converter;  // null to set the field as it is
+    final boolean trim;
+
+    Column(BiConsumer<Object, Object> setter, FieldConverter<?> converter, boolean trim) {
+      this.setter = setter;
+      this.converter = converter;
+      this.trim = trim;
+    }
+
+    Object convert(final String field) {
+      final String value = trim ? field.trim() : field;
+      return converter == null ? value : converter.convert(value);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package net.quux00.simplecsv;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * StructuralIndexer that uses the incubator Vector API to compare a whole
+ * vector of chars against the separator, quote char and escape char at once.
+ * Vectors without a match are skipped whole; the chars of the others, and the
+ * chars after the last full vector, are checked one at a time.  So this is
+ * fastest on lines where the special chars are sparse, such as long text or
+ * encoded payloads, and about as fast as the scalar indexer on dense ones.
+ *
+ * Requires Java 17+ and --add-modules jdk.incubator.vector at runtime.
+ * Only compiled by the jdk17 profile and only ever loaded by
+ * StructuralIndexer#create, which falls back to the scalar indexer if this
+ * class cannot be loaded.
+ */
+class VectorStructuralIndexer extends StructuralIndexer {
+
+  private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+  private final short separator;
+  private final short quotechar;
+  private final short escapechar;
+  private final boolean hasQuote;
+  private final boolean hasEscape;
+
+  VectorStructuralIndexer(final CsvParser parser) {
+    super(parser);
+    separator = (short) parser.separator;
+    quotechar = (short) parser.quotechar;
+    escapechar = (short) parser.escapechar;
+    // a NULL_CHARACTER quote or escape char matches nothing (see CsvParser#charClass)
+    hasQuote = parser.quotechar != CsvParser.NULL_CHARACTER;
+    hasEscape = parser.escapechar != CsvParser.NULL_CHARACTER;
+  }
+
+  @Override
+  int index(final char[] buf, final int from, final int to, final int[] idx) {
+    int n = 0;
+    int i = from;
+    final int bound = from + SPECIES.loopBound(to - from);
+
+    for (; i < bound; i += SPECIES.length()) {
+      ShortVector v = ShortVector.fromCharArray(SPECIES, buf, i);
+      VectorMask<Short> m = v.eq(separator);
+      if (hasQuote) {
+        m = m.or(v.eq(quotechar));
+      }
+      if (hasEscape) {
+        m = m.or(v.eq(escapechar));
+      }
+      // turning the mask into bits (toLong) is not an intrinsic on Java 17, so
+      // only test for a match and check the chars of matching vectors one by one
+      if (m.anyTrue()) {
+        n = indexScalar(buf, i, i + SPECIES.length(), idx, n);
+      }
+    }
+
+    return indexScalar(buf, i, to, idx, n);
+  }
+
+  private int indexScalar(final char[] buf, final int from, final int to, final int[] idx, int n) {
+    for (int i = from; i < to; i++) {
+      if (parser.charClass(buf[i]) != CsvParser.ORDINARY) {
+        idx[n++] = i;
+      }
+    }
+    return n;
+  }
+}
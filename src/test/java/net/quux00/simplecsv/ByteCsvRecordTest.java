@@ -0,0 +1,169 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ByteCsvRecordTest {
+
+  private static CsvReader reader(String text, Charset charset, CsvParser parser) {
+    return new CsvReaderBuilder(new ByteArrayInputStream(text.getBytes(charset)), charset).csvParser(parser).build();
+  }
+
+  private static CsvReader reader(String text, CsvParser parser) {
+    return reader(text, StandardCharsets.UTF_8, parser);
+  }
+
+  @Test
+  public void fieldsAreFoundOnTheBytes() throws IOException {
+    CsvReader reader = reader("12,-3.5e2,TRUE,\"a, b\",caf\u00e9 \u20ac,\n", new CsvParserBuilder().build());
+    ByteCsvRecord record = reader.readNext(new ByteCsvRecord());
+    assertFalse(record.decoded);
+    assertEquals(6, record.size());
+    assertEquals(12, record.getInt(0));
+    assertEquals(12L, record.getLong(0));
+    assertEquals(-350.0, record.getDouble(1), 0.0);
+    assertTrue(record.getBoolean(2));
+    assertFalse(record.getBoolean(3));
+    assertEquals("a, b", record.get(3));
+    assertEquals("caf\u00e9 \u20ac", record.get(4));
+    assertEquals(6, record.length(4));
+    assertEquals("", record.get(5));
+    assertArrayEquals(new String[] {"12", "-3.5e2", "TRUE", "a, b", "caf\u00e9 \u20ac", ""}, record.toArray());
+    assertNull(reader.readNext(record));
+  }
+
+  @Test
+  public void fieldViewOfAsciiFieldReadsTheBytes() throws IOException {
+    ByteCsvRecord record = reader("x,hello world,\u00fc\n", new CsvParserBuilder().build()).readNext(new ByteCsvRecord());
+    CharSequence cs = record.field(1);
+    assertEquals(11, cs.length());
+    assertEquals('h', cs.charAt(0));
+    assertEquals("world", cs.subSequence(6, 11).toString());
+    assertEquals("hello world", cs.toString());
+    assertEquals("\u00fc", record.field(2).toString());
+  }
+
+  @Test
+  public void numbersThatAreNotSimpleAreParsedByTheJdk() throws IOException {
+    ByteCsvRecord record = reader("99999999999,1234567890.1234567890,\u0661", new CsvParserBuilder().build())
+        .readNext(new ByteCsvRecord());
+    assertEquals(99999999999L, record.getLong(0));
+    assertEquals(1234567890.1234567890, record.getDouble(1), 0.0);
+    assertEquals(1, record.getInt(2));  // Integer.parseInt takes other Unicode digits too
+    try {
+      record.getInt(0);
+      fail("expected NumberFormatException");
+    } catch (NumberFormatException e) {
+      // same as Integer.parseInt
+    }
+  }
+
+  @Test
+  public void otherReadersAndParsersFillTheRecordWithStrings() throws IOException {
+    String text = "1,'a\\'b',x\n";
+    CsvParser plain = new CsvParserBuilder().build();
+    CsvParser strict = new CsvParserBuilder().quoteChar('\'').strictQuotes(true).build();
+    CsvParser rfc = new CsvParserBuilder().rfc4180(true).build();
+    CsvParser[] parsers = {plain, strict, rfc, plain};
+    CsvReader[] readers = {
+        new CsvReaderBuilder(new StringReader(text)).build(),
+        reader(text, strict),
+        reader(text, rfc),
+        reader(text, Charset.forName("GBK"), plain),
+    };
+    for (int i = 0; i < readers.length; i++) {
+      ByteCsvRecord record = readers[i].readNext(new ByteCsvRecord());
+      assertTrue(record.decoded);
+      assertArrayEquals(parsers[i].parseLine(text.substring(0, text.length() - 1)), record.toArray());
+    }
+    assertNull(readers[0].readNext(new ByteCsvRecord()));
+  }
+
+  @Test
+  public void multiByteCharsWithAsciiBytesAreNotSplitOn() throws IOException {
+    // in GBK the second byte of U+8868 is 0x5c, a backslash
+    String text = "\u8868,\"\u8868\"\n";
+    ByteCsvRecord record = reader(text, Charset.forName("GBK"), new CsvParserBuilder().build())
+        .readNext(new ByteCsvRecord());
+    assertArrayEquals(new String[] {"\u8868", "\u8868"}, record.toArray());
+  }
+
+  /**
+   * The fields found on the bytes must be those of the decoded line, for
+   * each of the settings that are scanned on bytes.
+   */
+  @Test
+  public void sameFieldsAsTheDecodedLine() throws IOException {
+    CsvParserBuilder[] builders = {
+        new CsvParserBuilder(),
+        new CsvParserBuilder().trimWhitespace(true),
+        new CsvParserBuilder().alwaysQuoteOutput(true),
+        new CsvParserBuilder().alwaysQuoteOutput(true).trimWhitespace(true),
+        new CsvParserBuilder().retainOuterQuotes(true),
+        new CsvParserBuilder().retainOuterQuotes(true).trimWhitespace(true),
+        new CsvParserBuilder().escapeChar(CsvParser.NULL_CHARACTER),
+        new CsvParserBuilder().separator('\t').quoteChar('\''),
+        new CsvParserBuilder().allowUnbalancedQuotes(true),
+    };
+    Charset[] charsets = {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, Charset.forName("windows-1252")};
+    // whitespace of one and three bytes in UTF-8, and chars of two and three bytes that
+    // are not whitespace: a no-break space, NEL, and a three-byte char close to U+2003
+    String alphabet = "a ,\"\\\t'\u2003\u3000\u00a0\u0085\u2083\u00e9\u20ac";
+    Random rnd = new Random(9);
+    for (int b = 0; b < builders.length; b++) {
+      CsvParser parser = builders[b].build();
+      for (Charset charset : charsets) {
+        StringBuilder text = new StringBuilder();
+        for (int n = 0; n < 3000; n++) {
+          int len = rnd.nextInt(10);
+          for (int i = 0; i < len; i++) {
+            char c = alphabet.charAt(rnd.nextInt(alphabet.length()));
+            text.append(charset.newEncoder().canEncode(c) ? c : 'z');
+          }
+          text.append('\n');
+        }
+        String[] lines = text.toString().split("\n", -1);
+        CsvReader bytes = reader(text.toString(), charset, parser);
+        ByteCsvRecord record = new ByteCsvRecord();
+        for (int n = 0; n < lines.length - 1; n++) {
+          String[] expected;
+          try {
+            expected = parser.parseLine(lines[n]);
+          } catch (IllegalArgumentException e) {
+            expected = null;
+          }
+          try {
+            bytes.readNext(record);
+          } catch (IllegalArgumentException e) {
+            assertNull(lines[n], expected);
+            continue;
+          }
+          assertFalse(record.decoded);
+          assertArrayEquals(b + " " + charset + " [" + lines[n] + "]", expected, record.toArray());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void malformedBytesDecodeAsForTheLine() throws IOException {
+    byte[] bytes = {'a', (byte) 0xc3, ',', (byte) 0xe2, (byte) 0x82, ',', (byte) 0xff, 'b', '\n'};
+    ByteCsvRecord record = new CsvReaderBuilder(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8).build()
+        .readNext(new ByteCsvRecord());
+    String line = new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+    assertArrayEquals(line.split(","), record.toArray());
+  }
+}
@@ -0,0 +1,128 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ByteLineReaderTest {
+
+  private static ByteLineReader reader(String s, Charset cs, int bufferSize) {
+    return new ByteLineReader(new ByteArrayInputStream(s.getBytes(cs)), cs, bufferSize);
+  }
+
+  @Test
+  public void splitsLinesLikeBufferedReader() throws IOException {
+    ByteLineReader r = reader("a,b\nccccccccccccccccccccc\r\n\rd\r\re\n\nlast", StandardCharsets.UTF_8, 16);
+    assertEquals("a,b", r.readLine());
+    assertEquals("ccccccccccccccccccccc", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("d", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("e", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("last", r.readLine());
+    assertNull(r.readLine());
+    assertNull(r.readLine());
+  }
+
+  @Test
+  public void emptyInputHasNoLines() throws IOException {
+    assertNull(reader("", StandardCharsets.UTF_8, 16).readLine());
+    ByteLineReader r = reader("\n", StandardCharsets.UTF_8, 16);
+    assertEquals("", r.readLine());
+    assertNull(r.readLine());
+  }
+
+  @Test
+  public void decodesNonAsciiLines() throws IOException {
+    ByteLineReader r = reader("abc,déf\n中文,x\r\nplain\n", StandardCharsets.UTF_8, 16);
+    assertEquals("abc,déf", r.readLine());
+    assertEquals("中文,x", r.readLine());
+    assertEquals("plain", r.readLine());
+    assertNull(r.readLine());
+
+    r = reader("café\nüber\n", StandardCharsets.ISO_8859_1, 16);
+    assertEquals("café", r.readLine());
+    assertEquals("über", r.readLine());
+  }
+
+  @Test
+  public void asciiCompatibleCharsets() {
+    assertTrue(ByteLineReader.isAsciiCompatible(StandardCharsets.UTF_8));
+    assertTrue(ByteLineReader.isAsciiCompatible(StandardCharsets.ISO_8859_1));
+    assertTrue(ByteLineReader.isAsciiCompatible(Charset.forName("windows-1252")));
+    assertFalse(ByteLineReader.isAsciiCompatible(StandardCharsets.UTF_16));
+    assertFalse(ByteLineReader.isAsciiCompatible(StandardCharsets.UTF_16LE));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsCharsetsThatAreNotAsciiCompatible() {
+    reader("a", StandardCharsets.UTF_16, 16);
+  }
+
+  @Test
+  public void readsSameLinesAsBufferedReaderOverSmallReads() throws IOException {
+    Random rnd = new Random(11);
+    String alphabet = "ab,\"\n\r\r\néü中";
+    for (int i = 0; i < 300; i++) {
+      StringBuilder sb = new StringBuilder();
+      int n = rnd.nextInt(200);
+      for (int j = 0; j < n; j++) {
+        sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+      }
+      String s = sb.toString();
+      // deliver the bytes a few at a time to exercise refills at every offset
+      final ByteArrayInputStream bytes = new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+      final int chunk = 1 + rnd.nextInt(9);
+      InputStream in = new InputStream() {
+        public int read() {
+          return bytes.read();
+        }
+        public int read(byte[] b, int off, int len) {
+          return bytes.read(b, off, Math.min(len, chunk));
+        }
+      };
+      ByteLineReader r = new ByteLineReader(in, StandardCharsets.UTF_8, 16);
+      BufferedReader br = new BufferedReader(new StringReader(s));
+      String expected;
+      do {
+        expected = br.readLine();
+        assertEquals(expected, r.readLine());
+      } while (expected != null);
+    }
+  }
+
+  @Test
+  public void readLineIntoRecordBuffer() throws IOException {
+    ByteLineReader r = reader("a,b\r\nzoë,中\n\nlast", StandardCharsets.UTF_8, 16);
+    LazyCsvRecord record = new LazyCsvRecord();
+    assertEquals(4, r.readLine(record));
+    assertEquals("a,b", new String(record.buf, 1, 3));
+    assertEquals(6, r.readLine(record));
+    assertEquals("zoë,中", new String(record.buf, 1, 5));
+    assertEquals(1, r.readLine(record));
+    assertEquals("last", r.readLine());
+    assertEquals(-1, r.readLine(record));
+  }
+
+  @Test
+  public void readLineIntoRecordReplacesMalformedBytesLikeString() throws IOException {
+    byte[] bytes = {'a', (byte) 0xc3, ',', (byte) 0xff, 'b', '\n'};
+    ByteLineReader r = new ByteLineReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8, 16);
+    LazyCsvRecord record = new LazyCsvRecord();
+    int end = r.readLine(record);
+    assertEquals(new String(bytes, 0, 5, StandardCharsets.UTF_8), new String(record.buf, 1, end - 1));
+  }
+}
@@ -0,0 +1,76 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Runs the full CsvParserTest suite against the CharArrayCsvParser and its
+ * specialized subclasses, which must give the same output as the StringBuilder
+ * based CsvParser.
+ */
+public class CharArrayCsvParserTest extends CsvParserTest {
+
+  @Override
+  protected CsvParserBuilder newBuilder() {
+    return new CsvParserBuilder();
+  }
+
+  @Test
+  public void builderReturnsCharArrayParserByDefault() {
+    assertTrue(parser instanceof CharArrayCsvParser);
+    assertFalse(newBuilder().charArrayScanning(false).build() instanceof CharArrayCsvParser);
+  }
+
+  @Test
+  public void builderReturnsParserSpecializedForSettings() {
+    assertEquals(InPlaceCsvParser.class, newBuilder().build().getClass());
+    assertEquals(InPlaceCsvParser.class, newBuilder().trimWhitespace(true).alwaysQuoteOutput(true).build().getClass());
+    assertEquals(NoEscapeCsvParser.class, newBuilder().escapeChar(CsvParser.NULL_CHARACTER).build().getClass());
+    assertEquals(StrictQuotesCsvParser.class, newBuilder().strictQuotes(true).build().getClass());
+    assertEquals(StrictQuotesCsvParser.class, newBuilder().strictQuotes(true).retainEscapeChars(false).build().getClass());
+    assertEquals(CharArrayCsvParser.class, newBuilder().retainEscapeChars(false).build().getClass());
+    assertEquals(CharArrayCsvParser.class, newBuilder().columns(1).build().getClass());
+  }
+
+  @Test
+  public void bufferIsReusedAcrossLinesOfDifferentLengths() {
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
+    String[] toks = p.parseLine(CsvParserTest.longLine);
+    assertEquals(3, toks.length);
+    assertEquals("\"" + CsvParserTest.longEntry1 + "\"", toks[0]);
+
+    toks = p.parseLine("a, b");
+    assertEquals(2, toks.length);
+    assertEquals("\"a\"", toks[0]);
+    assertEquals("\" b\"", toks[1]);
+  }
+
+  @Test
+  public void bufferOfHugeLineIsNotKept() {
+    CharArrayCsvParser p = (CharArrayCsvParser) newBuilder().build();
+    p.parseLine("a,b");
+    LazyCsvRecord small = p.scratch.get();
+    p.parseLine("c,d");
+    assertSame(small, p.scratch.get());
+
+    char[] huge = new char[CsvParser.INITIAL_READ_SIZE * 2048];
+    Arrays.fill(huge, 'x');
+    String[] toks = p.parseLine("a," + new String(huge));
+    assertEquals(huge.length, toks[1].length());
+    assertTrue(p.scratch.get().buf.length <= CsvParser.INITIAL_READ_SIZE * 1024);
+    assertTrue(p.scratch.get().starts.length <= CsvParser.INITIAL_READ_SIZE * 1024);
+
+    StringBuilder wide = new StringBuilder();
+    for (int i = 0; i < CsvParser.INITIAL_READ_SIZE * 1024; i++) {
+      wide.append(',');
+    }
+    assertEquals(wide.length() + 1, p.parseLine(wide.toString()).length);
+    assertTrue(p.scratch.get().starts.length <= CsvParser.INITIAL_READ_SIZE * 1024);
+  }
+}
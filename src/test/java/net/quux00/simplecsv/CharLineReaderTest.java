@@ -0,0 +1,110 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CharLineReaderTest {
+
+  private static CharLineReader reader(String s, int bufferSize) {
+    return new CharLineReader(new StringReader(s), bufferSize);
+  }
+
+  @Test
+  public void splitsLinesLikeBufferedReader() throws IOException {
+    CharLineReader r = reader("a,b\nccccccccccccccccccccc\r\n\rd\r\re\n\nlast", 16);
+    assertEquals("a,b", r.readLine());
+    assertEquals("ccccccccccccccccccccc", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("d", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("e", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("last", r.readLine());
+    assertNull(r.readLine());
+    assertNull(r.readLine());
+  }
+
+  @Test
+  public void emptyInputHasNoLines() throws IOException {
+    assertNull(reader("", 16).readLine());
+    CharLineReader r = reader("\r\n", 16);
+    assertEquals("", r.readLine());
+    assertNull(r.readLine());
+  }
+
+  @Test
+  public void readsSameLinesAsBufferedReaderOverSmallReads() throws IOException {
+    Random rnd = new Random(11);
+    String alphabet = "ab,\"\n\r\r\néü中";
+    for (int i = 0; i < 300; i++) {
+      StringBuilder sb = new StringBuilder();
+      int n = rnd.nextInt(200);
+      for (int j = 0; j < n; j++) {
+        sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+      }
+      String s = sb.toString();
+      // deliver the chars a few at a time to exercise refills at every offset
+      final StringReader chars = new StringReader(s);
+      final int chunk = 1 + rnd.nextInt(9);
+      Reader in = new Reader() {
+        public int read(char[] b, int off, int len) throws IOException {
+          return chars.read(b, off, Math.min(len, chunk));
+        }
+        public void close() {
+        }
+      };
+      CharLineReader r = new CharLineReader(in, 16);
+      LazyCsvRecord record = new LazyCsvRecord();
+      BufferedReader br = new BufferedReader(new StringReader(s));
+      String expected;
+      int k = 0;
+      do {
+        expected = br.readLine();
+        // alternate between both ways of reading a line
+        if (k++ % 2 == 0) {
+          assertEquals(expected, r.readLine());
+        } else {
+          int end = r.readLine(record);
+          assertEquals(expected, end < 0 ? null : new String(record.buf, 1, end - 1));
+        }
+      } while (expected != null);
+    }
+  }
+
+  @Test
+  public void readLineIntoRecordBuffer() throws IOException {
+    CharLineReader r = reader("a,b\r\nzoë,中\n\nlast", 16);
+    LazyCsvRecord record = new LazyCsvRecord();
+    assertEquals(4, r.readLine(record));
+    assertEquals("a,b", new String(record.buf, 1, 3));
+    assertEquals(6, r.readLine(record));
+    assertEquals("zoë,中", new String(record.buf, 1, 5));
+    assertEquals(1, r.readLine(record));
+    assertEquals("last", r.readLine());
+    assertEquals(-1, r.readLine(record));
+  }
+
+  @Test
+  public void bufferGrowsForLongLines() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append(i % 10);
+    }
+    String longLine = sb.toString();
+    CharLineReader r = reader("x\n" + longLine + "\ny", 16);
+    assertEquals("x", r.readLine());
+    LazyCsvRecord record = new LazyCsvRecord();
+    assertEquals(longLine.length() + 1, r.readLine(record));
+    assertEquals(longLine, new String(record.buf, 1, longLine.length()));
+    assertEquals("y", r.readLine());
+    assertNull(r.readLine());
+  }
+}
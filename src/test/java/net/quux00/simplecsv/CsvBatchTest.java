@@ -0,0 +1,136 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CsvBatchTest {
+
+  private static CsvReader reader(String text) {
+    return new CsvReaderBuilder(new StringReader(text)).build();
+  }
+
+  @Test
+  public void readBatchHoldsUpToMaxRows() throws IOException {
+    CsvReader reader = reader("a,b,c\n1,\"x, y\",3\n\n4,,6,7\n");
+    CsvBatch batch = reader.readBatch(3);
+    assertEquals(3, batch.size());
+    assertArrayEquals(new String[] {"a", "b", "c"}, batch.toArray(0));
+    assertArrayEquals(new String[] {"1", "x, y", "3"}, batch.toArray(1));
+    assertArrayEquals(new String[] {""}, batch.toArray(2));
+    assertEquals(3, batch.columns(1));
+    assertEquals("x, y", batch.get(1, 1));
+    assertEquals(4, batch.length(1, 1));
+    assertEquals("x, y", batch.field(1, 1).toString());
+    assertEquals(", ", batch.field(1, 1).subSequence(1, 3).toString());
+    assertEquals(0, batch.length(2, 0));
+
+    CsvBatch last = reader.readBatch(3);
+    assertEquals(1, last.size());
+    assertArrayEquals(new String[] {"4", "", "6", "7"}, last.toArray(0));
+    assertNull(reader.readBatch(3));
+
+    // the first batch is not touched by reading the next
+    assertEquals("[[a, b, c], [1, x, y, 3], []]", batch.toString());
+  }
+
+  @Test
+  public void readBatchGrowsAsRowsAreRead() throws IOException {
+    StringBuilder sb = new StringBuilder("1,2\n");
+    for (int i = 0; i < 5000; i++) {
+      sb.append(i).append(",a much longer field than the first row had,").append(i * 0.5).append(",true\n");
+    }
+    CsvReader reader = reader(sb.toString());
+    CsvBatch batch = reader.readBatch(10000);
+    assertEquals(5001, batch.size());
+    assertEquals(2, batch.columns(0));
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(i, batch.getInt(i + 1, 0));
+      assertEquals(i, batch.getLong(i + 1, 0));
+      assertEquals(i * 0.5, batch.getDouble(i + 1, 2), 0.0);
+      assertTrue(batch.getBoolean(i + 1, 3));
+      assertFalse(batch.getBoolean(i + 1, 1));
+    }
+    assertNull(reader.readBatch(10000));
+  }
+
+  @Test
+  public void readBatchOfOneWideLongRowIsCompact() throws IOException {
+    StringBuilder field = new StringBuilder();
+    for (int i = 0; i < 4000; i++) {
+      field.append((char) ('a' + i % 26));
+    }
+    StringBuilder sb = new StringBuilder();
+    for (int c = 0; c < 100; c++) {
+      sb.append(c == 0 ? "" : ",").append(field);
+    }
+    CsvBatch batch = reader(sb.append('\n').toString()).readBatch(4096);
+    assertEquals(1, batch.size());
+    assertEquals(100, batch.columns(0));
+    assertEquals(field.toString(), batch.get(0, 99));
+    // trimmed to what was read, not sized for 4096 rows like the first
+    assertEquals(100 * 4000, batch.chars.length);
+  }
+
+  @Test
+  public void growIsBoundedAndDoesNotOverflow() {
+    assertEquals(24, CsvBatch.grow(16, 17, "chars"));
+    assertEquals(100, CsvBatch.grow(16, 100, "chars"));
+    assertEquals(1500000000, CsvBatch.grow(1000000000, 1000000001, "chars"));
+    assertEquals(CsvBatch.MAX_ARRAY_SIZE, CsvBatch.grow(1500000000, 1500000001, "chars"));
+    try {
+      CsvBatch.grow(CsvBatch.MAX_ARRAY_SIZE, CsvBatch.MAX_ARRAY_SIZE + 1L, "chars");
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Too many chars"));
+    }
+  }
+
+  @Test
+  public void batchesReadSameRecordsAsReadAll() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2500; i++) {
+      sb.append(i).append(",'q").append(i).append("',\"\"\n");
+    }
+    // a parser that makes Strings, so the batch is filled through parseLazy
+    CsvParser legacy = new CsvParserBuilder().charArrayScanning(false).build();
+    List<String[]> expected = new CsvReaderBuilder(new StringReader(sb.toString())).csvParser(legacy).build().readAll();
+    Iterator<CsvBatch> it = new CsvReaderBuilder(new StringReader(sb.toString())).csvParser(legacy).build().batches(1000);
+    int row = 0;
+    int batches = 0;
+    while (it.hasNext()) {
+      CsvBatch batch = it.next();
+      batches++;
+      for (int r = 0; r < batch.size(); r++, row++) {
+        assertArrayEquals(expected.get(row), batch.toArray(r));
+      }
+    }
+    assertEquals(2500, row);
+    assertEquals(3, batches);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void columnPastEndOfRow() throws IOException {
+    reader("a,b\nc,d,e\n").readBatch(2).get(0, 2);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void rowPastEndOfBatch() throws IOException {
+    reader("a,b\n").readBatch(2).toArray(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void maxRowsMustBePositive() throws IOException {
+    reader("a,b\n").readBatch(0);
+  }
+}
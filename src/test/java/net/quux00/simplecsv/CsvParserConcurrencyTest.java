@@ -0,0 +1,103 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Shares one parser of each kind between many threads and checks that every
+ * thread gets the same tokens as a single thread does.
+ */
+public class CsvParserConcurrencyTest {
+
+  private static final int THREADS = 16;
+  private static final int ROUNDS = 10;
+
+  private static String[] randomLines(int n) {
+    Random rnd = new Random(17);
+    String alphabet = "abc  ,,,\"\"\\\tzé中";
+    String[] lines = new String[n];
+    for (int i = 0; i < n; i++) {
+      StringBuilder sb = new StringBuilder();
+      int len = rnd.nextInt(80);
+      for (int k = 0; k < len; k++) {
+        sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+      }
+      lines[i] = sb.toString();
+    }
+    return lines;
+  }
+
+  private static List<String> parseAll(CsvParser parser, String[] lines, LazyCsvRecord record) {
+    List<String> out = new ArrayList<String>(lines.length * 2);
+    for (String ln : lines) {
+      try {
+        out.add(String.valueOf(parser.parse(ln)));
+        out.add(parser.parseLazy(ln, record).toString());
+      } catch (RuntimeException e) {
+        // some malformed lines throw, which must also be the same in every thread
+        out.add(e.getClass().getName());
+      }
+    }
+    return out;
+  }
+
+  private static void assertSameResultsInAllThreads(final CsvParser parser) throws Exception {
+    final String[] lines = randomLines(300);
+    final List<String> expected = parseAll(parser, lines, new LazyCsvRecord());
+    final CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+      for (int t = 0; t < THREADS; t++) {
+        results.add(pool.submit(new Callable<Integer>() {
+          public Integer call() throws Exception {
+            LazyCsvRecord record = new LazyCsvRecord();
+            start.await();
+            int mismatches = 0;
+            for (int r = 0; r < ROUNDS; r++) {
+              if (!expected.equals(parseAll(parser, lines, record))) {
+                mismatches++;
+              }
+            }
+            return mismatches;
+          }
+        }));
+      }
+      start.countDown();
+      for (Future<Integer> f : results) {
+        assertEquals(parser.getClass().getSimpleName(), Integer.valueOf(0), f.get());
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void stringBuilderParserCanBeShared() throws Exception {
+    assertSameResultsInAllThreads(new CsvParserBuilder().charArrayScanning(false).build());
+    assertSameResultsInAllThreads(new CsvParserBuilder().charArrayScanning(false).strictQuotes(true).
+        retainEscapeChars(false).allowUnbalancedQuotes(true).build());
+  }
+
+  @Test
+  public void charArrayParsersCanBeShared() throws Exception {
+    assertSameResultsInAllThreads(new CsvParserBuilder().build());
+    assertSameResultsInAllThreads(new CsvParserBuilder().trimWhitespace(true).alwaysQuoteOutput(true).build());
+    assertSameResultsInAllThreads(new CsvParserBuilder().escapeChar(CsvParser.NULL_CHARACTER).build());
+    assertSameResultsInAllThreads(new CsvParserBuilder().strictQuotes(true).allowUnbalancedQuotes(true).build());
+    assertSameResultsInAllThreads(new CsvParserBuilder().retainEscapeChars(false).allowUnbalancedQuotes(true).build());
+    assertSameResultsInAllThreads(new CsvParserBuilder().columns(1, 3).allowUnbalancedQuotes(true).build());
+    assertSameResultsInAllThreads(new CsvParserBuilder().vectorScanning(true).build());
+  }
+}
@@ -42,6 +42,32 @@ public class CsvParserInternalsTest {
     assertEquals(exp, act);
   }
   
+  @Test
+  public void testCharClass() {
+    assertEquals(CsvParser.SEPARATOR, parser.charClass(','));
+    assertEquals(CsvParser.QUOTE, parser.charClass('"'));
+    assertEquals(CsvParser.ESCAPE, parser.charClass('\\'));
+    assertEquals(CsvParser.ORDINARY, parser.charClass('a'));
+    assertEquals(CsvParser.ORDINARY, parser.charClass('\u00e9'));
+    
+    CsvParser p = new CsvParserBuilder().quoteChar(CsvParser.NULL_CHARACTER).separator('\u00a7').build();
+    assertEquals(CsvParser.ORDINARY, p.charClass(CsvParser.NULL_CHARACTER));
+    assertEquals(CsvParser.ORDINARY, p.charClass(','));
+    assertEquals(CsvParser.SEPARATOR, p.charClass('\u00a7'));
+  }
+  
+  @Test
+  public void testSkipOrdinary() {
+    assertEquals(3, parser.skipOrdinary("abc,def", 0, 7));
+    assertEquals(3, parser.skipOrdinary("abc\"def", 1, 7));
+    assertEquals(7, parser.skipOrdinary("abc\u00e9def", 0, 7));
+    assertEquals(2, parser.skipOrdinary("abc,def", 0, 2));
+    assertEquals(4, parser.skipOrdinary("ab\\\\", 4, 4));
+    
+    char[] buf = "x \t\\y".toCharArray();
+    assertEquals(3, parser.skipOrdinary(buf, 0, buf.length));
+  }
+  
   @Test
   public void testEnsureQuotedNoQuotesNoSpacesOnEdge() {
     StringBuilder sb = new StringBuilder(32);
@@ -3,8 +3,10 @@ package net.quux00.simplecsv;
 import static net.quux00.simplecsv.CsvParser.DEFAULT_QUOTE_CHAR;
 import static net.quux00.simplecsv.CsvParser.DEFAULT_SEPARATOR;
 import static net.quux00.simplecsv.CsvParser.NULL_CHARACTER;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -23,9 +25,16 @@ public class CsvParserTest {
   
   CsvParser parser = null;
   
+  /**
+   * Subclasses override this to run the whole suite against another parser engine.
+   */
+  protected CsvParserBuilder newBuilder() {
+    return new CsvParserBuilder().charArrayScanning(false);
+  }
+  
   @Before
   public void setUp() {
-    parser = new CsvParser();
+    parser = newBuilder().build();
   }
   
   /* --------------------------------- */  
@@ -40,27 +49,27 @@ public class CsvParserTest {
   
   @Test(expected = UnsupportedOperationException.class)
   public void quoteAndEscapeCannotBeTheSameViaBuilder() {
-    new CsvParserBuilder().quoteChar(DEFAULT_QUOTE_CHAR).escapeChar(DEFAULT_QUOTE_CHAR).build();
+    newBuilder().quoteChar(DEFAULT_QUOTE_CHAR).escapeChar(DEFAULT_QUOTE_CHAR).build();
   }
   
   @Test(expected = UnsupportedOperationException.class)
   public void separatorCharacterCannotBeNull() {
-    new CsvParserBuilder().separator(NULL_CHARACTER).build();
+    newBuilder().separator(NULL_CHARACTER).build();
   }
   
   @Test(expected = UnsupportedOperationException.class)
   public void separatorAndEscapeCannotBeTheSame() {
-    new CsvParserBuilder().separator(DEFAULT_SEPARATOR).escapeChar(DEFAULT_SEPARATOR).build();
+    newBuilder().separator(DEFAULT_SEPARATOR).escapeChar(DEFAULT_SEPARATOR).build();
   }
 
   @Test(expected = UnsupportedOperationException.class)
   public void separatorAndQuoteCannotBeTheSame() {
-    new CsvParserBuilder().separator(DEFAULT_SEPARATOR).quoteChar(DEFAULT_SEPARATOR).build();
+    newBuilder().separator(DEFAULT_SEPARATOR).quoteChar(DEFAULT_SEPARATOR).build();
   }
   
   @Test(expected = UnsupportedOperationException.class)
   public void nullQuoteCharAndAlwaysQuoteOutputAreIncompatible() {
-    new CsvParserBuilder().quoteChar(CsvParser.NULL_CHARACTER).alwaysQuoteOutput(true).build();
+    newBuilder().quoteChar(CsvParser.NULL_CHARACTER).alwaysQuoteOutput(true).build();
   }
 
   /* -------------------------------------------- */  
@@ -78,6 +87,49 @@ public class CsvParserTest {
   }
   
   
+  @Test
+  public void testParseLineIntoRecord() {
+    CsvRecord record = new CsvRecord(4);
+    assertSame(record, parser.parseLine("This, is, a, test.", record));
+    assertEquals(4, record.size());
+    assertEquals("This", record.get(0));
+    assertEquals(" test.", record.get(3));
+
+    // record is reused: old contents are replaced
+    parser.parseLine("\"x\",y", record);
+    assertEquals(2, record.size());
+    assertEquals("x", record.get(0));
+    assertEquals("y", record.get(1));
+
+    assertNull(parser.parseLine(null, record));
+  }
+  
+  @Test
+  public void testParseLazy() {
+    LazyCsvRecord record = new LazyCsvRecord(2);
+    assertSame(record, parser.parseLazy("This, \"is\", a\\\"b, test.", record));
+    assertEquals(4, record.size());
+    assertEquals("This", record.field(0).toString());
+    assertEquals(" is", record.get(1));
+    assertEquals(" a\\\"b", record.get(2));
+    assertEquals(6, record.length(3));
+
+    assertNull(parser.parseLazy(null, record));
+  }
+
+  @Test
+  public void testParseLazyMatchesParseLineForAllFieldsWithDroppedAndAddedChars() {
+    CsvParser p = newBuilder().retainEscapeChars(false).alwaysQuoteOutput(true).trimWhitespace(true).build();
+    String ln = "a,\\tb\\\"c , 'x' ,,\"d\",e\\n";
+    String[] exp = p.parseLine(ln);
+    LazyCsvRecord record = p.parseLazy(ln, new LazyCsvRecord());
+    assertArrayEquals(exp, record.toArray());
+    assertEquals("\"a\"", exp[0]);
+    assertEquals("\"b\"c\"", exp[1]);  // the unescaped tab gets trimmed
+    assertEquals("", exp[3]);
+    assertEquals("\"e\"", exp[5]);  // and so does the unescaped newline
+  }
+  
   @Test
   public void parseSimpleQuotedString() {
     String[] toks = parser.parseLine("\"a\",\"b\",\"c\"");
@@ -272,14 +324,14 @@ public class CsvParserTest {
     assertEquals(" \"hello\" ", toks[1]);
     assertEquals("c", toks[2]);
     
-    CsvParser p = new CsvParserBuilder().quoteChar('\'').build();
+    CsvParser p = newBuilder().quoteChar('\'').build();
     toks = p.parseLine("a,' 'hello' ',c");
     assertEquals(3, toks.length);
     assertEquals("a", toks[0]);
     assertEquals(" 'hello' ", toks[1]);
     assertEquals("c", toks[2]);
 
-    p = new CsvParserBuilder().quoteChar('\'').trimWhitespace(true).build();
+    p = newBuilder().quoteChar('\'').trimWhitespace(true).build();
     toks = p.parseLine("a,' 'hello' ',c");
     assertEquals(3, toks.length);
     assertEquals("a", toks[0]);
@@ -322,7 +374,7 @@ public class CsvParserTest {
   
   @Test
   public void testParseLinePipeDelimited() {
-    CsvParser p = new CsvParserBuilder().separator('|').build();
+    CsvParser p = newBuilder().separator('|').build();
     String toks[] = p.parseLine("This|is|a|test.");
     assertEquals(4, toks.length);
     assertEquals("This", toks[0]);
@@ -334,7 +386,7 @@ public class CsvParserTest {
   
   @Test
   public void parseQuotedStringWithDefinedSeperator() {
-    CsvParser p = new CsvParserBuilder().separator(':').build();
+    CsvParser p = newBuilder().separator(':').build();
 
     String[] toks = p.parseLine("a:\"b:b:b\":c");
     assertEquals(3, toks.length);
@@ -346,7 +398,7 @@ public class CsvParserTest {
   
   @Test
   public void parseQuotedStringWithDefinedSeparatorAndQuote() {
-    CsvParser p = new CsvParserBuilder().separator(':').quoteChar('\'').build();
+    CsvParser p = newBuilder().separator(':').quoteChar('\'').build();
 
     String[] toks = p.parseLine("a:'b:b:b':c");
     assertEquals(3, toks.length);
@@ -358,7 +410,7 @@ public class CsvParserTest {
   
   @Test  // issue from the old opencsv sourceforge project
   public void testIssue2859181() {
-    CsvParser p = new CsvParserBuilder().separator(';').build();
+    CsvParser p = newBuilder().separator(';').build();
     String[] toks = p.parseLine("field1;\\=field2;\"\"\"field3\"\"\""); // field1;\=field2;"""field3"""
 
     assertEquals(3, toks.length);
@@ -369,7 +421,7 @@ public class CsvParserTest {
   
   @Test    // https://sourceforge.net/p/opencsv/bugs/93/
   public void testIssueSfBugs93() {
-    CsvParser p = new CsvParserBuilder().separator(';').build();
+    CsvParser p = newBuilder().separator(';').build();
 
     String[] toks = p.parseLine("\"\";1");
     assertEquals(2, toks.length);
@@ -384,7 +436,7 @@ public class CsvParserTest {
  
   @Test
   public void testFourSingleQuotesWithSingleQuoteAsQuoteChar() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
       quoteChar('\'').
       build();
 
@@ -408,7 +460,7 @@ public class CsvParserTest {
   @Test
   public void testIssue3314579() {
     // difference from OpenCSV: cleaner soln is to set quotechar to NULL_CHAR
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         separator(';').
         quoteChar(CsvParser.NULL_CHARACTER).
         allowUnbalancedQuotes(true).
@@ -427,7 +479,7 @@ public class CsvParserTest {
     assertEquals("ACCESSORY WHEEL, 16\", ALUMINUM, DESIGN 1", toks[7]);
 
     // you don't need "allowUnbalancedQuotes" if you set quotechar to be the NULL_CHAR
-    p = new CsvParserBuilder().
+    p = newBuilder().
         separator(';').
         quoteChar(CsvParser.NULL_CHARACTER).
         build();
@@ -447,7 +499,7 @@ public class CsvParserTest {
     
     // this combination doesn't make any sense, but ensure it doesn't throw
     // NPEs or otherwise freak out
-    p = new CsvParserBuilder().
+    p = newBuilder().
         separator(';').
         quoteChar(CsvParser.NULL_CHARACTER).
         retainOuterQuotes(true).
@@ -471,7 +523,7 @@ public class CsvParserTest {
    */
   @Test
   public void testIssue2263439() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         quoteChar('\'').
         build();
 
@@ -489,7 +541,7 @@ public class CsvParserTest {
   // https://sourceforge.net/p/opencsv/bugs/100/
   @Test
   public void testOpenCsvIssue100() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         escapeChar(NULL_CHARACTER).
         retainOuterQuotes(true).
         trimWhitespace(true).
@@ -506,12 +558,23 @@ public class CsvParserTest {
   
   
   /* ------------------------------- */    
+  @Test
+  public void testNonAsciiSeparatorQuoteAndEscapeChars() {
+    CsvParser p = newBuilder().separator('\u00a7').quoteChar('\u00ab').escapeChar('\u00e9').build();
+    String[] toks = p.parseLine("caf\u00fc\u00a7\u00aba\u00a7b\u00e9\u00abc\u00ab\u00a7,\"x\"");
+    assertEquals(3, toks.length);
+    assertEquals("caf\u00fc", toks[0]);
+    assertEquals("a\u00a7b\u00e9\u00abc", toks[1]);
+    assertEquals(",\"x\"", toks[2]);
+  }
+  
+  
   /* ---[ Strict Quotes Setting ]--- */
   /* ------------------------------- */  
 
   @Test
   public void parseSimpleQuotedStringWithSpacesWithstrictQuotes() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).build();
+    CsvParser p = newBuilder().strictQuotes(true).build();
     
     String[] toks = p.parseLine(" \"a\" , \"b\" , \"c\" ");
     assertEquals(3, toks.length);
@@ -522,7 +585,7 @@ public class CsvParserTest {
   
   @Test
   public void testStrictQuoteSimple() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).build();
+    CsvParser p = newBuilder().strictQuotes(true).build();
     String testString = "\"a\",\"b\",\"c\"";
 
     String[] toks = p.parseLine(testString);
@@ -534,7 +597,7 @@ public class CsvParserTest {
   
   @Test
   public void testStrictQuoteWithSpacesAndTabs() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().strictQuotes(true).retainOuterQuotes(true).build();
 
     String testString = " \t      \"a\",\"b\"      \t       ,   \"c\"   ";
 
@@ -547,7 +610,7 @@ public class CsvParserTest {
 
   @Test
   public void spacesAtEndOfQuotedStringDoNotCountIfStrictQuotesIsTrue() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).build();
+    CsvParser p = newBuilder().strictQuotes(true).build();
     String[] toks = p.parseLine("\"Line with\", \"spaces at end\"  ");
     assertEquals(2, toks.length);
     assertEquals("Line with", toks[0]);
@@ -556,7 +619,7 @@ public class CsvParserTest {
   
   @Test
   public void testStrictQuoteWithGarbage() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).build();
+    CsvParser p = newBuilder().strictQuotes(true).build();
     String testString = "abc',!@#\",\\\"\"   xyz,";
 
     String[] toks = p.parseLine(testString);
@@ -568,7 +631,7 @@ public class CsvParserTest {
   
   @Test
   public void testWhitespaceBeforeEscapeWithStrictQuotes() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).build();
+    CsvParser p = newBuilder().strictQuotes(true).build();
 
     String[] toks = p.parseLine("\"this\", \"is\",\"a test\""); //"this", "is","a test"
     assertEquals("this", toks[0]);
@@ -578,7 +641,7 @@ public class CsvParserTest {
 
   @Test
   public void testSomeFieldsWithoutQuotesWithStrictQuotes() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).build();
+    CsvParser p = newBuilder().strictQuotes(true).build();
 
     String[] toks = p.parseLine("this, \"is\",\"a test\" xyz");
     assertEquals("", toks[0]);
@@ -593,7 +656,7 @@ public class CsvParserTest {
 
   @Test
   public void parseSimpleQuotedStringAllowUnbalancedQuotes() {
-    CsvParser p = new CsvParserBuilder().allowUnbalancedQuotes(true).build();
+    CsvParser p = newBuilder().allowUnbalancedQuotes(true).build();
     String[] toks = p.parseLine("\"\"a\"\",\"b\",\"c\"");
     assertEquals(3, toks.length);
     assertEquals("\"a\"", toks[0]);
@@ -603,7 +666,7 @@ public class CsvParserTest {
   
   @Test
   public void testADoubleQuoteAsDataElementWithAllowUnbalancedQuotes() {
-    CsvParser p = new CsvParserBuilder().allowUnbalancedQuotes(true).build();
+    CsvParser p = newBuilder().allowUnbalancedQuotes(true).build();
     String[] toks = p.parseLine("a,\"\"\"\",c");  // a,"""",c
 
     assertEquals(3, toks.length);
@@ -614,7 +677,7 @@ public class CsvParserTest {
   
   @Test
   public void testIssueThorny1WithAllowUnbalancedQuotes() {
-    CsvParser p = new CsvParserBuilder().allowUnbalancedQuotes(true).build();
+    CsvParser p = newBuilder().allowUnbalancedQuotes(true).build();
     String[] toks = p.parseLine("a , \"\",1000");
     assertEquals(3, toks.length);
     assertEquals("a ", toks[0]);
@@ -625,7 +688,7 @@ public class CsvParserTest {
   
   @Test
   public void whitespaceBeforeEscapeWithAllowUnbalancedQuotes() {
-    CsvParser p = new CsvParserBuilder().allowUnbalancedQuotes(true).build();
+    CsvParser p = newBuilder().allowUnbalancedQuotes(true).build();
 
     String[] toks = p.parseLine("\"this\", \"is\",\"a test\""); //"this", "is","a test"
     assertEquals("this", toks[0]);
@@ -642,7 +705,7 @@ public class CsvParserTest {
   
   @Test
   public void testParseLineWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
     String toks[] = p.parseLine("This, is,\"a\", test.");
     assertEquals(4, toks.length);
     assertEquals("This", toks[0]);
@@ -653,7 +716,7 @@ public class CsvParserTest {
   
   @Test
   public void parseQuotedStringWithCommasWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
     String[] toks = p.parseLine("a,\"b,b,b\",c");
     assertEquals(3, toks.length);
     assertEquals("a", toks[0]);
@@ -664,7 +727,7 @@ public class CsvParserTest {
   
   @Test
   public void parseQuotedStringWithDefinedSeperatorWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().separator(':').
+    CsvParser p = newBuilder().separator(':').
         retainOuterQuotes(true).build();
 
     String[] toks = p.parseLine("a:\"b:b:b\":c");
@@ -676,7 +739,7 @@ public class CsvParserTest {
 
   @Test
   public void parseQuotedStringWithDefinedSeperatorAndQuoteWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().separator(':').
+    CsvParser p = newBuilder().separator(':').
         quoteChar('\'').
         retainOuterQuotes(true).
         build();
@@ -690,7 +753,7 @@ public class CsvParserTest {
   
   @Test
   public void parseEmptyElementsWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
     String[] toks = p.parseLine(",,");
     assertEquals(3, toks.length);
     assertEquals("", toks[0]);
@@ -700,7 +763,7 @@ public class CsvParserTest {
   
   @Test
   public void testADoubleQuoteAsDataElementWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
 
     String[] toks = p.parseLine("a,\"\"\"\",c");// a,"""",c
 
@@ -712,7 +775,7 @@ public class CsvParserTest {
   
   @Test
   public void testEscapedDoubleQuoteAsDataElementWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
 
     String[] toks = p.parseLine("\"test\",\"this,test,is,good\",\"\\\"test\\\"\",\"\\\"quote\\\"\""); // "test","this,test,is,good","\"test\",\"quote\""
 
@@ -726,7 +789,7 @@ public class CsvParserTest {
   
   @Test
   public void testEscapedDoubleQuoteAsDataElementPipeDelimitedWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().separator('|').retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().separator('|').retainOuterQuotes(true).build();
     //                            "test"|"this|test|is|good"|"\"test\"|\"quote\""
     String[] toks = p.parseLine("\"test\"|\"this,test,is,good\"|\"\\\"test\\\"\"|\"\\\"quote\\\"\""); 
 
@@ -739,7 +802,7 @@ public class CsvParserTest {
 
   @Test
   public void parseMultipleQuotesWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
     String[] toks = p.parseLine("\"\"\"\"\"\",\"test\"\n"); // """""","test"  representing:  "", test
     assertEquals("\"\"\"\"\"\"", toks[0]); // check the tricky situation
     assertEquals("\"test\"\n", toks[1]);   // make sure we didn't ruin the next field..
@@ -748,7 +811,7 @@ public class CsvParserTest {
   
   @Test
   public void parseTrickyStringWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
     String[] toks = p.parseLine("\"a\nb\",b,\"\nd\",e\n");
     assertEquals(4, toks.length);
     assertEquals("\"a\nb\"", toks[0]);
@@ -759,7 +822,7 @@ public class CsvParserTest {
 
   @Test
   public void testAMultiLineInsideQuotesWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
 
     String text = "Small test,\"This is a test across \ntwo lines.\"";
     String[] toks = p.parseLine(text);
@@ -770,7 +833,7 @@ public class CsvParserTest {
   
   @Test
   public void testStrictQuoteSimpleWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).strictQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).strictQuotes(true).build();
     String testString = "\"a\",\"b\",\"c\"";
 
     String[] toks = p.parseLine(testString);
@@ -782,7 +845,7 @@ public class CsvParserTest {
   
   @Test
   public void testIssue2859181WithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         separator(';').
         retainOuterQuotes(true).
         build();
@@ -797,13 +860,13 @@ public class CsvParserTest {
   
   @Test(expected = IllegalArgumentException.class)
   public void anExceptionThrownifStringEndsInsideAQuotedStringWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
     p.parseLine("This,is a \"bad line to parse.");
   }
   
   @Test
   public void testIssueThorny1WithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         retainOuterQuotes(true).
         build();
     String[] toks = p.parseLine("a , \"\",1000");
@@ -815,7 +878,7 @@ public class CsvParserTest {
     
   @Test
   public void whitespaceBeforeEscapeWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
 
     String[] toks = p.parseLine("\"this\", \"is\",\"a test\""); //"this", "is","a test"
     assertEquals("\"this\"", toks[0]);
@@ -825,7 +888,7 @@ public class CsvParserTest {
   
   @Test
   public void testFourSingleQuotesWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
       separator(',').
       retainOuterQuotes(true).
       build();
@@ -838,7 +901,7 @@ public class CsvParserTest {
 
   @Test
   public void testLongTokensRetainOuterQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
 
     String[] toks = p.parseLine(longLine);
     assertEquals(3, toks.length);
@@ -854,7 +917,7 @@ public class CsvParserTest {
 
   @Test
   public void testEscapedDoubleQuoteAsDataElementWithRetainEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().retainEscapeChars(false).build();
+    CsvParser p = newBuilder().retainEscapeChars(false).build();
     //                                        "test","this,test,is,good","\"test\",\"quote\""
     String[] toks = p.parseLine("\"test\",\"this,test,is,good\",\"\\\"test\\\"\",\"\\\"quote\\\"\""); 
 
@@ -867,7 +930,7 @@ public class CsvParserTest {
   
   @Test  // issue from the old opencsv sourceforge project
   public void testIssue2859181WithRetainEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().separator(';').retainEscapeChars(false).build();
+    CsvParser p = newBuilder().separator(';').retainEscapeChars(false).build();
     String[] toks = p.parseLine("field1;\\=field2;\"\"\"field3\"\"\""); // field1;\=field2;"""field3"""
 
     assertEquals(3, toks.length);
@@ -879,7 +942,7 @@ public class CsvParserTest {
   
   @Test
   public void testEscapesBeforeNewLinesEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().retainEscapeChars(false).build();
+    CsvParser p = newBuilder().retainEscapeChars(false).build();
     String[] toks = p.parseLine("\"a\\nb\",b,\"\\nd\",e\n");
     
     assertEquals(4, toks.length);
@@ -897,7 +960,7 @@ public class CsvParserTest {
   
   @Test
   public void testParseLineAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
     
     String toks[] = p.parseLine("This, is, a, test.");
     assertEquals(4, toks.length);
@@ -909,7 +972,7 @@ public class CsvParserTest {
   
   @Test
   public void testParseLineAlwaysQuoteOutputWithTrimSpaces() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         alwaysQuoteOutput(true).
         trimWhitespace(true).
         build();
@@ -924,7 +987,7 @@ public class CsvParserTest {
   
   @Test
   public void parseQuotedStringWithCommasAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
 
     String[] toks = p.parseLine("a,\"b,b,b\",c,, ,");
     assertEquals(6, toks.length);
@@ -938,7 +1001,7 @@ public class CsvParserTest {
   
   @Test
   public void parseQuotedStringWithCommasAndWhitespaceAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
 
     String[] toks = p.parseLine(" a ,   \"b,b,b\",c ,, ,");
     assertEquals(6, toks.length);
@@ -952,7 +1015,7 @@ public class CsvParserTest {
   
   @Test
   public void parseQuotedStringWithCommasAndWhitespaceAlwaysQuoteOutputAndTrimWhitespace() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         alwaysQuoteOutput(true).
         trimWhitespace(true).
         build();
@@ -969,7 +1032,7 @@ public class CsvParserTest {
   
   @Test
   public void testEscapedDoubleQuoteAsDataElementAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
     //                                        "test","this,test,is,good","\"test\",\"quote\""
     String[] toks = p.parseLine("\"test\",\"this,test,is,good\",\"\\\"test\\\"\",\"\\\"quote\\\"\""); 
 
@@ -982,7 +1045,7 @@ public class CsvParserTest {
   
   @Test
   public void testEscapedDoubleQuoteAsDataElementAlwaysQuoteOutputWithTrimWhitespace() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         alwaysQuoteOutput(true).
         trimWhitespace(true).
         build();
@@ -999,7 +1062,7 @@ public class CsvParserTest {
   
   @Test
   public void testEscapedDoubleQuoteAsDataElementAlwaysQuoteOutputRetainOuterQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         alwaysQuoteOutput(true).
         retainOuterQuotes(true).
         build();
@@ -1015,7 +1078,7 @@ public class CsvParserTest {
 
   @Test
   public void testEscapedDoubleQuoteAsDataElementAlwaysQuoteOutputRetainEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         alwaysQuoteOutput(true).
         retainEscapeChars(false).
         build();
@@ -1031,7 +1094,7 @@ public class CsvParserTest {
 
   @Test
   public void testEscapedDoubleQuoteAsDataElementAlwaysQuoteOutputAndStrictOutputAndRetainEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         alwaysQuoteOutput(true).
         retainEscapeChars(false).
         strictQuotes(true).
@@ -1049,7 +1112,7 @@ public class CsvParserTest {
   
   @Test
   public void testIssue2859181WithAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         separator(';').
         alwaysQuoteOutput(true).
         build();
@@ -1065,7 +1128,7 @@ public class CsvParserTest {
   
   @Test
   public void testIssue2859181WithAlwaysQuoteOutputAndStrictQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         separator(';').
         alwaysQuoteOutput(true).
         strictQuotes(true).
@@ -1082,21 +1145,21 @@ public class CsvParserTest {
   
   @Test
   public void testIssueThorny1dAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
     String[] toks = p.parseLine("a,\" \"hello\" \",c");
     assertEquals(3, toks.length);
     assertEquals("\"a\"", toks[0]);
     assertEquals("\" \"hello\" \"", toks[1]);
     assertEquals("\"c\"", toks[2]);
     
-    p = new CsvParserBuilder().quoteChar('\'').alwaysQuoteOutput(true).build();
+    p = newBuilder().quoteChar('\'').alwaysQuoteOutput(true).build();
     toks = p.parseLine("a,' 'hello' ',c");
     assertEquals(3, toks.length);
     assertEquals("'a'", toks[0]);
     assertEquals("' 'hello' '", toks[1]);
     assertEquals("'c'", toks[2]);
 
-    p = new CsvParserBuilder().
+    p = newBuilder().
         quoteChar('\'').
         trimWhitespace(true).
         alwaysQuoteOutput(true).
@@ -1111,7 +1174,7 @@ public class CsvParserTest {
   
   @Test
   public void testADoubleQuoteAsDataElementAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
     
     String[] toks = p.parseLine("a,\"\"\"\",c");  // a,"""",c
 
@@ -1123,7 +1186,7 @@ public class CsvParserTest {
 
   @Test
   public void testIssue2263439AlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         quoteChar('\'').
         alwaysQuoteOutput(true).
         build();
@@ -1141,7 +1204,7 @@ public class CsvParserTest {
   
   @Test
   public void testIssue2726363AlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         alwaysQuoteOutput(true).
         build();
 
@@ -1159,7 +1222,7 @@ public class CsvParserTest {
   
   @Test    // https://sourceforge.net/p/opencsv/bugs/93/
   public void testIssueSfBugs93AlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().separator(';').alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().separator(';').alwaysQuoteOutput(true).build();
 
     String[] toks = p.parseLine("\"\";1");
     assertEquals(2, toks.length);
@@ -1174,7 +1237,7 @@ public class CsvParserTest {
   
   @Test
   public void testWithSpacesAndTabsAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
 
     String testString = " \t      \"a\",\"b\"      \t       ,   \"c\"   ";
 
@@ -1187,7 +1250,7 @@ public class CsvParserTest {
 
   @Test
   public void testWithSpacesAndTabsAlwaysQuoteOutputWithTrimWhitespace() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         trimWhitespace(true).
         alwaysQuoteOutput(true).
         build();
@@ -1201,7 +1264,7 @@ public class CsvParserTest {
     assertEquals("\"c\"", toks[2]);
 
     // should get the same result with retainQuotes also thrown in
-    p = new CsvParserBuilder().
+    p = newBuilder().
         trimWhitespace(true).
         alwaysQuoteOutput(true).
         retainOuterQuotes(true).
@@ -1217,7 +1280,7 @@ public class CsvParserTest {
   
   @Test
   public void testWithSpacesAndTabsAlwaysQuoteOutputRetainOuterQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         alwaysQuoteOutput(true).
         retainOuterQuotes(true).
         build();
@@ -1233,7 +1296,7 @@ public class CsvParserTest {
 
   @Test
   public void testStrictQuoteWithSpacesAndTabsAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().strictQuotes(true).alwaysQuoteOutput(true).build();
 
     String testString = " \t      \"a\",\"b\"      \t       ,   \"c\"   ";
 
@@ -1246,7 +1309,7 @@ public class CsvParserTest {
   
   @Test
   public void testStrictQuoteWithEverythingToggled() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         separator(':').
         strictQuotes(true).
         alwaysQuoteOutput(true).
@@ -1266,7 +1329,7 @@ public class CsvParserTest {
   
   @Test
   public void testLongTokensAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).build();
 
     String[] toks = p.parseLine(longLine);
     assertEquals(3, toks.length);
@@ -1282,7 +1345,7 @@ public class CsvParserTest {
   
   @Test
   public void testCrLfAsWhiteSpace() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         trimWhitespace(true).
         build();
 
@@ -1295,7 +1358,7 @@ public class CsvParserTest {
   
   @Test
   public void testCrLfAsWhiteSpaceAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         trimWhitespace(true).
         alwaysQuoteOutput(true).
         build();
@@ -1309,7 +1372,7 @@ public class CsvParserTest {
   
   @Test
   public void testIssue2859181WithRetainQuotesAndRetainEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         separator(';').
         retainOuterQuotes(true).
         retainEscapeChars(false).
@@ -1325,7 +1388,7 @@ public class CsvParserTest {
   
   @Test
   public void testEscapedDoubleQuoteAsDataElementWithRetainQuotesAndRetainEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).retainEscapeChars(false).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).retainEscapeChars(false).build();
 
     String[] toks = p.parseLine("\"test\",\"this,test,is,good\",\"\\\"test\\\"\",\"\\\"quote\\\"\""); // "test","this,test,is,good","\"test\",\"quote\""
 
@@ -1338,7 +1401,7 @@ public class CsvParserTest {
   
   @Test
   public void parseSimpleQuotedStringWithSpacesWithRetainQuotesAndStrictQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         strictQuotes(true).
         retainOuterQuotes(true).
         build();
@@ -1353,7 +1416,7 @@ public class CsvParserTest {
   
   @Test
   public void parseSimpleQuotedStringWithSpacesPipeDelimitedWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         separator('|').
         strictQuotes(true).
         retainOuterQuotes(true).
@@ -1368,7 +1431,7 @@ public class CsvParserTest {
   
   @Test
   public void testParsedLineWithInternalQuotaWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().retainOuterQuotes(true).build();
+    CsvParser p = newBuilder().retainOuterQuotes(true).build();
     String[] toks = p.parseLine("a,123\"4\"567,c");
 
     assertEquals(3, toks.length);
@@ -1387,7 +1450,7 @@ public class CsvParserTest {
     assertEquals("1 ", toks[0]);
     assertEquals("2", toks[1]);
 
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         trimWhitespace(true).
         build();
     toks = p.parseLine("\"1\" ,\"2\"");
@@ -1395,7 +1458,7 @@ public class CsvParserTest {
     assertEquals("1", toks[0]);
     assertEquals("2", toks[1]);
 
-    p = new CsvParserBuilder().
+    p = newBuilder().
         retainOuterQuotes(true).
         trimWhitespace(true).
         build();
@@ -1408,7 +1471,7 @@ public class CsvParserTest {
   
   @Test
   public void spacesAtEndOfQuotedStringDoNotCountIfStrictQuotesIsTrueWithRetainQuotes() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         strictQuotes(true).
         retainOuterQuotes(true).
         build();
@@ -1420,7 +1483,7 @@ public class CsvParserTest {
   
   @Test
   public void testStrictQuoteWithGarbageWithRetainEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().strictQuotes(true).retainEscapeChars(false).build();
+    CsvParser p = newBuilder().strictQuotes(true).retainEscapeChars(false).build();
     String testString = "abc',!@#\",\\\"\"   xyz,";
 
     String[] toks = p.parseLine(testString);
@@ -1432,7 +1495,7 @@ public class CsvParserTest {
   
   @Test
   public void testStrictQuoteWithGarbageWithRetainEscapeCharsFalseAlwaysQuoteChars() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         strictQuotes(true).
         retainEscapeChars(false).
         alwaysQuoteOutput(true).
@@ -1448,7 +1511,7 @@ public class CsvParserTest {
   
   @Test
   public void testWithGarbageWithRetainEscapeCharsFalseAndAlwaysQuoteOutput() {
-    CsvParser p = new CsvParserBuilder().alwaysQuoteOutput(true).retainEscapeChars(false).build();
+    CsvParser p = newBuilder().alwaysQuoteOutput(true).retainEscapeChars(false).build();
     String testString = "abc',!@#\",\\\"\"   xyz,";
 
     String[] toks = p.parseLine(testString);
@@ -1460,7 +1523,7 @@ public class CsvParserTest {
   
   @Test
   public void whitespaceBeforeEscapeWithAllowUnbalancedQuotesWithRetainEscapeCharsFalse() {
-    CsvParser p = new CsvParserBuilder().
+    CsvParser p = newBuilder().
         allowUnbalancedQuotes(true).
         retainEscapeChars(false).
         build();
@@ -1472,17 +1535,60 @@ public class CsvParserTest {
   }
   
   
+  /* ---[ Column Projection ]--- */
+
+  @Test
+  public void testColumnsKeepsOnlyRequestedColumnsInOrder() {
+    CsvParser p = newBuilder().columns(5, 2).build();
+    String[] toks = p.parseLine("a,b,\"c,c\",d,e,f,g,h");
+    assertArrayEquals(new String[]{"c,c", "f"}, toks);
+  }
+
+  @Test
+  public void testColumnsWithShortLinesReturnFewerTokens() {
+    CsvParser p = newBuilder().columns(0, 3).build();
+    assertArrayEquals(new String[]{"a"}, p.parseLine("a,b,c"));
+    assertArrayEquals(new String[]{""}, p.parseLine(""));
+  }
+
+  @Test
+  public void testColumnsSkipsQuotedSeparatorsInUnwantedColumns() {
+    CsvParser p = newBuilder().columns(1).trimWhitespace(true).build();
+    assertArrayEquals(new String[]{"b"}, p.parseLine("\"a,\\\",a\", b ,\"c"));
+  }
+
+  @Test
+  public void testColumnsStopsScanningAfterLastWantedColumn() {
+    // the unbalanced quote in column 2 is never looked at
+    CsvParser p = newBuilder().columns(0, 1).build();
+    assertArrayEquals(new String[]{"a", "b"}, p.parseLine("a,b,\"c"));
+  }
+
+  @Test
+  public void testBuilderCopiesSettingsOfExistingParser() {
+    CsvParser p = newBuilder().separator('|').quoteChar('\'').trimWhitespace(true).build();
+    CsvParser p2 = new CsvParserBuilder(p).columns(1).build();
+    assertArrayEquals(new String[]{"b|b"}, p2.parseLine(" a | 'b|b' |c"));
+    assertArrayEquals(p.parseLine(" a | 'b|b' |c"), new CsvParserBuilder(p).build().parseLine(" a | 'b|b' |c"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeColumnIsRejected() {
+    newBuilder().columns(1, -1);
+  }
+  
+  
   /* ---[ Table Examples in simplecsv documentation ]--- */
  
   @Test
   public void testDocTableExample1() {
     String text = "\"abc\"d\"efg\",1,\"2\", w\"x\"y\"\"z ";
     String[] toks = null;
-    CsvParser p1 = new CsvParserBuilder().strictQuotes(true).build();
-    CsvParser p2 = new CsvParserBuilder().retainOuterQuotes(true).build();
-    CsvParser p3 = new CsvParserBuilder().allowUnbalancedQuotes(true).build();
-    CsvParser p4 = new CsvParserBuilder().strictQuotes(true).retainOuterQuotes(true).build();
-    CsvParser p5 = new CsvParserBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p1 = newBuilder().strictQuotes(true).build();
+    CsvParser p2 = newBuilder().retainOuterQuotes(true).build();
+    CsvParser p3 = newBuilder().allowUnbalancedQuotes(true).build();
+    CsvParser p4 = newBuilder().strictQuotes(true).retainOuterQuotes(true).build();
+    CsvParser p5 = newBuilder().alwaysQuoteOutput(true).build();
     
     // default mode
     toks = parser.parseLine(text);  // [abc"d"efg, 1, 2,  w"x"y""z ]  // CORRECT
@@ -1521,12 +1627,12 @@ public class CsvParserTest {
   public void testDocTableExample2() {
     String text = "1,\"abc\\\"d\\\"efg\"";
     String[] toks = null;
-    CsvParser p1 = new CsvParserBuilder().strictQuotes(true).build();
-    CsvParser p2 = new CsvParserBuilder().retainOuterQuotes(true).build();
-    CsvParser p3 = new CsvParserBuilder().allowUnbalancedQuotes(true).build();
-    CsvParser p4 = new CsvParserBuilder().strictQuotes(true).retainOuterQuotes(true).build();
-    CsvParser p5 = new CsvParserBuilder().alwaysQuoteOutput(true).build();
-    CsvParser p6 = new CsvParserBuilder().strictQuotes(true).alwaysQuoteOutput(true).build();
+    CsvParser p1 = newBuilder().strictQuotes(true).build();
+    CsvParser p2 = newBuilder().retainOuterQuotes(true).build();
+    CsvParser p3 = newBuilder().allowUnbalancedQuotes(true).build();
+    CsvParser p4 = newBuilder().strictQuotes(true).retainOuterQuotes(true).build();
+    CsvParser p5 = newBuilder().alwaysQuoteOutput(true).build();
+    CsvParser p6 = newBuilder().strictQuotes(true).alwaysQuoteOutput(true).build();
         
     // default mode
     toks = parser.parseLine(text);
@@ -1569,25 +1675,25 @@ public class CsvParserTest {
   public void testDocTableExample3() {
     String text = "1, \"abc\"def\"";
     String[] toks = null;
-    CsvParser p1 = new CsvParserBuilder().strictQuotes(true).build();
-    CsvParser p2 = new CsvParserBuilder().retainOuterQuotes(true).build();
-    CsvParser p3 = new CsvParserBuilder().allowUnbalancedQuotes(true).build();
-    CsvParser p4 = new CsvParserBuilder().retainOuterQuotes(true).allowUnbalancedQuotes(true).build();
-    CsvParser p5 = new CsvParserBuilder().
+    CsvParser p1 = newBuilder().strictQuotes(true).build();
+    CsvParser p2 = newBuilder().retainOuterQuotes(true).build();
+    CsvParser p3 = newBuilder().allowUnbalancedQuotes(true).build();
+    CsvParser p4 = newBuilder().retainOuterQuotes(true).allowUnbalancedQuotes(true).build();
+    CsvParser p5 = newBuilder().
         strictQuotes(true).
         retainOuterQuotes(true).
         allowUnbalancedQuotes(true).
         build();
-    CsvParser p6 = new CsvParserBuilder().
+    CsvParser p6 = newBuilder().
         strictQuotes(true).
         alwaysQuoteOutput(true).
         allowUnbalancedQuotes(true).
         build();
-    CsvParser p7 = new CsvParserBuilder().
+    CsvParser p7 = newBuilder().
         alwaysQuoteOutput(true).
         allowUnbalancedQuotes(true).
         build();
-    CsvParser p8 = new CsvParserBuilder().
+    CsvParser p8 = newBuilder().
         alwaysQuoteOutput(true).
         allowUnbalancedQuotes(true).
         trimWhitespace(true).
@@ -1657,11 +1763,11 @@ public class CsvParserTest {
   public void testDocTableExample4() {
     String text = "1,\"abc\\\"def\"";
     String[] toks = null;
-    CsvParser p1 = new CsvParserBuilder().strictQuotes(true).build();
-    CsvParser p2 = new CsvParserBuilder().retainOuterQuotes(true).build();
-    CsvParser p3 = new CsvParserBuilder().allowUnbalancedQuotes(true).build();
-    CsvParser p4 = new CsvParserBuilder().retainOuterQuotes(true).allowUnbalancedQuotes(true).build();
-    CsvParser p5 = new CsvParserBuilder().
+    CsvParser p1 = newBuilder().strictQuotes(true).build();
+    CsvParser p2 = newBuilder().retainOuterQuotes(true).build();
+    CsvParser p3 = newBuilder().allowUnbalancedQuotes(true).build();
+    CsvParser p4 = newBuilder().retainOuterQuotes(true).allowUnbalancedQuotes(true).build();
+    CsvParser p5 = newBuilder().
         strictQuotes(true).
         retainOuterQuotes(true).
         allowUnbalancedQuotes(true).
@@ -1698,4 +1804,66 @@ public class CsvParserTest {
     exp = "[, \"abc\\\"def\"]";
     assertEquals(exp, asList);
   }
+
+  /**
+   * With the escape chars dropped, an escaped quote is a lone quote in the
+   * token, which has no pair to be removed as outer quotes.
+   */
+  @Test
+  public void loneEscapedQuoteAfterWhitespace() {
+    CsvParser p = newBuilder().retainEscapeChars(false).build();
+    assertArrayEquals(new String[] {" \""}, p.parseLine(" \\\""));
+    assertArrayEquals(new String[] {"", " \""}, p.parseLine(", \\\""));
+    assertArrayEquals(new String[] {" \" "}, p.parseLine(" \\\" "));
+
+    p = newBuilder().retainEscapeChars(false).trimWhitespace(true).build();
+    assertArrayEquals(new String[] {"\""}, p.parseLine(" \\\""));
+    assertArrayEquals(new String[] {"", "\""}, p.parseLine(", \\\""));
+    assertArrayEquals(new String[] {"\""}, p.parseLine(" \\\" "));
+  }
+
+  /**
+   * endsInQuotes must agree with the parser: a line ends in quotes exactly when
+   * parsing it fails for an un-terminated quoted field, and scanning a line on
+   * from the state of the lines before it gives the same answer as scanning
+   * all the lines joined.
+   */
+  @Test
+  public void endsInQuotesAgreesWithParser() {
+    CsvParser[] parsers = {
+        parser,
+        newBuilder().strictQuotes(true).build(),
+        newBuilder().escapeChar(NULL_CHARACTER).build(),
+        newBuilder().retainEscapeChars(false).build()
+    };
+    java.util.Random rnd = new java.util.Random(13);
+    String alphabet = "a ,\"\\";
+    for (CsvParser p : parsers) {
+      for (int n = 0; n < 2000; n++) {
+        String first = randomLine(rnd, alphabet);
+        String second = randomLine(rnd, alphabet);
+        boolean inQuotes = p.endsInQuotes(first, false);
+        boolean unterminated = false;
+        try {
+          p.parseLine(first);
+        } catch (IllegalArgumentException e) {
+          unterminated = true;
+        }
+        assertEquals(first, unterminated, inQuotes);
+        if (inQuotes) {
+          assertEquals(first + "\n" + second, p.endsInQuotes(first + "\n" + second, false),
+              p.endsInQuotes(second, true));
+        }
+      }
+    }
+  }
+
+  static String randomLine(java.util.Random rnd, String alphabet) {
+    StringBuilder sb = new StringBuilder();
+    int len = rnd.nextInt(12);
+    for (int i = 0; i < len; i++) {
+      sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+    }
+    return sb.toString();
+  }
 }
@@ -4,12 +4,14 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.notNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -17,7 +19,11 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import net.quux00.simplecsv.CsvParser;
@@ -135,6 +141,25 @@ public class CsvReaderTest {
   }
   
   
+  @Test
+  public void testReadNextIntoReusedRecord() throws IOException {
+    CsvRecord record = new CsvRecord();
+    
+    assertSame(record, csvr.readNext(record));
+    assertArrayEquals(new String[]{"a", "b", "c"}, record.toArray(new String[0]));
+    
+    assertSame(record, csvr.readNext(record));
+    assertArrayEquals(new String[]{"a", "b,b,b", "c"}, record.toArray(new String[0]));
+
+    int count = 2;
+    while (csvr.readNext(record) != null) {
+      count++;
+    }
+    assertEquals(7, count);
+    assertNull(csvr.readNext(record));
+  }
+  
+  
   @Test(expected = RuntimeException.class)
   public void creatingIteratorForReaderWithNullDataThrowsRuntimeException() throws IOException {
     Reader mockReader = mock(Reader.class);
@@ -428,6 +453,165 @@ public class CsvReaderTest {
   }
 
   
+  @Test
+  public void testColumnsByIndexFromFile() throws IOException {
+    CsvReader reader = new CsvReaderBuilder(new FileReader("src/test/resources/basic.csv")).
+        skipLines(1).
+        columns(0, 4).
+        build();
+    
+    String[] toks = reader.readNext();
+    assertArrayEquals(new String[]{"1", " I\\nlike\\nIke"}, toks);
+    toks = reader.readNext();
+    assertArrayEquals(new String[]{"2", ""}, toks);
+    reader.close();
+  }
+
+  @Test
+  public void testColumnsByHeaderName() throws IOException {
+    String data = "id,name,city,zip\n1,ann,Paris,75001\n2,\"bob, jr\",Rome,00100\n";
+    CsvReader reader = new CsvReaderBuilder(new StringReader(data)).
+        columns("zip", "name").
+        build();
+    
+    List<String[]> rows = reader.readAll();
+    assertEquals(2, rows.size());
+    assertArrayEquals(new String[]{"ann", "75001"}, rows.get(0));
+    assertArrayEquals(new String[]{"bob, jr", "00100"}, rows.get(1));
+    reader.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testColumnsByUnknownHeaderNameThrows() throws IOException {
+    CsvReader reader = new CsvReaderBuilder(new StringReader("id,name\n1,ann\n")).
+        columns("nope").
+        build();
+    reader.readNext();
+  }
+
+  @Test
+  public void testInputStreamReadsSameAsReader() throws IOException {
+    CsvReader reader = new CsvReader(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)),
+        StandardCharsets.UTF_8, 0, new CsvParserBuilder().build());
+    List<String[]> expected = csvr.readAll();
+    List<String[]> actual = reader.readAll();
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals(expected.get(i), actual.get(i));
+    }
+    reader.close();
+  }
+
+  @Test
+  public void testInputStreamWithCharsetsViaBuilder() throws IOException {
+    String data = "id,name\n1,Zoë\n2,\"Ärger, Ölf\"\n";
+    for (Charset cs : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16}) {
+      CsvReader reader = new CsvReaderBuilder(new ByteArrayInputStream(data.getBytes(cs)), cs).
+          columns("name").
+          build();
+      List<String[]> rows = reader.readAll();
+      assertEquals(2, rows.size());
+      assertArrayEquals(new String[]{"Zoë"}, rows.get(0));
+      assertArrayEquals(new String[]{"Ärger, Ölf"}, rows.get(1));
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testInputStreamIntoLazyRecord() throws IOException {
+    String data = "skip me\nid,name,city\n1,\"Zoë, A\",Paris\n2,bob,Köln\n";
+    CsvReader reader = new CsvReaderBuilder(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8).
+        skipLines(1).
+        columns("city", "name").
+        build();
+    LazyCsvRecord record = new LazyCsvRecord();
+    assertSame(record, reader.readNext(record));
+    assertEquals("[Zoë, A, Paris]", record.toString());
+    assertEquals("Köln", reader.readNext(record).field(1).toString());
+    assertNull(reader.readNext(record));
+    reader.close();
+  }
+
+  @Test
+  public void testInputStreamWithStringBuilderParser() throws IOException {
+    CsvParser p = new CsvParserBuilder().charArrayScanning(false).build();
+    CsvReader reader = new CsvReader(new ByteArrayInputStream("a,b\nc,\"d\"\n".getBytes(StandardCharsets.UTF_8)),
+        StandardCharsets.UTF_8, 0, p);
+    assertArrayEquals(new String[]{"a", "b"}, reader.readNext());
+    LazyCsvRecord record = reader.readNext(new LazyCsvRecord());
+    assertEquals("[c, d]", record.toString());
+    assertNull(reader.readNext(record));
+    reader.close();
+  }
+
+  @Test
+  public void testPathViaBuilder() throws IOException {
+    CsvReader reader = new CsvReaderBuilder(Paths.get("src/test/resources/basic.csv"), StandardCharsets.UTF_8).
+        skipLines(1).
+        columns(0, 4).
+        build();
+    CsvRecord record = new CsvRecord();
+    assertEquals(Arrays.asList("1", " I\\nlike\\nIke"), reader.readNext(record));
+    assertEquals(Arrays.asList("2", ""), reader.readNext(record));
+    reader.close();
+  }
+
+  @Test
+  public void testMemoryMappedPathViaBuilder() throws IOException {
+    CsvReader streamed = new CsvReaderBuilder(Paths.get("src/test/resources/basic.csv"), StandardCharsets.UTF_8).
+        build();
+    CsvReader mapped = new CsvReaderBuilder(Paths.get("src/test/resources/basic.csv"), StandardCharsets.UTF_8).
+        memoryMapped(true).
+        build();
+    List<String[]> expected = streamed.readAll();
+    List<String[]> actual = mapped.readAll();
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals(expected.get(i), actual.get(i));
+    }
+    streamed.close();
+    mapped.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMemoryMappedNeedsPath() {
+    new CsvReaderBuilder(new StringReader("a,b")).memoryMapped(true);
+  }
+
+  @Test
+  public void testPrefetchedPathViaBuilder() throws IOException {
+    CsvReader streamed = new CsvReaderBuilder(Paths.get("src/test/resources/basic.csv"), StandardCharsets.UTF_8).
+        build();
+    CsvReader prefetched = new CsvReaderBuilder(Paths.get("src/test/resources/basic.csv"), StandardCharsets.UTF_8).
+        prefetch(2, 16).
+        build();
+    List<String[]> expected = streamed.readAll();
+    List<String[]> actual = prefetched.readAll();
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals(expected.get(i), actual.get(i));
+    }
+    streamed.close();
+    prefetched.close();
+  }
+
+  @Test
+  public void testPrefetchedInputStreamViaBuilder() throws IOException {
+    byte[] bytes = "a,b\n\"c\nd\",é\n".getBytes(StandardCharsets.UTF_8);
+    CsvReader reader = new CsvReaderBuilder(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8).
+        prefetch(1, 3).multiLine(true).build();
+    assertArrayEquals(new String[] {"a", "b"}, reader.readNext());
+    assertArrayEquals(new String[] {"c\nd", "é"}, reader.readNext());
+    assertNull(reader.readNext());
+    reader.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPrefetchNeedsBytes() {
+    new CsvReaderBuilder(new StringReader("a,b")).prefetch(2);
+  }
+
+  
   /* ---------------------------------- */  
   /* ---[ StringReader based tests ]--- */
   /* ---------------------------------- */  
@@ -967,4 +1151,82 @@ public class CsvReaderTest {
 
   /* ---[ END Test OpenCSV bug 97 ]--- */
 
+  /* ---[ multi-line records ]--- */
+
+  @Test
+  public void multiLineRecordsWithBackslashEscapes() throws IOException {
+    String text = "id,note\r\n1,\"two\r\nlines\"\n2,\"an \\\"escaped\\\" quote,\n\n and a blank line\"\n3,plain\n";
+    CsvReader reader = new CsvReaderBuilder(new StringReader(text)).multiLine(true).build();
+    assertArrayEquals(new String[] {"id", "note"}, reader.readNext());
+    assertArrayEquals(new String[] {"1", "two\nlines"}, reader.readNext());
+    assertArrayEquals(new String[] {"2", "an \\\"escaped\\\" quote,\n\n and a blank line"}, reader.readNext());
+    assertArrayEquals(new String[] {"3", "plain"}, reader.readNext());
+    assertNull(reader.readNext());
+    reader.close();
+  }
+
+  @Test
+  public void multiLineRecordsWithRfc4180() throws IOException {
+    String text = "a,\"say \"\"hi\"\"\n\"\"bye\"\"\",b\nc,d\"\n";
+    CsvParser p = new CsvParserBuilder().rfc4180(true).build();
+    for (CsvReader reader : Arrays.asList(
+        new CsvReaderBuilder(new StringReader(text)).csvParser(p).multiLine(true).build(),
+        new CsvReaderBuilder(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+            StandardCharsets.UTF_8).csvParser(p).multiLine(true).build())) {
+      assertArrayEquals(new String[] {"a", "say \"hi\"\n\"bye\"", "b"}, reader.readNext());
+      LazyCsvRecord record = reader.readNext(new LazyCsvRecord());
+      assertEquals(2, record.size());
+      assertEquals("d\"", record.get(1));
+      assertNull(reader.readNext());
+      reader.close();
+    }
+  }
+
+  @Test
+  public void multiLineHeaderWithNamedColumns() throws IOException {
+    String text = "skip me\n\"first\nname\",age\nBob,42\n\"Mary\nAnn\",7\n";
+    CsvReader reader = new CsvReaderBuilder(new StringReader(text)).
+        skipLines(1).columns("age").multiLine(true).build();
+    assertArrayEquals(new String[] {"42"}, reader.readNext());
+    assertArrayEquals(new String[] {"7"}, reader.readNext());
+    assertNull(reader.readNext());
+    reader.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void multiLineRecordUnterminatedAtEndOfInput() throws IOException {
+    CsvReader reader = new CsvReaderBuilder(new StringReader("a,\"b\nc\nd")).multiLine(true).build();
+    reader.readNext();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void recordsAreOneLineWithoutMultiLine() throws IOException {
+    CsvReader reader = new CsvReaderBuilder(new StringReader("a,\"b\nc\"")).build();
+    reader.readNext();
+  }
+
+  /**
+   * A quoted field of many lines is scanned line by line, not from its start
+   * each time a line is added.
+   */
+  @Test
+  public void multiLineRecordWithManyLines() throws IOException {
+    StringBuilder sb = new StringBuilder("1,\"");
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      if (i > 0) {
+        sb.append('\n');
+        expected.append('\n');
+      }
+      sb.append("line ").append(i);
+      expected.append("line ").append(i);
+    }
+    sb.append("\",2\n3,4\n");
+    CsvReader reader = new CsvReaderBuilder(new StringReader(sb.toString())).multiLine(true).build();
+    String[] toks = reader.readNext();
+    assertEquals(3, toks.length);
+    assertEquals(expected.toString(), toks[1]);
+    assertArrayEquals(new String[] {"3", "4"}, reader.readNext());
+    reader.close();
+  }
 }
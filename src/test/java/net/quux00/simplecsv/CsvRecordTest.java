@@ -0,0 +1,39 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CsvRecordTest {
+
+  @Test
+  public void recordGrowsPastInitialCapacity() {
+    CsvRecord record = new CsvRecord(2);
+    for (int i = 0; i < 37; i++) {
+      record.add(String.valueOf(i));
+    }
+    assertEquals(37, record.size());
+    assertEquals("0", record.get(0));
+    assertEquals("36", record.get(36));
+  }
+
+  @Test
+  public void clearEmptiesRecordForReuse() {
+    CsvRecord record = new CsvRecord();
+    record.add("a");
+    record.add("b");
+    record.clear();
+    assertEquals(0, record.size());
+
+    record.add("c");
+    assertArrayEquals(new String[]{"c"}, record.toArray(new String[0]));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getBeyondSizeThrows() {
+    CsvRecord record = new CsvRecord(8);
+    record.add("a");
+    record.get(1);
+  }
+}
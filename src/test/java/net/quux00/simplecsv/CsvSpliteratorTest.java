@@ -0,0 +1,123 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class CsvSpliteratorTest {
+
+  private static String text(int lines) {
+    StringBuilder sb = new StringBuilder("id,name,\"quoted, value\"\n");
+    for (int i = 0; i < lines; i++) {
+      sb.append(i).append(",name").append(i).append(",\"a, ").append(i).append("\"\n");
+    }
+    return sb.toString();
+  }
+
+  private static List<String[]> readAll(String text) throws IOException {
+    return new CsvReaderBuilder(new StringReader(text)).build().readAll();
+  }
+
+  private static void assertRecordsEqual(List<String[]> expected, List<String[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals("record " + i, expected.get(i), actual.get(i));
+    }
+  }
+
+  @Test
+  public void sequentialStreamReadsSameRecordsAsReadNext() throws IOException {
+    String text = text(5000);
+    CsvReader reader = new CsvReaderBuilder(new StringReader(text)).build();
+    assertRecordsEqual(readAll(text), reader.stream().collect(Collectors.<String[]>toList()));
+    assertNull(reader.readNext());
+  }
+
+  @Test
+  public void parallelStreamKeepsFileOrder() throws IOException {
+    String text = text(50000);
+    CsvReader reader = new CsvReaderBuilder(new StringReader(text)).build();
+    List<String[]> records = reader.stream().parallel().collect(Collectors.<String[]>toList());
+    assertRecordsEqual(readAll(text), records);
+  }
+
+  @Test
+  public void splitsHandOffGrowingBatchesOfLines() throws IOException {
+    CsvReader reader = new CsvReaderBuilder(new StringReader(text(5000))).skipLines(1).build();
+    Spliterator<String[]> s = reader.spliterator();
+    assertEquals(Spliterator.ORDERED | Spliterator.NONNULL, s.characteristics());
+
+    Spliterator<String[]> first = s.trySplit();
+    assertEquals(CsvSpliterator.BATCH_UNIT, first.estimateSize());
+    assertTrue(first.hasCharacteristics(Spliterator.SIZED));
+    Spliterator<String[]> second = s.trySplit();
+    assertEquals(2 * CsvSpliterator.BATCH_UNIT, second.estimateSize());
+
+    final List<String[]> records = new ArrayList<String[]>();
+    Consumer<String[]> add = new Consumer<String[]>() {
+      public void accept(String[] record) {
+        records.add(record);
+      }
+    };
+    // a batch splits in halves, in order
+    Spliterator<String[]> firstHalf = first.trySplit();
+    assertEquals(CsvSpliterator.BATCH_UNIT / 2, firstHalf.estimateSize());
+    firstHalf.forEachRemaining(add);
+    first.forEachRemaining(add);
+    second.forEachRemaining(add);
+    s.forEachRemaining(add);
+    assertFalse(s.tryAdvance(add));
+    assertNull(s.trySplit());
+
+    assertEquals(5000, records.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertArrayEquals(new String[] {"" + i, "name" + i, "a, " + i}, records.get(i));
+    }
+  }
+
+  @Test
+  public void batchesAreParsedWithTheHeaderProjection() throws IOException {
+    CsvReader reader = new CsvReaderBuilder(new StringReader(text(10))).columns("name", "id").build();
+    Spliterator<String[]> batch = reader.spliterator().trySplit();
+    final List<String[]> records = new ArrayList<String[]>();
+    batch.forEachRemaining(new Consumer<String[]>() {
+      public void accept(String[] record) {
+        records.add(record);
+      }
+    });
+    assertEquals(10, records.size());
+    assertArrayEquals(new String[] {"3", "name3"}, records.get(3));
+  }
+
+  @Test
+  public void multiLineRecordsAreSplitWhole() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 3000; i++) {
+      sb.append(i).append(",\"two\nlines\"\n");
+    }
+    CsvReader reader = new CsvReaderBuilder(new StringReader(sb.toString())).multiLine(true).build();
+    List<String[]> records = reader.stream().parallel().collect(Collectors.<String[]>toList());
+    assertEquals(3000, records.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertArrayEquals(new String[] {"" + i, "two\nlines"}, records.get(i));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void parseErrorInABatchIsThrownByTheStream() throws IOException {
+    CsvReader reader = new CsvReaderBuilder(new StringReader(text(3000) + "\"unterminated\n")).build();
+    reader.stream().parallel().count();
+  }
+}
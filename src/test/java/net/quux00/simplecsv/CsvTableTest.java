@@ -0,0 +1,255 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CsvTableTest {
+
+  private static CsvTableBuilder table(String text) {
+    return new CsvTableBuilder(new CsvReaderBuilder(new StringReader(text)).build());
+  }
+
+  @Test
+  public void infersColumnTypes() throws IOException {
+    CsvTable t = table("id,big,price,zip,name,blank\n"
+        + "1,3000000000,1.5,007,x,\n"
+        + "-2,4,2e3,12345,y,\n"
+        + ",5,,90210,,\n").header(true).load();
+    assertEquals(3, t.rowCount());
+    assertEquals(6, t.columnCount());
+    assertEquals("price", t.columnName(2));
+    assertEquals(3, t.columnIndex("zip"));
+    assertEquals(-1, t.columnIndex("nope"));
+
+    assertEquals(ColumnType.INT, t.columnType(0));
+    assertEquals(ColumnType.LONG, t.columnType(1));
+    assertEquals(ColumnType.DOUBLE, t.columnType(2));
+    assertEquals(ColumnType.STRING, t.columnType(3));  // leading zeros: not a number
+    assertEquals(ColumnType.STRING, t.columnType(4));
+    assertEquals(ColumnType.STRING, t.columnType(5));  // nothing but empty fields
+
+    assertEquals(-2, t.getInt(1, 0));
+    assertEquals(-2L, t.getLong(1, 0));
+    assertEquals("", t.getString(2, 0));
+    assertEquals(0, t.getInt(2, 0));
+    assertEquals("", t.getString(2, 0));
+    assertEquals("1", t.getString(0, 0));
+    assertEquals(3000000000L, t.getLong(0, 1));
+    assertEquals(2000.0, t.getDouble(1, 2), 0.0);
+    assertTrue(t.isNull(2, 2));
+    assertEquals("007", t.getString(0, 3));
+    assertFalse(t.isNull(2, 4));
+    assertEquals("", t.getString(2, 4));
+  }
+
+  @Test
+  public void loadsDeclaredTypes() throws IOException {
+    CsvTable t = table("1,2,3,x\n4,5,6\n7,8,9,z,extra\n")
+        .columnTypes(ColumnType.INT, ColumnType.LONG, ColumnType.DOUBLE, ColumnType.STRING).load();
+    assertEquals(3, t.rowCount());
+    assertEquals(4, t.columnCount());
+    assertNull(t.columnName(0));
+    assertEquals(ColumnType.DOUBLE, t.columnType(2));
+    assertEquals(6.0, t.getDouble(1, 2), 0.0);
+    assertEquals(8L, t.getLong(2, 1));
+    assertEquals(7.0, t.getDouble(2, 0), 0.0);
+    assertEquals("", t.getString(1, 3));
+    assertEquals("z", t.getString(2, 3));
+    assertEquals("9.0", t.getString(2, 2));
+  }
+
+  @Test
+  public void declaredTypeThatDoesNotParseNamesRowAndColumn() throws IOException {
+    try {
+      table("a,b\n1,2\n3,x\n").header(true).columnTypes(ColumnType.INT, ColumnType.INT).load();
+      fail("expected NumberFormatException");
+    } catch (NumberFormatException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Row 1, column 1 (b): "));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void declaredTypesMustMatchHeader() throws IOException {
+    table("a,b\n1,2\n").header(true).columnTypes(ColumnType.INT).load();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void getIntOfDoubleColumn() throws IOException {
+    table("1.5\n").load().getInt(0, 0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void rowPastEnd() throws IOException {
+    table("1\n").load().getInt(1, 0);
+  }
+
+  @Test
+  public void emptyInput() throws IOException {
+    CsvTable t = table("").header(true).load();
+    assertEquals(0, t.rowCount());
+    assertEquals(0, t.columnCount());
+    assertEquals(0, table("").load().rowCount());
+  }
+
+  @Test
+  public void manyNullsThenValues() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 3000; i++) {
+      sb.append(i < 2000 ? "" : Integer.toString(i)).append(",x\n");
+    }
+    CsvTable t = table(sb.toString()).load();
+    assertEquals(ColumnType.INT, t.columnType(0));
+    assertTrue(t.isNull(1999, 0));
+    assertFalse(t.isNull(2000, 0));
+    assertEquals(2999, t.getInt(2999, 0));
+  }
+
+  @Test
+  public void dictionaryEncodesLowCardinalityStrings() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      sb.append(i % 3 == 0 ? "red" : "blue").append(",name").append(i).append('\n');
+    }
+    CsvTable t = table(sb.toString()).load();
+    assertEquals(2, t.dictionarySize(0));
+    assertEquals(-1, t.dictionarySize(1));  // all distinct: packed
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(i % 3 == 0 ? "red" : "blue", t.getString(i, 0));
+      assertEquals("name" + i, t.getString(i, 1));
+    }
+  }
+
+  @Test
+  public void switchesToPackedCharsPastDictionaryLimit() throws IOException {
+    int n = CsvTable.MAX_DICTIONARY_SIZE + 100;
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2 * n; i++) {
+      sb.append('v').append(i % n).append('\n');
+    }
+    CsvTable t = table(sb.toString()).load();
+    assertEquals(-1, t.dictionarySize(0));
+    for (int i = 0; i < 2 * n; i++) {
+      assertEquals("v" + (i % n), t.getString(i, 0));
+    }
+  }
+
+  @Test
+  public void loadsVeryLongFields() throws IOException {
+    // wide rows of long fields, the first as long as the rest
+    StringBuilder sb = new StringBuilder();
+    for (int r = 0; r < 3; r++) {
+      for (int c = 0; c < 100; c++) {
+        sb.append(c == 0 ? "" : ",").append(longField(r * 100 + c, 4000));
+      }
+      sb.append('\n');
+    }
+    String wide = sb.toString();
+    ColumnType[] types = new ColumnType[100];
+    Arrays.fill(types, ColumnType.STRING);
+    for (CsvTable t : new CsvTable[] {table(wide).load(), table(wide).columnTypes(types).load()}) {
+      assertEquals(3, t.rowCount());
+      assertEquals(100, t.columnCount());
+      assertEquals(longField(299, 4000), t.getString(2, 99));
+    }
+
+    // a column of long distinct values, packed once the dictionary stops paying
+    sb.setLength(0);
+    for (int r = 0; r < 1500; r++) {
+      sb.append(r).append(',').append(longField(r, 2000)).append('\n');
+    }
+    CsvTable t = table(sb.toString()).load();
+    assertEquals(ColumnType.STRING, t.columnType(1));
+    assertEquals(-1, t.dictionarySize(1));
+    assertEquals(longField(0, 2000), t.getString(0, 1));
+    assertEquals(longField(1499, 2000), t.getString(1499, 1));
+  }
+
+  private static String longField(int seed, int length) {
+    StringBuilder sb = new StringBuilder(Integer.toString(seed)).append(':');
+    while (sb.length() < length) {
+      sb.append((char) ('a' + (sb.length() + seed) % 26));
+    }
+    return sb.toString();
+  }
+
+  @Test
+  public void holdsSameValuesAsReadAll() throws IOException {
+    Random rnd = new Random(20);
+    StringBuilder sb = new StringBuilder("i,l,d,s\n");
+    for (int i = 0; i < 20000; i++) {
+      sb.append(rnd.nextInt()).append(',')
+        .append(rnd.nextLong()).append(',')
+        .append(rnd.nextInt(1000) / 8.0).append(',')
+        .append("\"s, ").append(rnd.nextInt(50)).append("\"\n");
+    }
+    List<String[]> expected = new CsvReaderBuilder(new StringReader(sb.toString())).build().readAll();
+    CsvTable t = table(sb.toString()).header(true).load();
+    assertEquals(expected.size() - 1, t.rowCount());
+    assertEquals(ColumnType.INT, t.columnType(0));
+    assertEquals(ColumnType.LONG, t.columnType(1));
+    assertEquals(ColumnType.DOUBLE, t.columnType(2));
+    assertEquals(50, t.dictionarySize(3));
+    for (int r = 0; r < t.rowCount(); r++) {
+      String[] row = expected.get(r + 1);
+      assertEquals(Integer.parseInt(row[0]), t.getInt(r, 0));
+      assertEquals(Long.parseLong(row[1]), t.getLong(r, 1));
+      assertEquals(Double.parseDouble(row[2]), t.getDouble(r, 2), 0.0);
+      assertEquals(row[3], t.getString(r, 3));
+      assertEquals(row[0], t.getString(r, 0));
+      assertEquals(row[1], t.getString(r, 1));
+    }
+  }
+
+  @Test
+  public void inferredTypeOfSingleValues() {
+    assertEquals(ColumnType.INT, type("0"));
+    assertEquals(ColumnType.INT, type("-2147483648"));
+    assertEquals(ColumnType.LONG, type("2147483648"));
+    assertEquals(ColumnType.LONG, type("-9223372036854775808"));
+    assertEquals(ColumnType.STRING, type("9223372036854775808"));
+    assertEquals(ColumnType.STRING, type("+1"));
+    assertEquals(ColumnType.STRING, type("01"));
+    assertEquals(ColumnType.STRING, type("-"));
+    assertEquals(ColumnType.DOUBLE, type("0.25"));
+    assertEquals(ColumnType.DOUBLE, type("-1E-7"));
+    assertEquals(ColumnType.STRING, type("1."));
+    assertEquals(ColumnType.STRING, type(".5"));
+    assertEquals(ColumnType.STRING, type("1e"));
+    assertEquals(ColumnType.STRING, type("NaN"));
+    assertEquals(ColumnType.STRING, type("1 "));
+  }
+
+  @Test
+  public void longsMixedWithDoublesAreNotRounded() throws IOException {
+    CsvTable t = table("id,n,x\n9007199254740993,1,1\n1.5,2.5,2\n,,9007199254740993\n").header(true).load();
+    assertEquals(ColumnType.STRING, t.columnType(0));
+    assertEquals("9007199254740993", t.getString(0, 0));
+    assertEquals("1.5", t.getString(1, 0));
+    assertEquals("", t.getString(2, 0));
+    assertEquals(ColumnType.DOUBLE, t.columnType(1));  // ints fit a double exactly
+    assertEquals(2.5, t.getDouble(1, 1), 0.0);
+    assertEquals(ColumnType.LONG, t.columnType(2));
+    assertEquals(9007199254740993L, t.getLong(2, 2));
+
+    assertEquals(ColumnType.STRING, ColumnType.LONG.widen(ColumnType.DOUBLE));
+    assertEquals(ColumnType.STRING, ColumnType.DOUBLE.widen(ColumnType.LONG));
+    assertEquals(ColumnType.LONG, ColumnType.INT.widen(ColumnType.LONG));
+    assertEquals(ColumnType.DOUBLE, ColumnType.DOUBLE.widen(ColumnType.INT));
+    assertEquals(ColumnType.INT, ColumnType.INT.widen(null));
+  }
+
+  private static ColumnType type(String s) {
+    return ColumnType.of(s.toCharArray(), 0, s.length());
+  }
+}
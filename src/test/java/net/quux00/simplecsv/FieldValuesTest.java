@@ -0,0 +1,63 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FieldValuesTest {
+
+  /**
+   * The char and byte forms must give the same results, and those of the
+   * JDK wherever they give one at all.
+   */
+  @Test
+  public void charsAndBytesAgreeWithTheJdk() {
+    String alphabet = "0123456789-+.eE x\u00e9";
+    Random rnd = new Random(21);
+    for (int n = 0; n < 200000; n++) {
+      StringBuilder sb = new StringBuilder();
+      int len = 1 + rnd.nextInt(22);
+      for (int i = 0; i < len; i++) {
+        // mostly digits
+        sb.append(rnd.nextInt(3) == 0 ? alphabet.charAt(rnd.nextInt(alphabet.length())) : (char) ('0' + rnd.nextInt(10)));
+      }
+      String s = sb.toString();
+      char[] chars = ("," + s + ",").toCharArray();
+      byte[] bytes = ("," + s + ",").getBytes(StandardCharsets.UTF_8);
+      int end = chars.length - 1;
+
+      long v = FieldValues.parseDigits(chars, 1, end, 18);
+      assertEquals(s, v, FieldValues.parseDigits(bytes, 1, bytes.length - 1, 18));
+      if (v != FieldValues.NOT_SIMPLE) {
+        assertEquals(s, Long.parseLong(s), v);
+      }
+
+      double d = FieldValues.parseSimpleDouble(chars, 1, end);
+      assertEquals(s, d, FieldValues.parseSimpleDouble(bytes, 1, bytes.length - 1), 0.0);
+      if (d == d) {
+        assertEquals(s, Double.parseDouble(s), d, 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void isTrueIgnoresCaseOnly() {
+    String[] trues = {"true", "TRUE", "tRuE"};
+    String[] others = {"", "tru", "truee", "t rue", "yes", "\u00f4rue"};
+    for (String s : trues) {
+      assertTrue(FieldValues.isTrue(s.toCharArray(), 0, s.length()));
+      byte[] bytes = s.getBytes(StandardCharsets.ISO_8859_1);
+      assertTrue(FieldValues.isTrue(bytes, 0, bytes.length));
+    }
+    for (String s : others) {
+      assertFalse(s, FieldValues.isTrue(s.toCharArray(), 0, s.length()));
+      byte[] bytes = s.getBytes(StandardCharsets.ISO_8859_1);
+      assertFalse(s, FieldValues.isTrue(bytes, 0, bytes.length));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Runs the full CsvParserTest suite against the IndexedCsvParser, using
+ * whichever StructuralIndexer is available (the Vector API one when the tests
+ * are run with --add-modules jdk.incubator.vector, as the jdk17 profile does).
+ */
+public class IndexedCsvParserTest extends CsvParserTest {
+
+  @Override
+  protected CsvParserBuilder newBuilder() {
+    return new CsvParserBuilder() {
+      @Override
+      public CsvParser build() {
+        // the IndexedCsvParser does not do strictQuotes or column projection
+        if (strictQuotes || columns != null) {
+          return super.build();
+        }
+        return new IndexedCsvParser(this);
+      }
+    };
+  }
+
+  @Test
+  public void builderOnlyReturnsIndexedParserWithVectorApi() {
+    Class<?> expected = StructuralIndexer.isVectorAvailable() ? IndexedCsvParser.class : InPlaceCsvParser.class;
+    assertEquals(expected, new CsvParserBuilder().vectorScanning(true).build().getClass());
+    assertEquals(InPlaceCsvParser.class, new CsvParserBuilder().vectorScanning(false).build().getClass());
+    assertEquals(StrictQuotesCsvParser.class, new CsvParserBuilder().vectorScanning(true).strictQuotes(true).build().getClass());
+    assertEquals(CharArrayCsvParser.class, new CsvParserBuilder().vectorScanning(true).columns(1).build().getClass());
+  }
+
+  @Test
+  public void builderCopiesVectorScanning() {
+    CsvParser p = new CsvParserBuilder().vectorScanning(true).build();
+    assertEquals(p.getClass(), new CsvParserBuilder(p).build().getClass());
+  }
+
+  @Test
+  public void wideLineWithJsonColumns() {
+    StringBuilder json = new StringBuilder("{");
+    for (int i = 0; i < 200; i++) {
+      json.append(i > 0 ? ", " : "").append("\\\"key").append(i).append("\\\": ").append(i);
+    }
+    json.append('}');
+    String ln = "1,\"" + json + "\",abc,\"" + json + "\"";
+
+    String[] toks = parser.parseLine(ln);
+    assertEquals(4, toks.length);
+    assertEquals("1", toks[0]);
+    assertEquals(json.toString(), toks[1]);
+    assertEquals("abc", toks[2]);
+    assertEquals(json.toString(), toks[3]);
+
+    CsvParser unescaping = newBuilder().retainEscapeChars(false).build();
+    assertArrayEquals(new String[] {"1", json.toString().replace("\\\"", "\""), "abc", json.toString().replace("\\\"", "\"")},
+        unescaping.parseLine(ln));
+  }
+}
@@ -0,0 +1,176 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LazyCsvRecordTest {
+
+  CsvParser parser = new CsvParserBuilder().charArrayScanning(true).build();
+
+  @Test
+  public void fieldViewsReadFromTheRecordBuffer() {
+    LazyCsvRecord record = parser.parseLazy("abc,\"hello world\",xyz", new LazyCsvRecord());
+    CharSequence cs = record.field(1);
+    assertEquals(11, cs.length());
+    assertEquals('h', cs.charAt(0));
+    assertEquals('d', cs.charAt(10));
+    assertEquals("world", cs.subSequence(6, 11).toString());
+    assertEquals("hello world", cs.toString());
+  }
+
+  @Test
+  public void recordIsReusedAcrossLinesOfDifferentLengths() {
+    LazyCsvRecord record = new LazyCsvRecord(1);
+    parser.parseLazy(CsvParserTest.longLine, record);
+    assertEquals(3, record.size());
+    assertEquals(" " + CsvParserTest.longEntry2, record.get(2));
+
+    parser.parseLazy("1,2", record);
+    assertArrayEquals(new String[]{"1", "2"}, record.toArray());
+  }
+
+  @Test
+  public void defaultParserCopiesTokensIntoRecord() {
+    LazyCsvRecord record = new CsvParser().parseLazy("a, \"b\" ,", new LazyCsvRecord(1));
+    assertArrayEquals(new String[]{"a", " b ", ""}, record.toArray());
+    assertEquals(" b ", record.field(1).toString());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void fieldBeyondSizeThrows() {
+    LazyCsvRecord record = parser.parseLazy("a,b", new LazyCsvRecord());
+    record.field(2);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void charAtBeyondFieldLengthThrows() {
+    LazyCsvRecord record = parser.parseLazy("a,b", new LazyCsvRecord());
+    record.field(0).charAt(1);
+  }
+
+  @Test
+  public void typedAccessorsParseFields() {
+    LazyCsvRecord record = parser.parseLazy("42,-7,\"12345678901\",3.25,-1e3,TRUE,no", new LazyCsvRecord());
+    assertEquals(42, record.getInt(0));
+    assertEquals(-7, record.getInt(1));
+    assertEquals(12345678901L, record.getLong(2));
+    assertEquals(3.25, record.getDouble(3), 0.0);
+    assertEquals(-1000.0, record.getDouble(4), 0.0);
+    assertTrue(record.getBoolean(5));
+    assertFalse(record.getBoolean(6));
+  }
+
+  @Test
+  public void typedAccessorsHonorTrimWhitespace() {
+    String ln = " 1 , \" 2.5 \" ";
+    LazyCsvRecord record = new CsvParserBuilder().trimWhitespace(true).build().parseLazy(ln, new LazyCsvRecord());
+    assertEquals(1, record.getInt(0));
+    assertEquals(2.5, record.getDouble(1), 0.0);
+
+    record = parser.parseLazy(ln, record);
+    try {
+      record.getInt(0);
+      fail("untrimmed field is not an int");
+    } catch (NumberFormatException expected) {
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void getIntOfEmptyFieldThrows() {
+    parser.parseLazy("1,,3", new LazyCsvRecord()).getInt(1);
+  }
+
+  @Test
+  public void typedAccessorsAgreeWithJdkParsers() {
+    String[] values = {
+      "0", "-0", "+0", "7", "+7", "-2147483648", "2147483647", "2147483648", "-2147483649",
+      "9223372036854775807", "-9223372036854775808", "9223372036854775808", "999999999999999999",
+      "0000000000000000000001", "", "-", "+", "1-", "1 ", " 1", "1_000", "\u0661\u0662", "true", "True",
+      "tRuE", "truee", "1.", ".5", ".", "-.5e-3", "1e", "1e+", "1e5", "1E-5", "1e22", "1e23", "1e-22",
+      "1e-23", "123456789012345", "1234567890123456", "0.1", "0.3", "-0.0", "1.7976931348623157e308",
+      "4.9e-324", "NaN", "Infinity", "-Infinity", "1d", "2f", "0x1p3", "1.5e0005", "00.000e-0"
+    };
+    LazyCsvRecord record = new LazyCsvRecord();
+    for (String v : values) {
+      record.clear();
+      record.append(v);
+      assertParsesLikeJdk(v, record);
+    }
+
+    Random rnd = new Random(5);
+    for (int i = 0; i < 20000; i++) {
+      StringBuilder sb = new StringBuilder();
+      if (rnd.nextInt(4) == 0) {
+        sb.append(rnd.nextBoolean() ? '-' : '+');
+      }
+      int n = rnd.nextInt(20);
+      for (int k = 0; k < n; k++) {
+        sb.append((char) ('0' + rnd.nextInt(10)));
+      }
+      if (rnd.nextBoolean()) {
+        sb.insert(rnd.nextInt(sb.length() + 1), '.');
+      }
+      if (rnd.nextInt(3) == 0) {
+        sb.append(rnd.nextBoolean() ? 'e' : 'E').append(rnd.nextInt(60) - 30);
+      }
+      String v = sb.toString();
+      record.clear();
+      record.append(v);
+      assertParsesLikeJdk(v, record);
+    }
+  }
+
+  /**
+   * Checks that each accessor returns what the JDK parser returns for the
+   * field, or throws a NumberFormatException when the JDK parser does.
+   */
+  private static void assertParsesLikeJdk(String v, LazyCsvRecord record) {
+    final int i = 0;
+    Object expected;
+    Object actual;
+    try {
+      expected = Integer.parseInt(v);
+    } catch (NumberFormatException e) {
+      expected = "NFE";
+    }
+    try {
+      actual = record.getInt(i);
+    } catch (NumberFormatException e) {
+      actual = "NFE";
+    }
+    assertEquals("getInt " + v, expected, actual);
+
+    try {
+      expected = Long.parseLong(v);
+    } catch (NumberFormatException e) {
+      expected = "NFE";
+    }
+    try {
+      actual = record.getLong(i);
+    } catch (NumberFormatException e) {
+      actual = "NFE";
+    }
+    assertEquals("getLong " + v, expected, actual);
+
+    try {
+      expected = Double.doubleToRawLongBits(Double.parseDouble(v));
+    } catch (NumberFormatException e) {
+      expected = "NFE";
+    }
+    try {
+      actual = Double.doubleToRawLongBits(record.getDouble(i));
+    } catch (NumberFormatException e) {
+      actual = "NFE";
+    }
+    assertEquals("getDouble " + v, expected, actual);
+
+    assertEquals("getBoolean " + v, Boolean.parseBoolean(v), record.getBoolean(i));
+  }
+}
@@ -0,0 +1,127 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedLineReaderTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private MappedLineReader reader(String s, Charset cs, int windowSize) throws IOException {
+    File f = tmp.newFile();
+    Files.write(f.toPath(), s.getBytes(cs));
+    return new MappedLineReader(FileChannel.open(f.toPath(), StandardOpenOption.READ), cs, windowSize);
+  }
+
+  @Test
+  public void splitsLinesLikeBufferedReader() throws IOException {
+    MappedLineReader r = reader("a,b\nccccccccccccccccccccc\r\n\rd\r\re\n\nlast", StandardCharsets.UTF_8, 16);
+    assertEquals("a,b", r.readLine());
+    assertEquals("ccccccccccccccccccccc", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("d", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("e", r.readLine());
+    assertEquals("", r.readLine());
+    assertEquals("last", r.readLine());
+    assertNull(r.readLine());
+    assertNull(r.readLine());
+    r.close();
+  }
+
+  @Test
+  public void emptyFileHasNoLines() throws IOException {
+    assertNull(reader("", StandardCharsets.UTF_8, 16).readLine());
+    MappedLineReader r = reader("\n", StandardCharsets.UTF_8, 16);
+    assertEquals("", r.readLine());
+    assertNull(r.readLine());
+  }
+
+  @Test
+  public void readsSameLinesAsBufferedReaderAcrossWindows() throws IOException {
+    Random rnd = new Random(11);
+    String alphabet = "ab,\"\n\r\r\néü中";
+    for (int i = 0; i < 100; i++) {
+      StringBuilder sb = new StringBuilder();
+      int n = rnd.nextInt(200);
+      for (int j = 0; j < n; j++) {
+        sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+      }
+      String s = sb.toString();
+      MappedLineReader r = reader(s, StandardCharsets.UTF_8, 16 + rnd.nextInt(16));
+      LazyCsvRecord record = new LazyCsvRecord();
+      BufferedReader br = new BufferedReader(new StringReader(s));
+      String expected;
+      int k = 0;
+      do {
+        expected = br.readLine();
+        // alternate between both ways of reading a line
+        if (k++ % 2 == 0) {
+          assertEquals(expected, r.readLine());
+        } else {
+          int end = r.readLine(record);
+          assertEquals(expected, end < 0 ? null : new String(record.buf, 1, end - 1));
+        }
+      } while (expected != null);
+      r.close();
+    }
+  }
+
+  @Test
+  public void windowGrowsForLongLines() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append(i % 10);
+    }
+    String longLine = sb.toString();
+    MappedLineReader r = reader("x\n" + longLine + "\n" + longLine + "é\ny", StandardCharsets.UTF_8, 16);
+    assertEquals("x", r.readLine());
+    assertEquals(longLine, r.readLine());
+    LazyCsvRecord record = new LazyCsvRecord();
+    assertEquals(longLine.length() + 2, r.readLine(record));
+    assertEquals(longLine + "é", new String(record.buf, 1, longLine.length() + 1));
+    assertEquals("y", r.readLine());
+    assertNull(r.readLine());
+  }
+
+  @Test
+  public void readsFromStartOffsetAndReportsPosition() throws IOException {
+    File f = tmp.newFile();
+    Files.write(f.toPath(), "ab\r\ncd\ref".getBytes(StandardCharsets.UTF_8));
+    FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+    MappedLineReader r = new MappedLineReader(channel, StandardCharsets.UTF_8, 16, 1);
+    assertEquals("b", r.readLine());
+    assertEquals(4, r.position());
+    assertEquals("cd", r.readLine());
+    assertEquals(7, r.position());
+    assertEquals("ef", r.readLine());
+    assertEquals(9, r.position());
+    assertNull(r.readLine());
+    assertEquals(0, channel.position());
+    r.close();
+  }
+
+  @Test
+  public void decodesNonAsciiLines() throws IOException {
+    MappedLineReader r = reader("café\nüber\n", StandardCharsets.ISO_8859_1, 16);
+    assertEquals("café", r.readLine());
+    assertEquals("über", r.readLine());
+    assertNull(r.readLine());
+  }
+}
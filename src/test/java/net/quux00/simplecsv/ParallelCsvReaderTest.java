@@ -0,0 +1,202 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParallelCsvReaderTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private Path file(String s) throws IOException {
+    File f = tmp.newFile();
+    Files.write(f.toPath(), s.getBytes(StandardCharsets.UTF_8));
+    return f.toPath();
+  }
+
+  /**
+   * Random Csv text, with quoted fields holding separators, escaped quotes
+   * and, if multiLine, line breaks.
+   */
+  private static String randomCsv(Random rnd, int records, boolean multiLine, boolean rfc4180) {
+    String plain = "abcxyzé中 ";
+    String quoted = multiLine ? "ab,\n\r\n\"é" : "ab,\"é";
+    String[] eols = {"\n", "\r\n", "\r"};
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < records; i++) {
+      int fields = 1 + rnd.nextInt(5);
+      for (int j = 0; j < fields; j++) {
+        if (j > 0) {
+          sb.append(',');
+        }
+        boolean q = rnd.nextInt(3) == 0;
+        String alphabet = q ? quoted : plain;
+        if (q) {
+          sb.append('"');
+        }
+        int n = rnd.nextInt(12);
+        for (int k = 0; k < n; k++) {
+          char c = alphabet.charAt(rnd.nextInt(alphabet.length()));
+          if (c == '"') {
+            sb.append(rfc4180 ? '"' : '\\');
+          }
+          sb.append(c);
+        }
+        if (q) {
+          sb.append('"');
+        }
+      }
+      sb.append(eols[rnd.nextInt(eols.length)]);
+    }
+    return sb.toString();
+  }
+
+  private static List<String[]> sequential(Path path, CsvParser parser, boolean multiLine) throws IOException {
+    CsvReader reader = new CsvReaderBuilder(path, StandardCharsets.UTF_8).
+        csvParser(parser).multiLine(multiLine).build();
+    List<String[]> all = reader.readAll();
+    reader.close();
+    return all;
+  }
+
+  private static void assertRecordsEqual(List<String[]> expected, List<String[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals("record " + i, expected.get(i), actual.get(i));
+    }
+  }
+
+  private static List<String> sorted(List<String[]> records) {
+    List<String> s = new ArrayList<String>();
+    for (String[] r : records) {
+      s.add(Arrays.toString(r));
+    }
+    Collections.sort(s);
+    return s;
+  }
+
+  @Test
+  public void readsSameRecordsAsCsvReaderInOrder() throws IOException {
+    Random rnd = new Random(16);
+    for (int i = 0; i < 40; i++) {
+      boolean multiLine = i % 2 == 1;
+      Path path = file(randomCsv(rnd, rnd.nextInt(300), multiLine, false));
+      CsvParser parser = new CsvParserBuilder().build();
+      ParallelCsvReader reader = new ParallelCsvReaderBuilder(path, StandardCharsets.UTF_8).
+          multiLine(multiLine).threads(1 + rnd.nextInt(4)).splitSize(1 + rnd.nextInt(200)).build();
+      assertRecordsEqual(sequential(path, parser, multiLine), reader.readAll());
+      assertNull(reader.readNext());
+      reader.close();
+    }
+  }
+
+  @Test
+  public void readsSameRecordsAsCsvReaderWithRfc4180Parser() throws IOException {
+    Random rnd = new Random(4180);
+    CsvParser parser = new CsvParserBuilder().rfc4180(true).build();
+    for (int i = 0; i < 40; i++) {
+      Path path = file(randomCsv(rnd, rnd.nextInt(300), true, true));
+      ParallelCsvReader reader = new ParallelCsvReaderBuilder(path, StandardCharsets.UTF_8).
+          csvParser(parser).multiLine(true).threads(3).splitSize(1 + rnd.nextInt(100)).build();
+      assertRecordsEqual(sequential(path, parser, true), reader.readAll());
+      reader.close();
+    }
+  }
+
+  @Test
+  public void unorderedReadsSameRecords() throws IOException {
+    Random rnd = new Random(17);
+    for (int i = 0; i < 20; i++) {
+      Path path = file(randomCsv(rnd, 2000 + rnd.nextInt(3000), true, false));
+      ParallelCsvReader reader = new ParallelCsvReaderBuilder(path, StandardCharsets.UTF_8).
+          multiLine(true).threads(4).splitSize(1000).ordered(false).build();
+      List<String[]> expected = sequential(path, new CsvParserBuilder().build(), true);
+      assertEquals(sorted(expected), sorted(reader.readAll()));
+      reader.close();
+    }
+  }
+
+  @Test
+  public void skipsLinesAndKeepsColumns() throws IOException {
+    Path path = file("header line\n\"multi\nline\",x\n1,2,3\n4,5,6\n7,8,9\n");
+    ParallelCsvReader reader = new ParallelCsvReaderBuilder(path, StandardCharsets.UTF_8).
+        skipLines(2).multiLine(true).columns(2, 0).threads(2).splitSize(4).build();
+    Iterator<String[]> it = reader.iterator();
+    assertArrayEquals(new String[] {"1", "3"}, it.next());
+    assertArrayEquals(new String[] {"4", "6"}, it.next());
+    assertArrayEquals(new String[] {"7", "9"}, it.next());
+    assertEquals(false, it.hasNext());
+    reader.close();
+  }
+
+  @Test
+  public void multiLineSplitsStartAtRecordsInsideTheFile() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      sb.append(i).append(",\"line\nbreak\"\n");
+    }
+    String text = sb.toString();
+    ParallelCsvReader reader = new ParallelCsvReaderBuilder(file(text), StandardCharsets.UTF_8).
+        multiLine(true).threads(2).splitSize(text.length() / 4).build();
+    assertArrayEquals(new String[] {"0", "line\nbreak"}, reader.readNext());
+    for (int k = 1; k < 4; k++) {
+      // each split starts at a record in its quarter of the file, not at its end
+      long start = reader.recordStart(k);
+      assertEquals(true, start < text.length() * (k + 1) / 4);
+      assertEquals('\n', text.charAt((int) start - 1));
+      assertEquals(true, Character.isDigit(text.charAt((int) start)));
+    }
+    reader.close();
+  }
+
+  @Test
+  public void emptyFileHasNoRecords() throws IOException {
+    ParallelCsvReader reader = new ParallelCsvReaderBuilder(file(""), StandardCharsets.UTF_8).threads(3).build();
+    assertNull(reader.readNext());
+    reader.close();
+  }
+
+  @Test
+  public void parseErrorOnAParsingThreadIsThrownByReadNext() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      sb.append(i).append(",a\n");
+    }
+    sb.append("\"unterminated\n");
+    ParallelCsvReader reader = new ParallelCsvReaderBuilder(file(sb.toString()), StandardCharsets.UTF_8).
+        threads(2).splitSize(1000).build();
+    int read = 0;
+    try {
+      while (reader.readNext() != null) {
+        read++;
+      }
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals(5000, read);
+    }
+    assertNull(reader.readNext());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsCharsetsThatAreNotAsciiCompatible() throws IOException {
+    new ParallelCsvReaderBuilder(file("a,b\n"), StandardCharsets.UTF_16);
+  }
+}
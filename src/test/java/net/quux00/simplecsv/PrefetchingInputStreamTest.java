@@ -0,0 +1,183 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PrefetchingInputStreamTest {
+
+  /**
+   * Delivers the bytes a few at a time, counting the reads.
+   */
+  private static class ChunkedStream extends InputStream {
+    final ByteArrayInputStream bytes;
+    final int chunk;
+    final AtomicInteger reads = new AtomicInteger();
+
+    ChunkedStream(byte[] b, int chunk) {
+      this.bytes = new ByteArrayInputStream(b);
+      this.chunk = chunk;
+    }
+
+    public int read() {
+      return bytes.read();
+    }
+
+    public int read(byte[] b, int off, int len) {
+      reads.incrementAndGet();
+      return bytes.read(b, off, Math.min(len, chunk));
+    }
+  }
+
+  private static byte[] randomBytes(Random rnd, int n) {
+    byte[] b = new byte[n];
+    rnd.nextBytes(b);
+    return b;
+  }
+
+  @Test
+  public void readsSameBytesAsSource() throws IOException {
+    Random rnd = new Random(18);
+    for (int i = 0; i < 50; i++) {
+      byte[] expected = randomBytes(rnd, rnd.nextInt(5000));
+      InputStream in = new PrefetchingInputStream(new ChunkedStream(expected, 1 + rnd.nextInt(300)),
+          1 + rnd.nextInt(3), 1 + rnd.nextInt(700));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buf = new byte[1 + rnd.nextInt(500)];
+      int n;
+      while ((n = in.read(buf, 0, buf.length)) >= 0) {
+        out.write(buf, 0, n);
+        if (n > 0 && rnd.nextBoolean()) {
+          int b = in.read();
+          if (b >= 0) {
+            out.write(b);
+          }
+        }
+      }
+      assertEquals(-1, in.read());
+      assertArrayEquals(expected, out.toByteArray());
+      in.close();
+    }
+  }
+
+  @Test
+  public void readsAtMostDepthBlocksAhead() throws Exception {
+    ChunkedStream source = new ChunkedStream(new byte[100000], 100);
+    PrefetchingInputStream in = new PrefetchingInputStream(source, 3, 100);
+    // the ring has depth + 1 buffers, all of which get filled while nothing is read
+    for (int i = 0; i < 200 && source.reads.get() < 4; i++) {
+      Thread.sleep(5);
+    }
+    Thread.sleep(50);
+    assertEquals(4, source.reads.get());
+    assertEquals(0, in.read());
+    in.skip(99);
+    assertEquals(0, in.read());
+    for (int i = 0; i < 200 && source.reads.get() < 5; i++) {
+      Thread.sleep(5);
+    }
+    Thread.sleep(50);
+    assertEquals(5, source.reads.get());
+    in.close();
+  }
+
+  @Test(timeout = 10000)
+  public void readsOfNoBytesAreTriedAgain() throws IOException {
+    byte[] expected = randomBytes(new Random(18), 2000);
+    // every other read returns 0, many more times than there are buffers
+    InputStream stalling = new ChunkedStream(expected, 7) {
+      boolean stall;
+
+      public int read(byte[] b, int off, int len) {
+        stall = !stall;
+        return stall ? 0 : super.read(b, off, len);
+      }
+    };
+    InputStream in = new PrefetchingInputStream(stalling, 2, 16);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[5];
+    int n;
+    while ((n = in.read(buf, 0, buf.length)) >= 0) {
+      assertTrue(n > 0);
+      out.write(buf, 0, n);
+    }
+    assertArrayEquals(expected, out.toByteArray());
+    in.close();
+  }
+
+  @Test
+  public void failedReadIsThrownAfterTheBytesBeforeIt() throws IOException {
+    InputStream failing = new InputStream() {
+      int left = 10;
+
+      public int read() throws IOException {
+        if (left-- > 0) {
+          return 'x';
+        }
+        throw new IOException("disk on fire");
+      }
+    };
+    InputStream in = new PrefetchingInputStream(failing, 2, 4);
+    int count = 0;
+    try {
+      while (in.read() >= 0) {
+        count++;
+      }
+      fail("expected IOException");
+    } catch (IOException e) {
+      assertEquals("disk on fire", e.getMessage());
+    }
+    assertEquals(10, count);
+    assertEquals(-1, in.read());
+  }
+
+  @Test
+  public void closeStopsTheThreadBlockedInARead() throws Exception {
+    final CountDownLatch never = new CountDownLatch(1);
+    InputStream blocking = new InputStream() {
+      public int read() throws IOException {
+        try {
+          never.await();
+        } catch (InterruptedException e) {
+          throw new InterruptedIOException();
+        }
+        return -1;
+      }
+    };
+    PrefetchingInputStream in = new PrefetchingInputStream(blocking, 2, 16);
+    in.close();
+    in.thread.join(5000);
+    assertFalse(in.thread.isAlive());
+    assertEquals(-1, in.read());
+  }
+
+  @Test
+  public void closeStopsTheThreadWaitingForAFreeBuffer() throws Exception {
+    ChunkedStream source = new ChunkedStream(new byte[100000], 100);
+    PrefetchingInputStream in = new PrefetchingInputStream(source, 1, 100);
+    for (int i = 0; i < 200 && source.reads.get() < 2; i++) {
+      Thread.sleep(5);
+    }
+    in.close();
+    in.thread.join(5000);
+    assertFalse(in.thread.isAlive());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void depthMustBePositive() {
+    new PrefetchingInputStream(new ByteArrayInputStream(new byte[0]), 0, 16);
+  }
+}
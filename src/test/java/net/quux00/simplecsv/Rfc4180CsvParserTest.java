@@ -0,0 +1,203 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class Rfc4180CsvParserTest {
+
+  private final CsvParser parser = new CsvParserBuilder().rfc4180(true).build();
+
+  private static void assertParsed(CsvParser p, String ln, String... expected) {
+    assertArrayEquals(expected, p.parseLine(ln));
+    CsvRecord record = p.parseLine(ln, new CsvRecord());
+    assertEquals(expected.length, record.size());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], record.get(i));
+    }
+    LazyCsvRecord lazy = p.parseLazy(ln, new LazyCsvRecord());
+    assertEquals(expected.length, lazy.size());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], lazy.get(i));
+    }
+  }
+
+  @Test
+  public void builderReturnsRfc4180Parser() {
+    assertEquals(Rfc4180CsvParser.class, parser.getClass());
+    assertEquals(Rfc4180CsvParser.class, new CsvParserBuilder().rfc4180(true).columns(1).build().getClass());
+    assertEquals(Rfc4180CsvParser.class, new CsvParserBuilder(parser).build().getClass());
+    assertEquals(InPlaceCsvParser.class, new CsvParserBuilder().rfc4180(false).build().getClass());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void strictQuotesIsNotSupported() {
+    new CsvParserBuilder().rfc4180(true).strictQuotes(true).build();
+  }
+
+  @Test
+  public void unquotedFields() {
+    assertParsed(parser, "a,b,c", "a", "b", "c");
+    assertParsed(parser, "1, 2 ,3 ", "1", " 2 ", "3 ");
+    assertParsed(parser, "", "");
+    assertParsed(parser, ",", "", "");
+    assertParsed(parser, "a,,", "a", "", "");
+  }
+
+  @Test
+  public void doubledQuotesInQuotedFields() {
+    assertParsed(parser, "\"Stan \"\"The Man\"\"\"", "Stan \"The Man\"");
+    assertParsed(parser, "\"a,b\",\"\"\"\",\"\"", "a,b", "\"", "");
+    assertParsed(parser, "x,\"\"\"quoted\"\" at both ends\"\"\",y", "x", "\"quoted\" at both ends\"", "y");
+  }
+
+  @Test
+  public void backslashIsAnOrdinaryChar() {
+    assertParsed(parser, "\"a\\\",b\\n", "a\\", "b\\n");
+  }
+
+  @Test
+  public void quotesInUnquotedFieldsAreOrdinary() {
+    assertParsed(parser, "ab\"c,d\"", "ab\"c", "d\"");
+    assertParsed(parser, " \"a\",b", " \"a\"", "b");
+  }
+
+  @Test
+  public void charsAfterClosingQuoteAreKept() {
+    assertParsed(parser, "\"a\"b,c", "ab", "c");
+    assertParsed(parser, "\"a\" ,c", "a ", "c");
+  }
+
+  @Test
+  public void unterminatedQuotedField() {
+    try {
+      parser.parseLine("a,\"bc");
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("Un-terminated"));
+    }
+    CsvParser p = new CsvParserBuilder().rfc4180(true).allowUnbalancedQuotes(true).build();
+    assertParsed(p, "a,\"b\"\"c", "a", "b\"c");
+  }
+
+  @Test
+  public void trimWhitespace() {
+    CsvParser p = new CsvParserBuilder().rfc4180(true).trimWhitespace(true).build();
+    assertParsed(p, " a ,\t b\t", "a", "b");
+    assertParsed(p, "  \" a \"  , \"x\"\"y\" ", " a ", "x\"y");
+    assertParsed(p, "   ,", "", "");
+  }
+
+  @Test
+  public void retainOuterQuotes() {
+    CsvParser p = new CsvParserBuilder().rfc4180(true).retainOuterQuotes(true).build();
+    assertParsed(p, "\"a\"\"b\",c,\"\"", "\"a\"b\"", "c", "\"\"");
+  }
+
+  @Test
+  public void alwaysQuoteOutput() {
+    CsvParser p = new CsvParserBuilder().rfc4180(true).alwaysQuoteOutput(true).build();
+    assertParsed(p, "a,\"b\",,\"c\"\"d\"", "\"a\"", "\"b\"", "", "\"c\"d\"");
+    p = new CsvParserBuilder().rfc4180(true).alwaysQuoteOutput(true).trimWhitespace(true).build();
+    assertParsed(p, " a , \"b\" ", "\"a\"", "\"b\"");
+  }
+
+  @Test
+  public void otherSeparatorAndQuoteChar() {
+    CsvParser p = new CsvParserBuilder().rfc4180(true).separator(';').quoteChar('\'').build();
+    assertParsed(p, "'it''s';\"x\";'a;b'", "it's", "\"x\"", "a;b");
+  }
+
+  @Test
+  public void columnProjection() {
+    CsvParser p = new CsvParserBuilder().rfc4180(true).columns(1, 3).build();
+    assertParsed(p, "\"a,\"\"x\",b,c,\"d,e\",f", "b", "d,e");
+    assertParsed(p, "a,b", "b");
+    // the rest of the line is not scanned after the last wanted column
+    assertParsed(p, "a,b,c,d,\"unterminated", "b", "d");
+  }
+
+  /**
+   * Writes random fields in RFC 4180 form and checks that they parse back.
+   */
+  @Test
+  public void randomFieldsRoundTrip() {
+    Random rnd = new Random(4180);
+    String alphabet = "ab ,\"\\\né";
+    StringBuilder ln = new StringBuilder();
+    for (int n = 0; n < 2000; n++) {
+      List<String> fields = new ArrayList<String>();
+      ln.setLength(0);
+      int numFields = 1 + rnd.nextInt(6);
+      for (int i = 0; i < numFields; i++) {
+        StringBuilder field = new StringBuilder();
+        int len = rnd.nextInt(8);
+        for (int k = 0; k < len; k++) {
+          field.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+        }
+        String f = field.toString();
+        fields.add(f);
+        if (i > 0) {
+          ln.append(',');
+        }
+        if (f.indexOf(',') >= 0 || f.indexOf('"') >= 0 || rnd.nextBoolean()) {
+          ln.append('"').append(f.replace("\"", "\"\"")).append('"');
+        } else {
+          ln.append(f);
+        }
+      }
+      assertParsed(parser, ln.toString(), fields.toArray(new String[fields.size()]));
+    }
+  }
+
+  @Test
+  public void endsInQuotes() {
+    assertTrue(parser.endsInQuotes("a,\"b", false));
+    assertTrue(parser.endsInQuotes("a,\"b\"\"", false));
+    assertFalse(parser.endsInQuotes("a,\"b\"\"\"", false));
+    assertFalse(parser.endsInQuotes("a,b\"c", false));
+    assertFalse(parser.endsInQuotes("c\",d", true));
+    assertTrue(parser.endsInQuotes("c\"\",d", true));
+    assertTrue(parser.endsInQuotes("c\",\"d", true));
+    CsvParser p = new CsvParserBuilder().rfc4180(true).trimWhitespace(true).build();
+    assertTrue(p.endsInQuotes("a,  \"b", false));
+  }
+
+  /**
+   * endsInQuotes must agree with the parser: a line ends in quotes exactly when
+   * parsing it fails for an un-terminated quoted field, and scanning a line on
+   * from the state of the lines before it gives the same answer as scanning
+   * all the lines joined.
+   */
+  @Test
+  public void endsInQuotesAgreesWithParser() {
+    CsvParser[] parsers = {parser, new CsvParserBuilder().rfc4180(true).trimWhitespace(true).build()};
+    Random rnd = new Random(13);
+    for (CsvParser p : parsers) {
+      for (int n = 0; n < 2000; n++) {
+        String first = CsvParserTest.randomLine(rnd, "a ,\"");
+        String second = CsvParserTest.randomLine(rnd, "a ,\"");
+        boolean inQuotes = p.endsInQuotes(first, false);
+        boolean unterminated = false;
+        try {
+          p.parseLine(first);
+        } catch (IllegalArgumentException e) {
+          unterminated = true;
+        }
+        assertEquals(first, unterminated, inQuotes);
+        if (inQuotes) {
+          assertEquals(first + "\n" + second, p.endsInQuotes(first + "\n" + second, false),
+              p.endsInQuotes(second, true));
+        }
+      }
+    }
+  }
+}
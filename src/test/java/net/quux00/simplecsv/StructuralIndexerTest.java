@@ -0,0 +1,57 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class StructuralIndexerTest {
+
+  @Test
+  public void scalarIndexerFindsSpecialChars() {
+    CsvParser p = new CsvParserBuilder().build();
+    char[] buf = "ab,\"c\\d\",e".toCharArray();
+    int[] idx = new int[buf.length];
+    int n = new StructuralIndexer(p).index(buf, 0, buf.length, idx);
+    assertArrayEquals(new int[] {2, 3, 5, 7, 8}, Arrays.copyOf(idx, n));
+
+    n = new StructuralIndexer(p).index(buf, 3, 8, idx);
+    assertArrayEquals(new int[] {3, 5, 7}, Arrays.copyOf(idx, n));
+  }
+
+  @Test
+  public void createdIndexerFindsSameCharsAsScalarIndexer() {
+    Random rnd = new Random(7);
+    String alphabet = "abc ,;\"'\\é中\0";
+    CsvParser[] parsers = {
+      new CsvParserBuilder().build(),
+      new CsvParserBuilder().escapeChar(CsvParser.NULL_CHARACTER).build(),
+      new CsvParserBuilder().separator(';').quoteChar('\'').build(),
+      new CsvParserBuilder().separator('é').quoteChar('中').build()
+    };
+
+    for (CsvParser p : parsers) {
+      StructuralIndexer scalar = new StructuralIndexer(p);
+      StructuralIndexer created = StructuralIndexer.create(p);
+      if (StructuralIndexer.isVectorAvailable()) {
+        assertTrue(created.getClass().getSimpleName().equals("VectorStructuralIndexer"));
+      }
+      for (int i = 0; i < 500; i++) {
+        char[] buf = new char[rnd.nextInt(300)];
+        for (int j = 0; j < buf.length; j++) {
+          buf[j] = rnd.nextInt(4) == 0 ? alphabet.charAt(rnd.nextInt(alphabet.length())) : 'x';
+        }
+        int from = buf.length == 0 ? 0 : rnd.nextInt(buf.length);
+        int[] expected = new int[buf.length];
+        int[] actual = new int[buf.length];
+        int n = scalar.index(buf, from, buf.length, expected);
+        assertEquals(n, created.index(buf, from, buf.length, actual));
+        assertArrayEquals(Arrays.copyOf(expected, n), Arrays.copyOf(actual, n));
+      }
+    }
+  }
+}
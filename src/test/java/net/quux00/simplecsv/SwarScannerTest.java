@@ -0,0 +1,66 @@
+package net.quux00.simplecsv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SwarScannerTest {
+
+  @Test
+  public void zeroBytesFlagsExactlyTheZeroBytes() {
+    assertEquals(0x8080808080808080L, SwarScanner.zeroBytes(0L));
+    assertEquals(0L, SwarScanner.zeroBytes(0x0101010101010101L));
+    assertEquals(0x0000000000008000L, SwarScanner.zeroBytes(0x0101010101010001L));
+    // 0x80 and 0x01 next to a zero byte must not be flagged (no borrow between bytes)
+    assertEquals(0x0000000000800000L, SwarScanner.zeroBytes(0x8080808080000180L));
+  }
+
+  @Test
+  public void indexOfFindsFirstTargetByte() {
+    SwarScanner sc = new SwarScanner((byte) ',', (byte) '"', (byte) '\\', (byte) '\n');
+    byte[] buf = "abcdefghijklmnop,q\"r".getBytes(StandardCharsets.US_ASCII);
+    ByteBuffer words = SwarScanner.words(buf);
+    assertEquals(16, sc.indexOf(buf, words, 0, buf.length));
+    assertEquals(18, sc.indexOf(buf, words, 17, buf.length));
+    assertEquals(10, sc.indexOf(buf, words, 3, 10));
+    assertTrue(sc.isTarget((byte) '\n'));
+    assertFalse(sc.isTarget((byte) 'a'));
+  }
+
+  @Test
+  public void multiByteCharsNeverMatch() {
+    SwarScanner sc = new SwarScanner((byte) ',');
+    byte[] buf = "éééééé中中中中,".getBytes(StandardCharsets.UTF_8);
+    assertEquals(buf.length - 1, sc.indexOf(buf, SwarScanner.words(buf), 0, buf.length));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void targetsMustBeAscii() {
+    new SwarScanner((byte) 0xe9);
+  }
+
+  @Test
+  public void indexOfAgreesWithByteByByteSearch() {
+    Random rnd = new Random(3);
+    byte[] alphabet = {'a', ',', ';', '\n', '\r', 0, 1, (byte) 0x80, (byte) 0xac, (byte) 0xff, 0x7f};
+    SwarScanner sc = new SwarScanner((byte) ';', (byte) '\n', (byte) 0);
+    for (int i = 0; i < 2000; i++) {
+      byte[] buf = new byte[rnd.nextInt(40)];
+      for (int j = 0; j < buf.length; j++) {
+        buf[j] = alphabet[rnd.nextInt(alphabet.length)];
+      }
+      int from = buf.length == 0 ? 0 : rnd.nextInt(buf.length);
+      int expected = from;
+      while (expected < buf.length && buf[expected] != ';' && buf[expected] != '\n' && buf[expected] != 0) {
+        expected++;
+      }
+      assertEquals(expected, sc.indexOf(buf, SwarScanner.words(buf), from, buf.length));
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package net.quux00.simplecsv.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class BeanAccessorsTest {
+
+  /**
+   * Not public, so its methods can only be called reflectively.
+   */
+  static class HiddenBean {
+    private int num;
+
+    public int getNum() {
+      return num;
+    }
+
+    public void setNum(int num) {
+      if (num < 0) {
+        throw new IllegalStateException("negative");
+      }
+      this.num = num;
+    }
+  }
+
+  public static class NoDefaultConstructor {
+    public NoDefaultConstructor(String s) {
+    }
+  }
+
+  @Test
+  public void generatesAccessorsForPublicBean() throws Exception {
+    BiConsumer<Object, Object> setNum = BeanAccessors.setter(MockBean.class.getMethod("setNum", int.class));
+    Function<Object, Object> getNum = BeanAccessors.getter(MockBean.class.getMethod("getNum"));
+    BiConsumer<Object, Object> setName = BeanAccessors.setter(MockBean.class.getMethod("setName", String.class));
+    Function<Object, Object> getName = BeanAccessors.getter(MockBean.class.getMethod("getName"));
+    assertTrue(setNum.getClass().isSynthetic());
+    assertTrue(getNum.getClass().isSynthetic());
+    assertTrue(BeanAccessors.constructor(MockBean.class).getClass().isSynthetic());
+
+    MockBean bean = (MockBean) BeanAccessors.constructor(MockBean.class).get();
+    setNum.accept(bean, 42);
+    setName.accept(bean, "kyle");
+    assertEquals(42, bean.getNum());
+    assertEquals(42, getNum.apply(bean));
+    assertEquals("kyle", getName.apply(bean));
+
+    // made once per method
+    assertSame(setNum, BeanAccessors.setter(MockBean.class.getMethod("setNum", int.class)));
+  }
+
+  @Test
+  public void callsMethodsOfHiddenBeanReflectively() throws Exception {
+    BiConsumer<Object, Object> setNum = BeanAccessors.setter(HiddenBean.class.getMethod("setNum", int.class));
+    Function<Object, Object> getNum = BeanAccessors.getter(HiddenBean.class.getMethod("getNum"));
+    assertFalse(setNum.getClass().isSynthetic());
+    assertNull(BeanAccessors.constructor(HiddenBean.class));
+
+    HiddenBean bean = new HiddenBean();
+    setNum.accept(bean, 7);
+    assertEquals(7, getNum.apply(bean));
+    try {
+      setNum.accept(bean, -1);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // thrown as it is, not as an InvocationTargetException
+      assertEquals("negative", e.getMessage());
+    }
+  }
+
+  @Test
+  public void exceptionFromGeneratedSetterIsPassedOn() throws Exception {
+    BiConsumer<Object, Object> setNum = BeanAccessors.setter(MockBean.class.getMethod("setNum", int.class));
+    try {
+      setNum.accept(new MockBean(), "not an int");
+      fail("expected ClassCastException");
+    } catch (ClassCastException e) {
+      // the generated code casts the value to the setter's type
+    }
+  }
+
+  @Test(expected = InstantiationException.class)
+  public void createBeanWithoutNoArgConstructor() throws Exception {
+    assertNull(BeanAccessors.constructor(NoDefaultConstructor.class));
+    HeaderColumnNameMappingStrategy<NoDefaultConstructor> strategy =
+        new HeaderColumnNameMappingStrategy<NoDefaultConstructor>();
+    strategy.setType(NoDefaultConstructor.class);
+    strategy.createBean();
+  }
+
+  @Test
+  public void createBeanFollowsTheType() throws Exception {
+    HeaderColumnNameMappingStrategy<Object> strategy = new HeaderColumnNameMappingStrategy<Object>();
+    strategy.setType(Object.class);
+    assertEquals(Object.class, strategy.createBean().getClass());
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    HeaderColumnNameMappingStrategy<MockBean> same = (HeaderColumnNameMappingStrategy) strategy;
+    same.setType(MockBean.class);
+    assertEquals(MockBean.class, same.createBean().getClass());
+  }
+}
@@ -0,0 +1,118 @@
+package net.quux00.simplecsv.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import net.quux00.simplecsv.CsvReader;
+import net.quux00.simplecsv.bean.CsvToBeanTest.TypedBean;
+
+import org.junit.Test;
+
+public class BeanPipelineTest {
+
+  private static String text(int rows, int badRow) {
+    Random rnd = new Random(25);
+    StringBuilder sb = new StringBuilder("id,amount,date,status,rate\n");
+    for (int i = 0; i < rows; i++) {
+      sb.append(i).append(',').append(rnd.nextInt(100000)).append('.').append(rnd.nextInt(100))
+        .append(",2014-03-").append(10 + rnd.nextInt(20)).append(',')
+        .append(rnd.nextBoolean() ? "OPEN" : "CLOSED").append(',')
+        .append(i == badRow ? "fast" : Double.toString(rnd.nextDouble())).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static HeaderColumnNameMappingStrategy<TypedBean> strategy() {
+    HeaderColumnNameMappingStrategy<TypedBean> strategy = new HeaderColumnNameMappingStrategy<TypedBean>();
+    strategy.setType(TypedBean.class);
+    return strategy;
+  }
+
+  private static void assertSameBeans(List<TypedBean> expected, List<TypedBean> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      TypedBean e = expected.get(i);
+      TypedBean a = actual.get(i);
+      assertEquals(e.getId(), a.getId());
+      assertEquals(e.getAmount(), a.getAmount());
+      assertEquals(e.getDate(), a.getDate());
+      assertEquals(e.getStatus(), a.getStatus());
+      assertEquals(e.getRate(), a.getRate(), 0.0);
+    }
+  }
+
+  @Test
+  public void orderedMapsSameBeansAsSequential() {
+    String text = text(10000, -1);
+    List<TypedBean> expected = new CsvToBean<TypedBean>().parse(strategy(), new StringReader(text));
+    for (int threads = 1; threads <= 4; threads++) {
+      List<TypedBean> actual = new CsvToBean<TypedBean>().parse(strategy(), new CsvReader(new StringReader(text)), threads);
+      assertSameBeans(expected, actual);
+    }
+  }
+
+  @Test
+  public void unorderedMapsSameBeansInSomeOrder() {
+    String text = text(10000, -1);
+    List<TypedBean> expected = new CsvToBean<TypedBean>().parse(strategy(), new StringReader(text));
+    final List<TypedBean> actual = new ArrayList<TypedBean>();
+    long n = new CsvToBean<TypedBean>().parse(strategy(), new CsvReader(new StringReader(text)), new Consumer<TypedBean>() {
+      public void accept(TypedBean bean) {
+        actual.add(bean);
+      }
+    }, 3, false);
+    assertEquals(10000, n);
+    Collections.sort(actual, new Comparator<TypedBean>() {
+      public int compare(TypedBean a, TypedBean b) {
+        return a.getId().compareTo(b.getId());
+      }
+    });
+    assertSameBeans(expected, actual);
+  }
+
+  @Test
+  public void emptyInput() {
+    assertTrue(new CsvToBean<TypedBean>().parse(strategy(), new CsvReader(new StringReader("id\n")), 2).isEmpty());
+  }
+
+  @Test
+  public void failedMappingIsThrown() {
+    try {
+      new CsvToBean<TypedBean>().parse(strategy(), new CsvReader(new StringReader(text(5000, 3000))), 2);
+      fail("expected RuntimeException");
+    } catch (RuntimeException e) {
+      assertEquals("Error parsing CSV!", e.getMessage());
+      assertTrue(e.getCause().toString(), e.getCause() instanceof NumberFormatException);
+    }
+  }
+
+  @Test
+  public void exceptionFromActionIsPassedOn() {
+    try {
+      new CsvToBean<TypedBean>().parse(strategy(), new CsvReader(new StringReader(text(5000, -1))), new Consumer<TypedBean>() {
+        public void accept(TypedBean bean) {
+          if (bean.getId() == 2500) {
+            throw new IllegalStateException("stop");
+          }
+        }
+      }, 2, true);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("stop", e.getMessage());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void threadsMustBePositive() {
+    new CsvToBean<TypedBean>().parse(strategy(), new CsvReader(new StringReader("id\n")), 0);
+  }
+}
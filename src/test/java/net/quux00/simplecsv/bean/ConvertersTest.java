@@ -0,0 +1,132 @@
+package net.quux00.simplecsv.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.beans.PropertyEditorSupport;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConvertersTest {
+
+  private static Object convert(Class<?> type, CharSequence field) {
+    return Converters.builtIn(type).convert(field);
+  }
+
+  private static void assertFails(Class<?> type, String field) {
+    try {
+      convert(type, field);
+      fail("expected an exception for " + type.getSimpleName() + " \"" + field + "\"");
+    } catch (RuntimeException e) {
+      // NumberFormatException, DateTimeParseException, ...
+    }
+  }
+
+  @Test
+  public void integers() {
+    assertEquals(123, convert(int.class, "123"));
+    assertEquals(-7, convert(Integer.class, "-7"));
+    assertEquals(7, convert(int.class, "+7"));
+    assertEquals(10, convert(int.class, "010"));  // not octal, as Integer.decode has it
+    assertEquals(Integer.MIN_VALUE, convert(int.class, "-2147483648"));
+    assertEquals(Long.MAX_VALUE, convert(long.class, "9223372036854775807"));
+    assertEquals(Long.MIN_VALUE, convert(Long.class, "-9223372036854775808"));
+    assertEquals((short) -300, convert(short.class, "-300"));
+    assertEquals((byte) 100, convert(Byte.class, "100"));
+    assertFails(int.class, "2147483648");
+    assertFails(byte.class, "128");
+    assertFails(int.class, "1.5");
+    assertFails(long.class, "-");
+    assertFails(int.class, "0x10");
+  }
+
+  @Test
+  public void emptyFieldIsNullForWrappersOnly() {
+    assertNull(convert(Integer.class, ""));
+    assertNull(convert(Long.class, ""));
+    assertNull(convert(Double.class, ""));
+    assertNull(convert(Boolean.class, ""));
+    assertNull(convert(Character.class, ""));
+    assertNull(convert(BigDecimal.class, ""));
+    assertNull(convert(LocalDate.class, ""));
+    assertNull(convert(TimeUnit.class, ""));
+    assertEquals("", convert(String.class, ""));
+    assertFails(int.class, "");
+    assertFails(double.class, "");
+    assertFails(boolean.class, "");
+    assertFails(char.class, "");
+  }
+
+  @Test
+  public void decimals() {
+    assertEquals(1.5, convert(double.class, "1.5"));
+    assertEquals(-2e10, convert(Double.class, "-2e10"));
+    assertEquals(0.25f, convert(float.class, "0.25"));
+    assertEquals(new BigDecimal("12345678901234567890.123"), convert(BigDecimal.class, "12345678901234567890.123"));
+    assertEquals(new BigInteger("-12345678901234567890"), convert(BigInteger.class, "-12345678901234567890"));
+    assertFails(double.class, "one");
+    assertFails(BigDecimal.class, "1,5");
+  }
+
+  @Test
+  public void booleansAndChars() {
+    assertEquals(true, convert(boolean.class, "true"));
+    assertEquals(true, convert(Boolean.class, "TRUE"));
+    assertEquals(false, convert(boolean.class, "False"));
+    assertFails(boolean.class, "yes");
+    assertEquals('x', convert(char.class, "x"));
+    assertFails(char.class, "xy");
+  }
+
+  @Test
+  public void enums() {
+    assertSame(TimeUnit.SECONDS, convert(TimeUnit.class, "SECONDS"));
+    assertFails(TimeUnit.class, "seconds");
+  }
+
+  @Test
+  public void times() {
+    assertEquals(LocalDate.of(2014, 3, 9), convert(LocalDate.class, "2014-03-09"));
+    assertEquals(LocalTime.of(10, 15, 30), convert(LocalTime.class, "10:15:30"));
+    assertEquals(LocalDateTime.of(2014, 3, 9, 10, 15), convert(LocalDateTime.class, "2014-03-09T10:15"));
+    assertEquals(OffsetDateTime.of(2014, 3, 9, 10, 15, 0, 0, ZoneOffset.ofHours(1)),
+        convert(OffsetDateTime.class, "2014-03-09T10:15+01:00"));
+    assertEquals(ZonedDateTime.of(2014, 3, 9, 10, 15, 0, 0, ZoneOffset.UTC), convert(ZonedDateTime.class, "2014-03-09T10:15Z"));
+    assertEquals(Instant.ofEpochSecond(86400), convert(Instant.class, "1970-01-02T00:00:00Z"));
+    assertEquals(Duration.ofMinutes(90), convert(Duration.class, "PT1H30M"));
+    assertFails(LocalDate.class, "09/03/2014");
+  }
+
+  @Test
+  public void parsesFromAnyCharSequence() {
+    StringBuilder sb = new StringBuilder("42");
+    assertEquals(42, convert(int.class, sb));
+    assertEquals(LocalDate.of(2014, 3, 9), convert(LocalDate.class, new StringBuilder("2014-03-09")));
+  }
+
+  @Test
+  public void noBuiltInForOtherTypes() {
+    assertNull(Converters.builtIn(Object.class));
+    assertNull(Converters.builtIn(StringBuilder.class));
+    PropertyEditorSupport editor = new PropertyEditorSupport() {
+      @Override
+      public void setAsText(String text) {
+        setValue(new StringBuilder(text).reverse());
+      }
+    };
+    assertEquals("cba", Converters.fromEditor(editor).convert("abc").toString());
+  }
+}
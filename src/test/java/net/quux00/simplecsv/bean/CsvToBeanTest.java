@@ -1,9 +1,26 @@
 package net.quux00.simplecsv.bean;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
+import java.beans.PropertyEditor;
+import java.beans.PropertyEditorSupport;
 import java.io.IOException;
 import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import net.quux00.simplecsv.CsvReader;
 import net.quux00.simplecsv.bean.CsvToBean;
@@ -45,4 +62,286 @@ public class CsvToBeanTest {
     CsvToBean<Object> bean = new CsvToBean<Object>();
     bean.parse(createErrorMappingStrategy(), createReader());
   }
+
+  /**
+   * Counts the descriptors looked up.
+   */
+  private static class CountingStrategy extends HeaderColumnNameMappingStrategy<MockBean> {
+    int lookups;
+
+    CountingStrategy() {
+      setType(MockBean.class);
+    }
+
+    @Override
+    public PropertyDescriptor findDescriptor(int col) throws IntrospectionException {
+      lookups++;
+      return super.findDescriptor(col);
+    }
+  }
+
+  @Test
+  public void looksUpEachColumnOnce() {
+    CountingStrategy strategy = new CountingStrategy();
+    List<MockBean> beans = new CsvToBean<MockBean>().parse(strategy, createReader());
+    assertEquals(2, beans.size());
+    assertEquals("kyle", beans.get(0).getName());
+    assertEquals("abc123456", beans.get(0).getOrderNumber());
+    assertEquals(123, beans.get(0).getNum());
+    assertEquals(456, beans.get(1).getNum());  // "456 " is trimmed for the int
+    assertEquals(3, strategy.lookups);
+  }
+
+  @Test
+  public void mapsColumnsOfEachParseByItsOwnHeader() {
+    CsvToBean<MockBean> csvToBean = new CsvToBean<MockBean>();
+    CountingStrategy strategy = new CountingStrategy();
+    csvToBean.parse(strategy, createReader());
+    List<MockBean> beans = csvToBean.parse(strategy, new CsvReader(new StringReader("num,id\n7,x,extra\n")));
+    assertEquals(7, beans.get(0).getNum());
+    assertEquals("x", beans.get(0).getId());
+    assertNull(beans.get(0).getName());
+    assertEquals(6, strategy.lookups);
+  }
+
+  public enum Status {
+    OPEN, CLOSED
+  }
+
+  public static class TypedBean {
+    private Long id;
+    private BigDecimal amount;
+    private LocalDate date;
+    private Status status;
+    private double rate;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public double getRate() { return rate; }
+    public void setRate(double rate) { this.rate = rate; }
+  }
+
+  private static HeaderColumnNameMappingStrategy<TypedBean> typedStrategy() {
+    HeaderColumnNameMappingStrategy<TypedBean> strategy = new HeaderColumnNameMappingStrategy<TypedBean>();
+    strategy.setType(TypedBean.class);
+    return strategy;
+  }
+
+  @Test
+  public void convertsWithBuiltInConverters() {
+    List<TypedBean> beans = new CsvToBean<TypedBean>().parse(typedStrategy(), new StringReader(
+        "id,amount,date,status,rate\n" +
+        "1, 12.50 ,2014-03-09,OPEN,0.5\n" +
+        ",0,2014-03-10,CLOSED,1e-3\n"));
+    assertEquals(Long.valueOf(1), beans.get(0).getId());
+    assertEquals(new BigDecimal("12.50"), beans.get(0).getAmount());
+    assertEquals(LocalDate.of(2014, 3, 9), beans.get(0).getDate());
+    assertSame(Status.OPEN, beans.get(0).getStatus());
+    assertEquals(0.5, beans.get(0).getRate(), 0.0);
+    assertNull(beans.get(1).getId());
+    assertSame(Status.CLOSED, beans.get(1).getStatus());
+  }
+
+  @Test
+  public void registeredConverterTakesPrecedence() {
+    CsvToBean<TypedBean> csvToBean = new CsvToBean<TypedBean>();
+    csvToBean.registerConverter(LocalDate.class, new FieldConverter<LocalDate>() {
+      public LocalDate convert(CharSequence field) {
+        String s = field.toString();  // dd/MM/yyyy
+        return LocalDate.of(Integer.parseInt(s.substring(6)), Integer.parseInt(s.substring(3, 5)),
+            Integer.parseInt(s.substring(0, 2)));
+      }
+    });
+    List<TypedBean> beans = csvToBean.parse(typedStrategy(), new StringReader("date\n09/03/2014\n"));
+    assertEquals(LocalDate.of(2014, 3, 9), beans.get(0).getDate());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void fieldThatDoesNotConvertFailsTheParse() {
+    new CsvToBean<TypedBean>().parse(typedStrategy(), new StringReader("rate\nfast\n"));
+  }
+
+  /**
+   * Reads dates as dd/MM/yyyy and counts the fields it converts.
+   */
+  private static class DayFirstCsvToBean extends CsvToBean<TypedBean> {
+    final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    protected Object convertValue(String value, PropertyDescriptor prop) throws InstantiationException, IllegalAccessException {
+      calls.incrementAndGet();
+      if (prop.getPropertyType() == LocalDate.class) {
+        return LocalDate.of(Integer.parseInt(value.substring(6)), Integer.parseInt(value.substring(3, 5)),
+            Integer.parseInt(value.substring(0, 2)));
+      }
+      return super.convertValue(value, prop);
+    }
+  }
+
+  @Test
+  public void overriddenConvertValueConvertsEachField() {
+    String text = "id,date,rate\n1,09/03/2014, 0.5\n2,10/03/2014,1\n";
+    DayFirstCsvToBean csvToBean = new DayFirstCsvToBean();
+    List<TypedBean> beans = csvToBean.parse(typedStrategy(), new StringReader(text));
+    assertEquals(LocalDate.of(2014, 3, 9), beans.get(0).getDate());
+    assertEquals(LocalDate.of(2014, 3, 10), beans.get(1).getDate());
+    assertEquals(Long.valueOf(2), beans.get(1).getId());
+    assertEquals(0.5, beans.get(0).getRate(), 0.0);  // trimmed before convertValue
+    assertEquals(6, csvToBean.calls.get());
+
+    beans = csvToBean.parse(typedStrategy(), new CsvReader(new StringReader(text)), 2);
+    assertEquals(LocalDate.of(2014, 3, 10), beans.get(1).getDate());
+    assertEquals(12, csvToBean.calls.get());
+  }
+
+  /**
+   * Reads rates as percentages and counts the editors asked for.
+   */
+  private static class PercentCsvToBean extends CsvToBean<TypedBean> {
+    final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    protected PropertyEditor getPropertyEditor(PropertyDescriptor desc) throws InstantiationException, IllegalAccessException {
+      calls.incrementAndGet();
+      if (desc.getPropertyType() == double.class) {
+        return new PropertyEditorSupport() {
+          @Override
+          public void setAsText(String text) {
+            setValue(Double.parseDouble(text.substring(0, text.length() - 1)) / 100);
+          }
+        };
+      }
+      return super.getPropertyEditor(desc);
+    }
+  }
+
+  @Test
+  public void overriddenGetPropertyEditorIsPreferredToConverters() {
+    PercentCsvToBean csvToBean = new PercentCsvToBean();
+    csvToBean.registerConverter(double.class, new FieldConverter<Double>() {
+      public Double convert(CharSequence field) {
+        throw new AssertionError("the overridden editor is used");
+      }
+    });
+    List<TypedBean> beans = csvToBean.parse(typedStrategy(), new StringReader("rate,status\n50%,OPEN\n 5%,CLOSED\n"));
+    assertEquals(0.5, beans.get(0).getRate(), 0.0);
+    assertEquals(0.05, beans.get(1).getRate(), 1e-15);
+    assertSame(Status.CLOSED, beans.get(1).getStatus());  // the default editor for an enum
+    assertEquals(4, csvToBean.calls.get());  // asked for each field
+  }
+
+  /**
+   * Counts the beans made.
+   */
+  private static class CountingBeansStrategy extends HeaderColumnNameMappingStrategy<MockBean> {
+    int beans;
+
+    CountingBeansStrategy() {
+      setType(MockBean.class);
+    }
+
+    @Override
+    public MockBean createBean() throws InstantiationException, IllegalAccessException {
+      beans++;
+      return super.createBean();
+    }
+  }
+
+  /**
+   * Notes whether it was closed.
+   */
+  private static class ClosingReader extends StringReader {
+    boolean closed;
+
+    ClosingReader(String s) {
+      super(s);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      super.close();
+    }
+  }
+
+  @Test
+  public void iteratorMapsOneRecordAtATimeAndClosesAtTheEnd() {
+    ClosingReader in = new ClosingReader(TEST_STRING);
+    CountingBeansStrategy strategy = new CountingBeansStrategy();
+    BeanIterator<MockBean> it = new CsvToBean<MockBean>().iterator(strategy, new CsvReader(in));
+    assertEquals(0, strategy.beans);
+    assertTrue(it.hasNext());
+    assertEquals("kyle", it.next().getName());
+    assertEquals(1, strategy.beans);
+    assertEquals(456, it.next().getNum());
+    assertFalse(in.closed);
+    assertFalse(it.hasNext());
+    assertTrue(in.closed);
+    assertEquals(2, strategy.beans);
+  }
+
+  @Test
+  public void closingIteratorClosesReader() {
+    ClosingReader in = new ClosingReader(TEST_STRING);
+    BeanIterator<MockBean> it = new CsvToBean<MockBean>().iterator(new CountingBeansStrategy(), new CsvReader(in));
+    it.next();
+    it.close();
+    assertTrue(in.closed);
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void streamMapsRecordsAndClosesReader() {
+    ClosingReader in = new ClosingReader(TEST_STRING);
+    List<MockBean> beans;
+    try (Stream<MockBean> stream = new CsvToBean<MockBean>().stream(new CountingBeansStrategy(), new CsvReader(in))) {
+      beans = stream.collect(Collectors.<MockBean>toList());
+    }
+    assertEquals(2, beans.size());
+    assertEquals("jimmy", beans.get(1).getName());
+    assertTrue(in.closed);
+  }
+
+  @Test
+  public void streamIsLazy() {
+    CountingBeansStrategy strategy = new CountingBeansStrategy();
+    try (Stream<MockBean> beans = new CsvToBean<MockBean>().stream(strategy, createReader())) {
+      assertEquals("kyle", beans.findFirst().get().getName());
+    }
+    assertEquals(1, strategy.beans);
+  }
+
+  @Test
+  public void consumerGetsEachBeanAndReaderStaysOpen() {
+    ClosingReader in = new ClosingReader(TEST_STRING);
+    final List<MockBean> beans = new ArrayList<MockBean>();
+    long n = new CsvToBean<MockBean>().parse(new CountingBeansStrategy(), new CsvReader(in), new Consumer<MockBean>() {
+      public void accept(MockBean bean) {
+        beans.add(bean);
+      }
+    });
+    assertEquals(2, n);
+    assertEquals("jimmy", beans.get(1).getName());
+    assertFalse(in.closed);
+  }
+
+  @Test
+  public void exceptionFromConsumerIsPassedOn() {
+    try {
+      new CsvToBean<MockBean>().parse(new CountingBeansStrategy(), createReader(), new Consumer<MockBean>() {
+        public void accept(MockBean bean) {
+          throw new IllegalStateException("stop");
+        }
+      });
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("stop", e.getMessage());
+    }
+  }
 }
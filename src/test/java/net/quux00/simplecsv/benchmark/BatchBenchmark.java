@@ -0,0 +1,81 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvBatch;
+import net.quux00.simplecsv.CsvReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading all the records into memory as a String[] each with
+ * reading them into CsvBatches of 4096 rows, the way a bulk loader would
+ * gather records to hand to its workers.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.BatchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+  @Param({"mixed", "numeric"})
+  public String data;
+
+  @Param({"readAll", "readBatch"})
+  public String method;
+
+  String text;
+
+  @Setup
+  public void setUp() {
+    text = data.equals("numeric") ? BenchmarkData.numericText(100000, 20) : BenchmarkData.text(100000, 20);
+  }
+
+  /**
+   * Reads the 100,000 lines of 20 columns into memory.
+   */
+  @Benchmark
+  public Object read() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader(text));
+    Object rows;
+    if (method.equals("readAll")) {
+      rows = reader.readAll();
+    } else {
+      List<CsvBatch> batches = new ArrayList<CsvBatch>();
+      CsvBatch batch;
+      while ((batch = reader.readBatch(4096)) != null) {
+        batches.add(batch);
+      }
+      rows = batches;
+    }
+    reader.close();
+    return rows;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BatchBenchmark.class.getSimpleName()).build()).run();
+  }
+}
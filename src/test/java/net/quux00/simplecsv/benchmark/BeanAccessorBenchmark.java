@@ -0,0 +1,176 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.beans.PropertyDescriptor;
+import java.beans.PropertyEditor;
+import java.beans.PropertyEditorManager;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvReader;
+import net.quux00.simplecsv.CsvWriter;
+import net.quux00.simplecsv.bean.BeanToCsv;
+import net.quux00.simplecsv.bean.CsvToBean;
+import net.quux00.simplecsv.bean.HeaderColumnNameMappingStrategy;
+import net.quux00.simplecsv.benchmark.BeanBenchmark.Row;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the cost per bean of calling its constructor, setters and getters
+ * reflectively (Class.newInstance and Method.invoke, as CsvToBean and
+ * BeanToCsv used to) with the accessors they now generate.  The rows of
+ * BeanBenchmark are read into String[]s up front, so only the mapping is
+ * measured, with the same PropertyEditors either way.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.BeanAccessorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeanAccessorBenchmark {
+
+  static final int ROWS = 1024;
+
+  /**
+   * Opens up processLine.
+   */
+  static class Mapper extends CsvToBean<Row> {
+    Row map(HeaderColumnNameMappingStrategy<Row> strategy, String[] line) throws Exception {
+      return processLine(strategy, line);
+    }
+  }
+
+  /**
+   * Discards what is written.
+   */
+  static class NullWriter extends Writer {
+    public void write(char[] cbuf, int off, int len) {
+    }
+
+    public void flush() {
+    }
+
+    public void close() {
+    }
+  }
+
+  String[][] lines;
+  List<Row> beans;
+  int next;
+
+  HeaderColumnNameMappingStrategy<Row> strategy;
+  Mapper mapper;
+
+  Method[] setters;
+  PropertyEditor[] editors;
+  boolean[] trim;
+  List<Method> getters;
+
+  @Setup
+  public void setUp() throws Exception {
+    BeanBenchmark data = new BeanBenchmark();
+    data.setUp();
+    CsvReader reader = new CsvReader(new StringReader(data.text));
+    String[] header = reader.readNext();
+    lines = new String[ROWS][];
+    for (int i = 0; i < ROWS; i++) {
+      lines[i] = reader.readNext();
+    }
+    strategy = new HeaderColumnNameMappingStrategy<Row>();
+    strategy.setType(Row.class);
+    strategy.captureHeader(new CsvReader(new StringReader(data.text)));
+    mapper = new Mapper();
+
+    setters = new Method[header.length];
+    editors = new PropertyEditor[header.length];
+    trim = new boolean[header.length];
+    getters = new ArrayList<Method>();
+    for (int c = 0; c < header.length; c++) {
+      PropertyDescriptor prop = strategy.findDescriptor(c);
+      setters[c] = prop.getWriteMethod();
+      editors[c] = PropertyEditorManager.findEditor(prop.getPropertyType());
+      trim[c] = !prop.getPropertyType().getName().contains("String");
+      getters.add(prop.getReadMethod());
+    }
+
+    beans = new ArrayList<Row>();
+    for (String[] line : lines) {
+      beans.add(mapper.map(strategy, line));
+    }
+  }
+
+  private String[] nextLine() {
+    next = (next + 1) & (ROWS - 1);
+    return lines[next];
+  }
+
+  @Benchmark
+  @SuppressWarnings("deprecation")
+  public Row mapReflective() throws Exception {
+    String[] line = nextLine();
+    Row bean = Row.class.newInstance();
+    for (int c = 0; c < line.length; c++) {
+      Object value = trim[c] ? line[c].trim() : line[c];
+      if (editors[c] != null) {
+        editors[c].setAsText((String) value);
+        value = editors[c].getValue();
+      }
+      setters[c].invoke(bean, value);
+    }
+    return bean;
+  }
+
+  @Benchmark
+  public Row mapGenerated() throws Exception {
+    return mapper.map(strategy, nextLine());
+  }
+
+  /**
+   * Writes the 1024 beans.
+   */
+  @Benchmark
+  public void writeReflective() throws Exception {
+    CsvWriter csv = new CsvWriter(new NullWriter());
+    for (Row bean : beans) {
+      String[] values = new String[getters.size()];
+      for (int i = 0; i < values.length; i++) {
+        Object value = getters.get(i).invoke(bean, (Object[]) null);
+        values[i] = value == null ? "null" : value.toString();
+      }
+      csv.writeNext(values);
+    }
+  }
+
+  /**
+   * Writes the 1024 beans.
+   */
+  @Benchmark
+  public boolean writeGenerated() {
+    return new BeanToCsv<Row>().write(strategy, new NullWriter(), beans);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BeanAccessorBenchmark.class.getSimpleName()).build()).run();
+  }
+}
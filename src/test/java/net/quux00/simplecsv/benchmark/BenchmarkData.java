@@ -0,0 +1,122 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generates repeatable CSV lines for the benchmarks: a mix of numbers,
+ * plain words, quoted text with separators in it and escaped quotes.
+ */
+public class BenchmarkData {
+
+  private static final String[] WORDS = {
+    "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel"
+  };
+
+  public static String[] lines(int numLines, int numColumns) {
+    return lines(numLines, numColumns, false);
+  }
+
+  /**
+   * @param rfc4180 if true, the quotes inside of fields are written as two quote
+   *        chars, as RFC 4180 has it, rather than escaped with a backslash; the
+   *        lines hold the same values either way
+   */
+  public static String[] lines(int numLines, int numColumns, boolean rfc4180) {
+    Random rnd = new Random(42);
+    String[] lines = new String[numLines];
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < numLines; i++) {
+      sb.setLength(0);
+      for (int col = 0; col < numColumns; col++) {
+        if (col > 0) {
+          sb.append(',');
+        }
+        switch (col % 4) {
+          case 0:
+            sb.append(rnd.nextInt(1000000));
+            break;
+          case 1:
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+            break;
+          case 2:
+            sb.append('"').append(WORDS[rnd.nextInt(WORDS.length)]).append(", ")
+              .append(WORDS[rnd.nextInt(WORDS.length)]).append(' ').append(rnd.nextDouble()).append('"');
+            break;
+          default:
+            if (rfc4180) {
+              sb.append("\" \"\"").append(WORDS[rnd.nextInt(WORDS.length)]).append("\"\" \"");
+            } else {
+              sb.append(" \\\"").append(WORDS[rnd.nextInt(WORDS.length)]).append("\\\" ");
+            }
+            break;
+        }
+      }
+      lines[i] = sb.toString();
+    }
+    return lines;
+  }
+
+  public static String text(int numLines, int numColumns) {
+    StringBuilder sb = new StringBuilder();
+    for (String ln : lines(numLines, numColumns)) {
+      sb.append(ln).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Lines of ints and decimals only, like a numeric feed.
+   */
+  public static String numericText(int numLines, int numColumns) {
+    Random rnd = new Random(42);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < numLines; i++) {
+      for (int col = 0; col < numColumns; col++) {
+        if (col > 0) {
+          sb.append(',');
+        }
+        if (col % 2 == 0) {
+          sb.append(rnd.nextInt(1000000));
+        } else {
+          sb.append(rnd.nextInt(100000)).append('.').append(rnd.nextInt(100));
+        }
+      }
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Lines of a few short columns plus one long quoted field of about
+   * payloadLength chars: either a JSON document with its quotes escaped
+   * or plain text without any special chars.
+   */
+  public static String[] wideLines(int numLines, int payloadLength, boolean json) {
+    Random rnd = new Random(42);
+    String[] lines = new String[numLines];
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < numLines; i++) {
+      sb.setLength(0);
+      sb.append(i).append(',').append(WORDS[rnd.nextInt(WORDS.length)]).append(",\"");
+      int start = sb.length();
+      if (json) {
+        sb.append('{');
+        for (int k = 0; sb.length() - start < payloadLength; k++) {
+          if (k > 0) {
+            sb.append(", ");
+          }
+          sb.append("\\\"").append(WORDS[rnd.nextInt(WORDS.length)]).append(k).append("\\\": ")
+            .append("\\\"").append(WORDS[rnd.nextInt(WORDS.length)]).append(' ').append(rnd.nextInt()).append("\\\"");
+        }
+        sb.append('}');
+      } else {
+        while (sb.length() - start < payloadLength) {
+          sb.append(WORDS[rnd.nextInt(WORDS.length)]).append(' ');
+        }
+      }
+      sb.append("\",").append(rnd.nextDouble());
+      lines[i] = sb.toString();
+    }
+    return lines;
+  }
+}
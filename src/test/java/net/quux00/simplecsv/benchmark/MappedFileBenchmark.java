@@ -0,0 +1,103 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvReader;
+import net.quux00.simplecsv.CsvReaderBuilder;
+import net.quux00.simplecsv.CsvRecord;
+import net.quux00.simplecsv.LazyCsvRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading a file through a FileReader with reading it from a Path,
+ * either streamed or memory-mapped (see CsvReaderBuilder#memoryMapped).  The
+ * file is written once and stays in the page cache, so this measures the cost
+ * of getting the bytes to the parser rather than the disk.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.MappedFileBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappedFileBenchmark {
+
+  @Param({"mixed", "numeric"})
+  public String data;
+
+  @Param({"fileReader", "path", "mapped", "mappedLazy"})
+  public String source;
+
+  File file;
+
+  @Setup
+  public void setUp() throws IOException {
+    String text = data.equals("numeric") ? BenchmarkData.numericText(100000, 20) : BenchmarkData.text(100000, 20);
+    file = File.createTempFile("mapped-benchmark", ".csv");
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+  }
+
+  /**
+   * Reads the 100,000 lines of 20 columns of the file, creating Strings for all
+   * fields, except for mappedLazy, which only gets the fields as CharSequences.
+   */
+  @Benchmark
+  public void readFile(Blackhole bh) throws IOException {
+    CsvReader reader;
+    if (source.equals("fileReader")) {
+      reader = new CsvReader(new FileReader(file));
+    } else {
+      reader = new CsvReaderBuilder(file.toPath(), StandardCharsets.UTF_8).
+          memoryMapped(source.startsWith("mapped")).
+          build();
+    }
+    if (source.equals("mappedLazy")) {
+      LazyCsvRecord record = new LazyCsvRecord();
+      while (reader.readNext(record) != null) {
+        for (int i = 0; i < record.size(); i++) {
+          bh.consume(record.field(i));
+        }
+      }
+    } else {
+      CsvRecord record = new CsvRecord();
+      while (reader.readNext(record) != null) {
+        bh.consume(record);
+      }
+    }
+    reader.close();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MappedFileBenchmark.class.getSimpleName()).build()).run();
+  }
+}
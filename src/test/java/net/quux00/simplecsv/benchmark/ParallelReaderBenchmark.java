@@ -0,0 +1,98 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvReader;
+import net.quux00.simplecsv.CsvReaderBuilder;
+import net.quux00.simplecsv.ParallelCsvReader;
+import net.quux00.simplecsv.ParallelCsvReaderBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading a memory-mapped file with a CsvReader with reading it with
+ * a ParallelCsvReader, in file order or not.  Every field of every record is
+ * made a String by the parser, so the work to spread over the threads is all
+ * of it but the consuming.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.ParallelReaderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelReaderBenchmark {
+
+  @Param({"mixed", "numeric"})
+  public String data;
+
+  @Param({"sequential", "ordered", "unordered"})
+  public String source;
+
+  @Param({"4"})
+  public int threads;
+
+  File file;
+
+  @Setup
+  public void setUp() throws IOException {
+    String text = data.equals("numeric") ? BenchmarkData.numericText(100000, 20) : BenchmarkData.text(100000, 20);
+    file = File.createTempFile("parallel-benchmark", ".csv");
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+  }
+
+  /**
+   * Reads the 100,000 lines of 20 columns of the file.
+   */
+  @Benchmark
+  public void readFile(Blackhole bh) throws IOException {
+    if (source.equals("sequential")) {
+      CsvReader reader = new CsvReaderBuilder(file.toPath(), StandardCharsets.UTF_8).memoryMapped(true).build();
+      String[] toks;
+      while ((toks = reader.readNext()) != null) {
+        bh.consume(toks);
+      }
+      reader.close();
+    } else {
+      ParallelCsvReader reader = new ParallelCsvReaderBuilder(file.toPath(), StandardCharsets.UTF_8).
+          threads(threads).splitSize(1 << 20).ordered(source.equals("ordered")).build();
+      String[] toks;
+      while ((toks = reader.readNext()) != null) {
+        bh.consume(toks);
+      }
+      reader.close();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ParallelReaderBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,82 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvParser;
+import net.quux00.simplecsv.CsvParserBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the StringBuilder based CsvParser with the char[] scanning parsers
+ * the CsvParserBuilder specializes for common settings.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.ParserBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({"default", "trim", "noEscape", "strictQuotes", "removeEscapes"})
+  public String settings;
+
+  @Param({"false", "true"})
+  public boolean charArrayScanning;
+
+  String[] lines;
+  CsvParser parser;
+
+  @Setup
+  public void setUp() {
+    lines = BenchmarkData.lines(1000, 20);
+    parser = builderFor(settings).charArrayScanning(charArrayScanning).build();
+  }
+
+  static CsvParserBuilder builderFor(String settings) {
+    CsvParserBuilder builder = new CsvParserBuilder();
+    if (settings.equals("trim")) {
+      builder.trimWhitespace(true);
+    } else if (settings.equals("noEscape")) {
+      builder.escapeChar('\0');
+    } else if (settings.equals("strictQuotes")) {
+      builder.strictQuotes(true);
+    } else if (settings.equals("removeEscapes")) {
+      builder.retainEscapeChars(false);
+    }
+    return builder;
+  }
+
+  /**
+   * Parses 1000 lines of 20 columns.
+   */
+  @Benchmark
+  public void parseLine(Blackhole bh) {
+    for (String ln : lines) {
+      bh.consume(parser.parseLine(ln));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ParserBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,105 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import net.quux00.simplecsv.CsvReader;
+import net.quux00.simplecsv.CsvReaderBuilder;
+import net.quux00.simplecsv.CsvRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures what reading ahead on a thread of its own (CsvReaderBuilder#prefetch)
+ * saves on slow storage.  The input is a stream that waits 200 microseconds
+ * before each read of at most 64 KB, standing in for the latency of a
+ * network file system.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.PrefetchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrefetchBenchmark {
+
+  @Param({"mixed", "numeric"})
+  public String data;
+
+  @Param({"0", "4"})
+  public int prefetch;
+
+  byte[] bytes;
+
+  @Setup
+  public void setUp() {
+    String text = data.equals("numeric") ? BenchmarkData.numericText(100000, 20) : BenchmarkData.text(100000, 20);
+    bytes = text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Delivers the bytes at most 64 KB per read, waiting before each read.
+   */
+  static final class SlowStream extends InputStream {
+    private final ByteArrayInputStream in;
+
+    SlowStream(byte[] b) {
+      in = new ByteArrayInputStream(b);
+    }
+
+    @Override
+    public int read() {
+      return in.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      LockSupport.parkNanos(200000);
+      return in.read(b, off, Math.min(len, 64 * 1024));
+    }
+  }
+
+  /**
+   * Reads the 100,000 lines of 20 columns.
+   */
+  @Benchmark
+  public void readSlowStream(Blackhole bh) throws IOException {
+    CsvReaderBuilder builder = new CsvReaderBuilder(new SlowStream(bytes), StandardCharsets.UTF_8).
+        bufferSize(64 * 1024);
+    if (prefetch > 0) {
+      builder.prefetch(prefetch, 64 * 1024);
+    }
+    CsvReader reader = builder.build();
+    CsvRecord record = new CsvRecord();
+    while (reader.readNext(record) != null) {
+      bh.consume(record);
+    }
+    reader.close();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PrefetchBenchmark.class.getSimpleName()).build()).run();
+  }
+}
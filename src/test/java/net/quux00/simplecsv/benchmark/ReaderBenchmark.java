@@ -0,0 +1,107 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.ByteCsvRecord;
+import net.quux00.simplecsv.CsvParserBuilder;
+import net.quux00.simplecsv.CsvReader;
+import net.quux00.simplecsv.CsvRecord;
+import net.quux00.simplecsv.LazyCsvRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading UTF-8 bytes through an InputStreamReader with handing the
+ * CsvReader the InputStream and charset, which decodes the lines straight
+ * into the parser's buffer.  The stringReader sources read chars that need no
+ * decoding, to show the cost of finding and handing over the lines alone.
+ * inputStreamBytes reads into a ByteCsvRecord, which finds the fields on the
+ * bytes of the line and decodes none of them.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.ReaderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+  @Param({"mixed", "numeric"})
+  public String data;
+
+  @Param({"reader", "inputStream", "inputStreamLazy", "inputStreamBytes", "stringReader", "stringReaderLazy"})
+  public String source;
+
+  String text;
+  byte[] bytes;
+
+  @Setup
+  public void setUp() {
+    text = data.equals("numeric") ? BenchmarkData.numericText(1000, 20) : BenchmarkData.text(1000, 20);
+    bytes = text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads 1000 lines of 20 columns, creating Strings for all fields, except
+   * for the Lazy and Bytes sources, which only get the fields as CharSequences.
+   */
+  @Benchmark
+  public void readNext(Blackhole bh) throws IOException {
+    CsvReader reader;
+    if (source.equals("reader")) {
+      reader = new CsvReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+    } else if (source.startsWith("stringReader")) {
+      reader = new CsvReader(new StringReader(text));
+    } else {
+      reader = new CsvReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8, 0, new CsvParserBuilder().build());
+    }
+    if (source.endsWith("Bytes")) {
+      ByteCsvRecord record = new ByteCsvRecord();
+      while (reader.readNext(record) != null) {
+        for (int i = 0; i < record.size(); i++) {
+          bh.consume(record.field(i));
+        }
+      }
+    } else if (source.endsWith("Lazy")) {
+      LazyCsvRecord record = new LazyCsvRecord();
+      while (reader.readNext(record) != null) {
+        for (int i = 0; i < record.size(); i++) {
+          bh.consume(record.field(i));
+        }
+      }
+    } else {
+      CsvRecord record = new CsvRecord();
+      while (reader.readNext(record) != null) {
+        bh.consume(record);
+      }
+    }
+    reader.close();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ReaderBenchmark.class.getSimpleName()).build()).run();
+  }
+}
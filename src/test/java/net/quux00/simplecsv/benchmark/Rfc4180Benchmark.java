@@ -0,0 +1,85 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvParser;
+import net.quux00.simplecsv.CsvParserBuilder;
+import net.quux00.simplecsv.LazyCsvRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the RFC 4180 parser with the backslash escaping parsers on the
+ * same values, written in each parser's dialect (see BenchmarkData#lines).
+ *
+ * The "backslash" parser keeps the escape chars, as the default settings do;
+ * "backslashUnescaped" removes them, so it returns the same values as "rfc4180".
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.Rfc4180Benchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Rfc4180Benchmark {
+
+  @Param({"backslash", "backslashUnescaped", "rfc4180"})
+  public String dialect;
+
+  String[] lines;
+  CsvParser parser;
+  LazyCsvRecord record;
+
+  @Setup
+  public void setUp() {
+    boolean rfc4180 = dialect.equals("rfc4180");
+    lines = BenchmarkData.lines(1000, 20, rfc4180);
+    parser = new CsvParserBuilder().
+        rfc4180(rfc4180).
+        retainEscapeChars(!dialect.equals("backslashUnescaped")).
+        build();
+    record = new LazyCsvRecord();
+  }
+
+  /**
+   * Parses 1000 lines of 20 columns into String[]s.
+   */
+  @Benchmark
+  public void parseLine(Blackhole bh) {
+    for (String ln : lines) {
+      bh.consume(parser.parseLine(ln));
+    }
+  }
+
+  /**
+   * Parses 1000 lines of 20 columns into a reused LazyCsvRecord.
+   */
+  @Benchmark
+  public void parseLazy(Blackhole bh) {
+    for (String ln : lines) {
+      bh.consume(parser.parseLazy(ln, record).size());
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(Rfc4180Benchmark.class.getSimpleName()).build()).run();
+  }
+}
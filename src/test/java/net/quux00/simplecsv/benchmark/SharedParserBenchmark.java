@@ -0,0 +1,96 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvParser;
+import net.quux00.simplecsv.CsvParserBuilder;
+import net.quux00.simplecsv.CsvRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput of one parser shared by all threads against one
+ * parser per thread, at 1, 4, 16 and 64 threads (run main() for all four, or
+ * pass -t to the JMH runner).
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.SharedParserBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SharedParserBenchmark {
+
+  static final String[] LINES = BenchmarkData.lines(1000, 20);
+
+  @State(Scope.Benchmark)
+  public static class SharedParser {
+    @Param({"false", "true"})
+    public boolean charArrayScanning;
+
+    CsvParser parser;
+
+    @Setup
+    public void setUp() {
+      parser = new CsvParserBuilder().charArrayScanning(charArrayScanning).build();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    CsvParser parser;
+    CsvRecord record = new CsvRecord();
+    int next;
+
+    @Setup
+    public void setUp(SharedParser shared) {
+      parser = new CsvParserBuilder().charArrayScanning(shared.charArrayScanning).build();
+    }
+
+    String nextLine() {
+      next = (next + 1) % LINES.length;
+      return LINES[next];
+    }
+  }
+
+  /**
+   * Parses one line with the parser shared by all threads.
+   */
+  @Benchmark
+  public CsvRecord sharedParser(SharedParser shared, ThreadState ts) {
+    return shared.parser.parseLine(ts.nextLine(), ts.record);
+  }
+
+  /**
+   * Parses one line with the thread's own parser.
+   */
+  @Benchmark
+  public CsvRecord parserPerThread(ThreadState ts) {
+    return ts.parser.parseLine(ts.nextLine(), ts.record);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : new int[] {1, 4, 16, 64}) {
+      new Runner(new OptionsBuilder().
+          include(SharedParserBenchmark.class.getSimpleName()).
+          threads(threads).
+          build()).run();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.ColumnType;
+import net.quux00.simplecsv.CsvReader;
+import net.quux00.simplecsv.CsvTableBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares loading all the records into memory with readAll, as a String[]
+ * each, with loading them into a CsvTable, with the column types inferred
+ * or declared.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.TableBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableBenchmark {
+
+  @Param({"mixed", "numeric"})
+  public String data;
+
+  @Param({"readAll", "inferred", "declared"})
+  public String method;
+
+  String text;
+  ColumnType[] types;
+
+  @Setup
+  public void setUp() {
+    boolean numeric = data.equals("numeric");
+    text = numeric ? BenchmarkData.numericText(100000, 20) : BenchmarkData.text(100000, 20);
+    types = new ColumnType[20];
+    for (int c = 0; c < types.length; c++) {
+      if (numeric) {
+        types[c] = c % 2 == 0 ? ColumnType.INT : ColumnType.DOUBLE;
+      } else {
+        types[c] = c % 4 == 0 ? ColumnType.INT : ColumnType.STRING;
+      }
+    }
+  }
+
+  /**
+   * Loads the 100,000 lines of 20 columns.
+   */
+  @Benchmark
+  public Object load() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader(text));
+    Object rows;
+    if (method.equals("readAll")) {
+      rows = reader.readAll();
+    } else if (method.equals("inferred")) {
+      rows = new CsvTableBuilder(reader).load();
+    } else {
+      rows = new CsvTableBuilder(reader).columnTypes(types).load();
+    }
+    reader.close();
+    return rows;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(TableBenchmark.class.getSimpleName()).build()).run();
+  }
+}
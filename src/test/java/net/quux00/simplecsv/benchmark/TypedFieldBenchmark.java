@@ -0,0 +1,82 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvParser;
+import net.quux00.simplecsv.CsvParserBuilder;
+import net.quux00.simplecsv.LazyCsvRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares parsing numeric fields from Strings with the typed accessors of
+ * LazyCsvRecord, which parse them straight from the record's buffer.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.TypedFieldBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedFieldBenchmark {
+
+  String[] lines;
+  CsvParser parser;
+  LazyCsvRecord record;
+
+  @Setup
+  public void setUp() {
+    lines = BenchmarkData.numericText(1000, 20).split("\n");
+    parser = new CsvParserBuilder().build();
+    record = new LazyCsvRecord();
+  }
+
+  /**
+   * Parses 1000 lines of 10 int and 10 decimal columns via Strings.
+   */
+  @Benchmark
+  public void parseStrings(Blackhole bh) {
+    for (String ln : lines) {
+      parser.parseLazy(ln, record);
+      for (int i = 0; i < record.size(); i += 2) {
+        bh.consume(Integer.parseInt(record.get(i)));
+        bh.consume(Double.parseDouble(record.get(i + 1)));
+      }
+    }
+  }
+
+  /**
+   * Parses the same lines with the typed accessors.
+   */
+  @Benchmark
+  public void typedAccessors(Blackhole bh) {
+    for (String ln : lines) {
+      parser.parseLazy(ln, record);
+      for (int i = 0; i < record.size(); i += 2) {
+        bh.consume(record.getInt(i));
+        bh.consume(record.getDouble(i + 1));
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(TypedFieldBenchmark.class.getSimpleName()).build()).run();
+  }
+}
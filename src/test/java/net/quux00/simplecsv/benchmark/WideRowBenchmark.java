@@ -0,0 +1,69 @@
+package net.quux00.simplecsv.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.quux00.simplecsv.CsvParser;
+import net.quux00.simplecsv.CsvParserBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the char[] scanning parser with and without vectorScanning on
+ * lines that carry a long JSON document or a long plain text in one column.  Needs Java 17+, as the
+ * forked JVM is started with the incubator Vector API module.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.quux00.simplecsv.benchmark.WideRowBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class WideRowBenchmark {
+
+  @Param({"json", "text"})
+  public String payload;
+
+  @Param({"false", "true"})
+  public boolean vectorScanning;
+
+  String[] lines;
+  CsvParser parser;
+
+  @Setup
+  public void setUp() {
+    lines = BenchmarkData.wideLines(100, 4096, payload.equals("json"));
+    parser = new CsvParserBuilder().vectorScanning(vectorScanning).build();
+  }
+
+  /**
+   * Parses 100 lines of 5 columns, one of them 4 KB long.
+   */
+  @Benchmark
+  public void parseLine(Blackhole bh) {
+    for (String ln : lines) {
+      bh.consume(parser.parseLine(ln));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(WideRowBenchmark.class.getSimpleName()).build()).run();
+  }
+}